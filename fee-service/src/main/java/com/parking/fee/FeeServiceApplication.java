@@ -5,11 +5,13 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+@SpringBootApplication(scanBasePackages = {"com.parking.fee", "com.parking.common.identity", "com.parking.common.outbox"})
 @EnableDiscoveryClient
 @EnableFeignClients
-@MapperScan("com.parking.fee.mapper")
+@EnableScheduling
+@MapperScan({"com.parking.fee.mapper", "com.parking.common.outbox"})
 public class FeeServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(FeeServiceApplication.class, args);
@@ -5,6 +5,7 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -28,4 +29,43 @@ public interface ParkingServiceClient {
      */
     @GetMapping("/parking/owner/record")
     Result<Map<String, Object>> getUserParkingRecord(@RequestParam("userId") Long userId);
+
+    /**
+     * 【供跨服务调用】根据用户ID批量获取停车记录（用于分页列表填充车位编号）
+     *
+     * @param userIds 用户ID列表
+     * @return 停车记录列表（没有记录的用户不返回）
+     */
+    @GetMapping("/parking/owner/records/batch")
+    Result<List<Map<String, Object>>> getUserParkingRecords(@RequestParam("userIds") List<Long> userIds);
+
+    /**
+     * 【供跨服务调用】按ID游标分批获取有效的车位分配（用于月度批量出账）
+     *
+     * @param afterId 上一批最后一条记录的id（首批传0）
+     * @param limit 每批数量
+     * @return 车位分配列表（id、userId、parkId、parkType、carNum、entryTime）
+     */
+    @GetMapping("/parking/owner/records/active")
+    Result<List<Map<String, Object>>> getActiveAssignments(@RequestParam("afterId") Long afterId,
+                                                           @RequestParam("limit") int limit);
+
+    /**
+     * 【供跨服务调用】按user_id游标分批获取每个业主的最新停车记录（用于初始化和定期校准本地车位读模型）
+     *
+     * @param afterUserId 上一批最后一个业主ID（首批传0）
+     * @param limit 每批数量
+     * @return 停车记录列表（userId、ownerParkingId、parkId、parkNum、active），按userId升序
+     */
+    @GetMapping("/parking/owner/records/snapshot")
+    Result<List<Map<String, Object>>> getParkingRecordSnapshot(@RequestParam("afterUserId") Long afterUserId,
+                                                               @RequestParam("limit") int limit);
+
+    /**
+     * 【供跨服务调用】有效车位分配总数
+     *
+     * @return 总数
+     */
+    @GetMapping("/parking/owner/records/active/count")
+    Result<Integer> countActiveAssignments();
 }
@@ -5,6 +5,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -23,4 +24,28 @@ public class ParkingServiceClientFallback implements ParkingServiceClient {
         log.error("【熔断降级】parking-service不可用，调用降级方法: userId={}", userId);
         return Result.error("停车服务暂时不可用，无法验证停车记录");
     }
+
+    @Override
+    public Result<List<Map<String, Object>>> getUserParkingRecords(List<Long> userIds) {
+        log.error("【熔断降级】parking-service不可用，调用降级方法: userIds={}", userIds);
+        return Result.error("停车服务暂时不可用，无法获取停车记录");
+    }
+
+    @Override
+    public Result<List<Map<String, Object>>> getActiveAssignments(Long afterId, int limit) {
+        log.error("【熔断降级】parking-service不可用，调用降级方法: afterId={}, limit={}", afterId, limit);
+        return Result.error("停车服务暂时不可用，无法获取车位分配");
+    }
+
+    @Override
+    public Result<List<Map<String, Object>>> getParkingRecordSnapshot(Long afterUserId, int limit) {
+        log.error("【熔断降级】parking-service不可用，调用降级方法: afterUserId={}, limit={}", afterUserId, limit);
+        return Result.error("停车服务暂时不可用，无法获取停车记录快照");
+    }
+
+    @Override
+    public Result<Integer> countActiveAssignments() {
+        log.error("【熔断降级】parking-service不可用，调用降级方法: countActiveAssignments");
+        return Result.error("停车服务暂时不可用，无法获取车位分配");
+    }
 }
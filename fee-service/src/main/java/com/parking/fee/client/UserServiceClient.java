@@ -4,7 +4,9 @@ import com.parking.fee.common.Result;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -27,4 +29,24 @@ public interface UserServiceClient {
      */
     @GetMapping("/user/owners/{userId}")
     Result<Map<String, Object>> getOwnerById(@PathVariable("userId") Long userId);
+
+    /**
+     * 根据用户ID批量获取业主信息（用于分页列表填充用户名）
+     *
+     * @param ids 用户ID列表
+     * @return 用户信息列表（不存在的用户不返回）
+     */
+    @GetMapping("/user/owners/batch")
+    Result<List<Map<String, Object>>> getOwnersByIds(@RequestParam("ids") List<Long> ids);
+
+    /**
+     * 按 user_id 游标分批获取业主快照（用于初始化和定期校准本地业主读模型）
+     *
+     * @param afterUserId 上一批最后一个业主ID（首批传0）
+     * @param limit 每批数量
+     * @return 业主快照列表（userId、username、userType），按userId升序
+     */
+    @GetMapping("/user/owners/snapshot")
+    Result<List<Map<String, Object>>> getOwnerSnapshot(@RequestParam("afterUserId") Long afterUserId,
+                                                       @RequestParam("limit") int limit);
 }
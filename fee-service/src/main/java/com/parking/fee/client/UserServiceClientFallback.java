@@ -5,6 +5,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -23,4 +24,16 @@ public class UserServiceClientFallback implements UserServiceClient {
         log.error("【熔断降级】user-service不可用，调用降级方法: userId={}", userId);
         return Result.error("用户服务暂时不可用，请稍后重试");
     }
+
+    @Override
+    public Result<List<Map<String, Object>>> getOwnersByIds(List<Long> ids) {
+        log.error("【熔断降级】user-service不可用，调用降级方法: ids={}", ids);
+        return Result.error("用户服务暂时不可用，请稍后重试");
+    }
+
+    @Override
+    public Result<List<Map<String, Object>>> getOwnerSnapshot(Long afterUserId, int limit) {
+        log.error("【熔断降级】user-service不可用，调用降级方法: afterUserId={}, limit={}", afterUserId, limit);
+        return Result.error("用户服务暂时不可用，无法获取业主快照");
+    }
 }
@@ -0,0 +1,48 @@
+package com.parking.fee.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.context.config.annotation.RefreshScope;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 业务配置属性
+ * 使用 @RefreshScope 支持配置动态刷新
+ */
+@Data
+@Component
+@RefreshScope
+@ConfigurationProperties(prefix = "business")
+public class BusinessConfigProperties {
+
+    private Payment payment = new Payment();
+    private Discount discount = new Discount();
+    private Pricing pricing = new Pricing();
+
+    @Data
+    public static class Payment {
+        private Integer timeoutSeconds = 300;  // 支付超时时间（秒）
+        private Integer retryTimes = 3;  // 支付失败重试次数
+        private Boolean enableMockPayment = false;  // 是否启用模拟支付
+    }
+
+    @Data
+    public static class Discount {
+        private BigDecimal memberDiscountRate = BigDecimal.ONE;  // 会员折扣率（VIP业主的月租账单和退位结算账单）
+        private BigDecimal weekendDiscountRate = BigDecimal.ONE;  // 周末折扣率
+        private BigDecimal holidayDiscountRate = BigDecimal.ONE;  // 节假日折扣率
+    }
+
+    @Data
+    public static class Pricing {
+        private BigDecimal monthlyFee = new BigDecimal("300.00");  // 默认月租费
+        private Map<String, BigDecimal> monthlyFeeByType = new HashMap<>();  // 按车位类型的月租费（0普通 1充电 2无障碍），未配置的类型使用默认月租费
+        private BigDecimal firstHourRate = new BigDecimal("5.00");  // 首小时费率（退位结算按小时计费）
+        private BigDecimal additionalHourRate = new BigDecimal("3.00");  // 后续每小时费率
+        private BigDecimal dailyMaxFee = new BigDecimal("60.00");  // 每24小时最高收费
+    }
+}
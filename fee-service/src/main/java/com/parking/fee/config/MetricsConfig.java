@@ -0,0 +1,37 @@
+package com.parking.fee.config;
+
+import com.parking.common.metrics.FeignClientMetricsPostProcessor;
+import com.parking.common.metrics.MapperMetricsInterceptor;
+import com.parking.common.metrics.RabbitMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 监控指标配置
+ * Controller方法耗时由Spring Boot自动记录（http.server.requests），这里补充MyBatis语句、Feign调用和RabbitMQ消息的指标
+ *
+ * @author Parking System
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * MyBatis拦截器（mybatis-spring-boot-starter自动注册容器中的Interceptor）
+     */
+    @Bean
+    public MapperMetricsInterceptor mapperMetricsInterceptor(MeterRegistry meterRegistry) {
+        return new MapperMetricsInterceptor(meterRegistry);
+    }
+
+    @Bean
+    public static FeignClientMetricsPostProcessor feignClientMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new FeignClientMetricsPostProcessor(meterRegistry);
+    }
+
+    @Bean
+    public RabbitMetrics rabbitMetrics(MeterRegistry meterRegistry) {
+        return new RabbitMetrics(meterRegistry);
+    }
+}
@@ -1,5 +1,6 @@
 package com.parking.fee.config;
 
+import com.parking.common.metrics.RabbitMetrics;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
@@ -7,6 +8,7 @@ import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.rabbit.listener.RabbitListenerContainerFactory;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -37,6 +39,31 @@ public class RabbitMQConfig {
      */
     public static final String FEE_QUEUE = "fee.parking.assigned.queue";
 
+    /**
+     * 车位退还事件路由键
+     */
+    public static final String PARKING_RETURNED_ROUTING_KEY = "parking.returned";
+
+    /**
+     * 退位结算队列（接收车位退还事件，生成退位当月的结算账单）
+     */
+    public static final String FEE_RETURN_QUEUE = "fee.parking.returned.queue";
+
+    /**
+     * 车牌变更事件路由键（读模型不保存车牌，费用服务暂不绑定）
+     */
+    public static final String CAR_NUMBER_CHANGED_ROUTING_KEY = "parking.car.changed";
+
+    /**
+     * 业主变更事件路由键（由user-service发布）
+     */
+    public static final String OWNER_CHANGED_ROUTING_KEY = "owner.changed";
+
+    /**
+     * 读模型队列（接收业主变更、车位分配、车位退还事件，更新本地投影表）
+     */
+    public static final String READ_MODEL_QUEUE = "fee.read-model.queue";
+
     /**
      * 死信交换机
      */
@@ -97,6 +124,30 @@ public class RabbitMQConfig {
                 .build();
     }
 
+    /**
+     * 创建退位结算队列（用于接收车位退还事件）
+     */
+    @Bean
+    public Queue feeReturnQueue() {
+        return QueueBuilder
+                .durable(FEE_RETURN_QUEUE)
+                .withArgument("x-dead-letter-exchange", DEAD_LETTER_EXCHANGE)
+                .withArgument("x-dead-letter-routing-key", "dlx")
+                .build();
+    }
+
+    /**
+     * 创建读模型队列（用于更新本地业主和车位投影）
+     */
+    @Bean
+    public Queue readModelQueue() {
+        return QueueBuilder
+                .durable(READ_MODEL_QUEUE)
+                .withArgument("x-dead-letter-exchange", DEAD_LETTER_EXCHANGE)
+                .withArgument("x-dead-letter-routing-key", "dlx")
+                .build();
+    }
+
     /**
      * 创建死信队列
      */
@@ -132,6 +183,44 @@ public class RabbitMQConfig {
                 .with(PARKING_ASSIGNED_ROUTING_KEY);
     }
 
+    /**
+     * 绑定退位结算队列到交换机
+     */
+    @Bean
+    public Binding feeReturnQueueBinding(Queue feeReturnQueue, TopicExchange parkingExchange) {
+        return BindingBuilder
+                .bind(feeReturnQueue)
+                .to(parkingExchange)
+                .with(PARKING_RETURNED_ROUTING_KEY);
+    }
+
+    /**
+     * 绑定读模型队列到交换机（业主变更、车位分配、车位退还）
+     */
+    @Bean
+    public Binding readModelOwnerChangedBinding(Queue readModelQueue, TopicExchange parkingExchange) {
+        return BindingBuilder
+                .bind(readModelQueue)
+                .to(parkingExchange)
+                .with(OWNER_CHANGED_ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding readModelParkingAssignedBinding(Queue readModelQueue, TopicExchange parkingExchange) {
+        return BindingBuilder
+                .bind(readModelQueue)
+                .to(parkingExchange)
+                .with(PARKING_ASSIGNED_ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding readModelParkingReturnedBinding(Queue readModelQueue, TopicExchange parkingExchange) {
+        return BindingBuilder
+                .bind(readModelQueue)
+                .to(parkingExchange)
+                .with(PARKING_RETURNED_ROUTING_KEY);
+    }
+
     /**
      * 绑定死信队列到死信交换机
      */
@@ -168,15 +257,22 @@ public class RabbitMQConfig {
      * 配置RabbitTemplate（用于发送消息）
      */
     @Bean
-    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter messageConverter) {
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter messageConverter,
+                                         RabbitMetrics rabbitMetrics) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
         rabbitTemplate.setMessageConverter(messageConverter);
+        // 无法路由的消息退回给发送方（spring.rabbitmq.template.mandatory 只作用于自动配置的RabbitTemplate），
+        // 发件箱投递器据此把退回的事件记为投递失败，而不是在收到ack后标记为已投递
+        rabbitTemplate.setMandatory(true);
+
+        // 发布时间：用于统计确认耗时和消费端排队延迟
+        rabbitTemplate.addBeforePublishPostProcessors(rabbitMetrics.timestampPostProcessor());
+        rabbitTemplate.setCorrelationDataPostProcessor(rabbitMetrics.correlationDataPostProcessor());
 
         // 配置消息发送确认回调
         rabbitTemplate.setConfirmCallback((correlationData, ack, cause) -> {
-            if (ack) {
-                System.out.println("消息发送成功：" + correlationData);
-            } else {
+            rabbitMetrics.recordConfirm(correlationData, ack);
+            if (!ack) {
                 System.err.println("消息发送失败：" + correlationData + "，原因：" + cause);
             }
         });
@@ -198,9 +294,11 @@ public class RabbitMQConfig {
     @Bean
     public RabbitListenerContainerFactory<?> rabbitListenerContainerFactory(
             ConnectionFactory connectionFactory,
-            SimpleRabbitListenerContainerFactoryConfigurer configurer) {
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            RabbitMetrics rabbitMetrics) {
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         configurer.configure(factory, connectionFactory);
+        factory.setAfterReceivePostProcessors(rabbitMetrics.consumeLagPostProcessor());
 
         // 强制设置为手动确认模式
         factory.setAcknowledgeMode(org.springframework.amqp.core.AcknowledgeMode.MANUAL);
@@ -209,4 +307,35 @@ public class RabbitMQConfig {
 
         return factory;
     }
+
+    /**
+     * 配置批量消费监听器容器工厂（车位分配事件批量消费）
+     * 每次最多取 batch-size 条消息交给监听器，等待 receive-timeout-ms 仍不足一批时按实际条数交付
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory batchRabbitListenerContainerFactory(
+            ConnectionFactory connectionFactory,
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            RabbitMetrics rabbitMetrics,
+            @Value("${fee.consumer.batch-size:50}") int batchSize,
+            @Value("${fee.consumer.prefetch:100}") int prefetch,
+            @Value("${fee.consumer.concurrency:2}") int concurrency,
+            @Value("${fee.consumer.max-concurrency:4}") int maxConcurrency,
+            @Value("${fee.consumer.receive-timeout-ms:500}") long receiveTimeoutMs) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+
+        factory.setAcknowledgeMode(org.springframework.amqp.core.AcknowledgeMode.MANUAL);
+        factory.setAfterReceivePostProcessors(rabbitMetrics.consumeLagPostProcessor());
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        // 预取数不能小于批大小，否则一批永远凑不满
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(Math.max(concurrency, maxConcurrency));
+        factory.setReceiveTimeout(receiveTimeoutMs);
+
+        return factory;
+    }
 }
@@ -2,10 +2,21 @@ package com.parking.fee.controller;
 
 import com.parking.fee.common.PageResult;
 import com.parking.fee.common.Result;
+import com.parking.fee.entity.BillingRun;
 import com.parking.fee.entity.ParkingFee;
+import com.parking.fee.service.BillingRunService;
+import com.parking.fee.service.FeeExportService;
 import com.parking.fee.service.ParkingFeeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 费用管理控制器（管理员端）
@@ -19,6 +30,12 @@ public class FeeController {
     @Autowired
     private ParkingFeeService parkingFeeService;
 
+    @Autowired
+    private BillingRunService billingRunService;
+
+    @Autowired
+    private FeeExportService feeExportService;
+
     /**
      * 分页查询停车费列表
      */
@@ -26,11 +43,55 @@ public class FeeController {
     public Result<PageResult<ParkingFee>> getParkingFeePage(@RequestParam(defaultValue = "1") int pageNum,
                                                              @RequestParam(defaultValue = "10") int pageSize,
                                                              @RequestParam(required = false) Long userId,
-                                                             @RequestParam(required = false) String payStatus) {
+                                                             @RequestParam(required = false) String payStatus,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(defaultValue = "false") boolean withTotal) {
+        if (cursor != null) {
+            try {
+                return Result.success(parkingFeeService.getParkingFeePageByCursor(cursor, pageSize, userId, payStatus, withTotal));
+            } catch (Exception e) {
+                return Result.error(e.getMessage());
+            }
+        }
         PageResult<ParkingFee> page = parkingFeeService.getParkingFeePage(pageNum, pageSize, userId, payStatus);
         return Result.success(page);
     }
 
+    /**
+     * 费用统计（管理端首页使用，未缴费账单数和金额，按月份分组）
+     */
+    @GetMapping("/stats")
+    public Result<Map<String, Object>> getFeeStats() {
+        return Result.success(parkingFeeService.getFeeStats());
+    }
+
+    /**
+     * 导出停车费记录（流式写出，不分页）
+     *
+     * @param format 导出格式（csv / ndjson）
+     * @param fromMonth 起始缴费月份（包含，格式：2025-01）
+     * @param toMonth 截止缴费月份（包含）
+     */
+    @GetMapping("/export")
+    public ResponseEntity<?> exportParkingFees(@RequestParam(defaultValue = "csv") String format,
+                                               @RequestParam(required = false) Long userId,
+                                               @RequestParam(required = false) String payStatus,
+                                               @RequestParam(required = false) String fromMonth,
+                                               @RequestParam(required = false) String toMonth) {
+        StreamingResponseBody body;
+        try {
+            body = feeExportService.export(format, userId, payStatus, fromMonth, toMonth);
+        } catch (Exception e) {
+            return ResponseEntity.ok(Result.error(e.getMessage()));
+        }
+        boolean csv = FeeExportService.FORMAT_CSV.equals(format);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"fee-export." + format + "\"")
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     /**
      * 根据ID查询停车费
      */
@@ -74,4 +135,40 @@ public class FeeController {
         boolean success = parkingFeeService.deleteParkingFee(parkFeeId);
         return success ? Result.success("删除成功", null) : Result.error("删除失败");
     }
+
+    /**
+     * 启动月度批量出账（后台执行，已中断或失败的任务从断点继续）
+     *
+     * @param billMonth 账单月份（格式：2025-01，为空时取当前月份）
+     * @param rerun 该月份已完成时是否重新执行
+     */
+    @PostMapping("/billing-runs")
+    public Result<BillingRun> startBillingRun(@RequestParam(required = false) String billMonth,
+                                              @RequestParam(defaultValue = "false") boolean rerun) {
+        try {
+            return Result.success(billingRunService.startRun(billMonth, rerun));
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 查询最近的出账任务
+     */
+    @GetMapping("/billing-runs")
+    public Result<List<BillingRun>> getBillingRuns(@RequestParam(defaultValue = "12") int limit) {
+        return Result.success(billingRunService.getRecentRuns(limit));
+    }
+
+    /**
+     * 查询出账任务进度
+     */
+    @GetMapping("/billing-runs/{runId}")
+    public Result<BillingRun> getBillingRun(@PathVariable Long runId) {
+        BillingRun run = billingRunService.getRun(runId);
+        if (run == null) {
+            return Result.error("出账任务不存在");
+        }
+        return Result.success(run);
+    }
 }
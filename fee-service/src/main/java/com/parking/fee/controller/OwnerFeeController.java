@@ -1,8 +1,10 @@
 package com.parking.fee.controller;
 
+import com.parking.common.identity.GatewayIdentityResolver;
 import com.parking.fee.common.Result;
 import com.parking.fee.entity.ParkingFee;
 import com.parking.fee.service.ParkingFeeService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -20,14 +22,23 @@ public class OwnerFeeController {
     @Autowired
     private ParkingFeeService parkingFeeService;
 
+    @Autowired
+    private GatewayIdentityResolver identityResolver;
+
     /**
      * 查看我的停车费记录
      *
-     * @param userId 业主ID（从Token获取）
+     * @param userId 业主ID（业主登录时以网关转发的Token身份为准）
      * @return 停车费列表
      */
     @GetMapping("/my-fees")
-    public Result<List<ParkingFee>> getMyParkingFees(@RequestParam Long userId) {
+    public Result<List<ParkingFee>> getMyParkingFees(@RequestParam(required = false) Long userId,
+                                                     HttpServletRequest request) {
+        userId = identityResolver.resolveOwnerId(request, userId);
+        if (userId == null) {
+            return Result.error(401, "无法识别当前用户");
+        }
+
         List<ParkingFee> fees = parkingFeeService.getOwnerParkingFees(userId);
         return Result.success(fees);
     }
@@ -35,11 +46,17 @@ public class OwnerFeeController {
     /**
      * 查看未缴费的停车费列表
      *
-     * @param userId 业主ID（从Token获取）
+     * @param userId 业主ID（业主登录时以网关转发的Token身份为准）
      * @return 未缴费列表
      */
     @GetMapping("/unpaid")
-    public Result<List<ParkingFee>> getUnpaidFees(@RequestParam Long userId) {
+    public Result<List<ParkingFee>> getUnpaidFees(@RequestParam(required = false) Long userId,
+                                                  HttpServletRequest request) {
+        userId = identityResolver.resolveOwnerId(request, userId);
+        if (userId == null) {
+            return Result.error(401, "无法识别当前用户");
+        }
+
         List<ParkingFee> fees = parkingFeeService.getUnpaidFees(userId);
         return Result.success(fees);
     }
@@ -48,14 +65,22 @@ public class OwnerFeeController {
      * 在线缴纳停车费
      *
      * @param parkFeeId 停车费ID
-     * @param userId 业主ID（从Token获取）
+     * @param userId 业主ID（业主登录时以网关转发的Token身份为准）
      * @return 缴费结果
      */
     @PostMapping("/pay")
     public Result<Void> payParkingFee(@RequestParam Long parkFeeId,
-                                       @RequestParam Long userId) {
+                                       @RequestParam(required = false) Long userId,
+                                       HttpServletRequest request) {
+        userId = identityResolver.resolveOwnerId(request, userId);
+        if (userId == null) {
+            return Result.error(401, "无法识别当前用户");
+        }
+
         try {
-            boolean success = parkingFeeService.payParkingFee(parkFeeId, userId);
+            // Token已证明该业主存在时，跳过对user-service的验证调用
+            boolean ownerVerified = identityResolver.isVerifiedOwner(request, userId);
+            boolean success = parkingFeeService.payParkingFee(parkFeeId, userId, ownerVerified);
             return success ? Result.success("缴费成功", null) : Result.error("缴费失败");
         } catch (Exception e) {
             return Result.error(e.getMessage());
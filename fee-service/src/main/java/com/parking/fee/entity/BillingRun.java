@@ -0,0 +1,93 @@
+package com.parking.fee.entity;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 月度批量出账任务实体类
+ * 每个账单月份一条记录，按车位分配ID记录断点，任务中断后从断点继续
+ *
+ * @author Parking System
+ */
+@Data
+public class BillingRun implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 任务ID
+     */
+    private Long runId;
+
+    /**
+     * 账单月份（格式：2025-01）
+     */
+    private String billMonth;
+
+    /**
+     * 任务状态（0待执行/已中断 1运行中 2已完成 3失败）
+     */
+    private String status;
+
+    /**
+     * 有效车位分配总数（开始时统计，仅用于显示进度）
+     */
+    private Integer totalCount;
+
+    /**
+     * 断点：已处理的最后一条车位分配ID
+     */
+    private Long lastAssignmentId;
+
+    /**
+     * 已处理的车位分配数
+     */
+    private Integer processedCount;
+
+    /**
+     * 新生成的账单数
+     */
+    private Integer createdCount;
+
+    /**
+     * 已存在而跳过的账单数
+     */
+    private Integer skippedCount;
+
+    /**
+     * 执行任务的实例
+     */
+    private String ownerInstance;
+
+    /**
+     * 最近一次进度更新时间（运行中的任务超过一定时间未更新视为中断）
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private Date heartbeatTime;
+
+    /**
+     * 失败原因
+     */
+    private String errorMessage;
+
+    /**
+     * 开始时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private Date startTime;
+
+    /**
+     * 结束时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private Date finishTime;
+
+    /**
+     * 创建时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private Date createTime;
+}
@@ -0,0 +1,37 @@
+package com.parking.fee.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 业主信息投影（fee-service本地读模型，来源于user-service）
+ *
+ * @author Parking System
+ */
+@Data
+public class OwnerProjection implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 业主ID
+     */
+    private Long userId;
+
+    /**
+     * 业主姓名
+     */
+    private String username;
+
+    /**
+     * 业主类型（NORMAL普通 VIP）
+     */
+    private String userType;
+
+    /**
+     * 最近一次写入时间（事件或全量同步）
+     */
+    private Date syncedAt;
+}
@@ -0,0 +1,48 @@
+package com.parking.fee.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 业主车位投影（fee-service本地读模型，来源于parking-service）
+ * 每个业主一行，对应其最新一条业主车位关联（与 /parking/owner/record 的口径一致）
+ *
+ * @author Parking System
+ */
+@Data
+public class ParkingProjection implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 业主ID
+     */
+    private Long userId;
+
+    /**
+     * 业主车位关联ID（越大越新，用于丢弃乱序到达的旧事件）
+     */
+    private Long ownerParkingId;
+
+    /**
+     * 车位ID
+     */
+    private Long parkId;
+
+    /**
+     * 车位编号
+     */
+    private String parkNum;
+
+    /**
+     * 是否使用中（false表示已退位）
+     */
+    private Boolean active;
+
+    /**
+     * 最近一次写入时间（事件或全量同步）
+     */
+    private Date syncedAt;
+}
@@ -0,0 +1,29 @@
+package com.parking.fee.entity;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 按月份汇总的未缴费账单（费用统计校准用）
+ *
+ * @author Parking System
+ */
+@Data
+public class UnpaidMonthTotal {
+
+    /**
+     * 账单月份（格式：2025-01）
+     */
+    private String payParkMonth;
+
+    /**
+     * 未缴费账单数
+     */
+    private Long feeCount;
+
+    /**
+     * 未缴费金额合计
+     */
+    private BigDecimal totalAmount;
+}
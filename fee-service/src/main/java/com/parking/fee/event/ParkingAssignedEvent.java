@@ -40,6 +40,21 @@ public class ParkingAssignedEvent implements Serializable {
      */
     private Long parkId;
 
+    /**
+     * 车位事件序号（同一车位的分配、退还、换车牌事件按提交顺序递增，消费方据此丢弃乱序到达的旧事件）
+     */
+    private Long sequence;
+
+    /**
+     * 车位编号
+     */
+    private String parkNum;
+
+    /**
+     * 车位类型（费用服务按车位类型计算月租费，与批量出账一致）
+     */
+    private String parkType;
+
     /**
      * 车牌号
      */
@@ -0,0 +1,62 @@
+package com.parking.fee.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 车位退还事件
+ * 从parking-service接收此事件，用于更新本地的车位读模型
+ *
+ * @author Parking System
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParkingReturnedEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 事件ID（用于幂等性）
+     */
+    private String eventId;
+
+    /**
+     * 业主车位关联ID
+     */
+    private Long ownerParkingId;
+
+    /**
+     * 业主ID
+     */
+    private Long userId;
+
+    /**
+     * 车位ID
+     */
+    private Long parkId;
+
+    /**
+     * 车位事件序号（同一车位的分配、退还、换车牌事件按提交顺序递增，消费方据此丢弃乱序到达的旧事件）
+     */
+    private Long sequence;
+
+    /**
+     * 入场时间（费用服务按入场、退位时间结算）
+     */
+    private Date entryTime;
+
+    /**
+     * 退位时间
+     */
+    private Date exitTime;
+
+    /**
+     * 事件发生时间
+     */
+    private Date eventTime;
+}
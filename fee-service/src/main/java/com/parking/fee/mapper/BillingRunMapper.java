@@ -0,0 +1,69 @@
+package com.parking.fee.mapper;
+
+import com.parking.fee.entity.BillingRun;
+import org.apache.ibatis.annotations.*;
+
+import java.util.List;
+
+/**
+ * 月度批量出账任务Mapper接口
+ *
+ * @author Parking System
+ */
+@Mapper
+public interface BillingRunMapper {
+
+    /**
+     * 创建账单月份的任务记录（已存在时忽略，由唯一索引 uk_billing_run_month 保证每月一条）
+     */
+    @Insert("INSERT IGNORE INTO billing_run(bill_month, status, last_assignment_id, processed_count, created_count, skipped_count) " +
+            "VALUES(#{billMonth}, '0', 0, 0, 0, 0)")
+    int insertIgnore(@Param("billMonth") String billMonth);
+
+    @Select("SELECT * FROM billing_run WHERE run_id = #{runId}")
+    BillingRun findById(@Param("runId") Long runId);
+
+    @Select("SELECT * FROM billing_run WHERE bill_month = #{billMonth}")
+    BillingRun findByMonth(@Param("billMonth") String billMonth);
+
+    @Select("SELECT * FROM billing_run ORDER BY bill_month DESC LIMIT #{limit}")
+    List<BillingRun> findRecent(@Param("limit") int limit);
+
+    /**
+     * 抢占任务：待执行、失败，或运行中但心跳超时（执行实例已宕机）的任务才能被抢占，
+     * 多个实例同时启动同一月份时只有一个能成功
+     */
+    @Update("UPDATE billing_run SET status = '1', owner_instance = #{instance}, heartbeat_time = NOW(), " +
+            "start_time = IFNULL(start_time, NOW()), finish_time = NULL, error_message = NULL " +
+            "WHERE run_id = #{runId} AND (status IN ('0', '3') " +
+            "OR (status = '1' AND heartbeat_time < NOW() - INTERVAL #{staleSeconds} SECOND))")
+    int claim(@Param("runId") Long runId, @Param("instance") String instance, @Param("staleSeconds") int staleSeconds);
+
+    /**
+     * 已完成的任务重新执行：断点和计数清零（已生成的账单由唯一索引跳过，只补出新增分配的账单）
+     */
+    @Update("UPDATE billing_run SET status = '0', last_assignment_id = 0, processed_count = 0, " +
+            "created_count = 0, skipped_count = 0, start_time = NULL, finish_time = NULL " +
+            "WHERE run_id = #{runId} AND status = '2'")
+    int reset(@Param("runId") Long runId);
+
+    @Update("UPDATE billing_run SET total_count = #{totalCount} WHERE run_id = #{runId}")
+    int updateTotal(@Param("runId") Long runId, @Param("totalCount") Integer totalCount);
+
+    /**
+     * 推进断点并累加计数，与本批账单写入在同一事务中提交。
+     * 只有持有任务的实例能更新，返回0说明任务已被其他实例接管
+     */
+    @Update("UPDATE billing_run SET last_assignment_id = #{lastAssignmentId}, " +
+            "processed_count = processed_count + #{processed}, created_count = created_count + #{created}, " +
+            "skipped_count = skipped_count + #{skipped}, heartbeat_time = NOW() " +
+            "WHERE run_id = #{runId} AND owner_instance = #{instance} AND status = '1'")
+    int advance(@Param("runId") Long runId, @Param("instance") String instance,
+                @Param("lastAssignmentId") Long lastAssignmentId, @Param("processed") int processed,
+                @Param("created") int created, @Param("skipped") int skipped);
+
+    @Update("UPDATE billing_run SET status = #{status}, error_message = #{errorMessage}, finish_time = NOW() " +
+            "WHERE run_id = #{runId} AND owner_instance = #{instance} AND status = '1'")
+    int finish(@Param("runId") Long runId, @Param("instance") String instance,
+               @Param("status") String status, @Param("errorMessage") String errorMessage);
+}
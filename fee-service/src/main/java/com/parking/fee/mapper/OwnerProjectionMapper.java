@@ -0,0 +1,52 @@
+package com.parking.fee.mapper;
+
+import com.parking.fee.entity.OwnerProjection;
+import org.apache.ibatis.annotations.*;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 业主信息投影Mapper接口
+ *
+ * @author Parking System
+ */
+@Mapper
+public interface OwnerProjectionMapper {
+
+    @Select("SELECT * FROM owner_projection WHERE user_id = #{userId}")
+    OwnerProjection findById(@Param("userId") Long userId);
+
+    // 批量查询方法（在XML中实现）
+    List<OwnerProjection> findByIds(@Param("userIds") List<Long> userIds);
+
+    /**
+     * 业主变更事件：不存在时插入，存在时覆盖
+     */
+    @Insert("INSERT INTO owner_projection(user_id, username, user_type, synced_at) " +
+            "VALUES(#{userId}, #{username}, #{userType}, #{syncedAt}) " +
+            "ON DUPLICATE KEY UPDATE username=VALUES(username), user_type=VALUES(user_type), synced_at=VALUES(synced_at)")
+    int upsert(OwnerProjection owner);
+
+    @Delete("DELETE FROM owner_projection WHERE user_id = #{userId}")
+    int deleteById(@Param("userId") Long userId);
+
+    // 全量同步：多行插入，已存在的行直接跳过（在XML中实现）
+    int batchInsertIgnore(@Param("owners") List<OwnerProjection> owners);
+
+    /**
+     * 全量同步：覆盖有变化的行（同步开始后已被事件更新过的行不覆盖）
+     */
+    @Update("UPDATE owner_projection SET username=#{username}, user_type=#{userType}, synced_at=#{syncedAt} " +
+            "WHERE user_id=#{userId} AND synced_at < #{syncedAt}")
+    int updateFromSnapshot(OwnerProjection owner);
+
+    // 全量同步：没有变化的行只更新同步时间（在XML中实现）
+    int touch(@Param("userIds") List<Long> userIds, @Param("syncedAt") Date syncedAt);
+
+    /**
+     * 全量同步完成后删除本轮快照中不存在的业主（已删除而事件丢失）
+     */
+    @Delete("DELETE FROM owner_projection WHERE synced_at < #{syncStart}")
+    int deleteNotSyncedSince(@Param("syncStart") Date syncStart);
+}
@@ -1,8 +1,11 @@
 package com.parking.fee.mapper;
 
 import com.parking.fee.entity.ParkingFee;
+import com.parking.fee.entity.UnpaidMonthTotal;
 import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.cursor.Cursor;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 /**
@@ -32,6 +35,39 @@ public interface ParkingFeeMapper {
     @Options(useGeneratedKeys = true, keyProperty = "feeId", keyColumn = "fee_id")
     int insert(ParkingFee parkingFee);
 
+    /**
+     * 加锁读取（读到最新提交的记录，并阻止结算期间并发缴费）
+     */
+    @Select("SELECT * FROM fee_park WHERE user_id = #{userId} AND park_id = #{parkId} AND pay_park_month = #{month} FOR UPDATE")
+    ParkingFee findByUserIdAndParkIdAndMonthForUpdate(@Param("userId") Long userId,
+                                                       @Param("parkId") Long parkId,
+                                                       @Param("month") String month);
+
+    /**
+     * 插入费用记录，与唯一索引 uk_fee_park_user_month 冲突时保留已有记录
+     * 只有唯一索引冲突被忽略，其他数据错误照常抛出；驱动默认返回匹配行数，冲突时同样返回1，
+     * 是否新插入以回填的 feeId 与按唯一键读到的记录是否一致为准
+     */
+    @Insert("INSERT INTO fee_park(user_id, park_id, pay_park_month, pay_park_money, pay_park_status) " +
+            "VALUES(#{userId}, #{parkId}, #{payParkMonth}, #{payParkMoney}, #{payParkStatus}) " +
+            "ON DUPLICATE KEY UPDATE fee_id = fee_id")
+    @Options(useGeneratedKeys = true, keyProperty = "feeId", keyColumn = "fee_id")
+    int insertOrKeep(ParkingFee parkingFee);
+
+    /**
+     * 修改未缴费记录的金额（已缴费的记录不修改，返回0）
+     */
+    @Update("UPDATE fee_park SET pay_park_money=#{amount} WHERE fee_id=#{feeId} AND pay_park_status='0'")
+    int updateUnpaidAmount(@Param("feeId") Long feeId, @Param("amount") BigDecimal amount);
+
+    // 批量查询方法（批量消费车位分配事件时使用，在XML中实现）
+    // 按 (user_id, park_id, pay_park_month) 查询已存在的费用记录
+    List<ParkingFee> findExistingByKeys(@Param("keys") List<ParkingFee> keys);
+
+    // 多行插入（与唯一索引 uk_fee_park_user_month 冲突的行保留原记录，其他数据错误照常抛出；
+    // 冲突行也计入返回的匹配行数，调用方先用 findExistingByKeys 过滤已存在的记录）
+    int batchInsert(@Param("fees") List<ParkingFee> fees);
+
     @Update("UPDATE fee_park SET pay_park_status=#{payParkStatus}, pay_time=#{payTime} " +
             "WHERE fee_id=#{feeId}")
     int update(ParkingFee parkingFee);
@@ -39,6 +75,13 @@ public interface ParkingFeeMapper {
     @Delete("DELETE FROM fee_park WHERE fee_id = #{feeId}")
     int deleteById(@Param("feeId") Long feeId);
 
+    /**
+     * 按月份汇总未缴费账单（费用统计定期校准）
+     */
+    @Select("SELECT pay_park_month, COUNT(*) AS fee_count, SUM(pay_park_money) AS total_amount " +
+            "FROM fee_park WHERE pay_park_status = '0' GROUP BY pay_park_month")
+    List<UnpaidMonthTotal> sumUnpaidByMonth();
+
     // 分页查询方法（复杂查询，在XML中实现）
     List<ParkingFee> findByPage(@Param("offset") int offset,
                                  @Param("limit") int limit,
@@ -47,4 +90,17 @@ public interface ParkingFeeMapper {
 
     int countByConditions(@Param("userId") Long userId,
                           @Param("payStatus") String payStatus);
+
+    // 游标分页：按 (pay_park_month, fee_id) 倒序定位，afterFeeId为空时查询第一页
+    List<ParkingFee> findByCursor(@Param("limit") int limit,
+                                  @Param("userId") Long userId,
+                                  @Param("payStatus") String payStatus,
+                                  @Param("afterMonth") String afterMonth,
+                                  @Param("afterFeeId") Long afterFeeId);
+
+    // 导出：按 fee_id 顺序流式读取（逐行从连接上取，不把结果集读入内存），需在事务内遍历
+    Cursor<ParkingFee> streamForExport(@Param("userId") Long userId,
+                                       @Param("payStatus") String payStatus,
+                                       @Param("fromMonth") String fromMonth,
+                                       @Param("toMonth") String toMonth);
 }
@@ -0,0 +1,64 @@
+package com.parking.fee.mapper;
+
+import com.parking.fee.entity.ParkingProjection;
+import org.apache.ibatis.annotations.*;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 业主车位投影Mapper接口
+ * 每个业主只保留最新一条车位关联，owner_parking_id 越大越新，较旧的事件和快照不会覆盖较新的数据
+ *
+ * @author Parking System
+ */
+@Mapper
+public interface ParkingProjectionMapper {
+
+    @Select("SELECT * FROM parking_projection WHERE user_id = #{userId}")
+    ParkingProjection findById(@Param("userId") Long userId);
+
+    // 批量查询方法（在XML中实现）
+    List<ParkingProjection> findByIds(@Param("userIds") List<Long> userIds);
+
+    @Insert("INSERT IGNORE INTO parking_projection(user_id, owner_parking_id, park_id, park_num, active, synced_at) " +
+            "VALUES(#{userId}, #{ownerParkingId}, #{parkId}, #{parkNum}, #{active}, #{syncedAt})")
+    int insertIgnore(ParkingProjection parking);
+
+    /**
+     * 车位分配事件：只覆盖更旧的车位关联
+     */
+    @Update("UPDATE parking_projection SET owner_parking_id=#{ownerParkingId}, park_id=#{parkId}, " +
+            "park_num=#{parkNum}, active=#{active}, synced_at=#{syncedAt} " +
+            "WHERE user_id=#{userId} AND owner_parking_id < #{ownerParkingId}")
+    int applyAssigned(ParkingProjection parking);
+
+    /**
+     * 车位退还事件：覆盖同一条或更旧的车位关联（退还事件不带车位编号，同一车位时保留原编号）
+     */
+    @Update("UPDATE parking_projection SET park_num=CASE WHEN park_id = #{parkId} THEN park_num ELSE NULL END, " +
+            "owner_parking_id=#{ownerParkingId}, park_id=#{parkId}, active=#{active}, synced_at=#{syncedAt} " +
+            "WHERE user_id=#{userId} AND owner_parking_id <= #{ownerParkingId}")
+    int applyReturned(ParkingProjection parking);
+
+    // 全量同步：多行插入，已存在的行直接跳过（在XML中实现）
+    int batchInsertIgnore(@Param("parkings") List<ParkingProjection> parkings);
+
+    /**
+     * 全量同步：覆盖有变化的行（更新的车位关联，或同步开始后没有被事件更新过的同一车位关联）
+     */
+    @Update("UPDATE parking_projection SET owner_parking_id=#{ownerParkingId}, park_id=#{parkId}, " +
+            "park_num=#{parkNum}, active=#{active}, synced_at=#{syncedAt} " +
+            "WHERE user_id=#{userId} AND (owner_parking_id < #{ownerParkingId} " +
+            "OR (owner_parking_id = #{ownerParkingId} AND synced_at < #{syncedAt}))")
+    int updateFromSnapshot(ParkingProjection parking);
+
+    // 全量同步：没有变化的行只更新同步时间（在XML中实现）
+    int touch(@Param("userIds") List<Long> userIds, @Param("syncedAt") Date syncedAt);
+
+    /**
+     * 全量同步完成后删除本轮快照中不存在的记录
+     */
+    @Delete("DELETE FROM parking_projection WHERE synced_at < #{syncStart}")
+    int deleteNotSyncedSince(@Param("syncStart") Date syncStart);
+}
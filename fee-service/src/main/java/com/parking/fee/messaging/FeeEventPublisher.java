@@ -1,19 +1,23 @@
 package com.parking.fee.messaging;
 
+import com.parking.common.outbox.OutboxEvent;
+import com.parking.common.outbox.OutboxEventMapper;
 import com.parking.fee.config.RabbitMQConfig;
 import com.parking.fee.event.FeePaidEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.connection.CorrelationData;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 
 /**
  * 费用事件发布者
- * 负责发布费用相关的异步事件到RabbitMQ
+ * 负责发布费用相关的异步事件（写入发件箱，由 OutboxRelay 投递到RabbitMQ）
  *
  * @author Parking System
  */
@@ -23,10 +27,15 @@ public class FeeEventPublisher {
     private static final Logger log = LoggerFactory.getLogger(FeeEventPublisher.class);
 
     @Autowired
-    private RabbitTemplate rabbitTemplate;
+    private MessageConverter messageConverter;
+
+    @Autowired
+    private OutboxEventMapper outboxEventMapper;
 
     /**
      * 发布费用缴纳事件
+     * 事件写入发件箱表，必须在业务事务内调用，与业务数据一起提交或回滚；
+     * 由 OutboxRelay 在事务外异步投递到RabbitMQ
      *
      * @param event 费用缴纳事件
      */
@@ -37,24 +46,30 @@ public class FeeEventPublisher {
                 event.setEventId(UUID.randomUUID().toString());
             }
 
-            // 创建关联数据（用于确认回调）
-            CorrelationData correlationData = new CorrelationData(event.getEventId());
+            saveToOutbox(event.getEventId(), RabbitMQConfig.FEE_PAID_ROUTING_KEY, event);
 
-            // 发送消息
-            rabbitTemplate.convertAndSend(
-                    RabbitMQConfig.PARKING_EXCHANGE,
-                    RabbitMQConfig.FEE_PAID_ROUTING_KEY,
-                    event,
-                    correlationData
-            );
-
-            log.info("已发布费用缴纳事件 - 事件ID: {}, 业主ID: {}, 费用ID: {}, 金额: {}",
+            log.info("已写入费用缴纳事件到发件箱 - 事件ID: {}, 业主ID: {}, 费用ID: {}, 金额: {}",
                     event.getEventId(), event.getUserId(), event.getFeeId(), event.getPaymentAmount());
 
         } catch (Exception e) {
-            log.error("发布费用缴纳事件失败 - 业主ID: {}, 费用ID: {}, 错误: {}",
+            log.error("写入费用缴纳事件失败 - 业主ID: {}, 费用ID: {}, 错误: {}",
                     event.getUserId(), event.getFeeId(), e.getMessage(), e);
             throw new RuntimeException("发布费用缴纳事件失败", e);
         }
     }
+
+    /**
+     * 将事件序列化后写入发件箱（与直接发送时使用同一个消息转换器，消息格式不变）
+     */
+    private void saveToOutbox(String eventId, String routingKey, Object event) {
+        Message message = messageConverter.toMessage(event, new MessageProperties());
+
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setEventId(eventId);
+        outboxEvent.setExchange(RabbitMQConfig.PARKING_EXCHANGE);
+        outboxEvent.setRoutingKey(routingKey);
+        outboxEvent.setEventType(event.getClass().getName());
+        outboxEvent.setPayload(new String(message.getBody(), StandardCharsets.UTF_8));
+        outboxEventMapper.insert(outboxEvent);
+    }
 }
@@ -30,7 +30,7 @@ public class NotificationConsumer {
      * @param message 原始消息
      * @param channel RabbitMQ通道
      */
-    @RabbitListener(queues = RabbitMQConfig.NOTIFICATION_QUEUE)
+    @RabbitListener(id = "feePaidNotificationListener", queues = RabbitMQConfig.NOTIFICATION_QUEUE)
     public void handleFeePaidEvent(FeePaidEvent event, Message message, Channel channel) {
         long deliveryTag = message.getMessageProperties().getDeliveryTag();
 
@@ -3,23 +3,35 @@ package com.parking.fee.messaging;
 import com.parking.fee.config.RabbitMQConfig;
 import com.parking.fee.entity.ParkingFee;
 import com.parking.fee.event.ParkingAssignedEvent;
+import com.parking.fee.event.ParkingReturnedEvent;
 import com.parking.fee.mapper.ParkingFeeMapper;
+import com.parking.fee.service.FeePricingService;
+import com.parking.fee.service.FeeStatsCounter;
+import com.parking.fee.service.ParkingFeeService;
 import com.rabbitmq.client.Channel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.math.BigDecimal;
 import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * 停车事件消费者
- * 监听车位分配事件，自动创建费用记录
+ * 监听车位分配事件，自动创建费用记录；监听车位退还事件，结算退位当月的费用
+ * 默认使用批量消费（fee.consumer.batch-enabled），关闭后回退为逐条消费
  *
  * @author Parking System
  */
@@ -31,6 +43,18 @@ public class ParkingEventConsumer {
     @Autowired
     private ParkingFeeMapper parkingFeeMapper;
 
+    @Autowired
+    private MessageConverter messageConverter;
+
+    @Autowired
+    private FeePricingService feePricingService;
+
+    @Autowired
+    private ParkingFeeService parkingFeeService;
+
+    @Autowired
+    private FeeStatsCounter feeStatsCounter;
+
     /**
      * 监听车位分配事件，自动创建费用记录
      *
@@ -38,7 +62,8 @@ public class ParkingEventConsumer {
      * @param message 原始消息
      * @param channel RabbitMQ通道
      */
-    @RabbitListener(queues = RabbitMQConfig.FEE_QUEUE)
+    @RabbitListener(id = "parkingAssignedListener", queues = RabbitMQConfig.FEE_QUEUE,
+            autoStartup = "#{!${fee.consumer.batch-enabled:true}}")
     public void handleParkingAssignedEvent(ParkingAssignedEvent event, Message message, Channel channel) {
         long deliveryTag = message.getMessageProperties().getDeliveryTag();
 
@@ -70,13 +95,15 @@ public class ParkingEventConsumer {
             parkingFee.setUserId(event.getUserId());
             parkingFee.setParkId(event.getParkId());
             parkingFee.setPayParkMonth(currentMonth);
-            parkingFee.setPayParkMoney(new BigDecimal("300.00"));  // 默认月费300元
+            String userType = parkingFeeService.findUserTypes(List.of(event.getUserId())).get(event.getUserId());
+            parkingFee.setPayParkMoney(feePricingService.monthlyFee(event.getParkType(), userType));  // 按车位类型和业主类型的月租费（与批量出账一致）
             parkingFee.setPayParkStatus("0");  // 未缴费
             // 注：数据库表没有remark字段，使用日志记录事件ID
 
             int result = parkingFeeMapper.insert(parkingFee);
 
             if (result > 0) {
+                feeStatsCounter.unpaidAdded(currentMonth, parkingFee.getPayParkMoney());
                 log.info("成功创建费用记录 - 费用ID: {}, 业主ID: {}, 车位ID: {}, 月份: {}, 金额: {}",
                         parkingFee.getFeeId(), event.getUserId(), event.getParkId(),
                         currentMonth, parkingFee.getPayParkMoney());
@@ -100,4 +127,140 @@ public class ParkingEventConsumer {
             }
         }
     }
+
+    /**
+     * 批量监听车位分配事件，自动创建费用记录
+     * 一批消息去重后用一次IN查询做幂等检查、一次多行插入写入，最后以 multiple=true 一次确认整批
+     * 单条消息解析或转换失败时只拒绝该条，写库失败时拒绝整批
+     *
+     * @param messages 一批原始消息
+     * @param channel RabbitMQ通道
+     */
+    @RabbitListener(id = "parkingAssignedBatchListener", queues = RabbitMQConfig.FEE_QUEUE,
+            containerFactory = "batchRabbitListenerContainerFactory",
+            autoStartup = "${fee.consumer.batch-enabled:true}")
+    public void handleParkingAssignedEvents(List<Message> messages, Channel channel) {
+        // 最后一条处理成功的消息的deliveryTag，用于整批确认
+        long lastDeliveryTag = 0;
+        // 单条处理失败的消息，写库之后再逐条拒绝（写库失败时随整批一起拒绝）
+        List<Long> rejectedTags = new ArrayList<>();
+        boolean settling = false;
+
+        try {
+            SimpleDateFormat monthFormat = new SimpleDateFormat("yyyy-MM");
+            // 整批使用同一份价格，按车位类型和业主类型计价（与批量出账一致）
+            FeePricingService.MonthlyPriceList prices = feePricingService.snapshot();
+
+            // 解析消息并按 (业主, 车位, 月份) 去重，无法解析或缺少字段的消息单独拒绝（进入死信队列）
+            Map<String, ParkingFee> candidates = new LinkedHashMap<>();
+            Map<String, String> parkTypes = new HashMap<>();
+            for (Message message : messages) {
+                long deliveryTag = message.getMessageProperties().getDeliveryTag();
+                try {
+                    message.getMessageProperties().setInferredArgumentType(ParkingAssignedEvent.class);
+                    ParkingAssignedEvent event = (ParkingAssignedEvent) messageConverter.fromMessage(message);
+
+                    ParkingFee parkingFee = new ParkingFee();
+                    parkingFee.setUserId(event.getUserId());
+                    parkingFee.setParkId(event.getParkId());
+                    parkingFee.setPayParkMonth(monthFormat.format(event.getEntryTime()));
+                    parkingFee.setPayParkStatus("0");
+                    if (candidates.putIfAbsent(feeKey(parkingFee), parkingFee) == null) {
+                        parkTypes.put(feeKey(parkingFee), event.getParkType());
+                    }
+                    lastDeliveryTag = deliveryTag;
+                } catch (Exception e) {
+                    log.error("处理车位分配事件失败，拒绝该消息 - deliveryTag: {}, 错误: {}", deliveryTag, e.getMessage());
+                    rejectedTags.add(deliveryTag);
+                }
+            }
+
+            List<ParkingFee> toInsert = new ArrayList<>();
+            if (!candidates.isEmpty()) {
+                // 一次查询本批业主的类型（VIP业主打会员折扣），查不到时整批拒绝，不按原价出账
+                List<Long> userIds = candidates.values().stream().map(ParkingFee::getUserId).distinct().collect(Collectors.toList());
+                Map<Long, String> userTypes = parkingFeeService.findUserTypes(userIds);
+                for (Map.Entry<String, ParkingFee> entry : candidates.entrySet()) {
+                    ParkingFee fee = entry.getValue();
+                    fee.setPayParkMoney(prices.monthlyFee(parkTypes.get(entry.getKey()), userTypes.get(fee.getUserId())));
+                }
+
+                // 【幂等性检查】一次查询出本批中已存在的费用记录
+                Set<String> existing = new HashSet<>();
+                for (ParkingFee fee : parkingFeeMapper.findExistingByKeys(new ArrayList<>(candidates.values()))) {
+                    existing.add(feeKey(fee));
+                }
+                for (Map.Entry<String, ParkingFee> entry : candidates.entrySet()) {
+                    if (!existing.contains(entry.getKey())) {
+                        toInsert.add(entry.getValue());
+                    }
+                }
+                if (!toInsert.isEmpty()) {
+                    parkingFeeMapper.batchInsert(toInsert);
+                    // 查询与插入之间被并发写入的重复账单会被多计，由统计计数器的定期校准修正
+                    for (ParkingFee fee : toInsert) {
+                        feeStatsCounter.unpaidAdded(fee.getPayParkMonth(), fee.getPayParkMoney());
+                    }
+                }
+            }
+
+            // 先逐条拒绝失败的消息，再一次确认整批（multiple=true 只确认尚未拒绝的消息）
+            settling = true;
+            for (Long rejectedTag : rejectedTags) {
+                channel.basicNack(rejectedTag, false, false);
+            }
+            if (lastDeliveryTag > 0) {
+                channel.basicAck(lastDeliveryTag, true);
+            }
+            log.info("批量处理车位分配事件完成 - 消息数: {}, 拒绝: {}, 去重后: {}, 新建费用记录: {}",
+                    messages.size(), rejectedTags.size(), candidates.size(), toInsert.size());
+
+        } catch (Exception e) {
+            log.error("批量处理车位分配事件失败 - 消息数: {}, 错误: {}", messages.size(), e.getMessage(), e);
+            try {
+                // 拒绝整批（到本批最后一条为止），不重新入队（进入死信队列）
+                // 确认阶段出错时通道通常已不可用，未确认的消息由Broker在通道关闭后重新投递
+                if (!settling && !messages.isEmpty()) {
+                    long finalDeliveryTag = messages.get(messages.size() - 1).getMessageProperties().getDeliveryTag();
+                    channel.basicNack(finalDeliveryTag, true, false);
+                }
+            } catch (IOException ioException) {
+                log.error("拒绝消息失败: {}", ioException.getMessage(), ioException);
+            }
+        }
+    }
+
+    /**
+     * 监听车位退还事件，按入场、退位时间结算退位当月的费用
+     *
+     * @param event 车位退还事件
+     * @param message 原始消息
+     * @param channel RabbitMQ通道
+     */
+    @RabbitListener(id = "parkingReturnedListener", queues = RabbitMQConfig.FEE_RETURN_QUEUE)
+    public void handleParkingReturnedEvent(ParkingReturnedEvent event, Message message, Channel channel) {
+        long deliveryTag = message.getMessageProperties().getDeliveryTag();
+
+        try {
+            log.info("接收到车位退还事件 - 事件ID: {}, 业主ID: {}, 车位ID: {}",
+                    event.getEventId(), event.getUserId(), event.getParkId());
+
+            parkingFeeService.settleReturnedParking(event);
+            channel.basicAck(deliveryTag, false);
+
+        } catch (Exception e) {
+            log.error("处理车位退还事件失败 - 事件ID: {}, 错误: {}",
+                    event.getEventId(), e.getMessage(), e);
+            try {
+                // 拒绝消息，不重新入队（进入死信队列）
+                channel.basicNack(deliveryTag, false, false);
+            } catch (IOException ioException) {
+                log.error("拒绝消息失败: {}", ioException.getMessage(), ioException);
+            }
+        }
+    }
+
+    private String feeKey(ParkingFee fee) {
+        return fee.getUserId() + ":" + fee.getParkId() + ":" + fee.getPayParkMonth();
+    }
 }
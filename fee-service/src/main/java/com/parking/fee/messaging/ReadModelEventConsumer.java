@@ -0,0 +1,74 @@
+package com.parking.fee.messaging;
+
+import com.parking.fee.config.RabbitMQConfig;
+import com.parking.fee.event.OwnerChangedEvent;
+import com.parking.fee.event.ParkingAssignedEvent;
+import com.parking.fee.event.ParkingReturnedEvent;
+import com.parking.fee.service.ReadModelService;
+import com.rabbitmq.client.Channel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * 读模型事件消费者
+ * 监听业主变更、车位分配、车位退还事件，增量更新本地读模型（owner_projection / parking_projection）
+ *
+ * @author Parking System
+ */
+@Component
+public class ReadModelEventConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadModelEventConsumer.class);
+
+    @Autowired
+    private ReadModelService readModelService;
+
+    @Autowired
+    private MessageConverter messageConverter;
+
+    /**
+     * 按路由键分发事件并更新读模型
+     *
+     * @param message 原始消息
+     * @param channel RabbitMQ通道
+     */
+    @RabbitListener(id = "readModelListener", queues = RabbitMQConfig.READ_MODEL_QUEUE)
+    public void handleEvent(Message message, Channel channel) {
+        long deliveryTag = message.getMessageProperties().getDeliveryTag();
+        String routingKey = message.getMessageProperties().getReceivedRoutingKey();
+
+        try {
+            if (RabbitMQConfig.OWNER_CHANGED_ROUTING_KEY.equals(routingKey)) {
+                readModelService.applyOwnerChanged(convert(message, OwnerChangedEvent.class));
+            } else if (RabbitMQConfig.PARKING_ASSIGNED_ROUTING_KEY.equals(routingKey)) {
+                readModelService.applyParkingAssigned(convert(message, ParkingAssignedEvent.class));
+            } else if (RabbitMQConfig.PARKING_RETURNED_ROUTING_KEY.equals(routingKey)) {
+                readModelService.applyParkingReturned(convert(message, ParkingReturnedEvent.class));
+            } else {
+                log.warn("读模型收到未知路由键的消息，忽略: {}", routingKey);
+            }
+            channel.basicAck(deliveryTag, false);
+        } catch (Exception e) {
+            log.error("更新读模型失败 - 路由键: {}, 错误: {}", routingKey, e.getMessage(), e);
+            try {
+                // 拒绝消息，不重新入队（进入死信队列），定期全量同步会修正读模型
+                channel.basicNack(deliveryTag, false, false);
+            } catch (IOException ioException) {
+                log.error("拒绝消息失败: {}", ioException.getMessage(), ioException);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T convert(Message message, Class<T> type) {
+        message.getMessageProperties().setInferredArgumentType(type);
+        return (T) messageConverter.fromMessage(message);
+    }
+}
@@ -0,0 +1,260 @@
+package com.parking.fee.service;
+
+import com.parking.fee.client.ParkingServiceClient;
+import com.parking.fee.common.Result;
+import com.parking.fee.entity.BillingRun;
+import com.parking.fee.entity.ParkingFee;
+import com.parking.fee.mapper.BillingRunMapper;
+import com.parking.fee.mapper.ParkingFeeMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 月度批量出账服务
+ * 从 parking-service 按车位分配ID分批拉取有效的车位分配，按 business.pricing / business.discount 定价，
+ * 每批一次多行插入生成账单，并在同一事务中推进 billing_run 的断点和进度计数。
+ * 账单由唯一索引 (user_id, park_id, pay_park_month) 去重，任务中断后从断点继续，重复执行也不会重复出账
+ *
+ * @author Parking System
+ */
+@Service
+public class BillingRunService {
+
+    private static final Logger log = LoggerFactory.getLogger(BillingRunService.class);
+
+    public static final String STATUS_PENDING = "0";
+    public static final String STATUS_RUNNING = "1";
+    public static final String STATUS_COMPLETED = "2";
+    public static final String STATUS_FAILED = "3";
+
+    /**
+     * 当前实例标识（用于任务抢占和断点更新的归属校验）
+     */
+    private static final String INSTANCE_ID = UUID.randomUUID().toString();
+
+    private static final Pattern MONTH_PATTERN = Pattern.compile("\\d{4}-(0[1-9]|1[0-2])");
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    @Autowired
+    private BillingRunMapper billingRunMapper;
+
+    @Autowired
+    private ParkingFeeMapper parkingFeeMapper;
+
+    @Autowired
+    private ParkingServiceClient parkingServiceClient;
+
+    @Autowired
+    private FeePricingService feePricingService;
+
+    @Autowired
+    private ParkingFeeService parkingFeeService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private FeeStatsCounter feeStatsCounter;
+
+    @Value("${fee.billing.page-size:1000}")
+    private int pageSize;
+
+    @Value("${fee.billing.stale-seconds:120}")
+    private int staleSeconds;
+
+    /**
+     * 出账任务执行线程（每个实例同时只执行一个任务，其余排队）
+     */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "billing-run");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean shuttingDown = false;
+
+    /**
+     * 启动（或继续）指定月份的出账任务，任务在后台执行，通过 getRun 查询进度
+     *
+     * @param billMonth 账单月份（格式：2025-01，为空时取当前月份）
+     * @param rerun 该月份已完成时是否重新执行（只补出新增分配的账单）
+     * @return 任务信息
+     */
+    public BillingRun startRun(String billMonth, boolean rerun) {
+        String month = billMonth == null || billMonth.isEmpty()
+                ? new SimpleDateFormat("yyyy-MM").format(new Date())
+                : billMonth;
+        if (!MONTH_PATTERN.matcher(month).matches()) {
+            throw new RuntimeException("账单月份格式错误，应为yyyy-MM");
+        }
+
+        billingRunMapper.insertIgnore(month);
+        BillingRun run = billingRunMapper.findByMonth(month);
+        if (STATUS_COMPLETED.equals(run.getStatus())) {
+            if (!rerun) {
+                return run;
+            }
+            billingRunMapper.reset(run.getRunId());
+        }
+        if (billingRunMapper.claim(run.getRunId(), INSTANCE_ID, staleSeconds) == 0) {
+            throw new RuntimeException("该月份的出账任务正在执行中");
+        }
+
+        Result<Integer> countResult = parkingServiceClient.countActiveAssignments();
+        if (countResult != null && countResult.getCode() == 200 && countResult.getData() != null) {
+            billingRunMapper.updateTotal(run.getRunId(), countResult.getData());
+        }
+
+        Long runId = run.getRunId();
+        executor.execute(() -> execute(runId, month));
+        return billingRunMapper.findById(runId);
+    }
+
+    /**
+     * 查询任务进度
+     *
+     * @param runId 任务ID
+     * @return 任务信息
+     */
+    public BillingRun getRun(Long runId) {
+        return billingRunMapper.findById(runId);
+    }
+
+    /**
+     * 查询最近的出账任务
+     *
+     * @param limit 数量
+     * @return 任务列表（按账单月份倒序）
+     */
+    public List<BillingRun> getRecentRuns(int limit) {
+        return billingRunMapper.findRecent(Math.max(1, Math.min(limit, 100)));
+    }
+
+    /**
+     * 执行出账任务：从断点开始逐批拉取、定价、写入，直到没有更多车位分配
+     */
+    private void execute(Long runId, String billMonth) {
+        BillingRun run = billingRunMapper.findById(runId);
+        long afterId = run.getLastAssignmentId() == null ? 0L : run.getLastAssignmentId();
+        // 整个任务使用同一份价格，运行期间刷新配置不影响本次出账
+        FeePricingService.MonthlyPriceList prices = feePricingService.snapshot();
+        long startMillis = System.currentTimeMillis();
+        log.info("开始批量出账 - 月份: {}, 任务ID: {}, 断点: {}", billMonth, runId, afterId);
+
+        try {
+            while (!shuttingDown) {
+                Result<List<Map<String, Object>>> result = parkingServiceClient.getActiveAssignments(afterId, pageSize);
+                if (result == null || result.getCode() != 200) {
+                    throw new RuntimeException("获取车位分配失败: " + (result == null ? "无响应" : result.getMessage()));
+                }
+                List<Map<String, Object>> assignments = result.getData();
+                if (assignments == null || assignments.isEmpty()) {
+                    billingRunMapper.finish(runId, INSTANCE_ID, STATUS_COMPLETED, null);
+                    BillingRun finished = billingRunMapper.findById(runId);
+                    log.info("批量出账完成 - 月份: {}, 处理: {}, 新建: {}, 跳过: {}, 耗时: {}ms",
+                            billMonth, finished.getProcessedCount(), finished.getCreatedCount(),
+                            finished.getSkippedCount(), System.currentTimeMillis() - startMillis);
+                    return;
+                }
+
+                // 一次查询本页业主的类型（VIP业主打会员折扣），查不到时任务失败，重新执行时从断点继续
+                List<Long> userIds = assignments.stream()
+                        .map(assignment -> toLong(assignment.get("userId"))).distinct().collect(Collectors.toList());
+                Map<Long, String> userTypes = parkingFeeService.findUserTypes(userIds);
+
+                List<ParkingFee> fees = new ArrayList<>(assignments.size());
+                for (Map<String, Object> assignment : assignments) {
+                    Object parkType = assignment.get("parkType");
+                    ParkingFee fee = new ParkingFee();
+                    fee.setUserId(toLong(assignment.get("userId")));
+                    fee.setParkId(toLong(assignment.get("parkId")));
+                    fee.setPayParkMonth(billMonth);
+                    fee.setPayParkMoney(prices.monthlyFee(parkType == null ? null : parkType.toString(),
+                            userTypes.get(fee.getUserId())));
+                    fee.setPayParkStatus("0");
+                    fees.add(fee);
+                }
+                long lastId = toLong(assignments.get(assignments.size() - 1).get("id"));
+
+                // 账单写入与断点推进在同一事务中，中断后从断点继续不会漏出或多出
+                // 已存在的账单（事件消费已生成、或重新执行）先过滤掉，新建数和跳过数按过滤结果统计
+                Integer advanced = transactionTemplate.execute(status -> {
+                    List<ParkingFee> created = newFees(fees);
+                    if (!created.isEmpty()) {
+                        parkingFeeMapper.batchInsert(created);
+                    }
+                    int updated = billingRunMapper.advance(runId, INSTANCE_ID, lastId,
+                            fees.size(), created.size(), fees.size() - created.size());
+                    if (updated == 0) {
+                        status.setRollbackOnly();
+                    } else {
+                        created.forEach(fee -> feeStatsCounter.unpaidAdded(billMonth, fee.getPayParkMoney()));
+                    }
+                    return updated;
+                });
+                if (advanced == null || advanced == 0) {
+                    log.warn("出账任务已被其他实例接管，本实例停止 - 月份: {}, 任务ID: {}", billMonth, runId);
+                    return;
+                }
+                afterId = lastId;
+            }
+
+            // 实例关闭：任务置为待执行，重新启动后从断点继续
+            billingRunMapper.finish(runId, INSTANCE_ID, STATUS_PENDING, "实例关闭，任务中断");
+            log.warn("实例关闭，出账任务中断 - 月份: {}, 断点: {}", billMonth, afterId);
+        } catch (Exception e) {
+            log.error("批量出账失败 - 月份: {}, 断点: {}, 错误: {}", billMonth, afterId, e.getMessage(), e);
+            String error = e.getMessage() == null ? e.getClass().getName() : e.getMessage();
+            billingRunMapper.finish(runId, INSTANCE_ID, STATUS_FAILED,
+                    error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        }
+    }
+
+    /**
+     * 过滤掉本月已存在的账单（查询与插入之间被并发写入的账单插入时保留原记录，统计计数由定期校准修正）
+     */
+    private List<ParkingFee> newFees(List<ParkingFee> fees) {
+        Set<String> existing = new HashSet<>();
+        for (ParkingFee fee : parkingFeeMapper.findExistingByKeys(fees)) {
+            existing.add(fee.getUserId() + ":" + fee.getParkId());
+        }
+        List<ParkingFee> created = new ArrayList<>(fees.size());
+        for (ParkingFee fee : fees) {
+            if (!existing.contains(fee.getUserId() + ":" + fee.getParkId())) {
+                created.add(fee);
+            }
+        }
+        return created;
+    }
+
+    private Long toLong(Object value) {
+        return value == null ? null : Long.valueOf(value.toString());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        shuttingDown = true;
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,275 @@
+package com.parking.fee.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parking.fee.entity.ParkingFee;
+import com.parking.fee.mapper.ParkingFeeMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.apache.ibatis.cursor.Cursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Pattern;
+
+/**
+ * 停车费导出服务
+ * 通过 MyBatis Cursor 在只读事务内逐行读取 fee_park（MySQL流式结果集），直接写入响应流（CSV 或 NDJSON），
+ * 每 fee.export.lookup-batch-size 行批量查询一次业主姓名后写出，导出任意行数占用的堆内存都只有一批。
+ * 流式结果集读完前独占所在连接，业主姓名查询在单独的事务（另一个连接）中执行；
+ * 每个导出占用两个连接直到写完，同时进行的导出数由 fee.export.max-concurrent 限制
+ *
+ * @author Parking System
+ */
+@Service
+public class FeeExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(FeeExportService.class);
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    /**
+     * user-service 批量查询业主接口单批最多1000个
+     */
+    private static final int MAX_LOOKUP_BATCH = 1000;
+
+    private static final String TOO_MANY_EXPORTS = "正在进行的导出过多，请稍后再试";
+
+    private static final Pattern MONTH_PATTERN = Pattern.compile("\\d{4}-(0[1-9]|1[0-2])");
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.of("GMT+8"));
+
+    private static final String CSV_HEADER = "费用ID,业主ID,业主姓名,车位ID,缴费月份,缴费金额,缴费状态,缴费时间,创建时间";
+
+    @Autowired
+    private ParkingFeeMapper parkingFeeMapper;
+
+    @Autowired
+    private ParkingFeeService parkingFeeService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${fee.export.lookup-batch-size:500}")
+    private int lookupBatchSize;
+
+    @Value("${fee.export.max-concurrent:2}")
+    private int maxConcurrent;
+
+    /**
+     * 遍历游标的只读事务（Cursor 只能在打开它的 SqlSession 存活期间遍历）
+     */
+    private TransactionTemplate streamTransaction;
+
+    /**
+     * 批量查询业主姓名的新事务（挂起导出事务，使用另一个连接）
+     */
+    private TransactionTemplate lookupTransaction;
+
+    private Semaphore permits;
+
+    private Counter csvRows;
+
+    private Counter ndjsonRows;
+
+    @PostConstruct
+    public void init() {
+        lookupBatchSize = Math.max(1, Math.min(lookupBatchSize, MAX_LOOKUP_BATCH));
+        permits = new Semaphore(Math.max(1, maxConcurrent));
+
+        streamTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        streamTransaction.setReadOnly(true);
+        lookupTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        lookupTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        lookupTransaction.setReadOnly(true);
+
+        csvRows = Counter.builder("fee.export.rows").tag("format", FORMAT_CSV)
+                .description("导出的停车费记录数").register(meterRegistry);
+        ndjsonRows = Counter.builder("fee.export.rows").tag("format", FORMAT_NDJSON)
+                .description("导出的停车费记录数").register(meterRegistry);
+    }
+
+    /**
+     * 创建导出响应体（参数在这里校验，写出在响应线程中进行）
+     *
+     * @param format 导出格式（csv / ndjson）
+     * @param userId 业主ID（可选）
+     * @param payStatus 缴费状态（可选：0未缴 1已缴）
+     * @param fromMonth 起始缴费月份（可选，包含，格式：2025-01）
+     * @param toMonth 截止缴费月份（可选，包含，格式：2025-12）
+     * @return 流式响应体
+     */
+    public StreamingResponseBody export(String format, Long userId, String payStatus,
+                                        String fromMonth, String toMonth) {
+        if (!FORMAT_CSV.equals(format) && !FORMAT_NDJSON.equals(format)) {
+            throw new RuntimeException("不支持的导出格式：" + format);
+        }
+        if (payStatus != null && !payStatus.isEmpty() && !"0".equals(payStatus) && !"1".equals(payStatus)) {
+            throw new RuntimeException("缴费状态只能为0或1");
+        }
+        checkMonth(fromMonth);
+        checkMonth(toMonth);
+        if (fromMonth != null && !fromMonth.isEmpty() && toMonth != null && !toMonth.isEmpty()
+                && fromMonth.compareTo(toMonth) > 0) {
+            throw new RuntimeException("起始月份不能晚于截止月份");
+        }
+        // 先检查一次，导出过多时直接返回错误信息；许可在响应体内获取和释放，
+        // 客户端在响应体执行前断开或请求超时时不会占用许可
+        if (permits.availablePermits() == 0) {
+            throw new RuntimeException(TOO_MANY_EXPORTS);
+        }
+
+        boolean csv = FORMAT_CSV.equals(format);
+        return out -> {
+            // 检查之后许可被其他导出占满时，响应尚未写出，异常由异步分派按请求失败处理
+            if (!permits.tryAcquire()) {
+                throw new IllegalStateException(TOO_MANY_EXPORTS);
+            }
+            long start = System.currentTimeMillis();
+            try {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                long rows = streamTransaction.execute(status -> {
+                    try (Cursor<ParkingFee> cursor = parkingFeeMapper.streamForExport(userId, payStatus, fromMonth, toMonth)) {
+                        return write(cursor, writer, csv);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writer.flush();
+                log.info("停车费导出完成: format={}, rows={}, 耗时={}ms", format, rows, System.currentTimeMillis() - start);
+            } catch (UncheckedIOException e) {
+                // 客户端断开等写出失败，事务结束时游标随连接一起关闭
+                log.warn("停车费导出中断: format={}, {}", format, e.getCause().getMessage());
+                throw e.getCause();
+            } finally {
+                permits.release();
+            }
+        };
+    }
+
+    /**
+     * 逐行读取游标，每攒满一批查询一次业主姓名后写出
+     *
+     * @return 导出行数
+     */
+    private long write(Cursor<ParkingFee> cursor, Writer writer, boolean csv) throws IOException {
+        if (csv) {
+            // UTF-8 BOM，Excel 打开时中文不乱码
+            writer.write('\uFEFF');
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        List<ParkingFee> batch = new ArrayList<>(lookupBatchSize);
+        long rows = 0;
+        for (ParkingFee fee : cursor) {
+            batch.add(fee);
+            if (batch.size() >= lookupBatchSize) {
+                rows += writeBatch(batch, writer, csv);
+            }
+        }
+        rows += writeBatch(batch, writer, csv);
+        return rows;
+    }
+
+    private int writeBatch(List<ParkingFee> batch, Writer writer, boolean csv) throws IOException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (ParkingFee fee : batch) {
+            if (fee.getUserId() != null) {
+                userIds.add(fee.getUserId());
+            }
+        }
+        Map<Long, String> usernames = userIds.isEmpty() ? null
+                : lookupTransaction.execute(status -> parkingFeeService.findUsernames(new ArrayList<>(userIds)));
+
+        for (ParkingFee fee : batch) {
+            fee.setUsername(usernames != null ? usernames.getOrDefault(fee.getUserId(), "未知") : "未知");
+            if (csv) {
+                writeCsvRow(fee, writer);
+            } else {
+                writer.write(objectMapper.writeValueAsString(fee));
+                writer.write('\n');
+            }
+        }
+        int size = batch.size();
+        (csv ? csvRows : ndjsonRows).increment(size);
+        batch.clear();
+        writer.flush();
+        return size;
+    }
+
+    private void writeCsvRow(ParkingFee fee, Writer writer) throws IOException {
+        writer.write(String.valueOf(fee.getFeeId()));
+        writer.write(',');
+        writer.write(fee.getUserId() != null ? String.valueOf(fee.getUserId()) : "");
+        writer.write(',');
+        writer.write(csvField(fee.getUsername()));
+        writer.write(',');
+        writer.write(fee.getParkId() != null ? String.valueOf(fee.getParkId()) : "");
+        writer.write(',');
+        writer.write(csvField(fee.getPayParkMonth()));
+        writer.write(',');
+        writer.write(fee.getPayParkMoney() != null ? fee.getPayParkMoney().toPlainString() : "");
+        writer.write(',');
+        writer.write("1".equals(fee.getPayParkStatus()) ? "已缴" : "未缴");
+        writer.write(',');
+        writer.write(formatDate(fee.getPayTime()));
+        writer.write(',');
+        writer.write(formatDate(fee.getCreateTime()));
+        writer.write('\n');
+    }
+
+    /**
+     * CSV字段转义：含逗号、引号或换行时用双引号包裹，内部引号加倍
+     */
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String formatDate(Date date) {
+        return date != null ? DATE_TIME_FORMATTER.format(date.toInstant()) : "";
+    }
+
+    private static void checkMonth(String month) {
+        if (month != null && !month.isEmpty() && !MONTH_PATTERN.matcher(month).matches()) {
+            throw new RuntimeException("月份格式错误，应为yyyy-MM：" + month);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.parking.fee.service;
+
+import com.parking.fee.config.BusinessConfigProperties;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 停车费定价服务
+ * 按 Nacos 中的 business.pricing（月租费）和 business.discount.member-discount-rate（VIP业主折扣）计算月租账单金额，
+ * 以及退位时按小时/按月折算的结算金额（规则在启动和配置刷新时编译为 ParkingChargeEvaluator）
+ *
+ * @author Parking System
+ */
+@Service
+public class FeePricingService {
+
+    private static final Logger log = LoggerFactory.getLogger(FeePricingService.class);
+
+    @Autowired
+    private BusinessConfigProperties businessConfig;
+
+    /**
+     * 当前的退位结算规则（配置刷新时整体替换）
+     */
+    private volatile ParkingChargeEvaluator chargeEvaluator;
+
+    @PostConstruct
+    public void compileChargeRules() {
+        BusinessConfigProperties.Pricing pricing = businessConfig.getPricing();
+        BusinessConfigProperties.Discount discount = businessConfig.getDiscount();
+        this.chargeEvaluator = new ParkingChargeEvaluator(
+                pricing.getFirstHourRate(),
+                pricing.getAdditionalHourRate(),
+                pricing.getDailyMaxFee(),
+                pricing.getMonthlyFee(),
+                discount.getMemberDiscountRate());
+        log.info("退位结算规则已编译: firstHourRate={}, additionalHourRate={}, dailyMaxFee={}, vipDiscountRate={}",
+                pricing.getFirstHourRate(), pricing.getAdditionalHourRate(), pricing.getDailyMaxFee(),
+                discount.getMemberDiscountRate());
+    }
+
+    /**
+     * Nacos配置刷新后按最新的 business.pricing / business.discount 重新编译结算规则
+     */
+    @EventListener(RefreshScopeRefreshedEvent.class)
+    public void onConfigRefreshed() {
+        compileChargeRules();
+    }
+
+    /**
+     * 计算一个月的月租费
+     *
+     * @param parkType 车位类型（0普通 1充电 2无障碍，未知时传null）
+     * @param userType 业主类型（VIP/NORMAL，未知时传null按普通业主计价）
+     * @return 折后金额（保留两位小数）
+     */
+    public BigDecimal monthlyFee(String parkType, String userType) {
+        return snapshot().monthlyFee(parkType, userType);
+    }
+
+    /**
+     * 计算退位结算金额（按小时与按月折算取较低者，VIP业主再打会员折扣）
+     *
+     * @param start 计费开始时间
+     * @param end 计费结束时间（与开始时间在同一个月）
+     * @param userType 业主类型（VIP/NORMAL）
+     * @return 结算金额（保留两位小数）
+     */
+    public BigDecimal finalCharge(Date start, Date end, String userType) {
+        int daysInMonth = YearMonth.from(Instant.ofEpochMilli(start.getTime()).atZone(ZoneId.systemDefault()))
+                .lengthOfMonth();
+        return chargeEvaluator.charge(start.getTime(), end.getTime(), daysInMonth, "VIP".equalsIgnoreCase(userType));
+    }
+
+    /**
+     * 当前的退位结算规则（批量计算时取一次，整批按同一套规则计算）
+     *
+     * @return 编译后的结算规则
+     */
+    public ParkingChargeEvaluator chargeEvaluator() {
+        return chargeEvaluator;
+    }
+
+    /**
+     * 取当前价格配置的快照
+     * 批量出账在开始时取一次，整个批次按同一套价格计算，不受运行期间配置刷新影响
+     *
+     * @return 价格快照
+     */
+    public MonthlyPriceList snapshot() {
+        BusinessConfigProperties.Pricing pricing = businessConfig.getPricing();
+        BigDecimal memberDiscountRate = businessConfig.getDiscount().getMemberDiscountRate();
+        return new MonthlyPriceList(pricing.getMonthlyFee(), pricing.getMonthlyFeeByType(), memberDiscountRate);
+    }
+
+    /**
+     * 月租价格快照（按车位类型的月租费和VIP折扣率，不可修改）
+     */
+    public static final class MonthlyPriceList {
+
+        private final BigDecimal defaultFee;
+        private final Map<String, BigDecimal> feeByType = new HashMap<>();
+        private final BigDecimal memberDiscountRate;
+
+        MonthlyPriceList(BigDecimal monthlyFee, Map<String, BigDecimal> monthlyFeeByType, BigDecimal memberDiscountRate) {
+            this.defaultFee = monthlyFee;
+            if (monthlyFeeByType != null) {
+                feeByType.putAll(monthlyFeeByType);
+            }
+            this.memberDiscountRate = memberDiscountRate != null ? memberDiscountRate : BigDecimal.ONE;
+        }
+
+        /**
+         * 车位类型和业主类型对应的月租费（VIP业主乘会员折扣率）
+         *
+         * @param parkType 车位类型（未知时传null）
+         * @param userType 业主类型（VIP/NORMAL，未知时传null）
+         * @return 折后金额
+         */
+        public BigDecimal monthlyFee(String parkType, String userType) {
+            BigDecimal fee = parkType == null ? defaultFee : feeByType.getOrDefault(parkType, defaultFee);
+            return discount(fee, "VIP".equalsIgnoreCase(userType) ? memberDiscountRate : BigDecimal.ONE);
+        }
+
+        private static BigDecimal discount(BigDecimal fee, BigDecimal rate) {
+            return fee.multiply(rate).setScale(2, RoundingMode.HALF_UP);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.parking.fee.service;
+
+import com.parking.fee.entity.UnpaidMonthTotal;
+import com.parking.fee.mapper.ParkingFeeMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 费用统计计数器（每个实例一份）
+ * 按账单月份维护未缴费账单数和未缴费金额（以分计），管理端首页直接读取计数器。
+ * 本实例的出账、缴费、结算、增删改在事务提交后增减计数，其他实例的变更和计数偏差
+ * （例如插入前查询与插入之间被并发写入的重复账单）由定期校准修正
+ * （每隔 fee.stats.reconcile-interval-ms 按数据库 GROUP BY 结果整体替换）
+ *
+ * @author Parking System
+ */
+@Component
+public class FeeStatsCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(FeeStatsCounter.class);
+
+    @Autowired
+    private ParkingFeeMapper parkingFeeMapper;
+
+    /**
+     * 账单月份 -> 未缴费账单数 / 未缴费金额（分）
+     */
+    private final Map<String, MonthTotals> unpaidByMonth = new ConcurrentHashMap<>();
+
+    /**
+     * 计数器是否需要在查询前校准（尚未从数据库初始化）
+     */
+    private volatile boolean stale = true;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcile();
+    }
+
+    @Scheduled(initialDelayString = "${fee.stats.reconcile-interval-ms:60000}",
+            fixedDelayString = "${fee.stats.reconcile-interval-ms:60000}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    /**
+     * 按数据库统计结果校准计数器
+     */
+    public void reconcile() {
+        Map<String, UnpaidMonthTotal> totals = new HashMap<>();
+        try {
+            for (UnpaidMonthTotal total : parkingFeeMapper.sumUnpaidByMonth()) {
+                totals.put(total.getPayParkMonth(), total);
+            }
+        } catch (Exception e) {
+            log.error("校准费用统计失败: {}", e.getMessage(), e);
+            return;
+        }
+        stale = false;
+        unpaidByMonth.keySet().removeIf(month -> !totals.containsKey(month));
+        totals.forEach((month, total) -> {
+            MonthTotals counts = unpaidByMonth.computeIfAbsent(month, k -> new MonthTotals());
+            counts.count.set(total.getFeeCount() != null ? total.getFeeCount() : 0);
+            counts.amountCents.set(toCents(total.getTotalAmount()));
+        });
+        log.debug("费用统计已校准: 月份数={}", totals.size());
+    }
+
+    /**
+     * 事务提交后计入一张未缴费账单
+     *
+     * @param month 账单月份
+     * @param amount 金额
+     */
+    public void unpaidAdded(String month, BigDecimal amount) {
+        afterCommit(() -> apply(month, 1, toCents(amount)));
+    }
+
+    /**
+     * 事务提交后移除一张未缴费账单（已缴费或已删除）
+     *
+     * @param month 账单月份
+     * @param amount 金额
+     */
+    public void unpaidRemoved(String month, BigDecimal amount) {
+        afterCommit(() -> apply(month, -1, -toCents(amount)));
+    }
+
+    /**
+     * 事务提交后修改一张未缴费账单的金额
+     *
+     * @param month 账单月份
+     * @param oldAmount 原金额
+     * @param newAmount 新金额
+     */
+    public void unpaidAmountChanged(String month, BigDecimal oldAmount, BigDecimal newAmount) {
+        afterCommit(() -> apply(month, 0, toCents(newAmount) - toCents(oldAmount)));
+    }
+
+    /**
+     * 费用统计：未缴费账单总数、总金额，以及按月份分组的账单数和金额（月份倒序）
+     *
+     * @return 统计信息
+     */
+    public Map<String, Object> getStats() {
+        if (stale) {
+            reconcile();
+        }
+        Map<String, Map<String, Object>> months = new TreeMap<>(Collections.reverseOrder());
+        long totalCount = 0;
+        long totalCents = 0;
+        for (Map.Entry<String, MonthTotals> entry : unpaidByMonth.entrySet()) {
+            long count = entry.getValue().count.get();
+            long cents = entry.getValue().amountCents.get();
+            if (count <= 0) {
+                continue;
+            }
+            Map<String, Object> month = new LinkedHashMap<>();
+            month.put("count", count);
+            month.put("amount", BigDecimal.valueOf(cents, 2));
+            months.put(entry.getKey(), month);
+            totalCount += count;
+            totalCents += cents;
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("unpaidCount", totalCount);
+        stats.put("unpaidAmount", BigDecimal.valueOf(totalCents, 2));
+        stats.put("unpaidByMonth", months);
+        return stats;
+    }
+
+    private void apply(String month, long countDelta, long centsDelta) {
+        if (month == null) {
+            return;
+        }
+        MonthTotals counts = unpaidByMonth.computeIfAbsent(month, k -> new MonthTotals());
+        counts.count.addAndGet(countDelta);
+        counts.amountCents.addAndGet(centsDelta);
+    }
+
+    /**
+     * 在当前事务提交后执行，事务回滚时计数保持不变；没有事务时立即执行
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount != null ? amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue() : 0;
+    }
+
+    /**
+     * 一个月份的未缴费账单数和金额
+     */
+    private static final class MonthTotals {
+
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong amountCents = new AtomicLong();
+    }
+}
@@ -0,0 +1,95 @@
+package com.parking.fee.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 停车计费规则（编译后的不可变版本）
+ * 由 FeePricingService 在启动和配置刷新时从 business.pricing / business.discount 编译一次，
+ * 金额全部换算为分、折扣率换算为万分比，每24小时内按小时累计的收费预先算成长度为25的表，
+ * 计算一段停车时长只做整数运算和一次查表，不创建对象
+ * <p>
+ * 一段停车的收费取以下两者中较低的一个：
+ * - 按小时：不足一小时按一小时，首小时 firstHourRate，之后每小时 additionalHourRate，每满24小时最多 dailyMaxFee
+ * - 按月折算：月租费 × 使用天数（不足一天按一天） / 当月天数
+ * VIP业主再乘会员折扣率（四舍五入到分）
+ *
+ * @author Parking System
+ */
+public final class ParkingChargeEvaluator {
+
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final int HOURS_PER_DAY = 24;
+    private static final long RATE_SCALE = 10_000L;
+
+    /**
+     * 一天内停车 h 小时的收费（分），h = 0..24
+     */
+    private final long[] dayChargeCents;
+
+    private final long monthlyFeeCents;
+
+    private final long vipRateBasisPoints;
+
+    public ParkingChargeEvaluator(BigDecimal firstHourRate, BigDecimal additionalHourRate, BigDecimal dailyMaxFee,
+                                  BigDecimal monthlyFee, BigDecimal vipDiscountRate) {
+        long firstHour = toCents(firstHourRate);
+        long additionalHour = toCents(additionalHourRate);
+        long dailyMax = dailyMaxFee != null ? toCents(dailyMaxFee) : Long.MAX_VALUE;
+        this.dayChargeCents = new long[HOURS_PER_DAY + 1];
+        for (int hours = 1; hours <= HOURS_PER_DAY; hours++) {
+            dayChargeCents[hours] = Math.min(dailyMax, firstHour + (hours - 1) * additionalHour);
+        }
+        this.monthlyFeeCents = toCents(monthlyFee);
+        this.vipRateBasisPoints = vipDiscountRate != null
+                ? vipDiscountRate.multiply(BigDecimal.valueOf(RATE_SCALE)).setScale(0, RoundingMode.HALF_UP).longValueExact()
+                : RATE_SCALE;
+    }
+
+    /**
+     * 计算一段停车的收费
+     *
+     * @param entryMillis 开始时间（毫秒）
+     * @param exitMillis 结束时间（毫秒）
+     * @param daysInMonth 所在月份的天数（按月折算用）
+     * @param vip 是否VIP业主
+     * @return 收费（分），结束时间不晚于开始时间时为0
+     */
+    public long chargeCents(long entryMillis, long exitMillis, int daysInMonth, boolean vip) {
+        long duration = exitMillis - entryMillis;
+        if (duration <= 0) {
+            return 0;
+        }
+
+        long hours = (duration + MILLIS_PER_HOUR - 1) / MILLIS_PER_HOUR;
+        long hourly = (hours / HOURS_PER_DAY) * dayChargeCents[HOURS_PER_DAY]
+                + dayChargeCents[(int) (hours % HOURS_PER_DAY)];
+
+        long days = Math.min((duration + MILLIS_PER_DAY - 1) / MILLIS_PER_DAY, daysInMonth);
+        long prorated = (monthlyFeeCents * days + daysInMonth / 2) / daysInMonth;
+
+        long charge = Math.min(hourly, prorated);
+        if (vip) {
+            charge = (charge * vipRateBasisPoints + RATE_SCALE / 2) / RATE_SCALE;
+        }
+        return charge;
+    }
+
+    /**
+     * 计算一段停车的收费
+     *
+     * @param entryMillis 开始时间（毫秒）
+     * @param exitMillis 结束时间（毫秒）
+     * @param daysInMonth 所在月份的天数（按月折算用）
+     * @param vip 是否VIP业主
+     * @return 收费（元，保留两位小数）
+     */
+    public BigDecimal charge(long entryMillis, long exitMillis, int daysInMonth, boolean vip) {
+        return BigDecimal.valueOf(chargeCents(entryMillis, exitMillis, daysInMonth, vip), 2);
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
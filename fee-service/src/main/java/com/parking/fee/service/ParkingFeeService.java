@@ -1,17 +1,50 @@
 package com.parking.fee.service;
 
+import com.parking.common.page.PageCursor;
 import com.parking.fee.common.PageResult;
+import com.parking.fee.common.Result;
+import com.parking.fee.entity.OwnerProjection;
 import com.parking.fee.entity.ParkingFee;
+import com.parking.fee.entity.ParkingProjection;
 import com.parking.fee.event.FeePaidEvent;
+import com.parking.fee.event.ParkingReturnedEvent;
 import com.parking.fee.mapper.ParkingFeeMapper;
 import com.parking.fee.messaging.FeeEventPublisher;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 /**
  * 停车费服务
@@ -21,6 +54,8 @@ import java.util.UUID;
 @Service
 public class ParkingFeeService {
 
+    private static final Logger log = LoggerFactory.getLogger(ParkingFeeService.class);
+
     @Autowired
     private ParkingFeeMapper parkingFeeMapper;
 
@@ -33,6 +68,59 @@ public class ParkingFeeService {
     @Autowired
     private FeeEventPublisher feeEventPublisher;
 
+    @Autowired
+    private ReadModelService readModelService;
+
+    @Autowired
+    private FeePricingService feePricingService;
+
+    @Autowired
+    private FeeStatsCounter feeStatsCounter;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${fee.validation.timeout-ms:5000}")
+    private long validationTimeoutMs;
+
+    @Value("${fee.validation.pool-size:32}")
+    private int validationPoolSize;
+
+    @Value("${fee.validation.queue-capacity:200}")
+    private int validationQueueCapacity;
+
+    /**
+     * 缴费跨服务校验线程池（线程数和队列有上限，下游变慢时多出的请求直接拒绝，不会无限堆积线程）
+     */
+    private ThreadPoolExecutor validationExecutor;
+
+    @PostConstruct
+    public void initValidationExecutor() {
+        // 虚拟线程模式下校验任务也跑在虚拟线程上，线程数和队列上限保持不变（用于限制对下游的并发）
+        ThreadFactory threadFactory;
+        if (Threading.VIRTUAL.isActive(environment)) {
+            threadFactory = new VirtualThreadTaskExecutor("fee-validation-").getVirtualThreadFactory();
+        } else {
+            AtomicInteger threadNumber = new AtomicInteger();
+            threadFactory = r -> {
+                Thread thread = new Thread(r, "fee-validation-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+        validationExecutor = new ThreadPoolExecutor(validationPoolSize, validationPoolSize,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(validationQueueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy());
+        validationExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdownValidationExecutor() {
+        validationExecutor.shutdownNow();
+    }
+
     /**
      * 分页查询停车费列表
      *
@@ -47,36 +135,166 @@ public class ParkingFeeService {
         List<ParkingFee> records = parkingFeeMapper.findByPage(offset, pageSize, userId, payStatus);
         int total = parkingFeeMapper.countByConditions(userId, payStatus);
 
-        // 【微服务架构】通过Feign客户端填充关联数据（用户名、车位编号）
+        // 【微服务架构】通过Feign客户端批量填充关联数据（用户名、车位编号）
+        fillRelatedInfo(records);
+
+        return new PageResult<>(pageNum, pageSize, total, records);
+    }
+
+    /**
+     * 游标分页查询停车费列表（按缴费月份倒序，翻页代价与页数无关）
+     *
+     * @param cursor 上一页返回的游标（为空时查询第一页）
+     * @param pageSize 每页数量
+     * @param userId 业主ID（可选）
+     * @param payStatus 缴费状态（可选：0未缴 1已缴）
+     * @param withTotal 是否统计总数
+     * @return 停车费分页数据
+     */
+    public PageResult<ParkingFee> getParkingFeePageByCursor(String cursor, int pageSize, Long userId,
+                                                            String payStatus, boolean withTotal) {
+        String afterMonth = null;
+        Long afterFeeId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] keys = PageCursor.decode(cursor, 2);
+            afterMonth = keys[0];
+            try {
+                afterFeeId = Long.valueOf(keys[1]);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("无效的分页游标");
+            }
+        }
+
+        // 多取一条判断是否还有下一页
+        List<ParkingFee> records = parkingFeeMapper.findByCursor(pageSize + 1, userId, payStatus,
+                afterMonth, afterFeeId);
+        String nextCursor = null;
+        if (records.size() > pageSize) {
+            records = new ArrayList<>(records.subList(0, pageSize));
+            ParkingFee last = records.get(pageSize - 1);
+            nextCursor = PageCursor.encode(last.getPayParkMonth(), last.getFeeId());
+        }
+
+        fillRelatedInfo(records);
+
+        Long total = withTotal ? (long) parkingFeeMapper.countByConditions(userId, payStatus) : null;
+        return new PageResult<>(pageSize, total, records, nextCursor);
+    }
+
+    /**
+     * 批量填充费用记录的关联数据（用户名、车位编号）
+     * 先收集本页去重后的userId，优先从本地读模型查询；读模型不可用或缺少部分业主时，
+     * 只为缺少的业主调用user-service和parking-service的批量接口，每页最多产生两次远程调用
+     *
+     * @param records 费用记录列表
+     */
+    private void fillRelatedInfo(List<ParkingFee> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        List<Long> userIds = records.stream()
+                .map(ParkingFee::getUserId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+
+        Map<Long, String> usernameMap = findUsernames(userIds);
+
+        Map<Long, String> parkNumMap = readModelService.findParkNums(userIds);
+        List<Long> remoteParkUserIds = missingIds(userIds, parkNumMap);
+        if (!remoteParkUserIds.isEmpty()) {
+            // 调用parking-service批量获取车位编号
+            try {
+                Result<List<Map<String, Object>>> parkingResult =
+                        parkingServiceClient.getUserParkingRecords(remoteParkUserIds);
+                if (parkNumMap == null) {
+                    parkNumMap = new HashMap<>();
+                }
+                if (parkingResult != null && parkingResult.getCode() == 200 && parkingResult.getData() != null) {
+                    for (Map<String, Object> record : parkingResult.getData()) {
+                        parkNumMap.put(Long.valueOf(record.get("userId").toString()), (String) record.get("parkNum"));
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("批量获取车位信息失败，userIds={}: {}", remoteParkUserIds, e.getMessage());
+            }
+        }
+
         for (ParkingFee fee : records) {
+            fee.setUsername(usernameMap != null ? usernameMap.get(fee.getUserId()) : "未知");
+            fee.setParkNum(parkNumMap != null ? parkNumMap.get(fee.getUserId()) : "未知");
+        }
+    }
+
+    /**
+     * 批量查询业主姓名：先查本地读模型，只为本地没有的业主调用user-service批量接口
+     *
+     * @param userIds 去重后的业主ID列表
+     * @return userId -> 业主姓名，读模型不可用且远程调用失败时返回null
+     */
+    public Map<Long, String> findUsernames(List<Long> userIds) {
+        Map<Long, String> usernameMap = readModelService.findUsernames(userIds);
+        List<Long> remoteUserIds = missingIds(userIds, usernameMap);
+        if (!remoteUserIds.isEmpty()) {
+            // 调用user-service批量获取用户名
             try {
-                // 调用user-service获取用户名
-                com.parking.fee.common.Result<java.util.Map<String, Object>> userResult =
-                    userServiceClient.getOwnerById(fee.getUserId());
+                Result<List<Map<String, Object>>> userResult = userServiceClient.getOwnersByIds(remoteUserIds);
+                if (usernameMap == null) {
+                    usernameMap = new HashMap<>();
+                }
                 if (userResult != null && userResult.getCode() == 200 && userResult.getData() != null) {
-                    fee.setUsername((String) userResult.getData().get("username"));
+                    for (Map<String, Object> owner : userResult.getData()) {
+                        usernameMap.put(Long.valueOf(owner.get("userId").toString()), (String) owner.get("username"));
+                    }
                 }
             } catch (Exception e) {
-                org.slf4j.LoggerFactory.getLogger(ParkingFeeService.class)
-                    .warn("获取用户信息失败，userId={}: {}", fee.getUserId(), e.getMessage());
-                fee.setUsername("未知");
+                log.warn("批量获取用户信息失败，userIds={}: {}", remoteUserIds, e.getMessage());
             }
+        }
+        return usernameMap;
+    }
 
+    /**
+     * 批量查询业主类型（月租账单按业主类型计价）：先查本地读模型，只为本地没有的业主调用user-service批量接口
+     *
+     * @param userIds 去重后的业主ID列表
+     * @return userId -> 业主类型（VIP/NORMAL），两边都查不到的业主不返回（按普通业主计价）
+     * @throws RuntimeException 需要远程查询但user-service不可用（避免把VIP业主按原价出账）
+     */
+    public Map<Long, String> findUserTypes(List<Long> userIds) {
+        Map<Long, String> userTypeMap = readModelService.findUserTypes(userIds);
+        List<Long> remoteUserIds = missingIds(userIds, userTypeMap);
+        if (userTypeMap == null) {
+            userTypeMap = new HashMap<>();
+        }
+        if (!remoteUserIds.isEmpty()) {
+            Result<List<Map<String, Object>>> userResult;
             try {
-                // 调用parking-service获取车位编号
-                com.parking.fee.common.Result<java.util.Map<String, Object>> parkingResult =
-                    parkingServiceClient.getUserParkingRecord(fee.getUserId());
-                if (parkingResult != null && parkingResult.getCode() == 200 && parkingResult.getData() != null) {
-                    fee.setParkNum((String) parkingResult.getData().get("parkNum"));
-                }
+                userResult = userServiceClient.getOwnersByIds(remoteUserIds);
             } catch (Exception e) {
-                org.slf4j.LoggerFactory.getLogger(ParkingFeeService.class)
-                    .warn("获取车位信息失败，userId={}: {}", fee.getUserId(), e.getMessage());
-                fee.setParkNum("未知");
+                throw new RuntimeException("无法获取业主类型: " + e.getMessage(), e);
+            }
+            if (userResult == null || userResult.getCode() != 200 || userResult.getData() == null) {
+                throw new RuntimeException("无法获取业主类型: " + (userResult == null ? "无响应" : userResult.getMessage()));
+            }
+            for (Map<String, Object> owner : userResult.getData()) {
+                userTypeMap.put(Long.valueOf(owner.get("userId").toString()), (String) owner.get("userType"));
             }
         }
+        return userTypeMap;
+    }
 
-        return new PageResult<>(pageNum, pageSize, total, records);
+    /**
+     * 本地读模型中没有的userId（读模型不可用时为全部userId）
+     */
+    private List<Long> missingIds(List<Long> userIds, Map<Long, String> local) {
+        if (local == null) {
+            return userIds;
+        }
+        return userIds.stream()
+                .filter(userId -> !local.containsKey(userId))
+                .collect(Collectors.toList());
     }
 
     /**
@@ -86,6 +304,12 @@ public class ParkingFeeService {
      * @return 停车费列表
      */
     public List<ParkingFee> getOwnerParkingFees(Long userId) {
+        // 优先查本地读模型，不可用或本地没有该业主时调用 user-service
+        OwnerProjection localOwner = readModelService.findOwner(userId);
+        if (localOwner != null) {
+            return parkingFeeMapper.findByUserId(userId);
+        }
+
         // 【跨服务调用】调用 user-service 获取用户信息（演示跨服务调用）
         try {
             com.parking.fee.common.Result<java.util.Map<String, Object>> result = userServiceClient.getOwnerById(userId);
@@ -132,7 +356,11 @@ public class ParkingFeeService {
         }
 
         parkingFee.setPayParkStatus("0"); // 默认未缴费
-        return parkingFeeMapper.insert(parkingFee) > 0;
+        boolean success = parkingFeeMapper.insert(parkingFee) > 0;
+        if (success) {
+            feeStatsCounter.unpaidAdded(parkingFee.getPayParkMonth(), parkingFee.getPayParkMoney());
+        }
+        return success;
     }
 
     /**
@@ -142,7 +370,18 @@ public class ParkingFeeService {
      * @return 是否成功
      */
     public boolean updateParkingFee(ParkingFee parkingFee) {
-        return parkingFeeMapper.update(parkingFee) > 0;
+        ParkingFee existing = parkingFeeMapper.findById(parkingFee.getFeeId());
+        boolean success = parkingFeeMapper.update(parkingFee) > 0;
+        if (success && existing != null) {
+            boolean wasUnpaid = "0".equals(existing.getPayParkStatus());
+            boolean isUnpaid = "0".equals(parkingFee.getPayParkStatus());
+            if (wasUnpaid && !isUnpaid) {
+                feeStatsCounter.unpaidRemoved(existing.getPayParkMonth(), existing.getPayParkMoney());
+            } else if (!wasUnpaid && isUnpaid) {
+                feeStatsCounter.unpaidAdded(existing.getPayParkMonth(), existing.getPayParkMoney());
+            }
+        }
+        return success;
     }
 
     /**
@@ -152,7 +391,21 @@ public class ParkingFeeService {
      * @return 是否成功
      */
     public boolean deleteParkingFee(Long parkFeeId) {
-        return parkingFeeMapper.deleteById(parkFeeId) > 0;
+        ParkingFee existing = parkingFeeMapper.findById(parkFeeId);
+        boolean success = parkingFeeMapper.deleteById(parkFeeId) > 0;
+        if (success && existing != null && "0".equals(existing.getPayParkStatus())) {
+            feeStatsCounter.unpaidRemoved(existing.getPayParkMonth(), existing.getPayParkMoney());
+        }
+        return success;
+    }
+
+    /**
+     * 费用统计（未缴费账单数和金额，按月份分组，从计数器读取）
+     *
+     * @return 统计信息
+     */
+    public Map<String, Object> getFeeStats() {
+        return feeStatsCounter.getStats();
     }
 
     /**
@@ -162,72 +415,257 @@ public class ParkingFeeService {
      * @param userId 业主ID（用于验证）
      * @return 是否成功
      */
+    @Transactional
     public boolean payParkingFee(Long parkFeeId, Long userId) {
-        // 【跨服务调用1】验证用户是否存在
-        com.parking.fee.common.Result<java.util.Map<String, Object>> userResult = userServiceClient.getOwnerById(userId);
-        if (userResult == null || userResult.getCode() != 200 || userResult.getData() == null) {
-            throw new RuntimeException("用户不存在，无法缴费");
-        }
+        return payParkingFee(parkFeeId, userId, false);
+    }
 
-        // 查询费用记录
-        ParkingFee parkingFee = parkingFeeMapper.findById(parkFeeId);
-        if (parkingFee == null) {
-            throw new RuntimeException("停车费记录不存在");
-        }
+    /**
+     * 业主缴纳停车费
+     *
+     * @param parkFeeId 停车费ID
+     * @param userId 业主ID（用于验证）
+     * @param ownerVerified 网关Token是否已证明该业主存在（为true时跳过user-service验证）
+     * @return 是否成功
+     */
+    @Transactional
+    public boolean payParkingFee(Long parkFeeId, Long userId, boolean ownerVerified) {
+        // 两个跨服务校验提交到校验线程池并行执行，本线程同时在事务内加载费用记录，
+        // 总耗时取三者最大值而不是相加；任一校验失败或超过总时限时取消其余校验
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(validationTimeoutMs);
+        CompletionService<Object> completionService = new ExecutorCompletionService<>(validationExecutor);
+        List<Future<Object>> checks = new ArrayList<>(2);
+        try {
+            // 【跨服务调用1】验证用户是否存在（本地读模型中存在该业主时不再远程验证）
+            if (!ownerVerified && readModelService.findOwner(userId) == null) {
+                checks.add(submitCheck(completionService, () -> {
+                    Result<Map<String, Object>> userResult = userServiceClient.getOwnerById(userId);
+                    if (userResult == null || userResult.getCode() != 200 || userResult.getData() == null) {
+                        throw new RuntimeException("用户不存在，无法缴费");
+                    }
+                    return Boolean.TRUE;
+                }));
+            }
+
+            // 【跨服务调用2 - 关键业务依赖】调用 parking-service 验证用户有有效的停车记录
+            // 只有用户当前有停车位分配记录，才能缴纳停车费；本地读模型中有该业主的停车记录时不再远程验证
+            ParkingProjection localParking = readModelService.findParking(userId);
+            Future<Object> parkingCheck = null;
+            if (localParking == null) {
+                parkingCheck = submitCheck(completionService, remoteParkingCheck(userId));
+                checks.add(parkingCheck);
+            }
+
+            // 查询费用记录（本地查询，在当前事务中执行）
+            ParkingFee parkingFee = parkingFeeMapper.findById(parkFeeId);
+            if (parkingFee == null) {
+                throw new RuntimeException("停车费记录不存在");
+            }
+
+            if (!parkingFee.getUserId().equals(userId)) {
+                throw new RuntimeException("无权操作此记录");
+            }
+
+            if ("1".equals(parkingFee.getPayParkStatus())) {
+                throw new RuntimeException("该停车费已缴纳");
+            }
+
+            awaitChecks(completionService, checks.size(), deadline);
 
-        if (!parkingFee.getUserId().equals(userId)) {
-            throw new RuntimeException("无权操作此记录");
+            Long recordParkId;
+            if (parkingCheck != null) {
+                recordParkId = (Long) parkingCheck.get();
+            } else if (parkingFee.getParkId() != null && parkingFee.getParkId().equals(localParking.getParkId())) {
+                recordParkId = localParking.getParkId();
+            } else {
+                // 本地记录与费用记录不一致（可能是分配事件尚未到达），以 parking-service 为准
+                parkingCheck = submitCheck(completionService, remoteParkingCheck(userId));
+                checks.add(parkingCheck);
+                awaitChecks(completionService, 1, deadline);
+                recordParkId = (Long) parkingCheck.get();
+            }
+
+            // 验证费用记录的车位ID与停车记录的车位ID一致
+            if (recordParkId == null || !recordParkId.equals(parkingFee.getParkId())) {
+                throw new RuntimeException("费用记录与停车记录不匹配");
+            }
+
+            return completePayment(parkingFee, userId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("缴费校验被中断");
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } finally {
+            // 已完成的校验不受影响，未完成的立即取消（校验失败、本地校验失败或超时）
+            for (Future<Object> check : checks) {
+                check.cancel(true);
+            }
         }
+    }
+
+    /**
+     * 调用 parking-service 查询业主最新停车记录，返回其车位ID
+     */
+    private Callable<Object> remoteParkingCheck(Long userId) {
+        return () -> {
+            Result<Map<String, Object>> parkingResult = parkingServiceClient.getUserParkingRecord(userId);
+            if (parkingResult == null || parkingResult.getCode() != 200 || parkingResult.getData() == null) {
+                throw new RuntimeException("用户没有停车记录，无法缴费。请先分配车位。");
+            }
+            Object parkId = parkingResult.getData().get("parkId");
+            return parkId != null ? Long.valueOf(parkId.toString()) : null;
+        };
+    }
 
-        if ("1".equals(parkingFee.getPayParkStatus())) {
-            throw new RuntimeException("该停车费已缴纳");
+    /**
+     * 提交一个跨服务校验（线程池和队列已满时直接拒绝，不排队等待）
+     */
+    private Future<Object> submitCheck(CompletionService<Object> completionService, Callable<Object> check) {
+        try {
+            return completionService.submit(check);
+        } catch (RejectedExecutionException e) {
+            log.warn("缴费校验线程池已满，拒绝请求");
+            throw new RuntimeException("系统繁忙，请稍后重试");
         }
+    }
 
-        // 【跨服务调用2 - 关键业务依赖】调用 parking-service 验证用户有有效的停车记录
-        // 只有用户当前有停车位分配记录，才能缴纳停车费
-        com.parking.fee.common.Result<java.util.Map<String, Object>> parkingResult =
-            parkingServiceClient.getUserParkingRecord(userId);
-        if (parkingResult == null || parkingResult.getCode() != 200 || parkingResult.getData() == null) {
-            throw new RuntimeException("用户没有停车记录，无法缴费。请先分配车位。");
+    /**
+     * 按完成顺序等待全部校验，任一校验失败立即抛出（快速失败），超过总时限时抛出超时
+     */
+    private void awaitChecks(CompletionService<Object> completionService, int count, long deadline)
+            throws InterruptedException, ExecutionException {
+        for (int i = 0; i < count; i++) {
+            Future<Object> done = completionService.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (done == null) {
+                throw new RuntimeException("缴费校验超时，请稍后重试");
+            }
+            done.get();
         }
+    }
 
-        // 验证费用记录的车位ID与停车记录的车位ID一致
-        java.util.Map<String, Object> parkingData = parkingResult.getData();
-        Long recordParkId = parkingData.get("parkId") != null ?
-            Long.valueOf(parkingData.get("parkId").toString()) : null;
-        if (recordParkId == null || !recordParkId.equals(parkingFee.getParkId())) {
-            throw new RuntimeException("费用记录与停车记录不匹配");
+    private RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
         }
+        return new RuntimeException("缴费校验失败: " + (cause != null ? cause.getMessage() : e.getMessage()), cause);
+    }
 
+    /**
+     * 校验通过后更新缴费状态并发布费用缴纳事件
+     */
+    private boolean completePayment(ParkingFee parkingFee, Long userId) {
         // 业务验证通过，执行缴费
         parkingFee.setPayParkStatus("1");
         parkingFee.setPayTime(new Date());
         boolean updateSuccess = parkingFeeMapper.update(parkingFee) > 0;
 
         if (updateSuccess) {
-            // 【阶段6】发布费用缴纳事件到RabbitMQ，用于发送缴费通知、更新统计等
-            try {
-                FeePaidEvent event = new FeePaidEvent(
-                        UUID.randomUUID().toString(),  // 事件ID
-                        parkingFee.getFeeId(),         // 费用ID
-                        userId,                        // 业主ID
-                        parkingFee.getParkId(),        // 车位ID
-                        parkingFee.getPayParkMonth(),  // 缴费月份
-                        parkingFee.getPayParkMoney(),  // 缴费金额
-                        parkingFee.getPayTime(),       // 缴费时间
-                        new Date()                     // 事件发生时间
-                );
-                feeEventPublisher.publishFeePaidEvent(event);
-            } catch (Exception e) {
-                // 异步消息发送失败不影响主业务流程，只记录日志
-                org.slf4j.LoggerFactory.getLogger(ParkingFeeService.class)
-                        .error("发布费用缴纳事件失败，但缴费已成功: {}", e.getMessage());
-            }
+            feeStatsCounter.unpaidRemoved(parkingFee.getPayParkMonth(), parkingFee.getPayParkMoney());
+
+            // 【阶段6】发布费用缴纳事件，用于发送缴费通知、更新统计等
+            // 事件写入发件箱，与缴费状态同一事务提交，由 OutboxRelay 异步投递到RabbitMQ
+            FeePaidEvent event = new FeePaidEvent(
+                    UUID.randomUUID().toString(),  // 事件ID
+                    parkingFee.getFeeId(),         // 费用ID
+                    userId,                        // 业主ID
+                    parkingFee.getParkId(),        // 车位ID
+                    parkingFee.getPayParkMonth(),  // 缴费月份
+                    parkingFee.getPayParkMoney(),  // 缴费金额
+                    parkingFee.getPayTime(),       // 缴费时间
+                    new Date()                     // 事件发生时间
+            );
+            feeEventPublisher.publishFeePaidEvent(event);
         }
 
         return updateSuccess;
     }
 
+    /**
+     * 车位退还后结算退位当月的费用
+     * 计费区间为 [max(入场时间, 退位当月1日0点), 退位时间)，按小时与按月折算取较低者，VIP业主再打会员折扣：
+     * - 当月还没有账单：生成一张结算账单（金额为0时不生成）
+     * - 当月账单未缴费：金额改为结算金额（不高于原金额，原账单可能按车位类型出账）
+     * - 当月账单已缴费：不再结算
+     * 重复消费同一事件结果不变
+     *
+     * @param event 车位退还事件
+     * @return 结算后的账单，没有生成或修改账单时返回null
+     */
+    @Transactional
+    public ParkingFee settleReturnedParking(ParkingReturnedEvent event) {
+        Date exitTime = event.getExitTime() != null ? event.getExitTime() : event.getEventTime();
+        if (event.getEntryTime() == null || exitTime == null) {
+            log.warn("车位退还事件缺少入场或退位时间，跳过结算 - 事件ID: {}", event.getEventId());
+            return null;
+        }
+
+        ZonedDateTime exit = exitTime.toInstant().atZone(ZoneId.systemDefault());
+        Date monthStart = Date.from(exit.toLocalDate().withDayOfMonth(1).atStartOfDay(exit.getZone()).toInstant());
+        Date start = event.getEntryTime().after(monthStart) ? event.getEntryTime() : monthStart;
+        String month = YearMonth.from(exit).toString();
+
+        BigDecimal amount = feePricingService.finalCharge(start, exitTime, resolveUserType(event.getUserId()));
+
+        ParkingFee existing = parkingFeeMapper.findByUserIdAndParkIdAndMonthForUpdate(
+                event.getUserId(), event.getParkId(), month);
+        if (existing == null) {
+            if (amount.signum() == 0) {
+                return null;
+            }
+            ParkingFee parkingFee = new ParkingFee();
+            parkingFee.setUserId(event.getUserId());
+            parkingFee.setParkId(event.getParkId());
+            parkingFee.setPayParkMonth(month);
+            parkingFee.setPayParkMoney(amount);
+            parkingFee.setPayParkStatus("0");
+            parkingFeeMapper.insertOrKeep(parkingFee);
+            // 重新读取一次：回填的ID与读到的记录一致说明是本次插入，否则是并发生成的当月账单（批量出账），按已有账单结算
+            existing = parkingFeeMapper.findByUserIdAndParkIdAndMonthForUpdate(
+                    event.getUserId(), event.getParkId(), month);
+            if (existing == null) {
+                throw new RuntimeException("生成退位结算账单失败 - 业主ID: " + event.getUserId()
+                        + ", 车位ID: " + event.getParkId() + ", 月份: " + month);
+            }
+            if (existing.getFeeId().equals(parkingFee.getFeeId())) {
+                feeStatsCounter.unpaidAdded(month, amount);
+                log.info("已生成退位结算账单 - 业主ID: {}, 车位ID: {}, 月份: {}, 金额: {}",
+                        event.getUserId(), event.getParkId(), month, amount);
+                return existing;
+            }
+        }
+
+        if (!"0".equals(existing.getPayParkStatus())) {
+            log.info("退位当月账单已缴费，不再结算 - 费用ID: {}", existing.getFeeId());
+            return null;
+        }
+        BigDecimal settled = amount.min(existing.getPayParkMoney());
+        if (settled.compareTo(existing.getPayParkMoney()) != 0
+                && parkingFeeMapper.updateUnpaidAmount(existing.getFeeId(), settled) > 0) {
+            feeStatsCounter.unpaidAmountChanged(month, existing.getPayParkMoney(), settled);
+            log.info("已按退位时间结算账单 - 费用ID: {}, 原金额: {}, 结算金额: {}",
+                    existing.getFeeId(), existing.getPayParkMoney(), settled);
+            existing.setPayParkMoney(settled);
+        }
+        return existing;
+    }
+
+    /**
+     * 业主类型（VIP/NORMAL），优先查本地读模型
+     */
+    private String resolveUserType(Long userId) {
+        OwnerProjection owner = readModelService.findOwner(userId);
+        if (owner != null) {
+            return owner.getUserType();
+        }
+        Result<Map<String, Object>> result = userServiceClient.getOwnerById(userId);
+        if (result == null || result.getCode() != 200 || result.getData() == null) {
+            throw new RuntimeException("无法获取业主类型，稍后重试结算");
+        }
+        return (String) result.getData().get("userType");
+    }
+
     /**
      * 查询业主未缴费的停车费列表
      *
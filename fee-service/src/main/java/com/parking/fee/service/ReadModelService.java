@@ -0,0 +1,457 @@
+package com.parking.fee.service;
+
+import com.parking.fee.client.ParkingServiceClient;
+import com.parking.fee.client.UserServiceClient;
+import com.parking.fee.common.Result;
+import com.parking.fee.entity.OwnerProjection;
+import com.parking.fee.entity.ParkingProjection;
+import com.parking.fee.event.OwnerChangedEvent;
+import com.parking.fee.event.ParkingAssignedEvent;
+import com.parking.fee.event.ParkingReturnedEvent;
+import com.parking.fee.mapper.OwnerProjectionMapper;
+import com.parking.fee.mapper.ParkingProjectionMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToIntFunction;
+
+/**
+ * 本地读模型服务
+ * fee-service 在本库维护两张紧凑的投影表：owner_projection（userId -> 姓名、类型）和
+ * parking_projection（userId -> 最新车位关联、车位编号、是否使用中），列表填充和缴费校验直接查本地表，
+ * 不再每次同步调用 user-service / parking-service。
+ * - 增量：业主变更、车位分配、车位退还事件实时更新投影
+ * - 全量：启动时和每隔 fee.read-model.resync-interval-ms 从两个服务的快照接口分批拉取，
+ *   只写入有变化的行，并删除快照中已不存在的行，兜底丢失或乱序的事件
+ * - 有界陈旧：最近一次完整的全量同步开始时间距今超过 fee.read-model.max-staleness-seconds 时，
+ *   视为读模型不可用，调用方回退到Feign
+ *
+ * @author Parking System
+ */
+@Service
+public class ReadModelService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadModelService.class);
+
+    private static final String OWNER = "owner";
+    private static final String PARKING = "parking";
+
+    @Autowired
+    private OwnerProjectionMapper ownerProjectionMapper;
+
+    @Autowired
+    private ParkingProjectionMapper parkingProjectionMapper;
+
+    @Autowired
+    private UserServiceClient userServiceClient;
+
+    @Autowired
+    private ParkingServiceClient parkingServiceClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${fee.read-model.enabled:true}")
+    private boolean enabled;
+
+    @Value("${fee.read-model.max-staleness-seconds:900}")
+    private long maxStalenessSeconds;
+
+    @Value("${fee.read-model.sync-batch-size:1000}")
+    private int syncBatchSize;
+
+    /**
+     * 最近一次完整全量同步的开始时间（毫秒，0表示尚未同步）。
+     * 该时间之前提交的变更都已反映在投影中（或被之后的事件覆盖）
+     */
+    private volatile long ownerSyncedFrom = 0;
+    private volatile long parkingSyncedFrom = 0;
+
+    private final AtomicBoolean syncing = new AtomicBoolean(false);
+
+    private final Map<String, Counter> lookupCounters = new ConcurrentHashMap<>();
+
+    /**
+     * 启动完成后初始化读模型
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        sync();
+    }
+
+    /**
+     * 定期全量同步，兜底丢失的事件（例如RabbitMQ不可用期间的变更）
+     */
+    @Scheduled(initialDelayString = "${fee.read-model.resync-interval-ms:300000}",
+            fixedDelayString = "${fee.read-model.resync-interval-ms:300000}")
+    public void scheduledSync() {
+        sync();
+    }
+
+    /**
+     * 从user-service和parking-service全量同步两张投影表（同一实例同时只执行一次）
+     */
+    public void sync() {
+        if (!enabled || !syncing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            syncOwners();
+            syncParkings();
+        } finally {
+            syncing.set(false);
+        }
+    }
+
+    // ==================== 查询（读模型不可用时返回null，调用方回退到Feign） ====================
+
+    /**
+     * 批量查询业主姓名
+     *
+     * @param userIds 业主ID列表
+     * @return userId -> 姓名（不存在的业主不返回），读模型不可用时返回null
+     */
+    public Map<Long, String> findUsernames(List<Long> userIds) {
+        if (!isOwnerFresh()) {
+            countLookup(OWNER, "stale");
+            return null;
+        }
+        Map<Long, String> usernames = new HashMap<>();
+        for (OwnerProjection owner : ownerProjectionMapper.findByIds(userIds)) {
+            usernames.put(owner.getUserId(), owner.getUsername());
+        }
+        countLookup(OWNER, "local");
+        return usernames;
+    }
+
+    /**
+     * 批量查询业主类型
+     *
+     * @param userIds 业主ID列表
+     * @return userId -> 业主类型（VIP/NORMAL，不存在的业主不返回），读模型不可用时返回null
+     */
+    public Map<Long, String> findUserTypes(List<Long> userIds) {
+        if (!isOwnerFresh()) {
+            countLookup(OWNER, "stale");
+            return null;
+        }
+        Map<Long, String> userTypes = new HashMap<>();
+        for (OwnerProjection owner : ownerProjectionMapper.findByIds(userIds)) {
+            userTypes.put(owner.getUserId(), owner.getUserType());
+        }
+        countLookup(OWNER, "local");
+        return userTypes;
+    }
+
+    /**
+     * 批量查询业主最新车位关联的车位编号
+     *
+     * @param userIds 业主ID列表
+     * @return userId -> 车位编号（没有车位记录的业主不返回），读模型不可用时返回null
+     */
+    public Map<Long, String> findParkNums(List<Long> userIds) {
+        if (!isParkingFresh()) {
+            countLookup(PARKING, "stale");
+            return null;
+        }
+        Map<Long, String> parkNums = new HashMap<>();
+        for (ParkingProjection parking : parkingProjectionMapper.findByIds(userIds)) {
+            parkNums.put(parking.getUserId(), parking.getParkNum());
+        }
+        countLookup(PARKING, "local");
+        return parkNums;
+    }
+
+    /**
+     * 查询业主信息
+     *
+     * @param userId 业主ID
+     * @return 业主投影，读模型不可用或本地没有该业主（可能是刚新增、事件尚未到达）时返回null
+     */
+    public OwnerProjection findOwner(Long userId) {
+        if (!isOwnerFresh()) {
+            countLookup(OWNER, "stale");
+            return null;
+        }
+        OwnerProjection owner = ownerProjectionMapper.findById(userId);
+        countLookup(OWNER, owner != null ? "local" : "miss");
+        return owner;
+    }
+
+    /**
+     * 查询业主最新的车位关联
+     *
+     * @param userId 业主ID
+     * @return 车位投影，读模型不可用或本地没有该业主的车位记录时返回null
+     */
+    public ParkingProjection findParking(Long userId) {
+        if (!isParkingFresh()) {
+            countLookup(PARKING, "stale");
+            return null;
+        }
+        ParkingProjection parking = parkingProjectionMapper.findById(userId);
+        countLookup(PARKING, parking != null ? "local" : "miss");
+        return parking;
+    }
+
+    public boolean isOwnerFresh() {
+        return enabled && isFresh(ownerSyncedFrom);
+    }
+
+    public boolean isParkingFresh() {
+        return enabled && isFresh(parkingSyncedFrom);
+    }
+
+    private boolean isFresh(long syncedFrom) {
+        return syncedFrom > 0
+                && System.currentTimeMillis() - syncedFrom <= TimeUnit.SECONDS.toMillis(maxStalenessSeconds);
+    }
+
+    // ==================== 增量：事件 ====================
+
+    /**
+     * 应用业主变更事件
+     *
+     * @param event 业主变更事件
+     */
+    public void applyOwnerChanged(OwnerChangedEvent event) {
+        if ("DELETED".equals(event.getChangeType())) {
+            ownerProjectionMapper.deleteById(event.getUserId());
+            return;
+        }
+        OwnerProjection owner = new OwnerProjection();
+        owner.setUserId(event.getUserId());
+        owner.setUsername(event.getUsername());
+        owner.setUserType(event.getUserType());
+        owner.setSyncedAt(new Date());
+        ownerProjectionMapper.upsert(owner);
+    }
+
+    /**
+     * 应用车位分配事件（比本地更旧的分配被忽略）
+     *
+     * @param event 车位分配事件
+     */
+    public void applyParkingAssigned(ParkingAssignedEvent event) {
+        ParkingProjection parking = new ParkingProjection();
+        parking.setUserId(event.getUserId());
+        parking.setOwnerParkingId(event.getOwnerParkingId());
+        parking.setParkId(event.getParkId());
+        parking.setParkNum(event.getParkNum());
+        parking.setActive(true);
+        parking.setSyncedAt(new Date());
+        writeParking(parking, parkingProjectionMapper::applyAssigned);
+    }
+
+    /**
+     * 应用车位退还事件（比本地更旧的分配被忽略）
+     *
+     * @param event 车位退还事件
+     */
+    public void applyParkingReturned(ParkingReturnedEvent event) {
+        ParkingProjection parking = new ParkingProjection();
+        parking.setUserId(event.getUserId());
+        parking.setOwnerParkingId(event.getOwnerParkingId());
+        parking.setParkId(event.getParkId());
+        parking.setActive(false);
+        parking.setSyncedAt(new Date());
+        writeParking(parking, parkingProjectionMapper::applyReturned);
+    }
+
+    /**
+     * 先按版本条件更新，没有可更新的行时插入；插入与并发写入冲突时再按版本条件更新一次
+     */
+    private void writeParking(ParkingProjection parking, ToIntFunction<ParkingProjection> conditionalUpdate) {
+        if (conditionalUpdate.applyAsInt(parking) > 0) {
+            return;
+        }
+        if (parkingProjectionMapper.insertIgnore(parking) > 0) {
+            return;
+        }
+        conditionalUpdate.applyAsInt(parking);
+    }
+
+    // ==================== 全量：快照 ====================
+
+    private void syncOwners() {
+        long startNanos = System.nanoTime();
+        Date syncStart = new Date();
+        long afterUserId = 0;
+        int total = 0;
+        int written = 0;
+        try {
+            while (true) {
+                Result<List<Map<String, Object>>> result = userServiceClient.getOwnerSnapshot(afterUserId, syncBatchSize);
+                if (result == null || result.getCode() != 200 || result.getData() == null) {
+                    log.warn("同步业主读模型失败，本轮放弃: {}", result != null ? result.getMessage() : "无响应");
+                    return;
+                }
+                if (result.getData().isEmpty()) {
+                    break;
+                }
+                List<OwnerProjection> batch = new ArrayList<>(result.getData().size());
+                for (Map<String, Object> item : result.getData()) {
+                    OwnerProjection owner = new OwnerProjection();
+                    owner.setUserId(Long.valueOf(item.get("userId").toString()));
+                    owner.setUsername((String) item.get("username"));
+                    owner.setUserType((String) item.get("userType"));
+                    owner.setSyncedAt(syncStart);
+                    batch.add(owner);
+                }
+                written += applyOwnerSnapshot(batch, syncStart);
+                total += batch.size();
+                afterUserId = batch.get(batch.size() - 1).getUserId();
+            }
+            int removed = ownerProjectionMapper.deleteNotSyncedSince(syncStart);
+            ownerSyncedFrom = syncStart.getTime();
+            log.info("业主读模型已同步: 业主数={}, 写入={}, 删除={}, 耗时={}ms",
+                    total, written, removed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        } catch (Exception e) {
+            log.error("同步业主读模型失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 与本地已有的行比较，只插入缺失的行、覆盖有变化的行，其余行只更新同步时间
+     *
+     * @return 插入和覆盖的行数
+     */
+    private int applyOwnerSnapshot(List<OwnerProjection> batch, Date syncStart) {
+        List<Long> userIds = new ArrayList<>(batch.size());
+        for (OwnerProjection owner : batch) {
+            userIds.add(owner.getUserId());
+        }
+        Map<Long, OwnerProjection> existing = new HashMap<>();
+        for (OwnerProjection owner : ownerProjectionMapper.findByIds(userIds)) {
+            existing.put(owner.getUserId(), owner);
+        }
+
+        List<OwnerProjection> missing = new ArrayList<>();
+        List<Long> unchanged = new ArrayList<>();
+        int written = 0;
+        for (OwnerProjection owner : batch) {
+            OwnerProjection current = existing.get(owner.getUserId());
+            if (current == null) {
+                missing.add(owner);
+            } else if (Objects.equals(current.getUsername(), owner.getUsername())
+                    && Objects.equals(current.getUserType(), owner.getUserType())) {
+                unchanged.add(owner.getUserId());
+            } else {
+                written += ownerProjectionMapper.updateFromSnapshot(owner);
+            }
+        }
+        if (!missing.isEmpty()) {
+            written += ownerProjectionMapper.batchInsertIgnore(missing);
+        }
+        if (!unchanged.isEmpty()) {
+            ownerProjectionMapper.touch(unchanged, syncStart);
+        }
+        return written;
+    }
+
+    private void syncParkings() {
+        long startNanos = System.nanoTime();
+        Date syncStart = new Date();
+        long afterUserId = 0;
+        int total = 0;
+        int written = 0;
+        try {
+            while (true) {
+                Result<List<Map<String, Object>>> result =
+                        parkingServiceClient.getParkingRecordSnapshot(afterUserId, syncBatchSize);
+                if (result == null || result.getCode() != 200 || result.getData() == null) {
+                    log.warn("同步车位读模型失败，本轮放弃: {}", result != null ? result.getMessage() : "无响应");
+                    return;
+                }
+                if (result.getData().isEmpty()) {
+                    break;
+                }
+                List<ParkingProjection> batch = new ArrayList<>(result.getData().size());
+                for (Map<String, Object> item : result.getData()) {
+                    ParkingProjection parking = new ParkingProjection();
+                    parking.setUserId(Long.valueOf(item.get("userId").toString()));
+                    parking.setOwnerParkingId(Long.valueOf(item.get("ownerParkingId").toString()));
+                    parking.setParkId(Long.valueOf(item.get("parkId").toString()));
+                    parking.setParkNum((String) item.get("parkNum"));
+                    parking.setActive(Boolean.TRUE.equals(item.get("active")));
+                    parking.setSyncedAt(syncStart);
+                    batch.add(parking);
+                }
+                written += applyParkingSnapshot(batch, syncStart);
+                total += batch.size();
+                afterUserId = batch.get(batch.size() - 1).getUserId();
+            }
+            int removed = parkingProjectionMapper.deleteNotSyncedSince(syncStart);
+            parkingSyncedFrom = syncStart.getTime();
+            log.info("车位读模型已同步: 业主数={}, 写入={}, 删除={}, 耗时={}ms",
+                    total, written, removed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        } catch (Exception e) {
+            log.error("同步车位读模型失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 与本地已有的行比较，只插入缺失的行、覆盖有变化的行，其余行只更新同步时间
+     *
+     * @return 插入和覆盖的行数
+     */
+    private int applyParkingSnapshot(List<ParkingProjection> batch, Date syncStart) {
+        List<Long> userIds = new ArrayList<>(batch.size());
+        for (ParkingProjection parking : batch) {
+            userIds.add(parking.getUserId());
+        }
+        Map<Long, ParkingProjection> existing = new HashMap<>();
+        for (ParkingProjection parking : parkingProjectionMapper.findByIds(userIds)) {
+            existing.put(parking.getUserId(), parking);
+        }
+
+        List<ParkingProjection> missing = new ArrayList<>();
+        List<Long> unchanged = new ArrayList<>();
+        int written = 0;
+        for (ParkingProjection parking : batch) {
+            ParkingProjection current = existing.get(parking.getUserId());
+            if (current == null) {
+                missing.add(parking);
+            } else if (Objects.equals(current.getOwnerParkingId(), parking.getOwnerParkingId())
+                    && Objects.equals(current.getParkId(), parking.getParkId())
+                    && Objects.equals(current.getParkNum(), parking.getParkNum())
+                    && Objects.equals(current.getActive(), parking.getActive())) {
+                unchanged.add(parking.getUserId());
+            } else {
+                written += parkingProjectionMapper.updateFromSnapshot(parking);
+            }
+        }
+        if (!missing.isEmpty()) {
+            written += parkingProjectionMapper.batchInsertIgnore(missing);
+        }
+        if (!unchanged.isEmpty()) {
+            parkingProjectionMapper.touch(unchanged, syncStart);
+        }
+        return written;
+    }
+
+    private void countLookup(String projection, String result) {
+        lookupCounters.computeIfAbsent(projection + ":" + result, key -> Counter.builder("fee.read.model.lookups")
+                .description("Local read model lookups (stale means the caller fell back to Feign)")
+                .tag("projection", projection)
+                .tag("result", result)
+                .register(meterRegistry)).increment();
+    }
+}
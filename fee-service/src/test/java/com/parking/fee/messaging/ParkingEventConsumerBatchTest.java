@@ -0,0 +1,120 @@
+package com.parking.fee.messaging;
+
+import com.parking.fee.mapper.ParkingFeeMapper;
+import com.parking.fee.service.FeePricingService;
+import com.parking.fee.service.FeeStatsCounter;
+import com.parking.fee.service.ParkingFeeService;
+import com.rabbitmq.client.Channel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 批量消费车位分配事件测试：单条消息处理失败只拒绝该条，写库失败拒绝整批（到本批最后一条为止）
+ *
+ * @author Parking System
+ */
+@ExtendWith(MockitoExtension.class)
+class ParkingEventConsumerBatchTest {
+
+    private static final long ENTRY_TIME = 1764547200000L;
+
+    @Mock
+    private ParkingFeeMapper parkingFeeMapper;
+
+    @Spy
+    private MessageConverter messageConverter = new Jackson2JsonMessageConverter();
+
+    @Mock
+    private FeePricingService feePricingService;
+
+    @Mock
+    private ParkingFeeService parkingFeeService;
+
+    @Mock
+    private FeeStatsCounter feeStatsCounter;
+
+    @Mock
+    private Channel channel;
+
+    @InjectMocks
+    private ParkingEventConsumer parkingEventConsumer;
+
+    @BeforeEach
+    void setUp() {
+        FeePricingService.MonthlyPriceList prices = mock(FeePricingService.MonthlyPriceList.class);
+        when(prices.monthlyFee(any(), any())).thenReturn(new BigDecimal("300.00"));
+        when(feePricingService.snapshot()).thenReturn(prices);
+        when(parkingFeeService.findUserTypes(anyList())).thenReturn(Map.of());
+    }
+
+    @Test
+    void rejectsOnlyTheMessageThatFailsInsideTheBatch() throws Exception {
+        List<Message> messages = List.of(
+                message(1, event(101L, 1L, ENTRY_TIME)),
+                // 缺少入场时间，转换为费用记录时失败
+                message(2, "{\"userId\":102,\"parkId\":2}"),
+                message(3, event(103L, 3L, ENTRY_TIME)));
+
+        parkingEventConsumer.handleParkingAssignedEvents(messages, channel);
+
+        verify(parkingFeeMapper).batchInsert(argThat(fees -> fees.size() == 2));
+        InOrder order = inOrder(channel);
+        order.verify(channel).basicNack(2L, false, false);
+        order.verify(channel).basicAck(3L, true);
+        verify(channel, never()).basicNack(anyLong(), eq(true), anyBoolean());
+    }
+
+    @Test
+    void databaseFailureRejectsTheWholeBatchThroughItsFinalTag() throws Exception {
+        List<Message> messages = List.of(
+                message(1, event(101L, 1L, ENTRY_TIME)),
+                message(2, event(102L, 2L, ENTRY_TIME)),
+                // 最后一条无法解析，写库失败时也随整批拒绝
+                message(3, "not json"));
+        when(parkingFeeMapper.findExistingByKeys(anyList())).thenThrow(new IllegalStateException("db down"));
+
+        parkingEventConsumer.handleParkingAssignedEvents(messages, channel);
+
+        verify(channel).basicNack(3L, true, false);
+        verify(channel, never()).basicNack(anyLong(), eq(false), anyBoolean());
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    private String event(Long userId, Long parkId, long entryTime) {
+        return String.format("{\"userId\":%d,\"parkId\":%d,\"parkType\":\"0\",\"entryTime\":%d}", userId, parkId, entryTime);
+    }
+
+    private Message message(long deliveryTag, String body) {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(deliveryTag);
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        return new Message(body.getBytes(StandardCharsets.UTF_8), properties);
+    }
+}
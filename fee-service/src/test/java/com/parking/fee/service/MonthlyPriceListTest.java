@@ -0,0 +1,32 @@
+package com.parking.fee.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 月租价格快照测试：按车位类型取月租费，VIP业主乘会员折扣率
+ *
+ * @author Parking System
+ */
+class MonthlyPriceListTest {
+
+    private final FeePricingService.MonthlyPriceList prices = new FeePricingService.MonthlyPriceList(
+            new BigDecimal("300.00"), Map.of("1", new BigDecimal("450.00")), new BigDecimal("0.85"));
+
+    @Test
+    void normalOwnerPaysTheParkTypeFee() {
+        assertThat(prices.monthlyFee("0", "NORMAL")).isEqualByComparingTo("300.00");
+        assertThat(prices.monthlyFee("1", "NORMAL")).isEqualByComparingTo("450.00");
+        assertThat(prices.monthlyFee(null, null)).isEqualByComparingTo("300.00");
+    }
+
+    @Test
+    void vipOwnerGetsTheMemberDiscount() {
+        assertThat(prices.monthlyFee("0", "VIP")).isEqualByComparingTo("255.00");
+        assertThat(prices.monthlyFee("1", "vip")).isEqualByComparingTo("382.50");
+    }
+}
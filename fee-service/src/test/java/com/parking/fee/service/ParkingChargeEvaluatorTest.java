@@ -0,0 +1,67 @@
+package com.parking.fee.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 停车计费规则测试：按小时（含每日封顶）与按月折算取较低者，VIP折扣
+ *
+ * @author Parking System
+ */
+class ParkingChargeEvaluatorTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+
+    /**
+     * 首小时5元，之后每小时3元，每天最多40元，月租3000元（按小时计费通常更低），VIP八折
+     */
+    private final ParkingChargeEvaluator hourlyCheaper = new ParkingChargeEvaluator(
+            new BigDecimal("5"), new BigDecimal("3"), new BigDecimal("40"), new BigDecimal("3000"), new BigDecimal("0.8"));
+
+    /**
+     * 同样的小时费率，月租300元（按月折算通常更低）
+     */
+    private final ParkingChargeEvaluator proratedCheaper = new ParkingChargeEvaluator(
+            new BigDecimal("5"), new BigDecimal("3"), new BigDecimal("40"), new BigDecimal("300"), new BigDecimal("0.8"));
+
+    @Test
+    void partialHourIsChargedAsFullHour() {
+        assertThat(hourlyCheaper.charge(0, 30 * MINUTE, 30, false)).isEqualByComparingTo("5.00");
+        assertThat(hourlyCheaper.charge(0, 3 * HOUR, 30, false)).isEqualByComparingTo("11.00");
+        assertThat(hourlyCheaper.charge(0, 3 * HOUR + 1, 30, false)).isEqualByComparingTo("14.00");
+    }
+
+    @Test
+    void dailyMaximumCapsEachFullDay() {
+        assertThat(hourlyCheaper.charge(0, 20 * HOUR, 30, false)).isEqualByComparingTo("40.00");
+        // 第一天封顶40元，剩余6小时 5 + 5 × 3 = 20元
+        assertThat(hourlyCheaper.charge(0, 30 * HOUR, 30, false)).isEqualByComparingTo("60.00");
+    }
+
+    @Test
+    void proratedMonthlyFeeWinsWhenLower() {
+        // 30小时按两天折算：300 × 2 / 30 = 20元，低于按小时的60元
+        assertThat(proratedCheaper.charge(0, 30 * HOUR, 30, false)).isEqualByComparingTo("20.00");
+        // 300 / 31 = 9.677… 四舍五入到分
+        assertThat(proratedCheaper.charge(0, 20 * HOUR, 31, false)).isEqualByComparingTo("9.68");
+        // 折算天数不超过当月天数
+        assertThat(proratedCheaper.charge(0, 40 * DAY, 30, false)).isEqualByComparingTo("300.00");
+    }
+
+    @Test
+    void vipDiscountIsAppliedAfterChoosingTheLowerCharge() {
+        assertThat(hourlyCheaper.charge(0, 3 * HOUR, 30, true)).isEqualByComparingTo("8.80");
+        assertThat(proratedCheaper.charge(0, 20 * HOUR, 31, true)).isEqualByComparingTo("7.74");
+    }
+
+    @Test
+    void emptyOrReversedIntervalIsFree() {
+        assertThat(hourlyCheaper.chargeCents(HOUR, HOUR, 30, false)).isZero();
+        assertThat(hourlyCheaper.chargeCents(2 * HOUR, HOUR, 30, true)).isZero();
+    }
+}
@@ -0,0 +1,157 @@
+package com.parking.fee.service;
+
+import com.parking.fee.entity.OwnerProjection;
+import com.parking.fee.entity.ParkingFee;
+import com.parking.fee.event.ParkingReturnedEvent;
+import com.parking.fee.mapper.ParkingFeeMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 退位结算测试：退位当月没有账单时按结算金额生成，已有未缴费账单时按较低金额结算，已缴费账单不再修改
+ *
+ * @author Parking System
+ */
+@ExtendWith(MockitoExtension.class)
+class ParkingFeeSettlementTest {
+
+    private static final Long USER_ID = 1L;
+    private static final Long PARK_ID = 6L;
+    private static final String MONTH = "2025-12";
+    private static final BigDecimal CHARGE = new BigDecimal("120.00");
+
+    @Mock
+    private ParkingFeeMapper parkingFeeMapper;
+
+    @Mock
+    private ReadModelService readModelService;
+
+    @Mock
+    private FeePricingService feePricingService;
+
+    @Mock
+    private FeeStatsCounter feeStatsCounter;
+
+    @InjectMocks
+    private ParkingFeeService parkingFeeService;
+
+    @BeforeEach
+    void setUp() {
+        OwnerProjection owner = new OwnerProjection();
+        owner.setUserId(USER_ID);
+        owner.setUserType("NORMAL");
+        when(readModelService.findOwner(USER_ID)).thenReturn(owner);
+        when(feePricingService.finalCharge(any(), any(), eq("NORMAL"))).thenReturn(CHARGE);
+    }
+
+    @Test
+    void createsBillWhenMonthHasNone() {
+        ParkingFee inserted = fee(100L, CHARGE, "0");
+        when(parkingFeeMapper.findByUserIdAndParkIdAndMonthForUpdate(USER_ID, PARK_ID, MONTH))
+                .thenReturn(null, inserted);
+        doAnswer(invocation -> {
+            invocation.<ParkingFee>getArgument(0).setFeeId(100L);
+            return 1;
+        }).when(parkingFeeMapper).insertOrKeep(any());
+
+        ParkingFee settled = parkingFeeService.settleReturnedParking(returned());
+
+        assertThat(settled.getFeeId()).isEqualTo(100L);
+        assertThat(settled.getPayParkMoney()).isEqualByComparingTo(CHARGE);
+        verify(feeStatsCounter).unpaidAdded(MONTH, CHARGE);
+        verify(parkingFeeMapper, never()).updateUnpaidAmount(anyLong(), any());
+    }
+
+    @Test
+    void settlesBillCreatedConcurrentlyByBillingRun() {
+        // 查询时还没有账单，插入时批量出账已生成当月账单（ODKU保留已有记录，回填的ID不同）
+        ParkingFee billed = fee(200L, new BigDecimal("300.00"), "0");
+        when(parkingFeeMapper.findByUserIdAndParkIdAndMonthForUpdate(USER_ID, PARK_ID, MONTH))
+                .thenReturn(null, billed);
+        when(parkingFeeMapper.updateUnpaidAmount(200L, CHARGE)).thenReturn(1);
+
+        ParkingFee settled = parkingFeeService.settleReturnedParking(returned());
+
+        assertThat(settled.getFeeId()).isEqualTo(200L);
+        assertThat(settled.getPayParkMoney()).isEqualByComparingTo(CHARGE);
+        verify(feeStatsCounter).unpaidAmountChanged(MONTH, new BigDecimal("300.00"), CHARGE);
+        verify(feeStatsCounter, never()).unpaidAdded(any(), any());
+    }
+
+    @Test
+    void lowersExistingUnpaidBill() {
+        ParkingFee billed = fee(300L, new BigDecimal("300.00"), "0");
+        when(parkingFeeMapper.findByUserIdAndParkIdAndMonthForUpdate(USER_ID, PARK_ID, MONTH)).thenReturn(billed);
+        when(parkingFeeMapper.updateUnpaidAmount(300L, CHARGE)).thenReturn(1);
+
+        ParkingFee settled = parkingFeeService.settleReturnedParking(returned());
+
+        assertThat(settled.getPayParkMoney()).isEqualByComparingTo(CHARGE);
+        verify(parkingFeeMapper, never()).insertOrKeep(any());
+    }
+
+    @Test
+    void keepsExistingBillThatIsAlreadyLower() {
+        ParkingFee billed = fee(400L, new BigDecimal("80.00"), "0");
+        when(parkingFeeMapper.findByUserIdAndParkIdAndMonthForUpdate(USER_ID, PARK_ID, MONTH)).thenReturn(billed);
+
+        ParkingFee settled = parkingFeeService.settleReturnedParking(returned());
+
+        assertThat(settled.getPayParkMoney()).isEqualByComparingTo("80.00");
+        verify(parkingFeeMapper, never()).updateUnpaidAmount(anyLong(), any());
+    }
+
+    @Test
+    void leavesPaidBillUntouched() {
+        ParkingFee paid = fee(500L, new BigDecimal("300.00"), "1");
+        when(parkingFeeMapper.findByUserIdAndParkIdAndMonthForUpdate(USER_ID, PARK_ID, MONTH)).thenReturn(paid);
+
+        assertThat(parkingFeeService.settleReturnedParking(returned())).isNull();
+        verify(parkingFeeMapper, never()).updateUnpaidAmount(anyLong(), any());
+        verify(feeStatsCounter, never()).unpaidAmountChanged(any(), any(), any());
+    }
+
+    private ParkingReturnedEvent returned() {
+        ParkingReturnedEvent event = new ParkingReturnedEvent();
+        event.setEventId("evt-returned");
+        event.setUserId(USER_ID);
+        event.setParkId(PARK_ID);
+        event.setEntryTime(toDate(LocalDateTime.of(2025, 11, 20, 8, 0)));
+        event.setExitTime(toDate(YearMonth.parse(MONTH).atDay(10).atTime(18, 0)));
+        return event;
+    }
+
+    private ParkingFee fee(Long feeId, BigDecimal amount, String payStatus) {
+        ParkingFee fee = new ParkingFee();
+        fee.setFeeId(feeId);
+        fee.setUserId(USER_ID);
+        fee.setParkId(PARK_ID);
+        fee.setPayParkMonth(MONTH);
+        fee.setPayParkMoney(amount);
+        fee.setPayParkStatus(payStatus);
+        return fee;
+    }
+
+    private static Date toDate(LocalDateTime time) {
+        return Date.from(time.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -21,7 +21,8 @@ const API = {
         GET: (id) => `/user/user/owners/${id}`,
         CREATE: '/user/user/owners',
         UPDATE: (id) => `/user/user/owners/${id}`,
-        DELETE: (id) => `/user/user/owners/${id}`
+        DELETE: (id) => `/user/user/owners/${id}`,
+        STATS: '/user/user/owners/stats'
     },
 
     // 车位管理（管理员）
@@ -33,7 +34,8 @@ const API = {
         UPDATE: (id) => `/parking/parking/admin/parkings/${id}`,
         DELETE: (id) => `/parking/parking/admin/parkings/${id}`,
         ASSIGN: '/parking/parking/admin/parkings/assign',
-        RETURN: '/parking/parking/admin/parkings/return'
+        RETURN: '/parking/parking/admin/parkings/return',
+        STATS: '/parking/parking/admin/parkings/occupancy'
     },
 
     // 费用管理（管理员）
@@ -42,7 +44,8 @@ const API = {
         GET: (id) => `/fee/fee/admin/${id}`,
         CREATE: '/fee/fee/admin',
         UPDATE: (id) => `/fee/fee/admin/${id}`,
-        DELETE: (id) => `/fee/fee/admin/${id}`
+        DELETE: (id) => `/fee/fee/admin/${id}`,
+        STATS: '/fee/fee/admin/stats'
     },
 
     // 业主端 - 车位
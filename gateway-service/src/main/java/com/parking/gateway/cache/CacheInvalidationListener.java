@@ -0,0 +1,71 @@
+package com.parking.gateway.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Cache Invalidation Listener
+ * Drops cached responses when domain events on parking.exchange change what an owner would read.
+ * Events carrying a userId (parking.assigned, fee.paid, ...) drop that owner's entries; space changes other than
+ * the ones listed below carry no owner and drop everything. The raw message is read as JSON, so the gateway
+ * does not need the services' event classes
+ *
+ * @author Parking Management System
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class CacheInvalidationListener {
+
+    /**
+     * Role of the userId carried by domain events
+     */
+    private static final String OWNER_ROLE = "owner";
+
+    private static final String SPACE_CHANGED_ROUTING_KEY = "parking.space.changed";
+
+    /**
+     * Space changes that do not touch any owner's data, or that are always accompanied by an event with the userId
+     */
+    private static final Set<String> IGNORED_SPACE_CHANGES = Set.of("ADDED", "ASSIGNED");
+
+    private final ResponseCache responseCache;
+
+    private final ObjectMapper objectMapper;
+
+    public CacheInvalidationListener(ResponseCache responseCache, ObjectMapper objectMapper) {
+        this.responseCache = responseCache;
+        this.objectMapper = objectMapper;
+    }
+
+    @RabbitListener(id = "gatewayCacheInvalidationListener", queues = "#{cacheInvalidationQueue.name}")
+    public void onEvent(Message message) {
+        String routingKey = message.getMessageProperties().getReceivedRoutingKey();
+        JsonNode event;
+        try {
+            event = objectMapper.readTree(message.getBody());
+        } catch (IOException e) {
+            log.warn("【Response Cache】Unreadable event on {}, dropping all cached responses", routingKey);
+            responseCache.invalidateAll();
+            return;
+        }
+
+        JsonNode userId = event.path("userId");
+        if (!userId.isMissingNode() && !userId.isNull()) {
+            responseCache.invalidateUser(ResponseCache.principal(OWNER_ROLE, userId.asText()));
+            return;
+        }
+        if (SPACE_CHANGED_ROUTING_KEY.equals(routingKey)
+                && IGNORED_SPACE_CHANGES.contains(event.path("changeType").asText())) {
+            return;
+        }
+        responseCache.invalidateAll();
+    }
+}
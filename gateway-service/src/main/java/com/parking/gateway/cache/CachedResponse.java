@@ -0,0 +1,34 @@
+package com.parking.gateway.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+
+/**
+ * Cached Response
+ * Upstream response captured by ResponseCacheFilter: shared with coalesced requests and, when cacheable,
+ * stored in ResponseCache
+ *
+ * @author Parking Management System
+ * @version 1.0
+ */
+@Getter
+@AllArgsConstructor
+public class CachedResponse {
+
+    private final HttpStatusCode status;
+
+    private final MediaType contentType;
+
+    private final byte[] body;
+
+    /**
+     * Quoted strong ETag, null when the response must not be cached (error status or business code)
+     */
+    private final String etag;
+
+    public boolean isCacheable() {
+        return etag != null;
+    }
+}
@@ -0,0 +1,123 @@
+package com.parking.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Response Cache
+ * Per-user store of cached GET responses plus the table of in-flight upstream calls used for request coalescing.
+ * Keys are "role:userId + path + query", so a user only ever sees responses fetched with their own identity
+ * (admin and owner ids come from different tables and may collide, hence the role)
+ *
+ * @author Parking Management System
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class ResponseCache {
+
+    private static final char KEY_SEPARATOR = '\n';
+
+    private final Cache<String, CachedResponse> responses;
+
+    private final Map<String, Mono<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Bumped on every invalidation; a fetch that started before an invalidation does not store its result,
+     * otherwise a response read just before a write could be cached after the write invalidated the user
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ResponseCache(ResponseCacheProperties properties) {
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+                        return TimeUnit.SECONDS.toNanos(properties.getTtlSeconds());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse response, long currentTime, long currentDuration) {
+                        return TimeUnit.SECONDS.toNanos(properties.getTtlSeconds());
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse response, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public static String principal(String role, String userId) {
+        return role + ":" + userId;
+    }
+
+    public static String key(String principal, String path, String query) {
+        return principal + KEY_SEPARATOR + path + (query != null ? "?" + query : "");
+    }
+
+    public CachedResponse get(String key) {
+        return responses.getIfPresent(key);
+    }
+
+    /**
+     * Join the in-flight upstream call for this key, or start one. The call runs once no matter how many
+     * requests join it; its result is stored when cacheable and no invalidation happened meanwhile
+     *
+     * @param key    cache key
+     * @param leader set to true when this caller started the upstream call
+     * @param fetch  upstream call, only invoked by the leader
+     * @return shared upstream result
+     */
+    public Mono<CachedResponse> coalesce(String key, boolean[] leader, Supplier<Mono<CachedResponse>> fetch) {
+        return inFlight.computeIfAbsent(key, k -> {
+            leader[0] = true;
+            long startedAt = invalidations.get();
+            AtomicReference<Mono<CachedResponse>> self = new AtomicReference<>();
+            self.set(fetch.get()
+                    .doOnNext(response -> {
+                        if (response.isCacheable() && invalidations.get() == startedAt) {
+                            responses.put(k, response);
+                        }
+                    })
+                    .doFinally(signal -> inFlight.remove(k, self.get()))
+                    .cache());
+            return self.get();
+        });
+    }
+
+    /**
+     * Drop every cached response of one user
+     *
+     * @param principal see {@link #principal(String, String)}
+     */
+    public void invalidateUser(String principal) {
+        invalidations.incrementAndGet();
+        String prefix = principal + KEY_SEPARATOR;
+        responses.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        log.debug("【Response Cache】Invalidated responses of {}", principal);
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        responses.invalidateAll();
+        log.debug("【Response Cache】Invalidated all responses");
+    }
+
+    public long size() {
+        return responses.estimatedSize();
+    }
+}
@@ -0,0 +1,271 @@
+package com.parking.gateway.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parking.gateway.util.IdentityHeaderSigner;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Response Cache Global Filter
+ * Caches GET responses of read-mostly owner endpoints per authenticated user for a short TTL:
+ * - hit: served from the gateway without calling the service
+ * - concurrent identical requests: one upstream call, every request gets its result (coalescing)
+ * - cacheable responses carry a strong ETag computed from code/message/data (not the per-response timestamp),
+ *   so If-None-Match gets a 304 as long as the data is unchanged, even across refetches
+ * Only HTTP 200 responses with business code 200 are stored. Any non-GET request drops the caller's entries,
+ * domain events on parking.exchange drop the affected owner's entries (CacheInvalidationListener)
+ *
+ * @author Parking Management System
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    public static final String CACHE_STATUS_HEADER = "X-Gateway-Cache";
+
+    private final ResponseCache responseCache;
+
+    private final ResponseCacheProperties properties;
+
+    private final ObjectMapper objectMapper;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Patterns compiled from properties.paths, recompiled when a refresh rebinds the list
+     */
+    private volatile List<String> compiledFrom;
+
+    private volatile List<PathPattern> pathPatterns = List.of();
+
+    public ResponseCacheFilter(ResponseCache responseCache, ResponseCacheProperties properties,
+                               ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.responseCache = responseCache;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("gateway.response.cache.size", responseCache, ResponseCache::size)
+                .description("Responses currently held by the gateway response cache")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        // Set by JwtAuthenticationFilter from the verified token (client copies are stripped)
+        String userId = request.getHeaders().getFirst(IdentityHeaderSigner.HEADER_USER_ID);
+        if (!properties.isEnabled() || userId == null || userId.isEmpty()) {
+            return chain.filter(exchange);
+        }
+        String principal = ResponseCache.principal(
+                request.getHeaders().getFirst(IdentityHeaderSigner.HEADER_USER_ROLE), userId);
+
+        if (request.getMethod() != HttpMethod.GET) {
+            // The caller's own writes make their cached reads stale
+            return chain.filter(exchange).doFinally(signal -> responseCache.invalidateUser(principal));
+        }
+        if (!isCached(request)) {
+            return chain.filter(exchange);
+        }
+
+        String key = ResponseCache.key(principal, request.getPath().value(), request.getURI().getRawQuery());
+        CachedResponse cached = responseCache.get(key);
+        if (cached != null) {
+            return write(exchange, cached, "HIT");
+        }
+
+        boolean[] leader = new boolean[1];
+        return responseCache.coalesce(key, leader, () -> Mono.defer(() -> fetch(exchange, chain)))
+                .flatMap(response -> write(exchange, response, leader[0] ? "MISS" : "COALESCED"));
+    }
+
+    private boolean isCached(ServerHttpRequest request) {
+        List<String> paths = properties.getPaths();
+        if (paths != compiledFrom) {
+            pathPatterns = paths.stream()
+                    .map(String::trim)
+                    .filter(path -> !path.isEmpty())
+                    .map(PathPatternParser.defaultInstance::parse)
+                    .toList();
+            compiledFrom = paths;
+        }
+        for (PathPattern pattern : pathPatterns) {
+            if (pattern.matches(request.getPath().pathWithinApplication())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Run the rest of the chain with a response decorator that captures the upstream body instead of writing it;
+     * write() sends it afterwards, to this exchange and to every coalesced one
+     */
+    private Mono<CachedResponse> fetch(ServerWebExchange exchange, GatewayFilterChain chain) {
+        BodyCapturingResponse capture = new BodyCapturingResponse(exchange.getResponse());
+        return chain.filter(exchange.mutate().response(capture).build())
+                .then(Mono.fromSupplier(capture::toCachedResponse));
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, CachedResponse cached, String cacheStatus) {
+        count(cacheStatus);
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.set(CACHE_STATUS_HEADER, cacheStatus);
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+
+        if (cached.isCacheable()) {
+            headers.setETag(cached.getEtag());
+            headers.setCacheControl("private, no-cache");
+            if (etagMatches(exchange.getRequest().getHeaders(), cached.getEtag())) {
+                count("NOT_MODIFIED");
+                response.setStatusCode(HttpStatus.NOT_MODIFIED);
+                headers.remove(HttpHeaders.CONTENT_TYPE);
+                headers.remove(HttpHeaders.CONTENT_LENGTH);
+                return response.setComplete();
+            }
+        }
+
+        response.setStatusCode(cached.getStatus());
+        if (cached.getContentType() != null) {
+            headers.setContentType(cached.getContentType());
+        }
+        headers.setContentLength(cached.getBody().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.getBody())));
+    }
+
+    private static boolean etagMatches(HttpHeaders requestHeaders, String etag) {
+        List<String> ifNoneMatch;
+        try {
+            ifNoneMatch = requestHeaders.getIfNoneMatch();
+        } catch (IllegalArgumentException e) {
+            // Malformed If-None-Match: answer with the full response
+            return false;
+        }
+        for (String candidate : ifNoneMatch) {
+            String value = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            if (value.equals(etag) || "*".equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * ETag for a successful JSON Result body, null if the response must not be cached
+     */
+    private String etagFor(HttpStatusCode status, byte[] body) {
+        if (status == null || status.value() != HttpStatus.OK.value() || body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode result = objectMapper.readTree(body);
+            if (result.path("code").asInt() != HttpStatus.OK.value()) {
+                return null;
+            }
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(result.path("message").asText().getBytes(StandardCharsets.UTF_8));
+            digest.update(objectMapper.writeValueAsBytes(result.path("data")));
+            byte[] hash = digest.digest();
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash).substring(0, 22) + "\"";
+        } catch (IOException e) {
+            return null;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private void count(String result) {
+        counters.computeIfAbsent(result, key -> Counter.builder("gateway.response.cache")
+                .description("Gateway response cache lookups")
+                .tag("result", key.toLowerCase())
+                .register(meterRegistry)).increment();
+    }
+
+    /**
+     * Runs before NettyWriteResponseFilter so the upstream body passes through the decorator
+     *
+     * @return order value (after JwtAuthenticationFilter, which supplies the user id)
+     */
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 10;
+    }
+
+    /**
+     * Collects the body written by the routing filter; status and headers go to the real response as usual
+     */
+    private class BodyCapturingResponse extends ServerHttpResponseDecorator {
+
+        private byte[] body = new byte[0];
+
+        BodyCapturingResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> bodyPublisher) {
+            return DataBufferUtils.join(Flux.from(bodyPublisher))
+                    .doOnNext(buffer -> {
+                        byte[] bytes = new byte[buffer.readableByteCount()];
+                        buffer.read(bytes);
+                        DataBufferUtils.release(buffer);
+                        body = bytes;
+                    })
+                    .then();
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> bodyPublisher) {
+            return writeWith(Flux.from(bodyPublisher).flatMapSequential(publisher -> publisher));
+        }
+
+        /**
+         * Completion is left to write(), which sends the captured response
+         */
+        @Override
+        public Mono<Void> setComplete() {
+            return Mono.empty();
+        }
+
+        CachedResponse toCachedResponse() {
+            HttpStatusCode status = getStatusCode() != null ? getStatusCode() : HttpStatus.OK;
+            return new CachedResponse(status, getHeaders().getContentType(), body, etagFor(status, body));
+        }
+    }
+}
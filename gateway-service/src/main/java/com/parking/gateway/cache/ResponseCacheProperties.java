@@ -0,0 +1,38 @@
+package com.parking.gateway.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Response Cache Properties
+ * Settings for the per-user GET response cache, bound from gateway.response-cache.* (rebound on Nacos refresh)
+ *
+ * @author Parking Management System
+ * @version 1.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * How long a cached response is served; applies to entries cached after a change
+     */
+    private long ttlSeconds = 5;
+
+    /**
+     * Upper bound on cached responses (all users together), fixed at startup
+     */
+    private long maxEntries = 10000;
+
+    /**
+     * Gateway paths (PathPattern syntax, before StripPrefix) whose GET responses are cached
+     */
+    private List<String> paths = new ArrayList<>();
+}
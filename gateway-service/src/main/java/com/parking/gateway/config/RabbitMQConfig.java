@@ -0,0 +1,54 @@
+package com.parking.gateway.config;
+
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.ExchangeBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * RabbitMQ Configuration
+ * The gateway only listens: every instance binds its own auto-delete queue to parking.exchange
+ * and drops cached responses when domain events arrive
+ *
+ * @author Parking Management System
+ * @version 1.0
+ */
+@Configuration
+public class RabbitMQConfig {
+
+    /**
+     * Domain event exchange (declared the same way by parking-service and fee-service)
+     */
+    public static final String PARKING_EXCHANGE = "parking.exchange";
+
+    @Bean
+    public TopicExchange parkingExchange() {
+        return ExchangeBuilder
+                .topicExchange(PARKING_EXCHANGE)
+                .durable(true)
+                .build();
+    }
+
+    /**
+     * Per-instance cache invalidation queue, deleted when the instance goes away
+     */
+    @Bean
+    public Queue cacheInvalidationQueue() {
+        return new AnonymousQueue();
+    }
+
+    /**
+     * Every routing key: the listener decides which events affect cached responses
+     */
+    @Bean
+    public Binding cacheInvalidationBinding(Queue cacheInvalidationQueue, TopicExchange parkingExchange) {
+        return BindingBuilder
+                .bind(cacheInvalidationQueue)
+                .to(parkingExchange)
+                .with("#");
+    }
+}
@@ -1,21 +1,36 @@
 package com.parking.gateway.filter;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.parking.gateway.util.IdentityHeaderSigner;
 import com.parking.gateway.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JWT Authentication Global Filter
@@ -31,6 +46,12 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private IdentityHeaderSigner identityHeaderSigner;
+
+    @Autowired
+    private Environment environment;
+
     @Value("${jwt.header}")
     private String tokenHeader;
 
@@ -40,13 +61,62 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
     @Value("#{'${auth.whitelist}'.split(',')}")
     private List<String> whitelist;
 
-    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    @Value("${jwt.cache.max-size:10000}")
+    private long claimsCacheMaxSize;
+
+    /**
+     * Whitelist compiled from auth.whitelist; replaced as a whole when Nacos changes the property
+     */
+    private volatile WhitelistMatcher whitelistMatcher;
+
+    /**
+     * Verified-token cache: SHA-256 digest of the token -> parsed claims.
+     * Each entry expires at the token's own exp, so a cached token is never accepted after it expires.
+     * Only successfully verified tokens are cached.
+     */
+    private Cache<String, Claims> claimsCache;
+
+    @PostConstruct
+    public void init() {
+        this.whitelistMatcher = WhitelistMatcher.compile(whitelist);
+        this.claimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         String path = exchange.getRequest().getURI().getPath();
         log.debug("【Gateway Filter】Processing request: {}", path);
 
+        // Drop any identity headers sent by the client; only the gateway may set them
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(headers -> {
+                    headers.remove(IdentityHeaderSigner.HEADER_USER_ID);
+                    headers.remove(IdentityHeaderSigner.HEADER_USER_ROLE);
+                    headers.remove(IdentityHeaderSigner.HEADER_USER_NAME);
+                    headers.remove(IdentityHeaderSigner.HEADER_SIGNATURE);
+                })
+                .build();
+        exchange = exchange.mutate().request(request).build();
+
         // Check if path is in whitelist
         if (isWhitelisted(path)) {
             log.debug("【Gateway Filter】Path is whitelisted: {}", path);
@@ -66,24 +136,32 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
         // Extract token (remove "Bearer " prefix)
         String token = authHeader.substring(tokenPrefix.length() + 1);
 
-        // Validate token
-        if (!jwtUtil.validateToken(token)) {
+        // Validate token (cache hit skips signature verification entirely)
+        Claims claims = resolveClaims(token);
+        if (claims == null) {
             log.warn("【Gateway Filter】Invalid JWT token for path: {}", path);
             exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
             return exchange.getResponse().setComplete();
         }
 
         // Extract username from token
-        String username = jwtUtil.getUsernameFromToken(token);
+        String username = claims.getSubject();
         if (username == null) {
             log.warn("【Gateway Filter】Failed to extract username from token");
             exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
             return exchange.getResponse().setComplete();
         }
 
-        // Add username to request header for downstream services
-        ServerHttpRequest mutatedRequest = exchange.getRequest().mutate()
-                .header("X-User-Name", username)
+        // Add signed identity headers for downstream services
+        Object userIdClaim = claims.get("userId");
+        String userId = userIdClaim != null ? userIdClaim.toString() : "";
+        String role = claims.get("roleType", String.class);
+        role = role != null ? role : "";
+        ServerHttpRequest mutatedRequest = request.mutate()
+                .header(IdentityHeaderSigner.HEADER_USER_NAME, username)
+                .header(IdentityHeaderSigner.HEADER_USER_ID, userId)
+                .header(IdentityHeaderSigner.HEADER_USER_ROLE, role)
+                .header(IdentityHeaderSigner.HEADER_SIGNATURE, identityHeaderSigner.sign(userId, role, username))
                 .build();
 
         log.info("【Gateway Filter】JWT validation successful for user: {} on path: {}", username, path);
@@ -92,19 +170,65 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
         return chain.filter(exchange.mutate().request(mutatedRequest).build());
     }
 
+    /**
+     * Resolve verified claims for a token, parsing it at most once per cache miss
+     *
+     * @param token JWT token
+     * @return claims if the token is valid, null otherwise
+     */
+    private Claims resolveClaims(String token) {
+        String cacheKey = digest(token);
+        Claims claims = claimsCache.getIfPresent(cacheKey);
+        if (claims != null) {
+            return claims;
+        }
+
+        claims = jwtUtil.getClaimsFromToken(token);
+        if (claims != null && claims.getExpiration() != null && claims.getExpiration().after(new Date())) {
+            claimsCache.put(cacheKey, claims);
+        }
+        return claims;
+    }
+
+    /**
+     * SHA-256 digest of the token, used as cache key so raw tokens are not retained in memory
+     *
+     * @param token JWT token
+     * @return Base64 encoded digest
+     */
+    private String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = messageDigest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     /**
      * Check if the path is in the whitelist
      *
      * @param path the request path
      * @return true if whitelisted, false otherwise
      */
-    private boolean isWhitelisted(String path) {
-        for (String pattern : whitelist) {
-            if (pathMatcher.match(pattern.trim(), path)) {
-                return true;
-            }
+    boolean isWhitelisted(String path) {
+        return whitelistMatcher.matches(path);
+    }
+
+    /**
+     * Recompile the whitelist after a config refresh changed auth.whitelist
+     *
+     * @param event keys changed by the refresh
+     */
+    @EventListener(EnvironmentChangeEvent.class)
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (!event.getKeys().contains("auth.whitelist")) {
+            return;
         }
-        return false;
+        whitelist = Arrays.asList(environment.getProperty("auth.whitelist", "").split(","));
+        whitelistMatcher = WhitelistMatcher.compile(whitelist);
+        log.info("【Gateway Filter】Whitelist reloaded: {}", whitelist);
     }
 
     /**
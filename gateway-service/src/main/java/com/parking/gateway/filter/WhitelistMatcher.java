@@ -0,0 +1,93 @@
+package com.parking.gateway.filter;
+
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Whitelist Matcher
+ * Auth whitelist compiled once from the Ant-style patterns in auth.whitelist. Patterns fall into three groups:
+ * exact paths (hash lookup), "prefix/**" patterns (startsWith on a segment boundary) and anything else
+ * (AntPathMatcher, same semantics as before). The first two groups cover every configured whitelist and
+ * match without allocating; a path that matches nothing only pays for the hash lookup and a few prefix checks
+ *
+ * @author Parking Management System
+ * @version 1.0
+ */
+final class WhitelistMatcher {
+
+    private static final String ANY_SUFFIX = "/**";
+
+    private final Set<String> exactPaths;
+
+    private final String[] prefixes;
+
+    private final String[] antPatterns;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private WhitelistMatcher(Set<String> exactPaths, List<String> prefixes, List<String> antPatterns) {
+        this.exactPaths = exactPaths;
+        this.prefixes = prefixes.toArray(new String[0]);
+        this.antPatterns = antPatterns.toArray(new String[0]);
+    }
+
+    /**
+     * Compile the configured patterns (entries are trimmed, blank entries ignored)
+     *
+     * @param patterns Ant-style whitelist patterns
+     * @return compiled matcher
+     */
+    static WhitelistMatcher compile(List<String> patterns) {
+        Set<String> exactPaths = new HashSet<>();
+        List<String> prefixes = new ArrayList<>();
+        List<String> antPatterns = new ArrayList<>();
+        for (String raw : patterns) {
+            String pattern = raw.trim();
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            if (!hasWildcard(pattern)) {
+                exactPaths.add(pattern);
+            } else if (pattern.endsWith(ANY_SUFFIX)
+                    && !hasWildcard(pattern.substring(0, pattern.length() - ANY_SUFFIX.length()))) {
+                prefixes.add(pattern.substring(0, pattern.length() - ANY_SUFFIX.length()));
+            } else {
+                antPatterns.add(pattern);
+            }
+        }
+        return new WhitelistMatcher(exactPaths, prefixes, antPatterns);
+    }
+
+    /**
+     * Check if the path matches any whitelist pattern
+     *
+     * @param path the request path
+     * @return true if whitelisted, false otherwise
+     */
+    boolean matches(String path) {
+        if (exactPaths.contains(path)) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            // "/actuator/**" matches "/actuator" and "/actuator/...", but not "/actuatorX"
+            if (path.startsWith(prefix)
+                    && (path.length() == prefix.length() || path.charAt(prefix.length()) == '/')) {
+                return true;
+            }
+        }
+        for (String pattern : antPatterns) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasWildcard(String pattern) {
+        return pattern.indexOf('*') >= 0 || pattern.indexOf('?') >= 0 || pattern.indexOf('{') >= 0;
+    }
+}
@@ -0,0 +1,191 @@
+package com.parking.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local Rate Limiter
+ * In-process replacement for RedisRateLimiter: one token bucket per (route, key), where the key comes from
+ * UserKeyResolver. Each route can also cap its total rate with an optional route-wide bucket.
+ *
+ * Route config (Nacos):
+ * <pre>
+ * - name: RequestRateLimiter
+ *   args:
+ *     local-rate-limiter.replenishRate: 10
+ *     local-rate-limiter.burstCapacity: 20
+ *     local-rate-limiter.routeReplenishRate: 500
+ * </pre>
+ * Limits are per gateway instance; with N instances the effective limit is N times the configured one
+ *
+ * @author Parking Management System
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class LocalRateLimiter extends AbstractRateLimiter<LocalRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+
+    private static final String ROUTE_BUCKET_KEY = "*";
+
+    private final RateLimitProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * (routeId, key) -> bucket; idle buckets are evicted, which is equivalent to refilling them
+     */
+    private final Cache<String, TokenBucket> buckets;
+
+    private final Map<String, Counter> rejectedCounters = new ConcurrentHashMap<>();
+
+    public LocalRateLimiter(RateLimitProperties properties, ConfigurationService configurationService,
+                            MeterRegistry meterRegistry) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(Duration.ofSeconds(properties.getIdleEvictSeconds()))
+                .build();
+        Gauge.builder("gateway.ratelimit.buckets", buckets, Cache::estimatedSize)
+                .description("Token buckets currently tracked by the local rate limiter")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        if (!properties.isEnabled()) {
+            return Mono.just(new Response(true, Map.of(REMAINING_HEADER, "-1")));
+        }
+
+        Config config = getConfig().get(routeId);
+        int replenishRate = positive(config != null ? config.getReplenishRate() : 0, properties.getRequestsPerSecond());
+        int burstCapacity = positive(config != null ? config.getBurstCapacity() : 0,
+                positive(properties.getBurstCapacity(), replenishRate * 2));
+        int requestedTokens = positive(config != null ? config.getRequestedTokens() : 0, 1);
+
+        long remaining = bucket(routeId, id).tryAcquire(requestedTokens, replenishRate, burstCapacity);
+        boolean allowed = remaining >= 0;
+        if (allowed && config != null && config.getRouteReplenishRate() > 0) {
+            int routeReplenishRate = config.getRouteReplenishRate();
+            int routeBurstCapacity = positive(config.getRouteBurstCapacity(), routeReplenishRate * 2);
+            allowed = bucket(routeId, ROUTE_BUCKET_KEY).tryAcquire(requestedTokens, routeReplenishRate, routeBurstCapacity) >= 0;
+        }
+
+        if (!allowed) {
+            rejectedCounter(routeId, id).increment();
+            log.debug("【Rate Limiter】Rejected request on route {} for key {}", routeId, id);
+        }
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put(REMAINING_HEADER, String.valueOf(Math.max(remaining, 0)));
+        headers.put(REPLENISH_RATE_HEADER, String.valueOf(replenishRate));
+        headers.put(BURST_CAPACITY_HEADER, String.valueOf(burstCapacity));
+        return Mono.just(new Response(allowed, headers));
+    }
+
+    private TokenBucket bucket(String routeId, String id) {
+        return buckets.get(routeId + "|" + id, key -> new TokenBucket());
+    }
+
+    /**
+     * Rejections per route and key type (user / ip / route); individual users are not tagged to keep cardinality bounded
+     */
+    private Counter rejectedCounter(String routeId, String id) {
+        String keyType = id.startsWith(UserKeyResolver.USER_PREFIX) ? "user"
+                : id.startsWith(UserKeyResolver.IP_PREFIX) ? "ip" : "other";
+        return rejectedCounters.computeIfAbsent(routeId + "#" + keyType, key -> Counter.builder("gateway.ratelimit.rejected")
+                .description("Requests rejected by the local rate limiter")
+                .tag("route", routeId)
+                .tag("key_type", keyType)
+                .register(meterRegistry));
+    }
+
+    private static int positive(int value, int fallback) {
+        return value > 0 ? value : fallback;
+    }
+
+    /**
+     * Lock-free token bucket in GCRA form: the whole state is one timestamp (the theoretical arrival time,
+     * i.e. when the bucket would be full again), updated with a CAS loop. Rate and capacity are passed in
+     * on every call, so a config refresh applies to existing buckets immediately
+     */
+    static final class TokenBucket {
+
+        private final AtomicLong fullAt = new AtomicLong(System.nanoTime());
+
+        /**
+         * @return tokens left after taking the requested ones, or -1 if there were not enough
+         */
+        long tryAcquire(int tokens, int replenishRate, int burstCapacity) {
+            long interval = TimeUnit.SECONDS.toNanos(1) / replenishRate;
+            long tolerance = interval * burstCapacity;
+            while (true) {
+                long now = System.nanoTime();
+                long current = fullAt.get();
+                long next = Math.max(current, now) + interval * tokens;
+                long debt = next - now;
+                if (debt > tolerance) {
+                    return -1;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return (tolerance - debt) / interval;
+                }
+            }
+        }
+    }
+
+    /**
+     * Per-route settings bound from local-rate-limiter.* filter args
+     */
+    @Data
+    public static class Config {
+
+        /**
+         * Tokens added per second to each key's bucket
+         */
+        private int replenishRate;
+
+        /**
+         * Bucket size per key (burst allowance), 0 means twice the replenish rate
+         */
+        private int burstCapacity;
+
+        /**
+         * Tokens taken by one request
+         */
+        private int requestedTokens = 1;
+
+        /**
+         * Optional cap on the whole route across all keys, 0 disables it
+         */
+        private int routeReplenishRate;
+
+        /**
+         * Route-wide bucket size, 0 means twice routeReplenishRate
+         */
+        private int routeBurstCapacity;
+    }
+}
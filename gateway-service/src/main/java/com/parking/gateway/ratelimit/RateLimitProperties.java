@@ -0,0 +1,45 @@
+package com.parking.gateway.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rate Limit Properties
+ * Gateway-wide defaults for the local rate limiter, bound from gateway.ratelimit.* (rebound on Nacos refresh).
+ * Routes override them through RequestRateLimiter args (local-rate-limiter.*)
+ *
+ * @author Parking Management System
+ * @version 1.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.ratelimit")
+public class RateLimitProperties {
+
+    /**
+     * Switch the limiter off without touching the route filters (every request is allowed)
+     */
+    private boolean enabled = true;
+
+    /**
+     * Default per-user replenish rate for routes without their own local-rate-limiter.replenishRate
+     */
+    private int requestsPerSecond = 100;
+
+    /**
+     * Default per-user burst capacity, 0 means twice the replenish rate
+     */
+    private int burstCapacity = 0;
+
+    /**
+     * Buckets untouched for this long are dropped and start full when recreated,
+     * so keep it longer than the slowest refill (burstCapacity / replenishRate)
+     */
+    private long idleEvictSeconds = 300;
+
+    /**
+     * Upper bound on tracked buckets (route x key)
+     */
+    private long maxBuckets = 100000;
+}
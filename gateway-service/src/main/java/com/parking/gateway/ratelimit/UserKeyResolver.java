@@ -0,0 +1,61 @@
+package com.parking.gateway.ratelimit;
+
+import com.parking.gateway.util.IdentityHeaderSigner;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.support.ipresolver.RemoteAddressResolver;
+import org.springframework.cloud.gateway.support.ipresolver.XForwardedRemoteAddressResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * User Key Resolver
+ * Rate limit key for RequestRateLimiter: the JWT subject for authenticated requests, the client address otherwise
+ * (login and other whitelisted paths). Being the only KeyResolver bean, it is the default for every route.
+ *
+ * JwtAuthenticationFilter (order -100) runs before route filters, strips client-supplied identity headers
+ * and sets X-User-Name from the verified token, so the header read here can be trusted
+ *
+ * Behind nginx the connection address is the proxy's, so the client address is taken from X-Forwarded-For,
+ * skipping gateway.trusted-proxies entries appended by trusted proxies (0 when the gateway faces clients directly)
+ *
+ * @author Parking Management System
+ * @version 1.0
+ */
+@Component
+public class UserKeyResolver implements KeyResolver {
+
+    public static final String USER_PREFIX = "user:";
+    public static final String IP_PREFIX = "ip:";
+
+    @Value("${gateway.trusted-proxies:1}")
+    private int trustedProxies;
+
+    private RemoteAddressResolver remoteAddressResolver;
+
+    @PostConstruct
+    public void init() {
+        if (trustedProxies > 0) {
+            remoteAddressResolver = XForwardedRemoteAddressResolver.maxTrustedIndex(trustedProxies);
+        }
+    }
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        String username = exchange.getRequest().getHeaders().getFirst(IdentityHeaderSigner.HEADER_USER_NAME);
+        if (username != null && !username.isEmpty()) {
+            return Mono.just(USER_PREFIX + username);
+        }
+        InetSocketAddress remoteAddress = trustedProxies > 0
+                ? remoteAddressResolver.resolve(exchange)
+                : exchange.getRequest().getRemoteAddress();
+        if (remoteAddress != null && remoteAddress.getAddress() != null) {
+            return Mono.just(IP_PREFIX + remoteAddress.getAddress().getHostAddress());
+        }
+        return Mono.just(IP_PREFIX + "unknown");
+    }
+}
@@ -0,0 +1,59 @@
+package com.parking.gateway.util;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+
+/**
+ * Identity Header Signer
+ * Signs the identity headers forwarded to downstream services, so a service can tell
+ * headers set by the gateway apart from headers sent directly by a client
+ *
+ * @author Parking Management System
+ * @version 1.0
+ */
+@Component
+public class IdentityHeaderSigner {
+
+    public static final String HEADER_USER_ID = "X-User-Id";
+    public static final String HEADER_USER_ROLE = "X-User-Role";
+    public static final String HEADER_USER_NAME = "X-User-Name";
+    public static final String HEADER_SIGNATURE = "X-User-Signature";
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    @Value("${auth.identity.secret}")
+    private String secret;
+
+    private SecretKeySpec keySpec;
+
+    @PostConstruct
+    public void init() {
+        this.keySpec = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    /**
+     * Sign the identity triple. Services recompute this with the same secret and payload layout.
+     *
+     * @param userId   user id claim
+     * @param role     roleType claim (admin/owner)
+     * @param username JWT subject
+     * @return Base64 encoded HMAC-SHA256 signature
+     */
+    public String sign(String userId, String role, String username) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(keySpec);
+            String payload = userId + "|" + role + "|" + username;
+            return Base64.getEncoder().encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to sign identity headers", e);
+        }
+    }
+}
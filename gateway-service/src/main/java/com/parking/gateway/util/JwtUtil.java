@@ -2,6 +2,7 @@ package com.parking.gateway.util;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -28,10 +29,19 @@ public class JwtUtil {
     private Long expiration;
 
     /**
-     * Generate secret key from configured secret string
+     * Signing key and parser, built once from the configured secret.
+     * JwtParser is immutable and thread-safe, so one instance serves every request.
      */
-    private SecretKey getSecretKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    private SecretKey secretKey;
+
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    public void init() {
+        this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
     }
 
     /**
@@ -48,43 +58,20 @@ public class JwtUtil {
                 .setSubject(username)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSecretKey(), SignatureAlgorithm.HS512)
+                .signWith(secretKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
     /**
-     * Extract username from JWT token
+     * Verify the token signature and expiry, and return its claims.
+     * This is the single parse used per request; callers should read everything they need from the result.
      *
      * @param token JWT token
-     * @return username
+     * @return claims if the token is valid, null otherwise
      */
-    public String getUsernameFromToken(String token) {
+    public Claims getClaimsFromToken(String token) {
         try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSecretKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            return claims.getSubject();
-        } catch (JwtException e) {
-            log.error("Failed to extract username from token", e);
-            return null;
-        }
-    }
-
-    /**
-     * Validate JWT token
-     *
-     * @param token JWT token
-     * @return true if valid, false otherwise
-     */
-    public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSecretKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
+            return jwtParser.parseClaimsJws(token).getBody();
         } catch (SecurityException e) {
             log.error("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
@@ -95,8 +82,31 @@ public class JwtUtil {
             log.error("Unsupported JWT token: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             log.error("JWT claims string is empty: {}", e.getMessage());
+        } catch (JwtException e) {
+            log.error("JWT verification failed: {}", e.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    /**
+     * Extract username from JWT token
+     *
+     * @param token JWT token
+     * @return username
+     */
+    public String getUsernameFromToken(String token) {
+        Claims claims = getClaimsFromToken(token);
+        return claims != null ? claims.getSubject() : null;
+    }
+
+    /**
+     * Validate JWT token
+     *
+     * @param token JWT token
+     * @return true if valid, false otherwise
+     */
+    public boolean validateToken(String token) {
+        return getClaimsFromToken(token) != null;
     }
 
     /**
@@ -107,11 +117,7 @@ public class JwtUtil {
      */
     public boolean isTokenExpired(String token) {
         try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSecretKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
             return claims.getExpiration().before(new Date());
         } catch (JwtException e) {
             return true;
@@ -7,6 +7,17 @@
 TRUNCATE TABLE owner_parking;
 TRUNCATE TABLE parking_space;
 
+-- 业主有效车位唯一约束（一个业主同一时间只能有一条有效关联，车位分配依赖它防止重复分配）
+-- 与 upgrade-parking-active-assignment.sql 相同，已存在时跳过
+SET @has_active_user = (SELECT COUNT(*) FROM information_schema.COLUMNS
+    WHERE TABLE_SCHEMA = 'parking_business_db' AND TABLE_NAME = 'owner_parking' AND COLUMN_NAME = 'active_user_id');
+SET @ddl = IF(@has_active_user = 0,
+    'ALTER TABLE owner_parking ADD COLUMN active_user_id BIGINT GENERATED ALWAYS AS (IF(payment_status = ''1'', user_id, NULL)) STORED, ADD UNIQUE KEY uk_owner_parking_active_user (active_user_id)',
+    'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
 -- 初始化停车位数据
 INSERT INTO parking_space (park_id, park_num, park_type, park_status, remark)
 VALUES
@@ -0,0 +1,61 @@
+package com.parking.benchmarks;
+
+import com.parking.fee.entity.ParkingFee;
+import com.parking.user.common.JwtUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 基准测试公共数据
+ *
+ * @author Parking System
+ */
+final class BenchmarkFixtures {
+
+    /**
+     * 与 gateway-service、user-service 的 jwt.secret / jwt.expiration 默认值一致
+     */
+    static final String JWT_SECRET = "parking-management-system-jwt-secret-key-2025-microservices-project";
+    static final Long JWT_EXPIRATION = 86400000L;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 按 user-service 配置创建的 JwtUtils（不启动Spring容器，直接注入配置字段）
+     */
+    static JwtUtils userJwtUtils() {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "secret", JWT_SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "expiration", JWT_EXPIRATION);
+        return jwtUtils;
+    }
+
+    /**
+     * 一页停车费记录（与管理端列表默认每页10条一致，含填充后的业主姓名和车位编号）
+     */
+    static List<ParkingFee> parkingFees(int count) {
+        List<ParkingFee> fees = new ArrayList<>(count);
+        Date now = new Date();
+        for (int i = 1; i <= count; i++) {
+            ParkingFee fee = new ParkingFee();
+            fee.setFeeId((long) i);
+            fee.setUserId((long) i);
+            fee.setParkId((long) i);
+            fee.setPayParkMonth("2025-" + String.format("%02d", (i % 12) + 1));
+            fee.setPayParkMoney(new BigDecimal("300.00"));
+            fee.setPayParkStatus(i % 2 == 0 ? "1" : "0");
+            fee.setPayTime(i % 2 == 0 ? now : null);
+            fee.setCreateTime(now);
+            fee.setUpdateTime(now);
+            fee.setUsername("业主" + i);
+            fee.setParkNum("A-" + String.format("%03d", i));
+            fees.add(fee);
+        }
+        return fees;
+    }
+}
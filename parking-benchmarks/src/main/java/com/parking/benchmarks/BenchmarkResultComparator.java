@@ -0,0 +1,91 @@
+package com.parking.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 比较两次JMH结果（-rf json 输出），任一基准测试比基线差超过阈值时以退出码1结束，供流水线拦截性能回退
+ * 吞吐量模式（thrpt）分数越高越好，其余模式（avgt/sample/ss）越低越好
+ *
+ * 用法：java -cp parking-benchmarks.jar com.parking.benchmarks.BenchmarkResultComparator baseline.json current.json [阈值百分比，默认10]
+ *
+ * @author Parking System
+ */
+public class BenchmarkResultComparator {
+
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10.0;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("用法: BenchmarkResultComparator <baseline.json> <current.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+
+        Map<String, JsonNode> baseline = load(new File(args[0]));
+        Map<String, JsonNode> current = load(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode base = baseline.get(entry.getKey());
+            JsonNode result = entry.getValue();
+            double currentScore = result.path("primaryMetric").path("score").asDouble();
+            String unit = result.path("primaryMetric").path("scoreUnit").asText();
+            if (base == null) {
+                System.out.printf("%-90s %14s %14.3f %9s  %s%n", entry.getKey(), "-", currentScore, "new", unit);
+                continue;
+            }
+            double baseScore = base.path("primaryMetric").path("score").asDouble();
+            boolean higherIsBetter = "thrpt".equals(result.path("mode").asText());
+            // 正数表示变差的百分比
+            double worse = baseScore == 0 ? 0
+                    : (higherIsBetter ? baseScore - currentScore : currentScore - baseScore) / baseScore * 100;
+            boolean regressed = worse > threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%  %s%s%n", entry.getKey(), baseScore, currentScore,
+                    -worse, unit, regressed ? "  <-- 回退" : "");
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d 项基准测试比基线差超过 %.1f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+        System.out.printf("没有超过 %.1f%% 的性能回退%n", threshold);
+    }
+
+    /**
+     * 读取JMH结果，以 "基准测试名 + 参数" 为键
+     */
+    private static Map<String, JsonNode> load(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            results.put(key(result), result);
+        }
+        return results;
+    }
+
+    private static String key(JsonNode result) {
+        StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+        JsonNode params = result.path("params");
+        if (params.isObject()) {
+            Map<String, String> sorted = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                sorted.put(field.getKey(), field.getValue().asText());
+            }
+            key.append(sorted);
+        }
+        return key.toString();
+    }
+}
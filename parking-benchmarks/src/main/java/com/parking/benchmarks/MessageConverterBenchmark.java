@@ -0,0 +1,69 @@
+package com.parking.benchmarks;
+
+import com.parking.fee.event.FeePaidEvent;
+import com.parking.fee.event.ParkingAssignedEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RabbitMQ消息转换（Jackson2JsonMessageConverter，与各服务 RabbitMQConfig 中的配置相同）
+ * 一次往返 = 发送端 toMessage + 消费端按推断类型 fromMessage（与批量消费者的解析方式一致）
+ *
+ * @author Parking System
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageConverterBenchmark {
+
+    private Jackson2JsonMessageConverter converter;
+
+    private ParkingAssignedEvent parkingAssignedEvent;
+
+    private FeePaidEvent feePaidEvent;
+
+    @Setup
+    public void setup() {
+        converter = new Jackson2JsonMessageConverter();
+        Date now = new Date();
+        parkingAssignedEvent = new ParkingAssignedEvent(UUID.randomUUID().toString(),
+                1001L, 1L, 1L, 1L, "A-001", "1", "京A12345", now, now);
+        feePaidEvent = new FeePaidEvent(UUID.randomUUID().toString(),
+                2001L, 1L, 1L, "2025-01", new BigDecimal("300.00"), now, now);
+    }
+
+    @Benchmark
+    public Object parkingAssignedEventRoundTrip() {
+        return roundTrip(parkingAssignedEvent, ParkingAssignedEvent.class);
+    }
+
+    @Benchmark
+    public Object feePaidEventRoundTrip() {
+        return roundTrip(feePaidEvent, FeePaidEvent.class);
+    }
+
+    private Object roundTrip(Object event, Class<?> type) {
+        Message message = converter.toMessage(event, new MessageProperties());
+        message.getMessageProperties().setInferredArgumentType(type);
+        return converter.fromMessage(message);
+    }
+}
@@ -0,0 +1,107 @@
+package com.parking.benchmarks;
+
+import com.parking.fee.service.ParkingChargeEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 退位结算计费（fee-service 的 ParkingChargeEvaluator，按 nacosConfig/dev 中的费率编译）
+ * 一次调用计算 100万段停车时长（几分钟到一个月不等，约1/4为VIP），结果按每段的平均耗时报告；
+ * bigDecimalPerCall 是每次都从 BigDecimal 配置现算的写法，作为对照
+ *
+ * @author Parking System
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParkingChargeBenchmark {
+
+    private static final int INTERVALS = 1_000_000;
+
+    private static final BigDecimal FIRST_HOUR_RATE = new BigDecimal("5.0");
+    private static final BigDecimal ADDITIONAL_HOUR_RATE = new BigDecimal("3.0");
+    private static final BigDecimal DAILY_MAX_FEE = new BigDecimal("60.0");
+    private static final BigDecimal MONTHLY_FEE = new BigDecimal("300.00");
+    private static final BigDecimal VIP_DISCOUNT_RATE = new BigDecimal("0.8");
+
+    private ParkingChargeEvaluator evaluator;
+
+    private long[] entries;
+
+    private long[] exits;
+
+    private boolean[] vips;
+
+    @Setup
+    public void setup() {
+        evaluator = new ParkingChargeEvaluator(FIRST_HOUR_RATE, ADDITIONAL_HOUR_RATE, DAILY_MAX_FEE,
+                MONTHLY_FEE, VIP_DISCOUNT_RATE);
+        entries = new long[INTERVALS];
+        exits = new long[INTERVALS];
+        vips = new boolean[INTERVALS];
+        Random random = new Random(42);
+        long base = 1_735_660_800_000L;  // 2025-01-01 00:00 (GMT+8)
+        for (int i = 0; i < INTERVALS; i++) {
+            entries[i] = base + random.nextInt(86_400) * 1000L;
+            exits[i] = entries[i] + 60_000L + (long) random.nextInt(30 * 24 * 60) * 60_000L;
+            vips[i] = random.nextInt(4) == 0;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INTERVALS)
+    public long compiledEvaluator() {
+        long total = 0;
+        for (int i = 0; i < INTERVALS; i++) {
+            total += evaluator.chargeCents(entries[i], exits[i], 31, vips[i]);
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INTERVALS)
+    public BigDecimal bigDecimalPerCall() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < INTERVALS; i++) {
+            total = total.add(bigDecimalCharge(entries[i], exits[i], 31, vips[i]));
+        }
+        return total;
+    }
+
+    private static BigDecimal bigDecimalCharge(long entry, long exit, int daysInMonth, boolean vip) {
+        long duration = exit - entry;
+        long hours = (duration + 3_599_999L) / 3_600_000L;
+        BigDecimal fullDay = FIRST_HOUR_RATE.add(ADDITIONAL_HOUR_RATE.multiply(BigDecimal.valueOf(23))).min(DAILY_MAX_FEE);
+        BigDecimal hourly = fullDay.multiply(BigDecimal.valueOf(hours / 24));
+        long rest = hours % 24;
+        if (rest > 0) {
+            hourly = hourly.add(FIRST_HOUR_RATE.add(ADDITIONAL_HOUR_RATE.multiply(BigDecimal.valueOf(rest - 1)))
+                    .min(DAILY_MAX_FEE));
+        }
+        long days = Math.min((duration + 86_399_999L) / 86_400_000L, daysInMonth);
+        BigDecimal prorated = MONTHLY_FEE.multiply(BigDecimal.valueOf(days))
+                .divide(BigDecimal.valueOf(daysInMonth), 2, RoundingMode.HALF_UP);
+        BigDecimal charge = hourly.min(prorated);
+        if (vip) {
+            charge = charge.multiply(VIP_DISCOUNT_RATE);
+        }
+        return charge.setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,82 @@
+package com.parking.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parking.common.page.PageCursor;
+import com.parking.fee.common.PageResult;
+import com.parking.fee.common.Result;
+import com.parking.fee.entity.ParkingFee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.text.SimpleDateFormat;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 接口返回结果序列化（Result / PageResult 写成JSON响应体）
+ * ObjectMapper 按各服务 spring.jackson 配置构建（日期格式 yyyy-MM-dd HH:mm:ss，时区 GMT+8）
+ *
+ * @author Parking System
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultSerializationBenchmark {
+
+    /**
+     * 每页记录数（默认分页10条，游标分页常用100条）
+     */
+    @Param({"10", "100"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+
+    private Result<PageResult<ParkingFee>> pageResult;
+
+    private Result<PageResult<ParkingFee>> cursorPageResult;
+
+    private Result<ParkingFee> singleResult;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .dateFormat(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss"))
+                .timeZone(TimeZone.getTimeZone("GMT+8"))
+                .build();
+        List<ParkingFee> fees = BenchmarkFixtures.parkingFees(pageSize);
+        pageResult = Result.success(new PageResult<>(1, pageSize, 1000L, fees));
+        cursorPageResult = Result.success(new PageResult<>(pageSize, null, fees,
+                PageCursor.encode("2025-01", 1000L)));
+        singleResult = Result.success(fees.get(0));
+    }
+
+    @Benchmark
+    public byte[] pageResult() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(pageResult);
+    }
+
+    @Benchmark
+    public byte[] cursorPageResult() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(cursorPageResult);
+    }
+
+    @Benchmark
+    public byte[] singleResult() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(singleResult);
+    }
+}
@@ -0,0 +1,60 @@
+package com.parking.benchmarks;
+
+import com.parking.user.common.JwtUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录路径：user-service 签发JWT（JwtUtils.generateToken）和校验密码（BCryptPasswordEncoder.matches）
+ * BCrypt 使用与 AuthService 相同的默认强度，单次耗时在毫秒级，用平均时间衡量
+ *
+ * @author Parking System
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class UserAuthBenchmark {
+
+    private static final String RAW_PASSWORD = "123456";
+
+    private JwtUtils jwtUtils;
+
+    private BCryptPasswordEncoder passwordEncoder;
+
+    private String encodedPassword;
+
+    @Setup
+    public void setup() {
+        jwtUtils = BenchmarkFixtures.userJwtUtils();
+        passwordEncoder = new BCryptPasswordEncoder();
+        encodedPassword = passwordEncoder.encode(RAW_PASSWORD);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public String generateToken() {
+        return jwtUtils.generateToken(1L, "owner_test005", "owner");
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2, time = 5)
+    @Measurement(iterations = 5, time = 5)
+    public boolean passwordMatches() {
+        return passwordEncoder.matches(RAW_PASSWORD, encodedPassword);
+    }
+}
@@ -0,0 +1,72 @@
+package com.parking.gateway.filter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关白名单匹配（JwtAuthenticationFilter.isWhitelisted，每个请求执行一次）
+ * 与过滤器同包，直接调用包级可见的方法；antPathMatcherLoop 为预编译之前的实现（逐条 AntPathMatcher.match），作为对照
+ *
+ * @author Parking System
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WhitelistMatchBenchmark {
+
+    /**
+     * 与 gateway-service application.yml 中的 auth.whitelist 一致
+     */
+    private static final List<String> WHITELIST = Arrays.asList(
+            "/user/auth/admin/login", "/user/auth/owner/login", "/user/auth/admin/register", "/actuator/**");
+
+    /**
+     * 命中第一条、命中通配符、全部不命中（最常见：业务请求都要遍历完整白名单）
+     */
+    @Param({"/user/auth/admin/login", "/actuator/health", "/fee/fee/admin/list"})
+    public String path;
+
+    private JwtAuthenticationFilter filter;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Setup
+    public void setup() {
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "whitelist", WHITELIST);
+        ReflectionTestUtils.setField(filter, "whitelistMatcher", WhitelistMatcher.compile(WHITELIST));
+    }
+
+    @Benchmark
+    public boolean isWhitelisted() {
+        return filter.isWhitelisted(path);
+    }
+
+    @Benchmark
+    public boolean antPathMatcherLoop() {
+        for (String pattern : WHITELIST) {
+            if (pathMatcher.match(pattern.trim(), path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,150 @@
+package com.parking.common.identity;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * 网关身份解析器
+ * 读取gateway转发的 X-User-Id / X-User-Role / X-User-Name 请求头，并校验 X-User-Signature 签名。
+ * 没有签名或签名不合法时视为无身份（例如服务间Feign调用、直接访问服务端口）。
+ * user-service、parking-service、fee-service 共用这一份实现（各服务的 scanBasePackages 包含本包）
+ *
+ * @author Parking System
+ */
+@Component
+public class GatewayIdentityResolver {
+
+    private static final Logger log = LoggerFactory.getLogger(GatewayIdentityResolver.class);
+
+    public static final String HEADER_USER_ID = "X-User-Id";
+    public static final String HEADER_USER_ROLE = "X-User-Role";
+    public static final String HEADER_USER_NAME = "X-User-Name";
+    public static final String HEADER_SIGNATURE = "X-User-Signature";
+
+    public static final String ROLE_OWNER = "owner";
+    public static final String ROLE_ADMIN = "admin";
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    @Value("${auth.identity.secret}")
+    private String secret;
+
+    /**
+     * 是否要求必须携带网关身份（开启后不再接受请求参数中的userId）
+     */
+    @Value("${auth.identity.required:false}")
+    private boolean required;
+
+    private SecretKeySpec keySpec;
+
+    @PostConstruct
+    public void init() {
+        this.keySpec = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    /**
+     * 解析并校验网关转发的身份
+     *
+     * @param request 当前请求
+     * @return 身份信息，无身份或签名不合法时返回null
+     */
+    public GatewayIdentity resolve(HttpServletRequest request) {
+        String userId = request.getHeader(HEADER_USER_ID);
+        String role = request.getHeader(HEADER_USER_ROLE);
+        String username = request.getHeader(HEADER_USER_NAME);
+        String signature = request.getHeader(HEADER_SIGNATURE);
+        if (userId == null || userId.isEmpty() || role == null || username == null || signature == null) {
+            return null;
+        }
+
+        if (!MessageDigest.isEqual(sign(userId, role, username).getBytes(StandardCharsets.UTF_8),
+                signature.getBytes(StandardCharsets.UTF_8))) {
+            log.warn("网关身份签名校验失败: userId={}, role={}", userId, role);
+            return null;
+        }
+
+        try {
+            return new GatewayIdentity(Long.valueOf(userId), role, username);
+        } catch (NumberFormatException e) {
+            log.warn("网关身份userId格式错误: {}", userId);
+            return null;
+        }
+    }
+
+    /**
+     * 解析当前操作的业主ID
+     * 业主登录：始终使用Token中的userId，忽略请求参数；
+     * 管理员登录：使用请求参数指定的业主；
+     * 无网关身份：未开启 auth.identity.required 时兼容旧调用方式，使用请求参数
+     *
+     * @param request 当前请求
+     * @param requestedUserId 请求参数中的userId（可为空）
+     * @return 业主ID，无法确定时返回null
+     */
+    public Long resolveOwnerId(HttpServletRequest request, Long requestedUserId) {
+        GatewayIdentity identity = resolve(request);
+        if (identity == null) {
+            return required ? null : requestedUserId;
+        }
+        if (identity.isOwner()) {
+            return identity.getUserId();
+        }
+        return requestedUserId;
+    }
+
+    /**
+     * Token是否已证明该业主存在（业主本人登录，且Token中的userId与操作对象一致）
+     *
+     * @param request 当前请求
+     * @param userId 操作的业主ID
+     * @return true表示无需再调用user-service验证业主是否存在
+     */
+    public boolean isVerifiedOwner(HttpServletRequest request, Long userId) {
+        GatewayIdentity identity = resolve(request);
+        return identity != null && identity.isOwner() && identity.getUserId().equals(userId);
+    }
+
+    private String sign(String userId, String role, String username) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(keySpec);
+            String payload = userId + "|" + role + "|" + username;
+            return Base64.getEncoder().encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("网关身份签名计算失败", e);
+        }
+    }
+
+    /**
+     * 网关转发的身份信息
+     */
+    @Data
+    @AllArgsConstructor
+    public static class GatewayIdentity {
+
+        private Long userId;
+        private String role;
+        private String username;
+
+        public boolean isOwner() {
+            return ROLE_OWNER.equals(role);
+        }
+
+        public boolean isAdmin() {
+            return ROLE_ADMIN.equals(role);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.parking.common.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feign客户端调用耗时统计
+ * 每个Feign方法记录一个计时器 feign.client.calls，标签：client（客户端接口名）、method、outcome
+ * outcome：success（远程调用成功）、fallback（熔断/超时/远程异常后走了降级方法）、error（调用方收到异常）
+ *
+ * 实现方式：包装Feign客户端代理计时；同时包装降级类（CGLIB子类，保持类型不变），
+ * 降级方法在调用方线程上执行（熔断器在调用方线程上recover），被调用时给当前计时打上降级标记
+ * parking-service、fee-service 共用，由各服务的 MetricsConfig 注册
+ *
+ * @author Parking System
+ */
+public class FeignClientMetricsPostProcessor implements BeanPostProcessor {
+
+    public static final String METRIC_NAME = "feign.client.calls";
+
+    /**
+     * 当前线程正在计时的Feign调用是否走了降级方法
+     */
+    private static final ThreadLocal<boolean[]> FALLBACK_INVOKED = new ThreadLocal<>();
+
+    /**
+     * 延迟获取MeterRegistry：BeanPostProcessor创建得很早，提前注入会让MeterRegistry错过自身的后置处理（公共标签等）
+     */
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public FeignClientMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> clientType = feignClientType(bean.getClass());
+        if (clientType == null) {
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        if (Proxy.isProxyClass(bean.getClass())) {
+            // Feign生成的客户端代理
+            proxyFactory.addAdvice(timingInterceptor(clientType));
+        } else {
+            // 降级实现类（Feign按类型从容器获取降级实例，必须保持原类型）
+            proxyFactory.setProxyTargetClass(true);
+            proxyFactory.addAdvice(fallbackMarker());
+        }
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+
+    private MethodInterceptor timingInterceptor(Class<?> clientType) {
+        return invocation -> {
+            Method method = invocation.getMethod();
+            if (method.getDeclaringClass() == Object.class) {
+                return invocation.proceed();
+            }
+            boolean[] outer = FALLBACK_INVOKED.get();
+            boolean[] fallback = new boolean[1];
+            FALLBACK_INVOKED.set(fallback);
+            long start = System.nanoTime();
+            String outcome = "error";
+            try {
+                Object result = invocation.proceed();
+                outcome = fallback[0] ? "fallback" : "success";
+                return result;
+            } finally {
+                if (outer == null) {
+                    FALLBACK_INVOKED.remove();
+                } else {
+                    FALLBACK_INVOKED.set(outer);
+                }
+                timer(clientType, method, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    private MethodInterceptor fallbackMarker() {
+        return invocation -> {
+            boolean[] fallback = FALLBACK_INVOKED.get();
+            if (fallback != null && invocation.getMethod().getDeclaringClass() != Object.class) {
+                fallback[0] = true;
+            }
+            return invocation.proceed();
+        };
+    }
+
+    private Timer timer(Class<?> clientType, Method method, String outcome) {
+        String client = clientType.getSimpleName();
+        return timers.computeIfAbsent(client + "#" + method.getName() + "#" + outcome,
+                key -> Timer.builder(METRIC_NAME)
+                        .description("Feign客户端调用耗时（含熔断降级）")
+                        .tag("client", client)
+                        .tag("method", method.getName())
+                        .tag("outcome", outcome)
+                        .register(meterRegistry.getObject()));
+    }
+
+    /**
+     * 实现了 @FeignClient 接口的类型（Feign客户端代理或降级类），否则返回null
+     */
+    private static Class<?> feignClientType(Class<?> beanClass) {
+        for (Class<?> type : ClassUtils.getAllInterfacesForClassAsSet(beanClass)) {
+            if (type.isAnnotationPresent(FeignClient.class)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
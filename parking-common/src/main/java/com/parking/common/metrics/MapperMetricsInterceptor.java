@@ -0,0 +1,84 @@
+package com.parking.common.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MyBatis语句耗时统计
+ * 每条Mapper语句记录一个计时器 mybatis.statements，标签：statement（Mapper类名.方法名）、command（SELECT/INSERT/UPDATE/DELETE）、outcome（success/error）
+ * 游标查询（queryCursor）只统计打开游标的耗时
+ * user-service、parking-service、fee-service 共用，由各服务的 MetricsConfig 注册
+ *
+ * @author Parking System
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor",
+                args = {MappedStatement.class, Object.class, RowBounds.class})
+})
+public class MapperMetricsInterceptor implements Interceptor {
+
+    public static final String METRIC_NAME = "mybatis.statements";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 计时器缓存（语句ID + 结果 -> 计时器），避免每次执行都构建Meter ID
+     */
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public MapperMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Object result = invocation.proceed();
+            success = true;
+            return result;
+        } finally {
+            timer(statement, success).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(MappedStatement statement, boolean success) {
+        String outcome = success ? "success" : "error";
+        return timers.computeIfAbsent(statement.getId() + "#" + outcome, key -> Timer.builder(METRIC_NAME)
+                .description("MyBatis语句执行耗时")
+                .tag("statement", shortId(statement.getId()))
+                .tag("command", statement.getSqlCommandType().name())
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    /**
+     * com.parking.parking.mapper.ParkingSpaceMapper.findByPage -> ParkingSpaceMapper.findByPage
+     */
+    private static String shortId(String id) {
+        int method = id.lastIndexOf('.');
+        int type = method > 0 ? id.lastIndexOf('.', method - 1) : -1;
+        return type >= 0 ? id.substring(type + 1) : id;
+    }
+}
@@ -0,0 +1,131 @@
+package com.parking.common.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.CorrelationDataPostProcessor;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RabbitMQ消息指标
+ * - rabbitmq.publish.confirm：发布到收到Broker确认（ack/nack）的耗时，标签 result
+ * - rabbitmq.publish.confirm.pending：已发布、尚未收到确认的消息数
+ * - rabbitmq.consume.lag：消息发布时间（timestamp属性）到被监听器容器取出的延迟，标签 queue
+ * 监听器本身的处理耗时由Spring AMQP记录（spring.rabbitmq.listener，标签 listener.id / queue / result）
+ * parking-service、fee-service 共用，由各服务的 MetricsConfig 注册
+ *
+ * @author Parking System
+ */
+public class RabbitMetrics {
+
+    /**
+     * 等待确认的消息数上限（超过时淘汰最早的，不影响其他消息的计时）
+     */
+    private static final int MAX_PENDING_CONFIRMS = 10000;
+
+    /**
+     * 超过该时间仍未收到确认的记录过期（连接断开时确认回调不会触发，避免无限增长）
+     */
+    private static final Duration PENDING_CONFIRM_TTL = Duration.ofMinutes(1);
+
+    private final MeterRegistry meterRegistry;
+    private final Timer confirmAck;
+    private final Timer confirmNack;
+
+    /**
+     * 关联ID -> 发布时间（纳秒）
+     */
+    private final Cache<String, Long> pendingConfirms = Caffeine.newBuilder()
+            .maximumSize(MAX_PENDING_CONFIRMS)
+            .expireAfterWrite(PENDING_CONFIRM_TTL)
+            .build();
+
+    private final Map<String, Timer> lagTimers = new ConcurrentHashMap<>();
+
+    public RabbitMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.confirmAck = confirmTimer("ack");
+        this.confirmNack = confirmTimer("nack");
+        Gauge.builder("rabbitmq.publish.confirm.pending", pendingConfirms, Cache::estimatedSize)
+                .description("已发布、尚未收到Broker确认的消息数")
+                .register(meterRegistry);
+    }
+
+    private Timer confirmTimer(String result) {
+        return Timer.builder("rabbitmq.publish.confirm")
+                .description("消息发布到收到Broker确认的耗时")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 发布前记录关联ID的发布时间（只有带CorrelationData的消息才会收到确认回调）
+     */
+    public CorrelationDataPostProcessor correlationDataPostProcessor() {
+        return (message, correlationData) -> {
+            if (correlationData != null && correlationData.getId() != null) {
+                pendingConfirms.put(correlationData.getId(), System.nanoTime());
+            }
+            return correlationData;
+        };
+    }
+
+    /**
+     * 发布前补充timestamp属性，用于消费端计算排队延迟
+     */
+    public MessagePostProcessor timestampPostProcessor() {
+        return message -> {
+            MessageProperties properties = message.getMessageProperties();
+            if (properties.getTimestamp() == null) {
+                properties.setTimestamp(new Date());
+            }
+            return message;
+        };
+    }
+
+    /**
+     * 在RabbitTemplate确认回调中调用
+     */
+    public void recordConfirm(CorrelationData correlationData, boolean ack) {
+        if (correlationData == null || correlationData.getId() == null) {
+            return;
+        }
+        Long sentAt = pendingConfirms.asMap().remove(correlationData.getId());
+        if (sentAt != null) {
+            (ack ? confirmAck : confirmNack).record(System.nanoTime() - sentAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 监听器容器取到消息后记录排队延迟（毫秒精度，依赖各实例时钟同步）
+     */
+    public MessagePostProcessor consumeLagPostProcessor() {
+        return message -> {
+            MessageProperties properties = message.getMessageProperties();
+            Date timestamp = properties.getTimestamp();
+            if (timestamp != null) {
+                long lagMs = Math.max(0, System.currentTimeMillis() - timestamp.getTime());
+                lagTimer(properties.getConsumerQueue()).record(lagMs, TimeUnit.MILLISECONDS);
+            }
+            return message;
+        };
+    }
+
+    private Timer lagTimer(String queue) {
+        String name = queue != null ? queue : "unknown";
+        return lagTimers.computeIfAbsent(name, key -> Timer.builder("rabbitmq.consume.lag")
+                .description("消息从发布到被消费的延迟")
+                .tag("queue", key)
+                .register(meterRegistry));
+    }
+}
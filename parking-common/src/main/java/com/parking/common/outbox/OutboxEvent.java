@@ -0,0 +1,73 @@
+package com.parking.common.outbox;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 发件箱事件实体类
+ * 与业务数据在同一事务中写入，由 OutboxRelay 异步投递到RabbitMQ
+ *
+ * @author Parking System
+ */
+@Data
+public class OutboxEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 主键ID
+     */
+    private Long id;
+
+    /**
+     * 事件ID（消息ID，供消费者幂等）
+     */
+    private String eventId;
+
+    /**
+     * 交换机
+     */
+    private String exchange;
+
+    /**
+     * 路由键
+     */
+    private String routingKey;
+
+    /**
+     * 事件类型（消息头 __TypeId__）
+     */
+    private String eventType;
+
+    /**
+     * 消息体（JSON）
+     */
+    private String payload;
+
+    /**
+     * 状态（0待投递 1已投递 2投递失败次数达到上限，不再重试）
+     */
+    private String status;
+
+    /**
+     * 投递失败次数
+     */
+    private Integer attempts;
+
+    /**
+     * 最近一次投递失败原因
+     */
+    private String lastError;
+
+    /**
+     * 创建时间
+     */
+    private Date createTime;
+
+    /**
+     * 投递成功时间
+     */
+    private Date sentTime;
+}
@@ -0,0 +1,45 @@
+package com.parking.common.outbox;
+
+import org.apache.ibatis.annotations.*;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 发件箱事件Mapper接口
+ * 各服务的 event_outbox 表结构相同（见 upgrade-event-outbox.sql），共用同一个Mapper
+ *
+ * @author Parking System
+ */
+@Mapper
+public interface OutboxEventMapper {
+
+    @Insert("INSERT INTO event_outbox(event_id, exchange, routing_key, event_type, payload, status, attempts) " +
+            "VALUES(#{eventId}, #{exchange}, #{routingKey}, #{eventType}, #{payload}, '0', 0)")
+    @Options(useGeneratedKeys = true, keyProperty = "id", keyColumn = "id")
+    int insert(OutboxEvent outboxEvent);
+
+    /**
+     * 锁定一批待投递事件（SKIP LOCKED：多个实例同时投递时互不等待、不重复投递）
+     */
+    @Select("SELECT * FROM event_outbox WHERE status = '0' ORDER BY id ASC LIMIT #{limit} FOR UPDATE SKIP LOCKED")
+    List<OutboxEvent> lockPending(@Param("limit") int limit);
+
+    /**
+     * 记录一次投递失败，失败次数达到上限时标记为投递失败（status=2），不再参与投递
+     * （status 必须写在 attempts 之前：MySQL 单表 UPDATE 按书写顺序赋值，后面的表达式会读到新值）
+     */
+    @Update("UPDATE event_outbox SET status = CASE WHEN attempts + 1 >= #{maxAttempts} THEN '2' ELSE status END, " +
+            "attempts = attempts + 1, last_error = #{lastError} WHERE id = #{id}")
+    int markFailed(@Param("id") Long id, @Param("lastError") String lastError, @Param("maxAttempts") int maxAttempts);
+
+    @Update("<script>UPDATE event_outbox SET status = '1', sent_time = NOW() WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    int markSent(@Param("ids") List<Long> ids);
+
+    @Select("SELECT COUNT(*) FROM event_outbox WHERE status = '0'")
+    int countPending();
+
+    @Delete("DELETE FROM event_outbox WHERE status = '1' AND sent_time < #{before} LIMIT #{limit}")
+    int deleteSentBefore(@Param("before") Date before, @Param("limit") int limit);
+}
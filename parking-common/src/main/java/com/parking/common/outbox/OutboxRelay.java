@@ -0,0 +1,190 @@
+package com.parking.common.outbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 发件箱投递器
+ * 定时从 event_outbox 表分批取出待投递事件发送到RabbitMQ，等待发布确认后标记为已投递。
+ * 未收到确认的事件保留为待投递，下一轮重试（至少一次投递，消费者按事件ID幂等）；
+ * 失败次数达到 outbox.relay.max-attempts 的事件标记为投递失败（status=2），不再阻塞队首，需人工处理。
+ * 停车业务服务和费用服务共用
+ *
+ * @author Parking System
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final String TYPE_ID_HEADER = "__TypeId__";
+
+    private static final int PURGE_BATCH_SIZE = 1000;
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    @Autowired
+    private OutboxEventMapper outboxEventMapper;
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${outbox.relay.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.relay.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    @Value("${outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.relay.retention-days:7}")
+    private int retentionDays;
+
+    /**
+     * 投递待发送事件，一批投递满时立即继续下一批
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:1000}")
+    public void relay() {
+        try {
+            int relayed;
+            do {
+                Integer count = transactionTemplate.execute(status -> relayBatch());
+                relayed = count == null ? 0 : count;
+            } while (relayed == batchSize);
+        } catch (Exception e) {
+            log.error("发件箱投递失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 投递一批事件（在事务中执行，行锁保证同一事件不会被多个实例同时投递）
+     *
+     * @return 本批投递成功的事件数
+     */
+    private int relayBatch() {
+        List<OutboxEvent> events = outboxEventMapper.lockPending(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        // 先全部发送，再统一等待确认，一批只等待一个往返；
+        // 整批共用一个截止时间，持有行锁的时间最多为 confirmTimeoutMs，而不是每条事件各等一次
+        List<CorrelationData> confirms = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            CorrelationData correlationData = new CorrelationData(event.getEventId());
+            rabbitTemplate.send(event.getExchange(), event.getRoutingKey(), toMessage(event), correlationData);
+            confirms.add(correlationData);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        List<Long> sentIds = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            OutboxEvent event = events.get(i);
+            String error = awaitConfirm(confirms.get(i), deadline);
+            if (error == null) {
+                sentIds.add(event.getId());
+                continue;
+            }
+            int attempts = (event.getAttempts() == null ? 0 : event.getAttempts()) + 1;
+            if (attempts >= maxAttempts) {
+                log.error("事件投递失败次数达到上限，不再重试 - 事件ID: {}, 路由键: {}, 失败次数: {}, 原因: {}",
+                        event.getEventId(), event.getRoutingKey(), attempts, error);
+            } else {
+                log.warn("事件投递未确认，稍后重试 - 事件ID: {}, 路由键: {}, 失败次数: {}, 原因: {}",
+                        event.getEventId(), event.getRoutingKey(), attempts, error);
+            }
+            outboxEventMapper.markFailed(event.getId(),
+                    error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error, maxAttempts);
+        }
+
+        if (!sentIds.isEmpty()) {
+            outboxEventMapper.markSent(sentIds);
+            log.debug("发件箱投递完成 - 成功: {}, 失败: {}", sentIds.size(), events.size() - sentIds.size());
+        }
+        // 只要有失败就结束本轮，等待下一次调度重试
+        return sentIds.size() == events.size() ? events.size() : 0;
+    }
+
+    /**
+     * 等待发布确认，最多等到整批的截止时间（已超时时只取已经到达的确认）
+     *
+     * @param deadline 截止时间（System.nanoTime()）
+     * @return 失败原因，确认成功时返回null
+     */
+    private String awaitConfirm(CorrelationData correlationData, long deadline) {
+        try {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            CorrelationData.Confirm confirm = correlationData.getFuture().get(remaining, TimeUnit.NANOSECONDS);
+            if (!confirm.isAck()) {
+                return "nack: " + confirm.getReason();
+            }
+            if (correlationData.getReturned() != null) {
+                return "unroutable: " + correlationData.getReturned().getReplyText();
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "interrupted";
+        } catch (Exception e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+
+    private Message toMessage(OutboxEvent event) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setContentEncoding(StandardCharsets.UTF_8.name());
+        properties.setMessageId(event.getEventId());
+        properties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        properties.setHeader(TYPE_ID_HEADER, event.getEventType());
+        return new Message(event.getPayload().getBytes(StandardCharsets.UTF_8), properties);
+    }
+
+    /**
+     * 清理已投递的历史事件
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.purge-interval-ms:3600000}")
+    public void purgeSent() {
+        try {
+            Date before = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays));
+            int deleted;
+            int total = 0;
+            do {
+                deleted = outboxEventMapper.deleteSentBefore(before, PURGE_BATCH_SIZE);
+                total += deleted;
+            } while (deleted == PURGE_BATCH_SIZE);
+            if (total > 0) {
+                log.info("已清理 {} 条已投递的发件箱事件", total);
+            }
+        } catch (Exception e) {
+            log.error("清理发件箱失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 待投递事件数量
+     */
+    public int countPending() {
+        return outboxEventMapper.countPending();
+    }
+}
@@ -0,0 +1,65 @@
+package com.parking.common.page;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 游标分页的游标编解码（各服务的 PageResult 游标分页模式共用）
+ * 游标是按排序顺序拼接的排序键经 URL安全Base64 编码后的不透明字符串
+ *
+ * @author Parking System
+ */
+public final class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private PageCursor() {
+    }
+
+    /**
+     * 将排序键编码为不透明游标（null 编码为空字符串）
+     *
+     * @param keys 排序键（按排序顺序）
+     * @return 游标
+     */
+    public static String encode(Object... keys) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                sb.append(SEPARATOR);
+            }
+            if (keys[i] != null) {
+                sb.append(keys[i]);
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标（从后往前拆分，第一段排序键可以包含分隔符）
+     *
+     * @param cursor 游标
+     * @param parts 排序键个数
+     * @return 排序键字符串（编码时为null的键解码为空字符串）
+     */
+    public static String[] decode(String cursor, int parts) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] keys = new String[parts];
+            int end = raw.length();
+            for (int i = parts - 1; i > 0; i--) {
+                int pos = raw.lastIndexOf(SEPARATOR, end - 1);
+                if (pos < 0) {
+                    throw new IllegalArgumentException("cursor parts mismatch");
+                }
+                keys[i] = raw.substring(pos + 1, end);
+                end = pos;
+            }
+            keys[0] = raw.substring(0, end);
+            return keys;
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("无效的分页游标");
+        }
+    }
+}
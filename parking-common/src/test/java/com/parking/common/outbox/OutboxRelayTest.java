@@ -0,0 +1,131 @@
+package com.parking.common.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 发件箱投递器测试：按发布确认标记已投递/失败，整批共用一个确认截止时间
+ *
+ * @author Parking System
+ */
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Mock
+    private OutboxEventMapper outboxEventMapper;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 100);
+        ReflectionTestUtils.setField(outboxRelay, "confirmTimeoutMs", 200L);
+        ReflectionTestUtils.setField(outboxRelay, "maxAttempts", MAX_ATTEMPTS);
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void marksAckedEventsSent() {
+        when(outboxEventMapper.lockPending(100)).thenReturn(List.of(event(1L, 0), event(2L, 0)));
+        confirm(Set.of("evt-1", "evt-2"), Set.of());
+
+        outboxRelay.relay();
+
+        verify(outboxEventMapper).markSent(List.of(1L, 2L));
+        verify(outboxEventMapper, never()).markFailed(any(), anyString(), anyInt());
+    }
+
+    @Test
+    void recordsNackWithMaxAttempts() {
+        when(outboxEventMapper.lockPending(100)).thenReturn(List.of(event(1L, 0), event(2L, MAX_ATTEMPTS - 1)));
+        confirm(Set.of("evt-1"), Set.of("evt-2"));
+
+        outboxRelay.relay();
+
+        verify(outboxEventMapper).markSent(List.of(1L));
+        verify(outboxEventMapper).markFailed(eq(2L), startsWith("nack"), eq(MAX_ATTEMPTS));
+    }
+
+    @Test
+    void unconfirmedBatchWaitsOneDeadline() {
+        List<OutboxEvent> events = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            events.add(event(id, 0));
+        }
+        when(outboxEventMapper.lockPending(100)).thenReturn(events);
+        // 不返回任何确认，10条事件各等200ms会超过2秒
+
+        long start = System.nanoTime();
+        outboxRelay.relay();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(elapsedMs).isLessThan(1000);
+        for (long id = 1; id <= 10; id++) {
+            verify(outboxEventMapper).markFailed(eq(id), startsWith("TimeoutException"), eq(MAX_ATTEMPTS));
+        }
+        verify(outboxEventMapper, never()).markSent(any());
+    }
+
+    /**
+     * 发送时按事件ID返回ack或nack
+     */
+    private void confirm(Set<String> acked, Set<String> nacked) {
+        doAnswer(invocation -> {
+            CorrelationData correlationData = invocation.getArgument(3);
+            if (acked.contains(correlationData.getId())) {
+                correlationData.getFuture().complete(new CorrelationData.Confirm(true, null));
+            } else if (nacked.contains(correlationData.getId())) {
+                correlationData.getFuture().complete(new CorrelationData.Confirm(false, "queue full"));
+            }
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    private OutboxEvent event(Long id, int attempts) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setEventId("evt-" + id);
+        event.setExchange("parking.exchange");
+        event.setRoutingKey("parking.assigned");
+        event.setEventType("ParkingAssignedEvent");
+        event.setPayload("{}");
+        event.setStatus("0");
+        event.setAttempts(attempts);
+        return event;
+    }
+}
@@ -0,0 +1,55 @@
+package com.parking.loadtest;
+
+import org.apache.qpid.server.SystemLauncher;
+import org.apache.qpid.server.model.SystemConfig;
+
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 嵌入式AMQP 0-9-1 Broker（Qpid Broker-J，内存存储），替代RabbitMQ
+ * 虚拟主机名为 default，账号与服务配置中的RabbitMQ默认账号一致（admin/admin123）
+ *
+ * @author Parking System
+ */
+public class EmbeddedAmqpBroker implements AutoCloseable {
+
+    public static final String VIRTUAL_HOST = "default";
+    public static final String USERNAME = "admin";
+    public static final String PASSWORD = "admin123";
+
+    private final SystemLauncher launcher = new SystemLauncher();
+
+    /**
+     * 启动Broker
+     *
+     * @param port AMQP端口
+     * @param workDir Broker工作目录
+     */
+    public void start(int port, Path workDir) throws Exception {
+        URL config = EmbeddedAmqpBroker.class.getResource("/loadtest/amqp-broker.json");
+        if (config == null) {
+            throw new IllegalStateException("缺少 loadtest/amqp-broker.json");
+        }
+
+        Map<String, String> context = new HashMap<>();
+        context.put("qpid.amqp_port", String.valueOf(port));
+        context.put("qpid.amqp_username", USERNAME);
+        context.put("qpid.amqp_password", PASSWORD);
+        context.put("qpid.work_dir", workDir.toAbsolutePath().toString());
+
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(SystemConfig.TYPE, "Memory");
+        attributes.put(SystemConfig.INITIAL_CONFIGURATION_LOCATION, config.toExternalForm());
+        attributes.put(SystemConfig.STARTUP_LOGGED_TO_SYSTEM_OUT, false);
+        attributes.put(SystemConfig.CONTEXT, context);
+        launcher.startup(attributes);
+    }
+
+    @Override
+    public void close() {
+        launcher.shutdown();
+    }
+}
@@ -0,0 +1,97 @@
+package com.parking.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 按接口记录请求耗时（每个虚拟用户线程一个实例，不做同步，结束后合并）
+ *
+ * @author Parking System
+ */
+public class LatencyRecorder {
+
+    private final Map<String, Samples> endpoints = new TreeMap<>();
+
+    /**
+     * 记录一次请求
+     *
+     * @param endpoint 接口（方法 + 路径模板）
+     * @param nanos 耗时（纳秒）
+     * @param success 业务是否成功（HTTP 200 且返回 code = 200）
+     */
+    public void record(String endpoint, long nanos, boolean success) {
+        endpoints.computeIfAbsent(endpoint, k -> new Samples()).add(nanos, success);
+    }
+
+    /**
+     * 清空已记录的数据（预热结束时调用）
+     */
+    public void reset() {
+        endpoints.clear();
+    }
+
+    /**
+     * 合并其他线程的记录
+     */
+    public void merge(LatencyRecorder other) {
+        other.endpoints.forEach((endpoint, samples) ->
+                endpoints.computeIfAbsent(endpoint, k -> new Samples()).addAll(samples));
+    }
+
+    /**
+     * 输出每个接口的请求数、失败数、吞吐量和 P50/P99/最大耗时
+     *
+     * @param elapsedSeconds 统计时长（秒）
+     */
+    public void printReport(double elapsedSeconds) {
+        System.out.printf("%-45s %9s %7s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "req/s", "p50(ms)", "p99(ms)", "max(ms)");
+        long totalRequests = 0;
+        long totalErrors = 0;
+        for (Map.Entry<String, Samples> entry : endpoints.entrySet()) {
+            Samples samples = entry.getValue();
+            long[] sorted = Arrays.copyOf(samples.nanos, samples.size);
+            Arrays.sort(sorted);
+            totalRequests += samples.size;
+            totalErrors += samples.errors;
+            System.out.printf("%-45s %9d %7d %10.1f %10.2f %10.2f %10.2f%n",
+                    entry.getKey(), samples.size, samples.errors, samples.size / elapsedSeconds,
+                    percentile(sorted, 50), percentile(sorted, 99), sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+        }
+        System.out.printf("%-45s %9d %7d %10.1f%n", "TOTAL", totalRequests, totalErrors, totalRequests / elapsedSeconds);
+    }
+
+    private static double percentile(long[] sorted, double percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    private static class Samples {
+        private long[] nanos = new long[1024];
+        private int size;
+        private long errors;
+
+        void add(long value, boolean success) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = value;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        void addAll(Samples other) {
+            if (size + other.size > nanos.length) {
+                nanos = Arrays.copyOf(nanos, Math.max(nanos.length * 2, size + other.size));
+            }
+            System.arraycopy(other.nanos, 0, nanos, size, other.size);
+            size += other.size;
+            errors += other.errors;
+        }
+    }
+}
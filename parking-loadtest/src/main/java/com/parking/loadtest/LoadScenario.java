@@ -0,0 +1,268 @@
+package com.parking.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.math.BigDecimal;
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 压测场景：每个虚拟用户负责一组固定的 业主/车位 对（互不冲突），循环执行
+ * - 完整流程：业主登录 → 管理员分配车位 → 管理员出账 → 业主查询未缴账单 → 业主缴费 → 管理员退位
+ * - 只读请求（按 readRatio 占比）：我的账单、我的车位、管理端账单列表
+ *
+ * @author Parking System
+ */
+public class LoadScenario {
+
+    private static final String OWNER_PASSWORD = "123456";
+    private static final BigDecimal MONTHLY_FEE = new BigDecimal("300.00");
+
+    /**
+     * 出账月份序号：用9999年以前的虚构月份，避免与真实账单及 (user_id, park_id, pay_park_month) 唯一索引冲突；
+     * 起点随启动时间变化，对同一集群重复压测时月份不重复
+     */
+    private static final int FIRST_SYNTHETIC_YEAR = 3000;
+    private static final int SYNTHETIC_MONTHS = (9999 - FIRST_SYNTHETIC_YEAR) * 12;
+
+    private final LoadTestOptions options;
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final String adminToken;
+
+    private final AtomicLong monthSequence = new AtomicLong(System.currentTimeMillis() / 60_000 % (SYNTHETIC_MONTHS / 2));
+    private final AtomicLong journeysCompleted = new AtomicLong();
+    private final AtomicLong journeysFailed = new AtomicLong();
+
+    private volatile long warmupEndNanos;
+    private volatile long endNanos;
+
+    public LoadScenario(LoadTestOptions options, HttpClient httpClient, String baseUrl, String adminToken) {
+        this.options = options;
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.adminToken = adminToken;
+    }
+
+    /**
+     * 执行压测，返回合并后的耗时记录（不含预热阶段）
+     */
+    public LatencyRecorder run() throws Exception {
+        int users = options.getUsers();
+        CyclicBarrier barrier = new CyclicBarrier(users, () -> {
+            long now = System.nanoTime();
+            warmupEndNanos = now + options.getWarmupSeconds() * 1_000_000_000L;
+            endNanos = warmupEndNanos + options.getDurationSeconds() * 1_000_000_000L;
+            System.out.printf("准备完成，预热 %d 秒后统计 %d 秒（%d 个虚拟用户，只读占比 %.0f%%）%n",
+                    options.getWarmupSeconds(), options.getDurationSeconds(), users, options.getReadRatio() * 100);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(users);
+        try {
+            List<Future<LatencyRecorder>> futures = new ArrayList<>(users);
+            for (int u = 0; u < users; u++) {
+                List<Pair> pairs = new ArrayList<>();
+                for (int i = u + 1; i <= options.getOwners(); i += users) {
+                    pairs.add(new Pair(i));
+                }
+                VirtualUser user = new VirtualUser(pairs);
+                futures.add(executor.submit(() -> user.run(barrier)));
+            }
+            LatencyRecorder merged = new LatencyRecorder();
+            for (Future<LatencyRecorder> future : futures) {
+                merged.merge(future.get());
+            }
+            return merged;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public long getJourneysCompleted() {
+        return journeysCompleted.get();
+    }
+
+    public long getJourneysFailed() {
+        return journeysFailed.get();
+    }
+
+    private String nextMonth() {
+        long seq = monthSequence.getAndIncrement() % SYNTHETIC_MONTHS;
+        return String.format("%04d-%02d", FIRST_SYNTHETIC_YEAR + seq / 12, seq % 12 + 1);
+    }
+
+    /**
+     * 业主/车位对
+     */
+    private static class Pair {
+        private final String loginName;
+        private final String parkNum;
+        private final String carNumber;
+        private long userId;
+        private long parkId;
+        private String ownerToken;
+
+        Pair(int index) {
+            this.loginName = String.format("lt_owner_%05d", index);
+            this.parkNum = String.format("LT-%05d", index);
+            this.carNumber = String.format("压%05d", index);
+        }
+    }
+
+    /**
+     * 虚拟用户（一个线程）
+     */
+    private class VirtualUser {
+
+        private final List<Pair> pairs;
+        private final LatencyRecorder recorder = new LatencyRecorder();
+        private final ParkingApiClient client;
+        private int nextJourney;
+
+        VirtualUser(List<Pair> pairs) {
+            this.pairs = pairs;
+            this.client = new ParkingApiClient(httpClient, baseUrl, recorder);
+        }
+
+        LatencyRecorder run(CyclicBarrier barrier) throws Exception {
+            try {
+                for (Pair pair : pairs) {
+                    prepare(pair);
+                }
+            } catch (RuntimeException e) {
+                // 让其他虚拟用户的 await 立即失败，而不是一直等待
+                barrier.reset();
+                throw e;
+            }
+            barrier.await();
+
+            boolean measuring = false;
+            while (true) {
+                long now = System.nanoTime();
+                if (now >= endNanos) {
+                    break;
+                }
+                if (!measuring && now >= warmupEndNanos) {
+                    recorder.reset();
+                    measuring = true;
+                }
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                if (random.nextDouble() < options.getReadRatio()) {
+                    read(pairs.get(random.nextInt(pairs.size())), random.nextInt(3));
+                } else {
+                    boolean success = journey(pairs.get(nextJourney++ % pairs.size()));
+                    if (measuring) {
+                        (success ? journeysCompleted : journeysFailed).incrementAndGet();
+                    }
+                }
+            }
+            return recorder;
+        }
+
+        /**
+         * 创建业主和车位（已存在时复用），查询ID；上次压测遗留的车位分配先退位
+         */
+        private void prepare(Pair pair) {
+            Map<String, Object> owner = new LinkedHashMap<>();
+            owner.put("loginName", pair.loginName);
+            owner.put("password", OWNER_PASSWORD);
+            owner.put("username", "压测业主" + pair.loginName.substring(pair.loginName.length() - 5));
+            owner.put("phone", "139" + pair.loginName.substring(pair.loginName.length() - 5) + "000");
+            owner.put("sex", "0");
+            client.addOwner(adminToken, owner);
+
+            JsonNode login = client.ownerLogin(pair.loginName, OWNER_PASSWORD);
+            if (!ParkingApiClient.isSuccess(login)) {
+                throw new IllegalStateException("业主登录失败: " + pair.loginName + " " + login);
+            }
+            pair.userId = login.path("data").path("userId").asLong();
+            pair.ownerToken = login.path("data").path("token").asText();
+
+            Map<String, Object> space = new LinkedHashMap<>();
+            space.put("parkNum", pair.parkNum);
+            space.put("parkType", "0");
+            space.put("remark", "压测车位");
+            client.addParkingSpace(adminToken, space);
+
+            JsonNode page = client.findParkingSpaces(adminToken, pair.parkNum);
+            for (JsonNode record : iterable(page == null ? null : page.path("data").path("records"))) {
+                if (pair.parkNum.equals(record.path("parkNum").asText())) {
+                    pair.parkId = record.path("parkId").asLong();
+                    if ("1".equals(record.path("parkStatus").asText())) {
+                        client.returnParking(adminToken, pair.parkId);
+                    }
+                }
+            }
+            if (pair.parkId == 0) {
+                throw new IllegalStateException("车位创建失败: " + pair.parkNum);
+            }
+        }
+
+        private void read(Pair pair, int kind) {
+            switch (kind) {
+                case 0 -> client.myFees(pair.ownerToken);
+                case 1 -> client.myParking(pair.ownerToken);
+                default -> client.adminFeeList(adminToken);
+            }
+        }
+
+        /**
+         * 完整流程，任一步失败即结束（分配成功后总会退位，保证下一轮可以重新分配）
+         */
+        private boolean journey(Pair pair) {
+            JsonNode login = client.ownerLogin(pair.loginName, OWNER_PASSWORD);
+            if (!ParkingApiClient.isSuccess(login)) {
+                return false;
+            }
+            pair.ownerToken = login.path("data").path("token").asText();
+
+            if (!ParkingApiClient.isSuccess(client.assignParking(adminToken, pair.userId, pair.parkId, pair.carNumber))) {
+                return false;
+            }
+
+            boolean paid = billAndPay(pair);
+            boolean returned = ParkingApiClient.isSuccess(client.returnParking(adminToken, pair.parkId));
+            return paid && returned;
+        }
+
+        /**
+         * 管理员出账（虚构月份），业主在未缴账单中找到该账单并缴费
+         */
+        private boolean billAndPay(Pair pair) {
+            String month = nextMonth();
+            Map<String, Object> fee = new LinkedHashMap<>();
+            fee.put("userId", pair.userId);
+            fee.put("parkId", pair.parkId);
+            fee.put("payParkMonth", month);
+            fee.put("payParkMoney", MONTHLY_FEE);
+            if (!ParkingApiClient.isSuccess(client.addParkingFee(adminToken, fee))) {
+                return false;
+            }
+
+            JsonNode unpaid = client.unpaidFees(pair.ownerToken);
+            if (!ParkingApiClient.isSuccess(unpaid)) {
+                return false;
+            }
+            for (JsonNode record : iterable(unpaid.path("data"))) {
+                if (month.equals(record.path("payParkMonth").asText())
+                        && record.path("parkId").asLong() == pair.parkId) {
+                    return ParkingApiClient.isSuccess(client.payParkingFee(pair.ownerToken, record.path("feeId").asLong()));
+                }
+            }
+            return false;
+        }
+
+        private Iterable<JsonNode> iterable(JsonNode array) {
+            return array != null && array.isArray() ? array : List.of();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.parking.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端到端压测入口
+ *
+ * 用法：java -jar parking-loadtest/target/parking-loadtest.jar [--key=value ...]
+ * 不指定 --base-url 时在本机启动全部服务（H2 + 嵌入式AMQP + 静态服务发现），结束后自动关闭
+ *
+ * @author Parking System
+ */
+public class LoadTestMain {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+
+        LocalStack stack = null;
+        String baseUrl = options.getBaseUrl();
+        if (baseUrl == null) {
+            stack = new LocalStack(options);
+            LocalStack toClose = stack;
+            Runtime.getRuntime().addShutdownHook(new Thread(toClose::close));
+            baseUrl = stack.start();
+        }
+
+        try {
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            String adminToken = waitForAdminToken(options, httpClient, baseUrl);
+
+            LoadScenario scenario = new LoadScenario(options, httpClient, baseUrl, adminToken);
+            LatencyRecorder recorder = scenario.run();
+
+            System.out.println();
+            System.out.printf("目标: %s，虚拟用户: %d，统计时长: %d 秒%n",
+                    baseUrl, options.getUsers(), options.getDurationSeconds());
+            System.out.printf("完整流程（登录→分配→出账→缴费→退位）: 成功 %d，失败 %d，%.1f 次/秒%n",
+                    scenario.getJourneysCompleted(), scenario.getJourneysFailed(),
+                    scenario.getJourneysCompleted() / (double) options.getDurationSeconds());
+            recorder.printReport(options.getDurationSeconds());
+        } finally {
+            if (stack != null) {
+                stack.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    /**
+     * 服务端口就绪后网关路由和数据初始化可能还没完成，重试管理员登录直到成功
+     */
+    private static String waitForAdminToken(LoadTestOptions options, HttpClient httpClient, String baseUrl)
+            throws InterruptedException {
+        ParkingApiClient client = new ParkingApiClient(httpClient, baseUrl, new LatencyRecorder());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.getStartupTimeoutSeconds());
+        JsonNode result = null;
+        while (System.nanoTime() < deadline) {
+            result = client.adminLogin(options.getAdminLoginName(), options.getAdminPassword());
+            if (ParkingApiClient.isSuccess(result)) {
+                return result.path("data").path("token").asText();
+            }
+            Thread.sleep(1000);
+        }
+        throw new IllegalStateException("管理员登录失败: " + result);
+    }
+}
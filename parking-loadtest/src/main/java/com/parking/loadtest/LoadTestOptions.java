@@ -0,0 +1,192 @@
+package com.parking.loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 压测参数（命令行 --key=value）
+ *
+ * @author Parking System
+ */
+public class LoadTestOptions {
+
+    /**
+     * 已有集群的网关地址；为空时在本机启动全部服务（H2 + 嵌入式AMQP + 静态服务发现）
+     */
+    private String baseUrl;
+
+    /**
+     * 项目根目录（查找各服务的可执行jar、init-*.sql 和 nacosConfig）
+     */
+    private Path repoRoot = Paths.get(".");
+
+    /**
+     * 工作目录（种子脚本、服务日志）
+     */
+    private Path workDir = Paths.get("parking-loadtest", "target", "loadtest");
+
+    /**
+     * H2驱动jar，作为服务进程的 loader.path
+     */
+    private Path h2Jar = Paths.get("parking-loadtest", "target", "lib", "h2.jar");
+
+    /**
+     * 本地端口起点：网关 +0，user-service +81，parking-service +82，fee-service +83，AMQP +672
+     */
+    private int portBase = 19000;
+
+    /**
+     * 外部AMQP Broker（host:port），为空时启动嵌入式Broker
+     */
+    private String amqp;
+
+    /**
+     * 服务进程JVM参数（空格分隔）
+     */
+    private String serviceJvmOpts = "-Xms256m -Xmx512m";
+
+    private int startupTimeoutSeconds = 180;
+
+    /**
+     * 并发虚拟用户数
+     */
+    private int users = 32;
+
+    /**
+     * 参与完整流程的业主/车位对数（按虚拟用户平均分配，互不冲突）
+     */
+    private int owners = 256;
+
+    private int warmupSeconds = 10;
+    private int durationSeconds = 60;
+
+    /**
+     * 只读请求（我的账单、我的车位、管理端账单列表）占比，其余为 登录→分配→出账→缴费→退位 完整流程
+     */
+    private double readRatio = 0.7;
+
+    private String adminLoginName = "admin";
+    private String adminPassword = "admin123";
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("参数格式应为 --key=value: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        LoadTestOptions options = new LoadTestOptions();
+        options.baseUrl = values.remove("base-url");
+        options.amqp = values.remove("amqp");
+        if (values.containsKey("repo-root")) {
+            options.repoRoot = Paths.get(values.remove("repo-root"));
+            options.workDir = options.repoRoot.resolve(options.workDir);
+            options.h2Jar = options.repoRoot.resolve(options.h2Jar);
+        }
+        if (values.containsKey("work-dir")) {
+            options.workDir = Paths.get(values.remove("work-dir"));
+        }
+        if (values.containsKey("h2-jar")) {
+            options.h2Jar = Paths.get(values.remove("h2-jar"));
+        }
+        if (values.containsKey("service-jvm-opts")) {
+            options.serviceJvmOpts = values.remove("service-jvm-opts");
+        }
+        options.portBase = intValue(values, "port-base", options.portBase);
+        options.startupTimeoutSeconds = intValue(values, "startup-timeout", options.startupTimeoutSeconds);
+        options.users = intValue(values, "users", options.users);
+        options.owners = intValue(values, "owners", options.owners);
+        options.warmupSeconds = intValue(values, "warmup", options.warmupSeconds);
+        options.durationSeconds = intValue(values, "duration", options.durationSeconds);
+        if (values.containsKey("read-ratio")) {
+            options.readRatio = Double.parseDouble(values.remove("read-ratio"));
+        }
+        if (values.containsKey("admin-login")) {
+            options.adminLoginName = values.remove("admin-login");
+        }
+        if (values.containsKey("admin-password")) {
+            options.adminPassword = values.remove("admin-password");
+        }
+
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("未知参数: " + values.keySet());
+        }
+        if (options.users <= 0 || options.owners < options.users) {
+            throw new IllegalArgumentException("users 必须大于0，owners 不能小于 users");
+        }
+        if (options.readRatio < 0 || options.readRatio > 1) {
+            throw new IllegalArgumentException("read-ratio 取值范围为 0~1");
+        }
+        return options;
+    }
+
+    private static int intValue(Map<String, String> values, String key, int defaultValue) {
+        String value = values.remove(key);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public Path getRepoRoot() {
+        return repoRoot;
+    }
+
+    public Path getWorkDir() {
+        return workDir;
+    }
+
+    public Path getH2Jar() {
+        return h2Jar;
+    }
+
+    public int getPortBase() {
+        return portBase;
+    }
+
+    public String getAmqp() {
+        return amqp;
+    }
+
+    public String getServiceJvmOpts() {
+        return serviceJvmOpts;
+    }
+
+    public int getStartupTimeoutSeconds() {
+        return startupTimeoutSeconds;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public int getOwners() {
+        return owners;
+    }
+
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public double getReadRatio() {
+        return readRatio;
+    }
+
+    public String getAdminLoginName() {
+        return adminLoginName;
+    }
+
+    public String getAdminPassword() {
+        return adminPassword;
+    }
+}
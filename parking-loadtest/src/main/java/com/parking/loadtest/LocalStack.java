@@ -0,0 +1,263 @@
+package com.parking.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 在本机以独立进程启动 user-service、parking-service、fee-service 和 gateway-service，
+ * 外部依赖全部替换为本地实现：
+ * - MySQL：每个服务一个H2内存库（MySQL兼容模式），表结构来自 loadtest/schema-*.sql，种子数据来自 init-*-only.sql
+ * - Nacos：关闭配置中心和注册中心，服务发现改用 Spring Cloud SimpleDiscoveryClient 的静态实例列表，
+ *   业务配置从 nacosConfig/dev 下的对应文件导入
+ * - RabbitMQ：嵌入式Qpid Broker-J（或 --amqp 指定的外部Broker）
+ *
+ * @author Parking System
+ */
+public class LocalStack implements AutoCloseable {
+
+    private static final String LAUNCHER = "org.springframework.boot.loader.launch.PropertiesLauncher";
+
+    private static final String USER_SERVICE = "user-service";
+    private static final String PARKING_SERVICE = "parking-service";
+    private static final String FEE_SERVICE = "fee-service";
+    private static final String GATEWAY_SERVICE = "gateway-service";
+
+    /**
+     * 数据库服务 -> 库名 / 表结构 / 种子脚本
+     */
+    private static final Map<String, String[]> DATABASES = new LinkedHashMap<>();
+
+    /**
+     * 种子数据显式指定了主键的表，导入后把自增起点移到种子数据之后
+     */
+    private static final Map<String, List<String>> IDENTITY_RESTARTS = Map.of(
+            PARKING_SERVICE, List.of("ALTER TABLE parking_space ALTER COLUMN park_id RESTART WITH 1000;"));
+
+    static {
+        DATABASES.put(USER_SERVICE, new String[]{"parking_user_db", "schema-user.sql", "init-user-only.sql"});
+        DATABASES.put(PARKING_SERVICE, new String[]{"parking_business_db", "schema-parking.sql", "init-parking-only.sql"});
+        DATABASES.put(FEE_SERVICE, new String[]{"parking_fee_db", "schema-fee.sql", "init-fee-only.sql"});
+    }
+
+    private final LoadTestOptions options;
+    private final List<Process> processes = new ArrayList<>();
+    private EmbeddedAmqpBroker broker;
+    private boolean closed;
+
+    public LocalStack(LoadTestOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * 启动全部服务，返回网关地址
+     */
+    public String start() throws Exception {
+        Path workDir = options.getWorkDir().toAbsolutePath();
+        Files.createDirectories(workDir.resolve("logs"));
+        if (!Files.isRegularFile(options.getH2Jar())) {
+            throw new IllegalStateException("找不到H2驱动: " + options.getH2Jar() + "（先执行 mvn -Ploadtest package）");
+        }
+
+        String amqpHost = "localhost";
+        int amqpPort = options.getPortBase() + 672;
+        if (options.getAmqp() != null) {
+            String[] hostPort = options.getAmqp().split(":");
+            amqpHost = hostPort[0];
+            amqpPort = Integer.parseInt(hostPort[1]);
+        } else {
+            broker = new EmbeddedAmqpBroker();
+            broker.start(amqpPort, workDir.resolve("amqp"));
+            System.out.printf("嵌入式AMQP Broker已启动: localhost:%d%n", amqpPort);
+        }
+
+        Map<String, Integer> ports = new LinkedHashMap<>();
+        ports.put(USER_SERVICE, options.getPortBase() + 81);
+        ports.put(PARKING_SERVICE, options.getPortBase() + 82);
+        ports.put(FEE_SERVICE, options.getPortBase() + 83);
+        ports.put(GATEWAY_SERVICE, options.getPortBase());
+
+        for (Map.Entry<String, Integer> entry : ports.entrySet()) {
+            String service = entry.getKey();
+            List<String> properties = commonProperties(service, entry.getValue(), ports);
+            if (DATABASES.containsKey(service)) {
+                properties.addAll(databaseProperties(service, workDir));
+            }
+            properties.addAll(amqpProperties(amqpHost, amqpPort, options.getAmqp() == null));
+            launch(service, properties, workDir);
+        }
+
+        for (Map.Entry<String, Integer> entry : ports.entrySet()) {
+            waitForPort(entry.getKey(), entry.getValue());
+        }
+        return "http://localhost:" + options.getPortBase();
+    }
+
+    private List<String> commonProperties(String service, int port, Map<String, Integer> ports) {
+        List<String> properties = new ArrayList<>();
+        properties.add("--server.port=" + port);
+        properties.add("--spring.cloud.nacos.config.enabled=false");
+        properties.add("--spring.cloud.nacos.config.import-check.enabled=false");
+        properties.add("--spring.cloud.nacos.discovery.enabled=false");
+        properties.add("--spring.cloud.service-registry.auto-registration.enabled=false");
+        Path nacosConfig = options.getRepoRoot().resolve(Paths.get("nacosConfig", "dev", service + "-dev.yaml"));
+        properties.add("--spring.config.import=optional:file:" + nacosConfig.toAbsolutePath());
+        for (Map.Entry<String, Integer> target : ports.entrySet()) {
+            if (!GATEWAY_SERVICE.equals(target.getKey())) {
+                properties.add("--spring.cloud.discovery.client.simple.instances." + target.getKey()
+                        + "[0].uri=http://localhost:" + target.getValue());
+            }
+        }
+        // SQL日志输出到标准输出会成为压测瓶颈
+        properties.add("--mybatis.configuration.log-impl=org.apache.ibatis.logging.nologging.NoLoggingImpl");
+        return properties;
+    }
+
+    private List<String> databaseProperties(String service, Path workDir) throws IOException {
+        String[] database = DATABASES.get(service);
+        Path schema = workDir.resolve(database[1]);
+        try (InputStream in = LocalStack.class.getResourceAsStream("/loadtest/" + database[1])) {
+            if (in == null) {
+                throw new IllegalStateException("缺少 loadtest/" + database[1]);
+            }
+            Files.copy(in, schema, StandardCopyOption.REPLACE_EXISTING);
+        }
+        Path data = workDir.resolve("data-" + database[0] + ".sql");
+        Files.writeString(data, seedScript(options.getRepoRoot().resolve(database[2]),
+                IDENTITY_RESTARTS.getOrDefault(service, List.of())), StandardCharsets.UTF_8);
+
+        List<String> properties = new ArrayList<>();
+        properties.add("--spring.datasource.url=jdbc:h2:mem:" + database[0]
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1");
+        properties.add("--spring.datasource.driver-class-name=org.h2.Driver");
+        properties.add("--spring.datasource.username=sa");
+        properties.add("--spring.datasource.password=");
+        properties.add("--spring.sql.init.mode=always");
+        properties.add("--spring.sql.init.encoding=UTF-8");
+        properties.add("--spring.sql.init.schema-locations=file:" + schema);
+        properties.add("--spring.sql.init.data-locations=file:" + data);
+        return properties;
+    }
+
+    private List<String> amqpProperties(String host, int port, boolean embedded) {
+        List<String> properties = new ArrayList<>();
+        properties.add("--spring.rabbitmq.host=" + host);
+        properties.add("--spring.rabbitmq.port=" + port);
+        if (embedded) {
+            properties.add("--spring.rabbitmq.username=" + EmbeddedAmqpBroker.USERNAME);
+            properties.add("--spring.rabbitmq.password=" + EmbeddedAmqpBroker.PASSWORD);
+            properties.add("--spring.rabbitmq.virtual-host=" + EmbeddedAmqpBroker.VIRTUAL_HOST);
+        }
+        return properties;
+    }
+
+    /**
+     * 由 init-*-only.sql 生成种子脚本：去掉 TRUNCATE（表刚创建）和 SELECT ... AS ''（仅用于mysql客户端输出）
+     */
+    static String seedScript(Path initScript, List<String> extraStatements) throws IOException {
+        String script = Arrays.stream(Files.readString(initScript, StandardCharsets.UTF_8).split("\n"))
+                .filter(line -> {
+                    String trimmed = line.trim().toUpperCase();
+                    return !trimmed.startsWith("TRUNCATE") && !trimmed.startsWith("SELECT");
+                })
+                .collect(Collectors.joining("\n"));
+        return script + "\n" + String.join("\n", extraStatements) + "\n";
+    }
+
+    private void launch(String service, List<String> properties, Path workDir) throws IOException {
+        Path jar = findJar(service);
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        for (String opt : options.getServiceJvmOpts().trim().split("\\s+")) {
+            if (!opt.isEmpty()) {
+                command.add(opt);
+            }
+        }
+        if (DATABASES.containsKey(service)) {
+            command.add("-Dloader.path=" + options.getH2Jar().toAbsolutePath());
+        }
+        command.add("-cp");
+        command.add(jar.toString());
+        command.add(LAUNCHER);
+        command.addAll(properties);
+
+        Path log = workDir.resolve("logs").resolve(service + ".log");
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        processes.add(process);
+        System.out.printf("%s 启动中（pid=%d，日志：%s）%n", service, process.pid(), log);
+    }
+
+    /**
+     * 服务可执行jar：<服务>/target/<服务>.jar，benchmarks profile 构建时为 <服务>-exec.jar
+     */
+    private Path findJar(String service) {
+        Path target = options.getRepoRoot().resolve(service).resolve("target");
+        for (String name : new String[]{service + "-exec.jar", service + ".jar"}) {
+            Path jar = target.resolve(name);
+            if (Files.isRegularFile(jar)) {
+                return jar.toAbsolutePath();
+            }
+        }
+        throw new IllegalStateException("找不到 " + service + " 的可执行jar（先执行 mvn -Ploadtest -DskipTests package）: " + target);
+    }
+
+    private void waitForPort(String service, int port) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.getStartupTimeoutSeconds());
+        while (System.nanoTime() < deadline) {
+            for (Process process : processes) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("服务进程已退出（pid=" + process.pid() + "），请查看 "
+                            + options.getWorkDir().resolve("logs"));
+                }
+            }
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress("localhost", port), 500);
+                System.out.printf("%s 已就绪: localhost:%d%n", service, port);
+                return;
+            } catch (IOException e) {
+                Thread.sleep(500);
+            }
+        }
+        throw new IllegalStateException(service + " 在 " + options.getStartupTimeoutSeconds() + " 秒内未启动");
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Process process : processes) {
+            process.destroy();
+        }
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (broker != null) {
+            broker.close();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.parking.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * 通过网关调用各服务接口，并把耗时记录到当前虚拟用户的 LatencyRecorder
+ * 接口统一返回 HTTP 200，成功与否以返回体中的 code 判断
+ *
+ * @author Parking System
+ */
+public class ParkingApiClient {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final LatencyRecorder recorder;
+
+    public ParkingApiClient(HttpClient httpClient, String baseUrl, LatencyRecorder recorder) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.recorder = recorder;
+    }
+
+    // ==================== 用户服务 ====================
+
+    public JsonNode adminLogin(String loginName, String password) {
+        return post("POST /user/auth/admin/login", "/user/auth/admin/login",
+                Map.of("loginName", loginName, "password", password), null, null);
+    }
+
+    public JsonNode ownerLogin(String loginName, String password) {
+        return post("POST /user/auth/owner/login", "/user/auth/owner/login",
+                Map.of("loginName", loginName, "password", password), null, null);
+    }
+
+    public JsonNode addOwner(String adminToken, Map<String, Object> owner) {
+        return post("POST /user/user/owners", "/user/user/owners", Map.of(), owner, adminToken);
+    }
+
+    // ==================== 停车服务 ====================
+
+    public JsonNode addParkingSpace(String adminToken, Map<String, Object> space) {
+        return post("POST /parking/parking/admin/parkings", "/parking/parking/admin/parkings", Map.of(), space, adminToken);
+    }
+
+    public JsonNode findParkingSpaces(String adminToken, String keyword) {
+        return get("GET /parking/parking/admin/parkings", "/parking/parking/admin/parkings",
+                Map.of("keyword", keyword, "pageSize", "10"), adminToken);
+    }
+
+    public JsonNode assignParking(String adminToken, long userId, long parkId, String carNumber) {
+        return post("POST /parking/parking/admin/parkings/assign", "/parking/parking/admin/parkings/assign",
+                Map.of("userId", String.valueOf(userId), "parkId", String.valueOf(parkId), "carNumber", carNumber),
+                null, adminToken);
+    }
+
+    public JsonNode returnParking(String adminToken, long parkId) {
+        return post("POST /parking/parking/admin/parkings/return", "/parking/parking/admin/parkings/return",
+                Map.of("parkId", String.valueOf(parkId)), null, adminToken);
+    }
+
+    public JsonNode myParking(String ownerToken) {
+        return get("GET /parking/parking/owner/my-parking", "/parking/parking/owner/my-parking", Map.of(), ownerToken);
+    }
+
+    // ==================== 费用服务 ====================
+
+    public JsonNode addParkingFee(String adminToken, Map<String, Object> fee) {
+        return post("POST /fee/fee/admin", "/fee/fee/admin", Map.of(), fee, adminToken);
+    }
+
+    public JsonNode adminFeeList(String adminToken) {
+        return get("GET /fee/fee/admin/list", "/fee/fee/admin/list", Map.of("pageSize", "10"), adminToken);
+    }
+
+    public JsonNode unpaidFees(String ownerToken) {
+        return get("GET /fee/fee/owner/unpaid", "/fee/fee/owner/unpaid", Map.of(), ownerToken);
+    }
+
+    public JsonNode myFees(String ownerToken) {
+        return get("GET /fee/fee/owner/my-fees", "/fee/fee/owner/my-fees", Map.of(), ownerToken);
+    }
+
+    public JsonNode payParkingFee(String ownerToken, long parkFeeId) {
+        return post("POST /fee/fee/owner/pay", "/fee/fee/owner/pay",
+                Map.of("parkFeeId", String.valueOf(parkFeeId)), null, ownerToken);
+    }
+
+    /**
+     * 返回体 code 是否为 200
+     */
+    public static boolean isSuccess(JsonNode result) {
+        return result != null && result.path("code").asInt() == 200;
+    }
+
+    private JsonNode get(String endpoint, String path, Map<String, String> params, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri(path, params)).GET();
+        return send(endpoint, builder, token);
+    }
+
+    private JsonNode post(String endpoint, String path, Map<String, String> params, Object body, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri(path, params));
+        if (body != null) {
+            try {
+                builder.header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body)));
+            } catch (IOException e) {
+                throw new IllegalArgumentException(e);
+            }
+        } else {
+            builder.POST(HttpRequest.BodyPublishers.noBody());
+        }
+        return send(endpoint, builder, token);
+    }
+
+    private JsonNode send(String endpoint, HttpRequest.Builder builder, String token) {
+        builder.timeout(REQUEST_TIMEOUT);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        long start = System.nanoTime();
+        JsonNode result = null;
+        try {
+            HttpResponse<byte[]> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() == 200) {
+                result = MAPPER.readTree(response.body());
+            }
+        } catch (IOException e) {
+            // 连接失败、超时：记为失败请求
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        recorder.record(endpoint, System.nanoTime() - start, isSuccess(result));
+        return result;
+    }
+
+    private URI uri(String path, Map<String, String> params) {
+        if (params.isEmpty()) {
+            return URI.create(baseUrl + path);
+        }
+        StringJoiner query = new StringJoiner("&", "?", "");
+        params.forEach((key, value) -> query.add(key + "=" + URLEncoder.encode(value, StandardCharsets.UTF_8)));
+        return URI.create(baseUrl + path + query);
+    }
+}
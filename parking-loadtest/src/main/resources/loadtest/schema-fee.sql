@@ -0,0 +1,72 @@
+-- ========================================
+-- 压测用费用服务表结构（H2 MySQL兼容模式）
+-- 对应 parking_fee_db，包含 upgrade-*.sql 中的账单唯一索引、发件箱、批量出账任务表和读模型表
+-- ========================================
+
+CREATE TABLE fee_park (
+    fee_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    park_id BIGINT NOT NULL,
+    pay_park_month VARCHAR(10) NOT NULL,
+    pay_park_money DECIMAL(10, 2),
+    pay_park_status CHAR(1) DEFAULT '0',
+    pay_time DATETIME,
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    CONSTRAINT uk_fee_park_user_month UNIQUE (user_id, park_id, pay_park_month)
+);
+
+CREATE INDEX idx_fee_park_month ON fee_park (pay_park_month, fee_id);
+CREATE INDEX idx_fee_park_status_month ON fee_park (pay_park_status, pay_park_month, pay_park_money);
+
+CREATE TABLE event_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_id VARCHAR(64) NOT NULL,
+    exchange VARCHAR(128) NOT NULL,
+    routing_key VARCHAR(128) NOT NULL,
+    event_type VARCHAR(255) NOT NULL,
+    payload CLOB NOT NULL,
+    status CHAR(1) NOT NULL DEFAULT '0',
+    attempts INT NOT NULL DEFAULT 0,
+    last_error VARCHAR(500),
+    create_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_time DATETIME,
+    CONSTRAINT uk_event_outbox_event_id UNIQUE (event_id)
+);
+
+CREATE INDEX idx_event_outbox_status ON event_outbox (status, id);
+CREATE INDEX idx_event_outbox_sent_time ON event_outbox (status, sent_time);
+
+CREATE TABLE billing_run (
+    run_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    bill_month VARCHAR(7) NOT NULL,
+    status CHAR(1) NOT NULL DEFAULT '0',
+    total_count INT,
+    last_assignment_id BIGINT NOT NULL DEFAULT 0,
+    processed_count INT NOT NULL DEFAULT 0,
+    created_count INT NOT NULL DEFAULT 0,
+    skipped_count INT NOT NULL DEFAULT 0,
+    owner_instance VARCHAR(64),
+    heartbeat_time DATETIME,
+    error_message VARCHAR(500),
+    start_time DATETIME,
+    finish_time DATETIME,
+    create_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_billing_run_month UNIQUE (bill_month)
+);
+
+CREATE TABLE owner_projection (
+    user_id BIGINT PRIMARY KEY,
+    username VARCHAR(50),
+    user_type VARCHAR(20),
+    synced_at TIMESTAMP(3) NOT NULL
+);
+
+CREATE TABLE parking_projection (
+    user_id BIGINT PRIMARY KEY,
+    owner_parking_id BIGINT NOT NULL,
+    park_id BIGINT NOT NULL,
+    park_num VARCHAR(20),
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    synced_at TIMESTAMP(3) NOT NULL
+);
@@ -0,0 +1,71 @@
+-- ========================================
+-- 压测用停车业务表结构（H2 MySQL兼容模式）
+-- 对应 parking_business_db，包含 upgrade-*.sql 中的发件箱、有效车位唯一约束、游标分页索引和车位事件序号
+-- ========================================
+
+CREATE TABLE parking_space (
+    park_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    park_num VARCHAR(20) NOT NULL,
+    park_type CHAR(1) DEFAULT '0',
+    park_status CHAR(1) DEFAULT '0',
+    remark VARCHAR(200),
+    event_seq BIGINT NOT NULL DEFAULT 0,
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    CONSTRAINT uk_parking_space_park_num UNIQUE (park_num)
+);
+
+CREATE INDEX idx_parking_space_park_num ON parking_space (park_num, park_id);
+
+-- active_user_id 对应MySQL中的 IF(payment_status = '1', user_id, NULL) 生成列
+CREATE TABLE owner_parking (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    park_id BIGINT NOT NULL,
+    car_num VARCHAR(20),
+    entry_time DATETIME,
+    exit_time DATETIME,
+    parking_days INT,
+    parking_fee DECIMAL(10, 2),
+    payment_status CHAR(1) DEFAULT '0',
+    remark VARCHAR(200),
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    active_user_id BIGINT GENERATED ALWAYS AS (CASE WHEN payment_status = '1' THEN user_id END),
+    CONSTRAINT uk_owner_parking_active_user UNIQUE (active_user_id)
+);
+
+CREATE INDEX idx_owner_parking_user_id ON owner_parking (user_id, id);
+CREATE INDEX idx_owner_parking_park ON owner_parking (park_id);
+
+-- 停车服务内保留的旧停车费表（主键为 park_fee_id）
+CREATE TABLE fee_park (
+    park_fee_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    park_id BIGINT NOT NULL,
+    pay_park_month VARCHAR(10) NOT NULL,
+    pay_park_money DECIMAL(10, 2),
+    pay_park_status CHAR(1) DEFAULT '0',
+    pay_park_time DATETIME,
+    remark VARCHAR(200),
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+CREATE TABLE event_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_id VARCHAR(64) NOT NULL,
+    exchange VARCHAR(128) NOT NULL,
+    routing_key VARCHAR(128) NOT NULL,
+    event_type VARCHAR(255) NOT NULL,
+    payload CLOB NOT NULL,
+    status CHAR(1) NOT NULL DEFAULT '0',
+    attempts INT NOT NULL DEFAULT 0,
+    last_error VARCHAR(500),
+    create_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_time DATETIME,
+    CONSTRAINT uk_event_outbox_event_id UNIQUE (event_id)
+);
+
+CREATE INDEX idx_event_outbox_status ON event_outbox (status, id);
+CREATE INDEX idx_event_outbox_sent_time ON event_outbox (status, sent_time);
@@ -0,0 +1,34 @@
+-- ========================================
+-- 压测用用户服务表结构（H2 MySQL兼容模式）
+-- 对应 parking_user_db，字段与 user-service 实体和 init-user-only.sql 一致
+-- ========================================
+
+CREATE TABLE sys_user (
+    user_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    login_name VARCHAR(50) NOT NULL,
+    password VARCHAR(100) NOT NULL,
+    username VARCHAR(50),
+    phone VARCHAR(20),
+    sex CHAR(1) DEFAULT '0',
+    status CHAR(1) DEFAULT '0',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    CONSTRAINT uk_sys_user_login_name UNIQUE (login_name)
+);
+
+CREATE TABLE live_user (
+    user_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    login_name VARCHAR(50) NOT NULL,
+    password VARCHAR(100) NOT NULL,
+    username VARCHAR(50),
+    phone VARCHAR(20),
+    sex CHAR(1) DEFAULT '0',
+    id_card VARCHAR(20),
+    user_type VARCHAR(20) DEFAULT 'NORMAL',
+    status CHAR(1) DEFAULT '0',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    CONSTRAINT uk_live_user_login_name UNIQUE (login_name)
+);
+
+CREATE INDEX idx_live_user_create_time ON live_user (create_time, user_id);
@@ -1,8 +1,11 @@
 package com.parking.parking.config;
 
+import com.parking.common.metrics.RabbitMetrics;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.ContainerCustomizer;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.context.annotation.Bean;
@@ -29,11 +32,26 @@ public class RabbitMQConfig {
      */
     public static final String PARKING_ASSIGNED_ROUTING_KEY = "parking.assigned";
 
+    /**
+     * 车位退还事件路由键
+     */
+    public static final String PARKING_RETURNED_ROUTING_KEY = "parking.returned";
+
+    /**
+     * 车牌变更事件路由键
+     */
+    public static final String CAR_NUMBER_CHANGED_ROUTING_KEY = "parking.car.changed";
+
     /**
      * 费用服务队列（接收车位分配事件）
      */
     public static final String FEE_QUEUE = "fee.parking.assigned.queue";
 
+    /**
+     * 车位变更事件路由键（各parking-service实例同步车位空闲索引）
+     */
+    public static final String PARKING_SPACE_CHANGED_ROUTING_KEY = "parking.space.changed";
+
     /**
      * 死信交换机
      */
@@ -82,6 +100,14 @@ public class RabbitMQConfig {
                 .build();
     }
 
+    /**
+     * 创建车位索引同步队列（每个实例一个匿名队列，实例下线时自动删除）
+     */
+    @Bean
+    public Queue parkingSpaceSyncQueue() {
+        return new AnonymousQueue();
+    }
+
     /**
      * 创建死信队列
      */
@@ -105,6 +131,17 @@ public class RabbitMQConfig {
                 .with(PARKING_ASSIGNED_ROUTING_KEY);
     }
 
+    /**
+     * 绑定车位索引同步队列到交换机
+     */
+    @Bean
+    public Binding parkingSpaceSyncBinding(Queue parkingSpaceSyncQueue, TopicExchange parkingExchange) {
+        return BindingBuilder
+                .bind(parkingSpaceSyncQueue)
+                .to(parkingExchange)
+                .with(PARKING_SPACE_CHANGED_ROUTING_KEY);
+    }
+
     /**
      * 绑定死信队列到死信交换机
      */
@@ -130,15 +167,22 @@ public class RabbitMQConfig {
      * 配置RabbitTemplate（用于发送消息）
      */
     @Bean
-    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter messageConverter) {
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter messageConverter,
+                                         RabbitMetrics rabbitMetrics) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
         rabbitTemplate.setMessageConverter(messageConverter);
+        // 无法路由的消息退回给发送方（spring.rabbitmq.template.mandatory 只作用于自动配置的RabbitTemplate），
+        // 发件箱投递器据此把退回的事件记为投递失败，而不是在收到ack后标记为已投递
+        rabbitTemplate.setMandatory(true);
+
+        // 发布时间：用于统计确认耗时和消费端排队延迟
+        rabbitTemplate.addBeforePublishPostProcessors(rabbitMetrics.timestampPostProcessor());
+        rabbitTemplate.setCorrelationDataPostProcessor(rabbitMetrics.correlationDataPostProcessor());
 
         // 配置消息发送确认回调
         rabbitTemplate.setConfirmCallback((correlationData, ack, cause) -> {
-            if (ack) {
-                System.out.println("消息发送成功：" + correlationData);
-            } else {
+            rabbitMetrics.recordConfirm(correlationData, ack);
+            if (!ack) {
                 System.err.println("消息发送失败：" + correlationData + "，原因：" + cause);
             }
         });
@@ -152,4 +196,12 @@ public class RabbitMQConfig {
 
         return rabbitTemplate;
     }
+
+    /**
+     * 监听器容器取到消息后记录排队延迟（作用于Spring Boot自动配置的默认监听器容器工厂）
+     */
+    @Bean
+    public ContainerCustomizer<SimpleMessageListenerContainer> consumeLagContainerCustomizer(RabbitMetrics rabbitMetrics) {
+        return container -> container.setAfterReceivePostProcessors(rabbitMetrics.consumeLagPostProcessor());
+    }
 }
@@ -0,0 +1,31 @@
+package com.parking.parking.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 虚拟线程模式配置（spring.threads.virtual.enabled=true 且运行在Java 21及以上时生效）
+ * Tomcat请求线程、@RabbitListener容器、@Scheduled由Spring Boot自动切换为虚拟线程；
+ * Feign调用经熔断器（TimeLimiter）执行时默认跑在熔断器自带的平台线程池上，这里同样切换为虚拟线程
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public Customizer<Resilience4JCircuitBreakerFactory> virtualThreadCircuitBreakerCustomizer() {
+        // 每个任务一个虚拟线程（空闲线程立即回收，不做池化）
+        VirtualThreadTaskExecutor virtualThreads = new VirtualThreadTaskExecutor("feign-cb-");
+        return factory -> factory.configureExecutorService(new ThreadPoolExecutor(0, Integer.MAX_VALUE,
+                0L, TimeUnit.SECONDS, new SynchronousQueue<>(), virtualThreads.getVirtualThreadFactory()));
+    }
+}
@@ -1,20 +1,25 @@
 package com.parking.parking.controller;
 
+import com.parking.common.identity.GatewayIdentityResolver;
 import com.parking.parking.common.Result;
 import com.parking.parking.entity.OwnerParking;
+import com.parking.parking.entity.OwnerParkingDetail;
 import com.parking.parking.entity.ParkingFee;
 import com.parking.parking.entity.ParkingSpace;
 import com.parking.parking.service.ParkingFeeService;
 import com.parking.parking.service.ParkingService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * 业主停车控制器（业主端）
@@ -33,6 +38,9 @@ public class OwnerParkingController {
     @Autowired
     private ParkingFeeService parkingFeeService;
 
+    @Autowired
+    private GatewayIdentityResolver identityResolver;
+
     @Value("${server.port}")
     private String serverPort;
 
@@ -41,23 +49,27 @@ public class OwnerParkingController {
     /**
      * 查看我的车位信息
      *
-     * @param userId 业主ID（从Token获取）
+     * @param userId 业主ID（业主登录时以网关转发的Token身份为准）
      * @return 车位信息
      */
     @GetMapping("/my-parking")
-    public Result<Map<String, Object>> getMyParking(@RequestParam Long userId) {
-        OwnerParking ownerParking = parkingService.getOwnerParking(userId);
+    public Result<Map<String, Object>> getMyParking(@RequestParam(required = false) Long userId,
+                                                    HttpServletRequest request) {
+        userId = identityResolver.resolveOwnerId(request, userId);
+        if (userId == null) {
+            return Result.error(401, "无法识别当前用户");
+        }
 
-        if (ownerParking == null) {
+        // 停车记录和车位信息由一次连接查询得到
+        OwnerParkingDetail detail = parkingService.getOwnerParkingDetail(userId);
+
+        if (detail == null) {
             return Result.success("暂无车位", null);
         }
 
-        // 获取车位详细信息
-        ParkingSpace parkingSpace = parkingService.getParkingById(ownerParking.getParkId());
-
         Map<String, Object> result = new HashMap<>();
-        result.put("ownerParking", ownerParking);
-        result.put("parkingSpace", parkingSpace);
+        result.put("ownerParking", detail.getOwnerParking());
+        result.put("parkingSpace", detail.getParkingSpace());
 
         return Result.success(result);
     }
@@ -72,13 +84,13 @@ public class OwnerParkingController {
     @GetMapping("/record")
     public Result<Map<String, Object>> getParkingRecordByUserId(@RequestParam Long userId) {
         log.info("【负载均衡】Request handled by parking-service instance on port: {}, userId: {}", serverPort, userId);
-        OwnerParking ownerParking = parkingService.getOwnerParking(userId);
-        if (ownerParking == null) {
+        OwnerParkingDetail detail = parkingService.getOwnerParkingDetail(userId);
+        if (detail == null) {
             return Result.error("该用户没有停车记录");
         }
 
-        // 获取车位详细信息
-        ParkingSpace parkingSpace = parkingService.getParkingById(ownerParking.getParkId());
+        OwnerParking ownerParking = detail.getOwnerParking();
+        ParkingSpace parkingSpace = detail.getParkingSpace();
 
         Map<String, Object> result = new HashMap<>();
         result.put("userId", ownerParking.getUserId());
@@ -89,15 +101,107 @@ public class OwnerParkingController {
         return Result.success(result);
     }
 
+    /**
+     * 【供其他服务调用】根据用户ID批量获取停车记录
+     * 用于fee-service分页列表一次性填充车位编号，返回格式与 /record 相同，没有记录的用户不返回
+     *
+     * @param userIds 业主ID列表
+     * @return 停车记录列表
+     */
+    @GetMapping("/records/batch")
+    public Result<List<Map<String, Object>>> getParkingRecordsByUserIds(@RequestParam List<Long> userIds) {
+        log.info("【负载均衡】Request handled by parking-service instance on port: {}, batch size: {}", serverPort, userIds.size());
+        List<OwnerParking> ownerParkings = parkingService.getOwnerParkings(userIds);
+
+        // 一次性查询所有涉及的车位
+        List<Long> parkIds = ownerParkings.stream()
+                .map(OwnerParking::getParkId)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, ParkingSpace> parkingSpaceMap = parkingService.getParkingsByIds(parkIds).stream()
+                .collect(Collectors.toMap(ParkingSpace::getParkId, p -> p));
+
+        List<Map<String, Object>> records = new ArrayList<>(ownerParkings.size());
+        for (OwnerParking ownerParking : ownerParkings) {
+            ParkingSpace parkingSpace = parkingSpaceMap.get(ownerParking.getParkId());
+
+            Map<String, Object> record = new HashMap<>();
+            record.put("userId", ownerParking.getUserId());
+            record.put("parkId", ownerParking.getParkId());
+            record.put("parkNum", parkingSpace != null ? parkingSpace.getParkNum() : null);
+            record.put("carNum", ownerParking.getCarNum());
+            records.add(record);
+        }
+
+        return Result.success(records);
+    }
+
+    /**
+     * 【供其他服务调用】按ID游标分批获取有效的车位分配
+     * 用于fee-service月度批量出账，每次返回 id 大于 afterId 的下一批记录，按 id 升序
+     *
+     * @param afterId 上一批最后一条记录的id（首批传0）
+     * @param limit 每批数量（最多1000）
+     * @return 车位分配列表（id、userId、parkId、parkType、carNum、entryTime）
+     */
+    @GetMapping("/records/active")
+    public Result<List<Map<String, Object>>> getActiveAssignments(@RequestParam(defaultValue = "0") Long afterId,
+                                                                  @RequestParam(defaultValue = "1000") int limit) {
+        return Result.success(parkingService.getActiveAssignments(afterId, limit));
+    }
+
+    /**
+     * 【供其他服务调用】按user_id游标分批获取每个业主的最新停车记录
+     * 用于fee-service初始化和定期校准本地车位读模型，每次返回 userId 大于 afterUserId 的下一批业主
+     *
+     * @param afterUserId 上一批最后一个业主ID（首批传0）
+     * @param limit 每批数量（最多1000）
+     * @return 停车记录列表（userId、ownerParkingId、parkId、parkNum、active）
+     */
+    @GetMapping("/records/snapshot")
+    public Result<List<Map<String, Object>>> getParkingRecordSnapshot(@RequestParam(defaultValue = "0") Long afterUserId,
+                                                                      @RequestParam(defaultValue = "1000") int limit) {
+        List<OwnerParkingDetail> details = parkingService.getOwnerParkingSnapshot(afterUserId, limit);
+        List<Map<String, Object>> records = new ArrayList<>(details.size());
+        for (OwnerParkingDetail detail : details) {
+            OwnerParking ownerParking = detail.getOwnerParking();
+            ParkingSpace parkingSpace = detail.getParkingSpace();
+
+            Map<String, Object> record = new HashMap<>();
+            record.put("userId", ownerParking.getUserId());
+            record.put("ownerParkingId", ownerParking.getId());
+            record.put("parkId", ownerParking.getParkId());
+            record.put("parkNum", parkingSpace != null ? parkingSpace.getParkNum() : null);
+            record.put("active", "1".equals(ownerParking.getPaymentStatus()));
+            records.add(record);
+        }
+        return Result.success(records);
+    }
+
+    /**
+     * 【供其他服务调用】有效车位分配总数（用于批量出账进度统计）
+     */
+    @GetMapping("/records/active/count")
+    public Result<Integer> countActiveAssignments() {
+        return Result.success(parkingService.countActiveAssignments());
+    }
+
     /**
      * 更新车牌号
      *
-     * @param userId 业主ID
+     * @param userId 业主ID（业主登录时以网关转发的Token身份为准）
      * @param carNum 新车牌号
      * @return 是否成功
      */
     @PutMapping("/update-car")
-    public Result<Void> updateCarNumber(@RequestParam Long userId, @RequestParam String carNum) {
+    public Result<Void> updateCarNumber(@RequestParam(required = false) Long userId,
+                                        @RequestParam String carNum,
+                                        HttpServletRequest request) {
+        userId = identityResolver.resolveOwnerId(request, userId);
+        if (userId == null) {
+            return Result.error(401, "无法识别当前用户");
+        }
+
         try {
             boolean success = parkingService.updateCarNumber(userId, carNum);
             return success ? Result.success("车牌号更新成功", null) : Result.error("更新失败");
@@ -111,11 +215,17 @@ public class OwnerParkingController {
     /**
      * 查看我的停车费记录
      *
-     * @param userId 业主ID（从Token获取）
+     * @param userId 业主ID（业主登录时以网关转发的Token身份为准）
      * @return 停车费列表
      */
     @GetMapping("/my-parking-fees")
-    public Result<List<ParkingFee>> getMyParkingFees(@RequestParam Long userId) {
+    public Result<List<ParkingFee>> getMyParkingFees(@RequestParam(required = false) Long userId,
+                                                     HttpServletRequest request) {
+        userId = identityResolver.resolveOwnerId(request, userId);
+        if (userId == null) {
+            return Result.error(401, "无法识别当前用户");
+        }
+
         List<ParkingFee> fees = parkingFeeService.getOwnerParkingFees(userId);
         return Result.success(fees);
     }
@@ -123,11 +233,17 @@ public class OwnerParkingController {
     /**
      * 查看未缴费的停车费列表
      *
-     * @param userId 业主ID（从Token获取）
+     * @param userId 业主ID（业主登录时以网关转发的Token身份为准）
      * @return 未缴费列表
      */
     @GetMapping("/unpaid-fees")
-    public Result<List<ParkingFee>> getUnpaidFees(@RequestParam Long userId) {
+    public Result<List<ParkingFee>> getUnpaidFees(@RequestParam(required = false) Long userId,
+                                                  HttpServletRequest request) {
+        userId = identityResolver.resolveOwnerId(request, userId);
+        if (userId == null) {
+            return Result.error(401, "无法识别当前用户");
+        }
+
         List<ParkingFee> fees = parkingFeeService.getUnpaidFees(userId);
         return Result.success(fees);
     }
@@ -136,12 +252,18 @@ public class OwnerParkingController {
      * 在线缴纳停车费
      *
      * @param parkFeeId 停车费ID
-     * @param userId 业主ID（从Token获取）
+     * @param userId 业主ID（业主登录时以网关转发的Token身份为准）
      * @return 缴费结果
      */
     @PostMapping("/pay-parking-fee")
     public Result<Void> payParkingFee(@RequestParam Long parkFeeId,
-                                       @RequestParam Long userId) {
+                                       @RequestParam(required = false) Long userId,
+                                       HttpServletRequest request) {
+        userId = identityResolver.resolveOwnerId(request, userId);
+        if (userId == null) {
+            return Result.error(401, "无法识别当前用户");
+        }
+
         try {
             boolean success = parkingFeeService.payParkingFee(parkFeeId, userId);
             return success ? Result.success("缴费成功", null) : Result.error("缴费失败");
@@ -1,15 +1,18 @@
 package com.parking.parking.controller;
 
+import com.parking.common.identity.GatewayIdentityResolver;
 import com.parking.parking.common.PageResult;
 import com.parking.parking.common.Result;
 import com.parking.parking.entity.ParkingFee;
 import com.parking.parking.entity.ParkingSpace;
 import com.parking.parking.service.ParkingFeeService;
 import com.parking.parking.service.ParkingService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 停车管理控制器（管理员端）
@@ -26,16 +29,29 @@ public class ParkingController {
     @Autowired
     private ParkingFeeService parkingFeeService;
 
+    @Autowired
+    private GatewayIdentityResolver identityResolver;
+
     // ==================== 车位管理 ====================
 
     /**
      * 分页查询车位列表
+     * 传入cursor参数（第一页传空字符串）时使用游标分页，withTotal控制是否统计总数
      */
     @GetMapping("/parkings")
     public Result<PageResult<ParkingSpace>> getParkingPage(@RequestParam(defaultValue = "1") int pageNum,
                                                             @RequestParam(defaultValue = "10") int pageSize,
                                                             @RequestParam(required = false) String keyword,
-                                                            @RequestParam(required = false) String status) {
+                                                            @RequestParam(required = false) String status,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "false") boolean withTotal) {
+        if (cursor != null) {
+            try {
+                return Result.success(parkingService.getParkingPageByCursor(cursor, pageSize, keyword, status, withTotal));
+            } catch (Exception e) {
+                return Result.error(e.getMessage());
+            }
+        }
         PageResult<ParkingSpace> page = parkingService.getParkingPage(pageNum, pageSize, keyword, status);
         return Result.success(page);
     }
@@ -49,6 +65,14 @@ public class ParkingController {
         return Result.success(parkings);
     }
 
+    /**
+     * 车位占用统计（从内存索引读取）
+     */
+    @GetMapping("/parkings/occupancy")
+    public Result<Map<String, Object>> getOccupancyStats() {
+        return Result.success(parkingService.getOccupancyStats());
+    }
+
     /**
      * 根据ID查询车位
      */
@@ -103,9 +127,12 @@ public class ParkingController {
     @PostMapping("/parkings/assign")
     public Result<Void> assignParking(@RequestParam Long userId,
                                        @RequestParam Long parkId,
-                                       @RequestParam(required = false) String carNumber) {
+                                       @RequestParam(required = false) String carNumber,
+                                       HttpServletRequest request) {
         try {
-            boolean success = parkingService.assignParkingToOwner(userId, parkId, carNumber);
+            // Token已证明该业主存在时，跳过对user-service的验证调用
+            boolean ownerVerified = identityResolver.isVerifiedOwner(request, userId);
+            boolean success = parkingService.assignParkingToOwner(userId, parkId, carNumber, ownerVerified);
             return success ? Result.success("分配成功", null) : Result.error("分配失败");
         } catch (Exception e) {
             return Result.error(e.getMessage());
@@ -0,0 +1,26 @@
+package com.parking.parking.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 业主最新停车记录及其车位信息（一次连接查询得到）
+ *
+ * @author Parking System
+ */
+@Data
+public class OwnerParkingDetail implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 业主最新一条车位关联
+     */
+    private OwnerParking ownerParking;
+
+    /**
+     * 关联的车位（车位已删除时为null）
+     */
+    private ParkingSpace parkingSpace;
+}
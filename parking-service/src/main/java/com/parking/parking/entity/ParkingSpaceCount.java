@@ -0,0 +1,31 @@
+package com.parking.parking.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 按车位类型和状态分组的车位数（可用性索引未就绪时的占用统计）
+ *
+ * @author Parking System
+ */
+@Data
+public class ParkingSpaceCount implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 车位类型
+     */
+    private String parkType;
+
+    /**
+     * 车位状态（0空闲 1已分配）
+     */
+    private String parkStatus;
+
+    /**
+     * 车位数
+     */
+    private Integer spaceCount;
+}
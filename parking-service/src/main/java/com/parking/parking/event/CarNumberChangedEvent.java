@@ -0,0 +1,62 @@
+package com.parking.parking.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 车牌变更事件
+ * 业主修改当前车位的车牌号后发布此事件，用于通知其他服务清除缓存、更新读模型
+ *
+ * @author Parking System
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CarNumberChangedEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 事件ID（用于幂等性）
+     */
+    private String eventId;
+
+    /**
+     * 业主车位关联ID
+     */
+    private Long ownerParkingId;
+
+    /**
+     * 业主ID
+     */
+    private Long userId;
+
+    /**
+     * 车位ID
+     */
+    private Long parkId;
+
+    /**
+     * 车位事件序号（同一车位的分配、退还、换车牌事件按提交顺序递增，消费方据此丢弃乱序到达的旧事件）
+     */
+    private Long sequence;
+
+    /**
+     * 原车牌号
+     */
+    private String oldCarNumber;
+
+    /**
+     * 新车牌号
+     */
+    private String carNumber;
+
+    /**
+     * 事件发生时间
+     */
+    private Date eventTime;
+}
@@ -0,0 +1,53 @@
+package com.parking.parking.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 车位变更事件
+ * 车位新增、修改、删除、分配、退还后发布，其他parking-service实例收到后重新加载该车位，
+ * 保持各实例的车位空闲索引和业主停车记录缓存一致
+ *
+ * @author Parking System
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParkingSpaceChangedEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 事件ID
+     */
+    private String eventId;
+
+    /**
+     * 车位ID
+     */
+    private Long parkId;
+
+    /**
+     * 变更类型（ADDED / UPDATED / DELETED / ASSIGNED / RETURNED / CAR_CHANGED）
+     */
+    private String changeType;
+
+    /**
+     * 受影响的业主ID（ASSIGNED / RETURNED / CAR_CHANGED 时有值）
+     */
+    private Long userId;
+
+    /**
+     * 发布事件的实例ID（实例忽略自己发布的事件）
+     */
+    private String sourceInstance;
+
+    /**
+     * 事件发生时间
+     */
+    private Date eventTime;
+}
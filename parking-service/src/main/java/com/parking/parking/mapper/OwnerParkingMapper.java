@@ -1,8 +1,12 @@
 package com.parking.parking.mapper;
 
 import com.parking.parking.entity.OwnerParking;
+import com.parking.parking.entity.OwnerParkingDetail;
 import org.apache.ibatis.annotations.*;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * 业主车位关联Mapper接口
  *
@@ -20,9 +24,17 @@ public interface OwnerParkingMapper {
     @Select("SELECT * FROM owner_parking WHERE user_id = #{userId} ORDER BY id DESC LIMIT 1")
     OwnerParking findByUserId(@Param("userId") Long userId);
 
-    @Select("SELECT COUNT(*) FROM owner_parking WHERE user_id = #{userId} AND payment_status = '1'")
-    int countByUserIdAndActive(@Param("userId") Long userId);
+    // 业主最新停车记录连接车位信息，一次查询代替 findByUserId + ParkingSpaceMapper.findById（在XML中实现）
+    OwnerParkingDetail findDetailByUserId(@Param("userId") Long userId);
+
+    // 按user_id游标分批查询每个业主的最新停车记录及车位信息（fee-service读模型快照，在XML中实现）
+    List<OwnerParkingDetail> findDetailSnapshotAfterUserId(@Param("afterUserId") Long afterUserId,
+                                                           @Param("limit") int limit);
 
+    /**
+     * 一个业主只能有一条有效关联，由唯一索引 uk_owner_parking_active_user 保证，
+     * 重复分配时抛出 DuplicateKeyException
+     */
     @Insert("INSERT INTO owner_parking(user_id, park_id, car_num, entry_time, payment_status) " +
             "VALUES(#{userId}, #{parkId}, #{carNum}, #{entryTime}, #{paymentStatus})")
     @Options(useGeneratedKeys = true, keyProperty = "id", keyColumn = "id")
@@ -30,4 +42,13 @@ public interface OwnerParkingMapper {
 
     @Update("UPDATE owner_parking SET payment_status=#{paymentStatus}, car_num=#{carNum}, exit_time=#{exitTime} WHERE id=#{id}")
     int update(OwnerParking ownerParking);
+
+    // 批量查询每个业主最新的停车记录（复杂查询，在XML中实现）
+    List<OwnerParking> findLatestByUserIds(@Param("userIds") List<Long> userIds);
+
+    // 按ID游标分批查询有效的车位分配（附带车位类型，供批量出账使用，在XML中实现）
+    List<Map<String, Object>> findActiveAfterId(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    @Select("SELECT COUNT(*) FROM owner_parking WHERE payment_status = '1'")
+    int countActive();
 }
@@ -1,6 +1,7 @@
 package com.parking.parking.mapper;
 
 import com.parking.parking.entity.ParkingSpace;
+import com.parking.parking.entity.ParkingSpaceCount;
 import org.apache.ibatis.annotations.*;
 
 import java.util.List;
@@ -16,12 +17,19 @@ public interface ParkingSpaceMapper {
     @Select("SELECT * FROM parking_space WHERE park_id = #{parkId}")
     ParkingSpace findById(@Param("parkId") Long parkId);
 
+    @Select("SELECT * FROM parking_space")
+    List<ParkingSpace> findAll();
+
     @Select("SELECT * FROM parking_space WHERE park_status = '0' ORDER BY park_num ASC")
     List<ParkingSpace> findAvailable();
 
     @Select("SELECT COUNT(*) FROM parking_space WHERE park_num = #{parkNum}")
     int countByParkNum(@Param("parkNum") String parkNum);
 
+    // 按车位类型和状态分组计数（可用性索引未就绪时的占用统计）
+    @Select("SELECT park_type, park_status, COUNT(*) AS space_count FROM parking_space GROUP BY park_type, park_status")
+    List<ParkingSpaceCount> countByTypeAndStatus();
+
     @Insert("INSERT INTO parking_space(park_num, park_type, park_status, remark) " +
             "VALUES(#{parkNum}, #{parkType}, #{parkStatus}, #{remark})")
     @Options(useGeneratedKeys = true, keyProperty = "parkId", keyColumn = "park_id")
@@ -31,6 +39,27 @@ public interface ParkingSpaceMapper {
             "park_status=#{parkStatus}, remark=#{remark} WHERE park_id=#{parkId}")
     int update(ParkingSpace parkingSpace);
 
+    /**
+     * 原子占用车位：仅当车位空闲时置为已分配，返回0表示车位不存在或已被占用
+     */
+    @Update("UPDATE parking_space SET park_status='1' WHERE park_id=#{parkId} AND park_status='0'")
+    int claimIfFree(@Param("parkId") Long parkId);
+
+    /**
+     * 原子释放车位：仅当车位已分配时置为空闲
+     */
+    @Update("UPDATE parking_space SET park_status='0' WHERE park_id=#{parkId} AND park_status='1'")
+    int releaseIfAssigned(@Param("parkId") Long parkId);
+
+    /**
+     * 递增车位事件序号（行锁一直持有到事务提交，同一车位的事件序号按提交顺序递增）
+     */
+    @Update("UPDATE parking_space SET event_seq = event_seq + 1 WHERE park_id=#{parkId}")
+    int incrementEventSeq(@Param("parkId") Long parkId);
+
+    @Select("SELECT event_seq FROM parking_space WHERE park_id = #{parkId}")
+    Long findEventSeq(@Param("parkId") Long parkId);
+
     @Delete("DELETE FROM parking_space WHERE park_id = #{parkId}")
     int deleteById(@Param("parkId") Long parkId);
 
@@ -42,4 +71,13 @@ public interface ParkingSpaceMapper {
 
     int countByKeyword(@Param("keyword") String keyword,
                        @Param("status") String status);
+
+    // 游标分页：按 (park_num, park_id) 定位，afterParkId为空时查询第一页
+    List<ParkingSpace> findByCursor(@Param("limit") int limit,
+                                     @Param("keyword") String keyword,
+                                     @Param("status") String status,
+                                     @Param("afterParkNum") String afterParkNum,
+                                     @Param("afterParkId") Long afterParkId);
+
+    List<ParkingSpace> findByIds(@Param("parkIds") List<Long> parkIds);
 }
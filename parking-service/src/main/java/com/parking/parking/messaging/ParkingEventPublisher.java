@@ -1,19 +1,31 @@
 package com.parking.parking.messaging;
 
+import com.parking.common.outbox.OutboxEvent;
+import com.parking.common.outbox.OutboxEventMapper;
 import com.parking.parking.config.RabbitMQConfig;
+import com.parking.parking.event.CarNumberChangedEvent;
 import com.parking.parking.event.ParkingAssignedEvent;
+import com.parking.parking.event.ParkingReturnedEvent;
+import com.parking.parking.event.ParkingSpaceChangedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 
 /**
  * 停车事件发布者
- * 负责发布车位相关的异步事件到RabbitMQ
+ * 负责发布车位相关的异步事件：业务事件写入发件箱由 OutboxRelay 投递，
+ * 车位索引同步事件在事务提交后直接广播
  *
  * @author Parking System
  */
@@ -22,11 +34,24 @@ public class ParkingEventPublisher {
 
     private static final Logger log = LoggerFactory.getLogger(ParkingEventPublisher.class);
 
+    /**
+     * 当前实例ID（用于忽略自己发布的车位变更事件）
+     */
+    public static final String INSTANCE_ID = UUID.randomUUID().toString();
+
     @Autowired
     private RabbitTemplate rabbitTemplate;
 
+    @Autowired
+    private MessageConverter messageConverter;
+
+    @Autowired
+    private OutboxEventMapper outboxEventMapper;
+
     /**
      * 发布车位分配事件
+     * 事件写入发件箱表，必须在业务事务内调用，与业务数据一起提交或回滚；
+     * 由 OutboxRelay 在事务外异步投递到RabbitMQ
      *
      * @param event 车位分配事件
      */
@@ -37,24 +62,109 @@ public class ParkingEventPublisher {
                 event.setEventId(UUID.randomUUID().toString());
             }
 
-            // 创建关联数据（用于确认回调）
-            CorrelationData correlationData = new CorrelationData(event.getEventId());
+            saveToOutbox(event.getEventId(), RabbitMQConfig.PARKING_ASSIGNED_ROUTING_KEY, event);
+
+            log.info("已写入车位分配事件到发件箱 - 事件ID: {}, 业主ID: {}, 车位ID: {}",
+                    event.getEventId(), event.getUserId(), event.getParkId());
+
+        } catch (Exception e) {
+            log.error("写入车位分配事件失败 - 业主ID: {}, 车位ID: {}, 错误: {}",
+                    event.getUserId(), event.getParkId(), e.getMessage(), e);
+            throw new RuntimeException("发布车位分配事件失败", e);
+        }
+    }
+
+    /**
+     * 发布车位退还事件
+     * 与车位分配事件一样写入发件箱，必须在业务事务内调用
+     *
+     * @param event 车位退还事件
+     */
+    public void publishParkingReturnedEvent(ParkingReturnedEvent event) {
+        try {
+            if (event.getEventId() == null) {
+                event.setEventId(UUID.randomUUID().toString());
+            }
+
+            saveToOutbox(event.getEventId(), RabbitMQConfig.PARKING_RETURNED_ROUTING_KEY, event);
+
+            log.info("已写入车位退还事件到发件箱 - 事件ID: {}, 业主ID: {}, 车位ID: {}",
+                    event.getEventId(), event.getUserId(), event.getParkId());
+
+        } catch (Exception e) {
+            log.error("写入车位退还事件失败 - 业主ID: {}, 车位ID: {}, 错误: {}",
+                    event.getUserId(), event.getParkId(), e.getMessage(), e);
+            throw new RuntimeException("发布车位退还事件失败", e);
+        }
+    }
+
+    /**
+     * 发布车牌变更事件
+     * 与车位分配事件一样写入发件箱，必须在业务事务内调用
+     *
+     * @param event 车牌变更事件
+     */
+    public void publishCarNumberChangedEvent(CarNumberChangedEvent event) {
+        try {
+            if (event.getEventId() == null) {
+                event.setEventId(UUID.randomUUID().toString());
+            }
+
+            saveToOutbox(event.getEventId(), RabbitMQConfig.CAR_NUMBER_CHANGED_ROUTING_KEY, event);
+
+            log.info("已写入车牌变更事件到发件箱 - 事件ID: {}, 业主ID: {}, 车位ID: {}",
+                    event.getEventId(), event.getUserId(), event.getParkId());
+
+        } catch (Exception e) {
+            log.error("写入车牌变更事件失败 - 业主ID: {}, 车位ID: {}, 错误: {}",
+                    event.getUserId(), event.getParkId(), e.getMessage(), e);
+            throw new RuntimeException("发布车牌变更事件失败", e);
+        }
+    }
+
+    /**
+     * 将事件序列化后写入发件箱（与直接发送时使用同一个消息转换器，消息格式不变）
+     */
+    private void saveToOutbox(String eventId, String routingKey, Object event) {
+        Message message = messageConverter.toMessage(event, new MessageProperties());
+
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setEventId(eventId);
+        outboxEvent.setExchange(RabbitMQConfig.PARKING_EXCHANGE);
+        outboxEvent.setRoutingKey(routingKey);
+        outboxEvent.setEventType(event.getClass().getName());
+        outboxEvent.setPayload(new String(message.getBody(), StandardCharsets.UTF_8));
+        outboxEventMapper.insert(outboxEvent);
+    }
+
+    /**
+     * 发布车位变更事件
+     * 由业务代码通过 ApplicationEventPublisher 发布，事务提交后才广播到RabbitMQ，
+     * 避免其他实例读到未提交的数据；广播失败只记录日志，由定期全量重建兜底
+     *
+     * @param event 车位变更事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void publishParkingSpaceChangedEvent(ParkingSpaceChangedEvent event) {
+        try {
+            if (event.getEventId() == null) {
+                event.setEventId(UUID.randomUUID().toString());
+            }
+            event.setSourceInstance(INSTANCE_ID);
 
-            // 发送消息
             rabbitTemplate.convertAndSend(
                     RabbitMQConfig.PARKING_EXCHANGE,
-                    RabbitMQConfig.PARKING_ASSIGNED_ROUTING_KEY,
+                    RabbitMQConfig.PARKING_SPACE_CHANGED_ROUTING_KEY,
                     event,
-                    correlationData
+                    new CorrelationData(event.getEventId())
             );
 
-            log.info("已发布车位分配事件 - 事件ID: {}, 业主ID: {}, 车位ID: {}",
-                    event.getEventId(), event.getUserId(), event.getParkId());
+            log.debug("已发布车位变更事件 - 事件ID: {}, 车位ID: {}, 类型: {}",
+                    event.getEventId(), event.getParkId(), event.getChangeType());
 
         } catch (Exception e) {
-            log.error("发布车位分配事件失败 - 业主ID: {}, 车位ID: {}, 错误: {}",
-                    event.getUserId(), event.getParkId(), e.getMessage(), e);
-            throw new RuntimeException("发布车位分配事件失败", e);
+            log.error("发布车位变更事件失败 - 车位ID: {}, 类型: {}, 错误: {}",
+                    event.getParkId(), event.getChangeType(), e.getMessage());
         }
     }
 }
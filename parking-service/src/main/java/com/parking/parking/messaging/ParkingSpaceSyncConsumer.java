@@ -0,0 +1,67 @@
+package com.parking.parking.messaging;
+
+import com.parking.parking.event.ParkingSpaceChangedEvent;
+import com.parking.parking.service.OwnerParkingRecordCache;
+import com.parking.parking.service.ParkingAvailabilityIndex;
+import com.rabbitmq.client.Channel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * 车位索引同步消费者
+ * 监听其他实例发布的车位变更事件，从数据库重新加载该车位，保持本实例的车位空闲索引一致，
+ * 并清除受影响业主的停车记录缓存
+ *
+ * @author Parking System
+ */
+@Component
+public class ParkingSpaceSyncConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(ParkingSpaceSyncConsumer.class);
+
+    @Autowired
+    private ParkingAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private OwnerParkingRecordCache recordCache;
+
+    /**
+     * 处理车位变更事件
+     *
+     * @param event 车位变更事件
+     * @param message 原始消息
+     * @param channel RabbitMQ通道
+     */
+    @RabbitListener(id = "parkingSpaceSyncListener", queues = "#{parkingSpaceSyncQueue.name}")
+    public void handleParkingSpaceChanged(ParkingSpaceChangedEvent event, Message message, Channel channel) {
+        long deliveryTag = message.getMessageProperties().getDeliveryTag();
+
+        try {
+            // 本实例的变更已在事务提交后直接更新索引和缓存
+            if (!ParkingEventPublisher.INSTANCE_ID.equals(event.getSourceInstance())) {
+                availabilityIndex.reload(event.getParkId());
+                recordCache.evict(event.getUserId());
+                if ("UPDATED".equals(event.getChangeType()) || "DELETED".equals(event.getChangeType())) {
+                    recordCache.evictByParkId(event.getParkId());
+                }
+                log.debug("已同步车位变更 - 车位ID: {}, 类型: {}", event.getParkId(), event.getChangeType());
+            }
+            channel.basicAck(deliveryTag, false);
+
+        } catch (Exception e) {
+            // 同步失败不重新入队，索引由定期全量重建兜底
+            log.error("同步车位变更失败 - 车位ID: {}, 错误: {}", event.getParkId(), e.getMessage(), e);
+            try {
+                channel.basicNack(deliveryTag, false, false);
+            } catch (IOException ioException) {
+                log.error("拒绝消息失败: {}", ioException.getMessage(), ioException);
+            }
+        }
+    }
+}
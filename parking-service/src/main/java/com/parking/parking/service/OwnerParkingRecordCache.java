@@ -0,0 +1,146 @@
+package com.parking.parking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.parking.parking.entity.OwnerParkingDetail;
+import com.parking.parking.mapper.OwnerParkingMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 业主停车记录缓存（每个实例一份）
+ * 按 userId 缓存最新停车记录及车位信息，fee-service 每次缴费和费用列表每一行都会查询 /parking/owner/record。
+ * 本实例的分配、退位、修改车牌、车位修改/删除在事务提交后清除对应缓存，
+ * 其他实例的变更通过 ParkingSpaceChangedEvent 同步，过期时间兜底丢失的同步事件。
+ *
+ * @author Parking System
+ */
+@Component
+public class OwnerParkingRecordCache {
+
+    private static final Logger log = LoggerFactory.getLogger(OwnerParkingRecordCache.class);
+
+    @Autowired
+    private OwnerParkingMapper ownerParkingMapper;
+
+    @Value("${parking.record-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${parking.record-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${parking.record-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    /**
+     * userId -> 最新停车记录（没有记录的业主缓存为 Optional.empty()）
+     */
+    private Cache<Long, Optional<OwnerParkingDetail>> records;
+
+    /**
+     * 清除次数，加载期间发生过清除时丢弃加载结果，避免写回提交前读到的旧记录
+     */
+    private final AtomicLong evictions = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        this.records = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        log.info("业主停车记录缓存初始化: maxSize={}, ttl={}s, enabled={}", maxSize, ttlSeconds, enabled);
+    }
+
+    /**
+     * 查询业主最新停车记录及车位信息（一次连接查询）
+     *
+     * @param userId 业主ID
+     * @return 停车记录，没有记录时返回null
+     */
+    public OwnerParkingDetail get(Long userId) {
+        if (!enabled) {
+            return ownerParkingMapper.findDetailByUserId(userId);
+        }
+        // 未命中时在缓存锁之外查库再写入（Cache.get(key, loader) 会在 ConcurrentHashMap 的
+        // synchronized 桶锁内执行查询，虚拟线程模式下会钉住载体线程）
+        Optional<OwnerParkingDetail> record = records.getIfPresent(userId);
+        if (record == null) {
+            long version = evictions.get();
+            record = Optional.ofNullable(ownerParkingMapper.findDetailByUserId(userId));
+            records.put(userId, record);
+            // 查询到写入之间有清除时，写入的可能是清除前的旧记录，移除后由下一次查询重新加载
+            if (evictions.get() != version) {
+                records.invalidate(userId);
+            }
+        }
+        return record.orElse(null);
+    }
+
+    /**
+     * 清除业主的缓存
+     *
+     * @param userId 业主ID
+     */
+    public void evict(Long userId) {
+        if (userId != null) {
+            evictions.incrementAndGet();
+            records.invalidate(userId);
+        }
+    }
+
+    /**
+     * 清除关联该车位的所有业主缓存（车位编号修改、车位删除）
+     *
+     * @param parkId 车位ID
+     */
+    public void evictByParkId(Long parkId) {
+        if (parkId == null) {
+            return;
+        }
+        evictions.incrementAndGet();
+        records.asMap().entrySet().removeIf(entry -> entry.getValue()
+                .map(detail -> parkId.equals(detail.getOwnerParking().getParkId()))
+                .orElse(false));
+    }
+
+    /**
+     * 事务提交后清除业主的缓存
+     *
+     * @param userId 业主ID
+     */
+    public void evictAfterCommit(Long userId) {
+        afterCommit(() -> evict(userId));
+    }
+
+    /**
+     * 事务提交后清除关联该车位的业主缓存
+     *
+     * @param parkId 车位ID
+     */
+    public void evictByParkIdAfterCommit(Long parkId) {
+        afterCommit(() -> evictByParkId(parkId));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,411 @@
+package com.parking.parking.service;
+
+import com.parking.parking.entity.ParkingSpace;
+import com.parking.parking.mapper.ParkingSpaceMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 车位空闲索引（每个实例一份）
+ * 以 park_id 为下标的位图记录空闲车位，并按车位类型、车位编号前缀（A-/B-/C-）分别计数（总数/空闲数），
+ * 空闲车位列表直接从位图得到，占用统计直接读取计数，不再每次扫描 parking_space 表。
+ * 本实例的写操作在事务提交后更新索引，其他实例的变更通过 ParkingSpaceChangedEvent 同步，
+ * 并定期全量重建兜底。
+ * 全量重建在锁外查询数据库，查询期间发生的增量更新先照常写入旧索引，同时记录下来，
+ * 重建完成后在新索引上按顺序重放，避免被查询开始前的快照覆盖。
+ *
+ * @author Parking System
+ */
+@Component
+public class ParkingAvailabilityIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ParkingAvailabilityIndex.class);
+
+    private static final String STATUS_FREE = "0";
+
+    @Autowired
+    private ParkingSpaceMapper parkingSpaceMapper;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 车位快照（parkId -> 车位），快照对象不可修改，状态变化时整体替换
+     */
+    private final Map<Long, ParkingSpace> spaces = new HashMap<>();
+
+    /**
+     * 所有车位 / 空闲车位位图
+     */
+    private final BitSet all = new BitSet();
+    private final BitSet free = new BitSet();
+
+    /**
+     * 空闲车位数（与 free 位图同步增减，统计时不再逐位计数）
+     */
+    private int freeCount = 0;
+
+    /**
+     * 按车位类型、编号前缀分组的计数（包含空闲和已分配的车位），随写入和移除增减
+     */
+    private final Map<String, BucketCount> byType = new HashMap<>();
+    private final Map<String, BucketCount> byPrefix = new HashMap<>();
+
+    /**
+     * 重建期间的增量更新（不在重建时为null，持有写锁时读写）
+     */
+    private List<Runnable> updatesDuringRebuild;
+
+    /**
+     * 同一时间只进行一次重建（定时重建与统计接口触发的重建可能同时发生）
+     */
+    private final Object rebuildMonitor = new Object();
+
+    /**
+     * 索引是否已完成构建，未完成时查询回退到数据库
+     */
+    private volatile boolean ready = false;
+
+    /**
+     * 启动完成后构建索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * 定期全量重建，兜底丢失的同步事件（例如实例与RabbitMQ断开期间的变更）
+     */
+    @Scheduled(initialDelayString = "${parking.availability-index.rebuild-interval-ms:300000}",
+            fixedDelayString = "${parking.availability-index.rebuild-interval-ms:300000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * 从数据库全量重建索引
+     */
+    public void rebuild() {
+        synchronized (rebuildMonitor) {
+            // 先开始记录增量更新再查询，查询期间提交的变更不会丢失
+            lock.writeLock().lock();
+            try {
+                updatesDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            List<ParkingSpace> allSpaces;
+            try {
+                allSpaces = parkingSpaceMapper.findAll();
+            } catch (Exception e) {
+                lock.writeLock().lock();
+                try {
+                    updatesDuringRebuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                log.error("构建车位空闲索引失败，查询将回退到数据库: {}", e.getMessage(), e);
+                return;
+            }
+
+            int replayed;
+            lock.writeLock().lock();
+            try {
+                spaces.clear();
+                all.clear();
+                free.clear();
+                freeCount = 0;
+                byType.clear();
+                byPrefix.clear();
+                for (ParkingSpace space : allSpaces) {
+                    put(space);
+                }
+                // 重放查询期间的增量更新（快照中可能已包含这些变更，重放结果相同）
+                replayed = updatesDuringRebuild.size();
+                for (Runnable update : updatesDuringRebuild) {
+                    update.run();
+                }
+                updatesDuringRebuild = null;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("车位空闲索引已重建: 车位总数={}, 空闲={}, 重放增量更新={}", allSpaces.size(), countFree(), replayed);
+        }
+    }
+
+    /**
+     * 从数据库重新加载单个车位（车位不存在时从索引移除）
+     *
+     * @param parkId 车位ID
+     */
+    public void reload(Long parkId) {
+        if (parkId == null) {
+            return;
+        }
+        ParkingSpace space = parkingSpaceMapper.findById(parkId);
+        apply(() -> {
+            remove(parkId);
+            if (space != null) {
+                put(space);
+            }
+        });
+    }
+
+    /**
+     * 事务提交后更新车位状态
+     *
+     * @param parkId 车位ID
+     * @param parkStatus 车位状态（0空闲 1已分配）
+     */
+    public void updateStatusAfterCommit(Long parkId, String parkStatus) {
+        afterCommit(() -> apply(() -> {
+            ParkingSpace old = spaces.get(parkId);
+            if (old == null) {
+                return;
+            }
+            ParkingSpace updated = copyOf(old);
+            updated.setParkStatus(parkStatus);
+            remove(parkId);
+            put(updated);
+        }));
+    }
+
+    /**
+     * 事务提交后写入新增或修改的车位
+     *
+     * @param space 车位信息
+     */
+    public void upsertAfterCommit(ParkingSpace space) {
+        ParkingSpace snapshot = copyOf(space);
+        afterCommit(() -> apply(() -> {
+            remove(snapshot.getParkId());
+            put(snapshot);
+        }));
+    }
+
+    /**
+     * 事务提交后移除车位
+     *
+     * @param parkId 车位ID
+     */
+    public void removeAfterCommit(Long parkId) {
+        afterCommit(() -> apply(() -> remove(parkId)));
+    }
+
+    /**
+     * 在写锁内执行一次增量更新；正在重建时同时记录下来，重建完成后在新索引上重放
+     */
+    private void apply(Runnable update) {
+        lock.writeLock().lock();
+        try {
+            update.run();
+            if (updatesDuringRebuild != null) {
+                updatesDuringRebuild.add(update);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 在当前事务提交后执行，事务回滚时索引保持不变；没有事务时立即执行
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * 索引是否可用
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 查询空闲车位（按车位编号排序）
+     *
+     * @return 空闲车位列表
+     */
+    public List<ParkingSpace> findAvailable() {
+        lock.readLock().lock();
+        try {
+            List<ParkingSpace> result = new ArrayList<>(freeCount);
+            for (int id = free.nextSetBit(0); id >= 0; id = free.nextSetBit(id + 1)) {
+                result.add(spaces.get((long) id));
+            }
+            result.sort(Comparator.comparing(ParkingSpace::getParkNum,
+                    Comparator.nullsLast(Comparator.naturalOrder())));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 空闲车位数量
+     */
+    public int countFree() {
+        lock.readLock().lock();
+        try {
+            return freeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 车位占用统计：总数、空闲数、已分配数，以及按车位类型、编号前缀分组的总数/空闲数/已分配数
+     * 直接读取计数，耗时只与分组数有关，与车位总数无关
+     *
+     * @return 统计信息
+     */
+    public Map<String, Object> getOccupancyStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("total", spaces.size());
+            stats.put("free", freeCount);
+            stats.put("occupied", spaces.size() - freeCount);
+            stats.put("byType", bucketStats(byType));
+            stats.put("byPrefix", bucketStats(byPrefix));
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<String, Map<String, Integer>> bucketStats(Map<String, BucketCount> buckets) {
+        Map<String, Map<String, Integer>> result = new TreeMap<>();
+        buckets.forEach((key, bucket) -> {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            counts.put("total", bucket.total);
+            counts.put("free", bucket.free);
+            counts.put("occupied", bucket.total - bucket.free);
+            result.put(key, counts);
+        });
+        return result;
+    }
+
+    /**
+     * 写入车位（调用方需持有写锁）
+     */
+    private void put(ParkingSpace space) {
+        if (space.getParkId() == null || space.getParkId() > Integer.MAX_VALUE) {
+            return;
+        }
+        int id = space.getParkId().intValue();
+        spaces.put(space.getParkId(), space);
+        boolean isFree = STATUS_FREE.equals(space.getParkStatus());
+        all.set(id);
+        free.set(id, isFree);
+        if (isFree) {
+            freeCount++;
+        }
+        byType.computeIfAbsent(String.valueOf(space.getParkType()), k -> new BucketCount()).add(isFree);
+        byPrefix.computeIfAbsent(prefixOf(space.getParkNum()), k -> new BucketCount()).add(isFree);
+    }
+
+    /**
+     * 移除车位（调用方需持有写锁）
+     */
+    private void remove(Long parkId) {
+        ParkingSpace old = spaces.remove(parkId);
+        if (old == null) {
+            return;
+        }
+        int id = parkId.intValue();
+        boolean wasFree = free.get(id);
+        all.clear(id);
+        free.clear(id);
+        if (wasFree) {
+            freeCount--;
+        }
+        removeFromBucket(byType, String.valueOf(old.getParkType()), wasFree);
+        removeFromBucket(byPrefix, prefixOf(old.getParkNum()), wasFree);
+    }
+
+    private void removeFromBucket(Map<String, BucketCount> buckets, String key, boolean wasFree) {
+        BucketCount bucket = buckets.get(key);
+        if (bucket != null) {
+            bucket.remove(wasFree);
+            if (bucket.total == 0) {
+                buckets.remove(key);
+            }
+        }
+    }
+
+    private ParkingSpace copyOf(ParkingSpace source) {
+        ParkingSpace copy = new ParkingSpace();
+        copy.setParkId(source.getParkId());
+        copy.setParkNum(source.getParkNum());
+        copy.setParkType(source.getParkType());
+        copy.setParkStatus(source.getParkStatus());
+        copy.setRemark(source.getRemark());
+        copy.setCreateTime(source.getCreateTime());
+        copy.setUpdateTime(source.getUpdateTime());
+        return copy;
+    }
+
+    /**
+     * 车位编号前缀，例如 "A-001" -> "A"
+     */
+    private String prefixOf(String parkNum) {
+        if (parkNum == null || parkNum.isEmpty()) {
+            return "";
+        }
+        int dash = parkNum.indexOf('-');
+        return dash > 0 ? parkNum.substring(0, dash) : parkNum.substring(0, 1);
+    }
+
+    /**
+     * 一个分组的车位总数和空闲数（只在持有写锁时修改）
+     */
+    private static final class BucketCount {
+
+        private int total;
+        private int free;
+
+        void add(boolean isFree) {
+            total++;
+            if (isFree) {
+                free++;
+            }
+        }
+
+        void remove(boolean wasFree) {
+            total--;
+            if (wasFree) {
+                free--;
+            }
+        }
+    }
+}
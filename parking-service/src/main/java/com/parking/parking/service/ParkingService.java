@@ -1,18 +1,31 @@
 package com.parking.parking.service;
 
+import com.parking.common.page.PageCursor;
 import com.parking.parking.common.PageResult;
 import com.parking.parking.entity.OwnerParking;
+import com.parking.parking.entity.OwnerParkingDetail;
 import com.parking.parking.entity.ParkingSpace;
+import com.parking.parking.entity.ParkingSpaceCount;
+import com.parking.parking.event.CarNumberChangedEvent;
 import com.parking.parking.event.ParkingAssignedEvent;
+import com.parking.parking.event.ParkingReturnedEvent;
+import com.parking.parking.event.ParkingSpaceChangedEvent;
 import com.parking.parking.mapper.OwnerParkingMapper;
 import com.parking.parking.mapper.ParkingSpaceMapper;
 import com.parking.parking.messaging.ParkingEventPublisher;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
 
 /**
@@ -23,6 +36,11 @@ import java.util.UUID;
 @Service
 public class ParkingService {
 
+    /**
+     * 批量出账时单次拉取的最大车位分配数
+     */
+    private static final int MAX_ACTIVE_BATCH_SIZE = 1000;
+
     @Autowired
     private ParkingSpaceMapper parkingSpaceMapper;
 
@@ -35,6 +53,15 @@ public class ParkingService {
     @Autowired
     private ParkingEventPublisher parkingEventPublisher;
 
+    @Autowired
+    private ParkingAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private OwnerParkingRecordCache recordCache;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
     /**
      * 分页查询车位列表
      *
@@ -51,15 +78,94 @@ public class ParkingService {
         return new PageResult<>(pageNum, pageSize, total, records);
     }
 
+    /**
+     * 游标分页查询车位列表（按车位编号排序，翻页代价与页数无关）
+     *
+     * @param cursor 上一页返回的游标（为空时查询第一页）
+     * @param pageSize 每页数量
+     * @param keyword 搜索关键词（车位编号）
+     * @param status 车位状态（0空闲 1已分配）
+     * @param withTotal 是否统计总数
+     * @return 车位分页数据
+     */
+    public PageResult<ParkingSpace> getParkingPageByCursor(String cursor, int pageSize, String keyword,
+                                                           String status, boolean withTotal) {
+        String afterParkNum = null;
+        Long afterParkId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] keys = PageCursor.decode(cursor, 2);
+            afterParkNum = keys[0];
+            afterParkId = parseCursorLong(keys[1]);
+        }
+
+        // 多取一条判断是否还有下一页
+        List<ParkingSpace> records = parkingSpaceMapper.findByCursor(pageSize + 1, keyword, status,
+                afterParkNum, afterParkId);
+        String nextCursor = null;
+        if (records.size() > pageSize) {
+            records = new ArrayList<>(records.subList(0, pageSize));
+            ParkingSpace last = records.get(pageSize - 1);
+            nextCursor = PageCursor.encode(last.getParkNum(), last.getParkId());
+        }
+
+        Long total = withTotal ? (long) parkingSpaceMapper.countByKeyword(keyword, status) : null;
+        return new PageResult<>(pageSize, total, records, nextCursor);
+    }
+
+    private Long parseCursorLong(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("无效的分页游标");
+        }
+    }
+
     /**
      * 查询所有空闲车位
      *
      * @return 空闲车位列表
      */
     public List<ParkingSpace> getAvailableParkings() {
+        // 优先从内存索引读取，索引未就绪时回退到数据库
+        if (availabilityIndex.isReady()) {
+            return availabilityIndex.findAvailable();
+        }
         return parkingSpaceMapper.findAvailable();
     }
 
+    /**
+     * 车位占用统计（总数、空闲数，按车位类型和编号前缀分组）
+     * 索引未就绪（启动中、重建失败）时不在请求线程上重建（由启动和定时任务重建），
+     * 回退到数据库分组计数，此时没有按编号前缀的分组（byPrefix）
+     *
+     * @return 统计信息
+     */
+    public Map<String, Object> getOccupancyStats() {
+        if (availabilityIndex.isReady()) {
+            return availabilityIndex.getOccupancyStats();
+        }
+        int total = 0;
+        int free = 0;
+        Map<String, Map<String, Integer>> byType = new TreeMap<>();
+        for (ParkingSpaceCount count : parkingSpaceMapper.countByTypeAndStatus()) {
+            int spaces = count.getSpaceCount();
+            int freeSpaces = "0".equals(count.getParkStatus()) ? spaces : 0;
+            total += spaces;
+            free += freeSpaces;
+            Map<String, Integer> bucket = byType.computeIfAbsent(String.valueOf(count.getParkType()),
+                    key -> new LinkedHashMap<>(Map.of("total", 0, "free", 0, "occupied", 0)));
+            bucket.merge("total", spaces, Integer::sum);
+            bucket.merge("free", freeSpaces, Integer::sum);
+            bucket.merge("occupied", spaces - freeSpaces, Integer::sum);
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("total", total);
+        stats.put("free", free);
+        stats.put("occupied", total - free);
+        stats.put("byType", byType);
+        return stats;
+    }
+
     /**
      * 根据ID查询车位
      *
@@ -84,7 +190,12 @@ public class ParkingService {
         }
 
         parkingSpace.setParkStatus("0"); // 默认空闲
-        return parkingSpaceMapper.insert(parkingSpace) > 0;
+        boolean success = parkingSpaceMapper.insert(parkingSpace) > 0;
+        if (success) {
+            availabilityIndex.upsertAfterCommit(parkingSpace);
+            notifySpaceChanged(parkingSpace.getParkId(), "ADDED");
+        }
+        return success;
     }
 
     /**
@@ -94,7 +205,13 @@ public class ParkingService {
      * @return 是否成功
      */
     public boolean updateParkingSpace(ParkingSpace parkingSpace) {
-        return parkingSpaceMapper.update(parkingSpace) > 0;
+        boolean success = parkingSpaceMapper.update(parkingSpace) > 0;
+        if (success) {
+            availabilityIndex.upsertAfterCommit(parkingSpace);
+            recordCache.evictByParkIdAfterCommit(parkingSpace.getParkId());
+            notifySpaceChanged(parkingSpace.getParkId(), "UPDATED");
+        }
+        return success;
     }
 
     /**
@@ -110,7 +227,13 @@ public class ParkingService {
             throw new RuntimeException("车位已分配，无法删除");
         }
 
-        return parkingSpaceMapper.deleteById(parkId) > 0;
+        boolean success = parkingSpaceMapper.deleteById(parkId) > 0;
+        if (success) {
+            availabilityIndex.removeAfterCommit(parkId);
+            recordCache.evictByParkIdAfterCommit(parkId);
+            notifySpaceChanged(parkId, "DELETED");
+        }
+        return success;
     }
 
     /**
@@ -121,33 +244,42 @@ public class ParkingService {
      * @param carNumber 车牌号
      * @return 是否成功
      */
-    @Transactional
     public boolean assignParkingToOwner(Long userId, Long parkId, String carNumber) {
+        return assignParkingToOwner(userId, parkId, carNumber, false);
+    }
+
+    /**
+     * 分配车位给业主
+     *
+     * @param userId 业主ID
+     * @param parkId 车位ID
+     * @param carNumber 车牌号
+     * @param ownerVerified 网关Token是否已证明该业主存在（为true时跳过user-service验证）
+     * @return 是否成功
+     */
+    @Transactional
+    public boolean assignParkingToOwner(Long userId, Long parkId, String carNumber, boolean ownerVerified) {
         // 【跨服务调用】验证用户是否存在
-        try {
-            com.parking.parking.common.Result<java.util.Map<String, Object>> result = userServiceClient.getOwnerById(userId);
-            if (result == null || result.getCode() != 200 || result.getData() == null) {
-                throw new RuntimeException("用户不存在，无法分配车位");
+        if (!ownerVerified) {
+            try {
+                com.parking.parking.common.Result<java.util.Map<String, Object>> result = userServiceClient.getOwnerById(userId);
+                if (result == null || result.getCode() != 200 || result.getData() == null) {
+                    throw new RuntimeException("用户不存在，无法分配车位");
+                }
+            } catch (Exception e) {
+                throw new RuntimeException("无法验证用户信息：" + e.getMessage());
             }
-        } catch (Exception e) {
-            throw new RuntimeException("无法验证用户信息：" + e.getMessage());
         }
 
-        // 检查车位是否存在且空闲
-        ParkingSpace parking = parkingSpaceMapper.findById(parkId);
-        if (parking == null) {
-            throw new RuntimeException("车位不存在");
-        }
-        if ("1".equals(parking.getParkStatus())) {
+        // 原子占用车位（条件更新代替先查后改，并发分配同一车位时只有一个请求能成功）
+        if (parkingSpaceMapper.claimIfFree(parkId) == 0) {
+            // 仅在失败路径上查询，用于区分错误原因
+            if (parkingSpaceMapper.findById(parkId) == null) {
+                throw new RuntimeException("车位不存在");
+            }
             throw new RuntimeException("车位已被分配");
         }
 
-        // 检查业主是否已有车位
-        int count = ownerParkingMapper.countByUserIdAndActive(userId);
-        if (count > 0) {
-            throw new RuntimeException("该业主已有车位，请先退位");
-        }
-
         // 创建业主车位关联
         OwnerParking ownerParking = new OwnerParking();
         ownerParking.setUserId(userId);
@@ -156,29 +288,34 @@ public class ParkingService {
         ownerParking.setEntryTime(new Date());
         ownerParking.setPaymentStatus("1");
 
-        boolean insertSuccess = ownerParkingMapper.insert(ownerParking) > 0;
-
+        boolean insertSuccess;
+        try {
+            insertSuccess = ownerParkingMapper.insert(ownerParking) > 0;
+        } catch (DuplicateKeyException e) {
+            // 唯一索引保证业主只有一条有效关联，抛出异常回滚上面的车位占用
+            throw new RuntimeException("该业主已有车位，请先退位");
+        }
         if (insertSuccess) {
-            // 更新车位状态为已分配
-            parking.setParkStatus("1");
-            parkingSpaceMapper.update(parking);
-
-            // 【阶段6】发布车位分配事件到RabbitMQ，通知费用服务自动创建费用记录
-            try {
-                ParkingAssignedEvent event = new ParkingAssignedEvent(
-                        UUID.randomUUID().toString(),  // 事件ID
-                        ownerParking.getId(),          // 业主车位关联ID
-                        userId,                        // 业主ID
-                        parkId,                        // 车位ID
-                        carNumber,                     // 车牌号
-                        ownerParking.getEntryTime(),   // 入场时间
-                        new Date()                     // 事件发生时间
-                );
-                parkingEventPublisher.publishParkingAssignedEvent(event);
-            } catch (Exception e) {
-                // 异步消息发送失败不影响主业务流程，只记录日志
-                System.err.println("发布车位分配事件失败，但车位分配已成功: " + e.getMessage());
-            }
+            availabilityIndex.updateStatusAfterCommit(parkId, "1");
+            recordCache.evictAfterCommit(userId);
+            notifySpaceChanged(parkId, "ASSIGNED", userId);
+
+            // 【阶段6】发布车位分配事件，通知费用服务自动创建费用记录
+            // 事件写入发件箱，与分配记录同一事务提交，由 OutboxRelay 异步投递到RabbitMQ
+            ParkingSpace parkingSpace = parkingSpaceMapper.findById(parkId);
+            ParkingAssignedEvent event = new ParkingAssignedEvent(
+                    UUID.randomUUID().toString(),  // 事件ID
+                    ownerParking.getId(),          // 业主车位关联ID
+                    userId,                        // 业主ID
+                    parkId,                        // 车位ID
+                    nextEventSequence(parkId),     // 车位事件序号
+                    parkingSpace != null ? parkingSpace.getParkNum() : null,  // 车位编号（费用服务读模型展示用）
+                    parkingSpace != null ? parkingSpace.getParkType() : null, // 车位类型（费用服务按类型计价）
+                    carNumber,                     // 车牌号
+                    ownerParking.getEntryTime(),   // 入场时间
+                    new Date()                     // 事件发生时间
+            );
+            parkingEventPublisher.publishParkingAssignedEvent(event);
         }
 
         return insertSuccess;
@@ -199,17 +336,18 @@ public class ParkingService {
             throw new RuntimeException("该业主没有分配车位");
         }
 
-        // 更新关联状态为已退位
+        // 更新关联状态为已退位（记录退位时间，费用服务据此结算）
         ownerParking.setPaymentStatus("0");
+        ownerParking.setExitTime(new Date());
         boolean updateSuccess = ownerParkingMapper.update(ownerParking) > 0;
 
         if (updateSuccess) {
             // 更新车位状态为空闲
-            ParkingSpace parking = parkingSpaceMapper.findById(ownerParking.getParkId());
-            if (parking != null) {
-                parking.setParkStatus("0");
-                parkingSpaceMapper.update(parking);
-            }
+            parkingSpaceMapper.releaseIfAssigned(ownerParking.getParkId());
+            availabilityIndex.updateStatusAfterCommit(ownerParking.getParkId(), "0");
+            recordCache.evictAfterCommit(userId);
+            notifySpaceChanged(ownerParking.getParkId(), "RETURNED", userId);
+            publishReturned(ownerParking);
         }
 
         return updateSuccess;
@@ -225,6 +363,73 @@ public class ParkingService {
         return ownerParkingMapper.findByUserId(userId);
     }
 
+    /**
+     * 查询业主最新停车记录及车位信息（连接查询，按userId缓存）
+     *
+     * @param userId 业主ID
+     * @return 停车记录及车位信息，没有记录时返回null
+     */
+    public OwnerParkingDetail getOwnerParkingDetail(Long userId) {
+        return recordCache.get(userId);
+    }
+
+    /**
+     * 批量查询业主的车位信息（每个业主取最新一条记录）
+     *
+     * @param userIds 业主ID列表
+     * @return 业主车位关联信息列表
+     */
+    public List<OwnerParking> getOwnerParkings(List<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return ownerParkingMapper.findLatestByUserIds(userIds);
+    }
+
+    /**
+     * 按ID游标分批查询有效的车位分配（fee-service批量出账使用）
+     *
+     * @param afterId 上一批最后一条记录ID（首批传0）
+     * @param limit 每批数量（最多1000）
+     * @return 车位分配列表（id、userId、parkId、parkType、carNum、entryTime）
+     */
+    public List<Map<String, Object>> getActiveAssignments(Long afterId, int limit) {
+        int batchSize = Math.max(1, Math.min(limit, MAX_ACTIVE_BATCH_SIZE));
+        return ownerParkingMapper.findActiveAfterId(afterId == null ? 0L : afterId, batchSize);
+    }
+
+    /**
+     * 按user_id游标分批查询每个业主的最新停车记录及车位信息（fee-service读模型快照使用）
+     *
+     * @param afterUserId 上一批最后一个业主ID（首批传0）
+     * @param limit 每批数量（最多1000）
+     * @return 停车记录及车位信息列表，按userId升序
+     */
+    public List<OwnerParkingDetail> getOwnerParkingSnapshot(Long afterUserId, int limit) {
+        int batchSize = Math.max(1, Math.min(limit, MAX_ACTIVE_BATCH_SIZE));
+        return ownerParkingMapper.findDetailSnapshotAfterUserId(afterUserId == null ? 0L : afterUserId, batchSize);
+    }
+
+    /**
+     * 有效车位分配总数
+     */
+    public int countActiveAssignments() {
+        return ownerParkingMapper.countActive();
+    }
+
+    /**
+     * 根据ID批量查询车位
+     *
+     * @param parkIds 车位ID列表
+     * @return 车位列表
+     */
+    public List<ParkingSpace> getParkingsByIds(List<Long> parkIds) {
+        if (parkIds == null || parkIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return parkingSpaceMapper.findByIds(parkIds);
+    }
+
     /**
      * 根据车位ID退还车位
      *
@@ -247,11 +452,11 @@ public class ParkingService {
 
         if (updateSuccess) {
             // 更新车位状态为空闲
-            ParkingSpace parking = parkingSpaceMapper.findById(parkId);
-            if (parking != null) {
-                parking.setParkStatus("0");
-                parkingSpaceMapper.update(parking);
-            }
+            parkingSpaceMapper.releaseIfAssigned(parkId);
+            availabilityIndex.updateStatusAfterCommit(parkId, "0");
+            recordCache.evictAfterCommit(ownerParking.getUserId());
+            notifySpaceChanged(parkId, "RETURNED", ownerParking.getUserId());
+            publishReturned(ownerParking);
         }
 
         return updateSuccess;
@@ -272,7 +477,79 @@ public class ParkingService {
             throw new RuntimeException("该业主没有分配车位");
         }
 
+        String oldCarNum = ownerParking.getCarNum();
         ownerParking.setCarNum(carNum);
-        return ownerParkingMapper.update(ownerParking) > 0;
+        boolean updateSuccess = ownerParkingMapper.update(ownerParking) > 0;
+        if (updateSuccess) {
+            recordCache.evictAfterCommit(userId);
+            notifySpaceChanged(ownerParking.getParkId(), "CAR_CHANGED", userId);
+
+            // 发布车牌变更事件（写入发件箱，与车牌更新同一事务提交）
+            CarNumberChangedEvent event = new CarNumberChangedEvent(
+                    UUID.randomUUID().toString(),
+                    ownerParking.getId(),
+                    userId,
+                    ownerParking.getParkId(),
+                    nextEventSequence(ownerParking.getParkId()),
+                    oldCarNum,
+                    carNum,
+                    new Date()
+            );
+            parkingEventPublisher.publishCarNumberChangedEvent(event);
+        }
+        return updateSuccess;
+    }
+
+    /**
+     * 发布车位退还事件（写入发件箱，与退位更新同一事务提交）
+     *
+     * @param ownerParking 已退位的业主车位关联
+     */
+    private void publishReturned(OwnerParking ownerParking) {
+        ParkingReturnedEvent event = new ParkingReturnedEvent(
+                UUID.randomUUID().toString(),
+                ownerParking.getId(),
+                ownerParking.getUserId(),
+                ownerParking.getParkId(),
+                nextEventSequence(ownerParking.getParkId()),
+                ownerParking.getEntryTime(),
+                ownerParking.getExitTime(),
+                new Date()
+        );
+        parkingEventPublisher.publishParkingReturnedEvent(event);
+    }
+
+    /**
+     * 分配车位事件序号：递增 parking_space.event_seq 并读回，必须在业务事务内调用。
+     * 递增持有该车位的行锁直到事务提交，同一车位并发的分配、退还、换车牌串行执行，序号与提交顺序一致
+     *
+     * @param parkId 车位ID
+     * @return 本次事件的序号
+     */
+    private Long nextEventSequence(Long parkId) {
+        parkingSpaceMapper.incrementEventSeq(parkId);
+        return parkingSpaceMapper.findEventSeq(parkId);
+    }
+
+    /**
+     * 通知其他实例车位已变更（事务提交后由 ParkingEventPublisher 广播）
+     *
+     * @param parkId 车位ID
+     * @param changeType 变更类型
+     */
+    private void notifySpaceChanged(Long parkId, String changeType) {
+        notifySpaceChanged(parkId, changeType, null);
+    }
+
+    /**
+     * 通知其他实例车位已变更，并带上受影响的业主（其他实例据此清除该业主的停车记录缓存）
+     *
+     * @param parkId 车位ID
+     * @param changeType 变更类型
+     * @param userId 业主ID
+     */
+    private void notifySpaceChanged(Long parkId, String changeType, Long userId) {
+        applicationEventPublisher.publishEvent(
+                new ParkingSpaceChangedEvent(null, parkId, changeType, userId, null, new Date()));
     }
 }
@@ -0,0 +1,170 @@
+package com.parking.parking.messaging;
+
+import com.parking.common.metrics.RabbitMetrics;
+import com.parking.common.outbox.OutboxEvent;
+import com.parking.common.outbox.OutboxEventMapper;
+import com.parking.common.outbox.OutboxRelay;
+import com.parking.parking.config.RabbitMQConfig;
+import com.rabbitmq.client.Return;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.qpid.server.SystemLauncher;
+import org.apache.qpid.server.model.SystemConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 发件箱投递器与真实Broker（Qpid嵌入式AMQP 0-9-1）的退回测试：
+ * 通过 RabbitMQConfig 创建的 RabbitTemplate 发送，无法路由的事件被Broker退回（mandatory），不会标记为已投递；
+ * 可路由的事件收到确认后标记为已投递。
+ * RabbitMQ 对退回的消息先退回再ack（投递器记为 unroutable），Qpid 先nack再退回（记为 nack），两种都记为投递失败
+ *
+ * @author Parking System
+ */
+class OutboxRelayReturnTest {
+
+    private static final String EXCHANGE = "outbox.test.exchange";
+    private static final String ROUTED_KEY = "outbox.test.routed";
+    private static final String UNROUTED_KEY = "outbox.test.unrouted";
+    private static final int MAX_ATTEMPTS = 10;
+
+    @TempDir
+    static Path workDir;
+
+    private static SystemLauncher broker;
+
+    private static CachingConnectionFactory connectionFactory;
+
+    private OutboxEventMapper outboxEventMapper;
+
+    private OutboxRelay outboxRelay;
+
+    private RabbitTemplate rabbitTemplate;
+
+    @BeforeAll
+    static void startBroker() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        Map<String, String> context = new HashMap<>();
+        context.put("qpid.amqp_port", String.valueOf(port));
+        context.put("qpid.amqp_username", "guest");
+        context.put("qpid.amqp_password", "guest");
+        context.put("qpid.work_dir", workDir.toAbsolutePath().toString());
+
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(SystemConfig.TYPE, "Memory");
+        attributes.put(SystemConfig.INITIAL_CONFIGURATION_LOCATION,
+                OutboxRelayReturnTest.class.getResource("/amqp-broker.json").toExternalForm());
+        attributes.put(SystemConfig.STARTUP_LOGGED_TO_SYSTEM_OUT, false);
+        attributes.put(SystemConfig.CONTEXT, context);
+        broker = new SystemLauncher();
+        broker.startup(attributes);
+
+        connectionFactory = new CachingConnectionFactory("localhost", port);
+        connectionFactory.setUsername("guest");
+        connectionFactory.setPassword("guest");
+        connectionFactory.setVirtualHost("default");
+        connectionFactory.setPublisherConfirmType(CachingConnectionFactory.ConfirmType.CORRELATED);
+        connectionFactory.setPublisherReturns(true);
+
+        RabbitAdmin admin = new RabbitAdmin(connectionFactory);
+        TopicExchange exchange = new TopicExchange(EXCHANGE, false, true);
+        Queue queue = new Queue("outbox.test.queue", false, false, true);
+        admin.declareExchange(exchange);
+        admin.declareQueue(queue);
+        admin.declareBinding(BindingBuilder.bind(queue).to(exchange).with(ROUTED_KEY));
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+        if (broker != null) {
+            broker.shutdown();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        // spy 保留真实的发送、确认和退回处理，只用来确认Broker的退回确实到达了RabbitTemplate
+        rabbitTemplate = spy(new RabbitMQConfig().rabbitTemplate(connectionFactory,
+                new Jackson2JsonMessageConverter(), new RabbitMetrics(new SimpleMeterRegistry())));
+
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        outboxEventMapper = mock(OutboxEventMapper.class);
+
+        outboxRelay = new OutboxRelay();
+        ReflectionTestUtils.setField(outboxRelay, "outboxEventMapper", outboxEventMapper);
+        ReflectionTestUtils.setField(outboxRelay, "rabbitTemplate", rabbitTemplate);
+        ReflectionTestUtils.setField(outboxRelay, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 100);
+        ReflectionTestUtils.setField(outboxRelay, "confirmTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(outboxRelay, "maxAttempts", MAX_ATTEMPTS);
+    }
+
+    @Test
+    void unroutableEventIsReturnedAndRecordedAsFailed() {
+        when(outboxEventMapper.lockPending(100)).thenReturn(List.of(event(1L, ROUTED_KEY), event(2L, UNROUTED_KEY)));
+
+        outboxRelay.relay();
+
+        verify(outboxEventMapper).markSent(List.of(1L));
+        verify(outboxEventMapper).markFailed(eq(2L), anyString(), eq(MAX_ATTEMPTS));
+        verify(outboxEventMapper, never()).markFailed(eq(1L), anyString(), anyInt());
+
+        // Broker确实退回了无法路由的事件（没有 mandatory 时Broker直接丢弃，不会退回）
+        ArgumentCaptor<Return> returned = ArgumentCaptor.forClass(Return.class);
+        verify(rabbitTemplate, timeout(5000)).handleReturn(returned.capture());
+        assertThat(returned.getValue().getRoutingKey()).isEqualTo(UNROUTED_KEY);
+        assertThat(returned.getValue().getProperties().getMessageId()).isEqualTo("evt-return-2");
+    }
+
+    private OutboxEvent event(Long id, String routingKey) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setEventId("evt-return-" + id);
+        event.setExchange(EXCHANGE);
+        event.setRoutingKey(routingKey);
+        event.setEventType("ParkingAssignedEvent");
+        event.setPayload("{}");
+        event.setStatus("0");
+        event.setAttempts(0);
+        return event;
+    }
+}
@@ -0,0 +1,219 @@
+package com.parking.parking.service;
+
+import com.parking.parking.client.UserServiceClient;
+import com.parking.parking.mapper.OwnerParkingMapper;
+import com.parking.parking.mapper.ParkingSpaceMapper;
+import com.parking.parking.messaging.ParkingEventPublisher;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 车位分配并发测试：多个线程同时调用 ParkingService.assignParkingToOwner
+ * 抢同一车位时只有一个业主成功（条件更新占用车位），同一业主抢多个车位时只有一个成功
+ * （有效关联唯一索引抛出 DuplicateKeyException，回滚已占用的车位）
+ * 使用 H2 MySQL兼容模式（src/test/resources/schema-parking.sql），跨服务调用和事件发布使用Mock
+ *
+ * @author Parking System
+ */
+@SpringJUnitConfig(ParkingClaimConcurrencyTest.TestConfig.class)
+class ParkingClaimConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int ROUNDS = 10;
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    @Autowired
+    private ParkingService parkingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private UserServiceClient userServiceClient;
+
+    @MockBean
+    private ParkingEventPublisher parkingEventPublisher;
+
+    @MockBean
+    private ParkingAvailabilityIndex availabilityIndex;
+
+    @MockBean
+    private OwnerParkingRecordCache recordCache;
+
+    @Test
+    void onlyOneOwnerWinsARacedSpace() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            long parkId = createSpace();
+            long firstUserId = SEQUENCE.addAndGet(THREADS);
+
+            List<Throwable> outcomes = race(i -> parkingService.assignParkingToOwner(
+                    firstUserId + i, parkId, "京S" + (firstUserId + i), true));
+
+            assertThat(outcomes).filteredOn(outcome -> outcome == null).as("成功分配的次数").hasSize(1);
+            assertThat(outcomes).filteredOn(outcome -> outcome != null)
+                    .allSatisfy(outcome -> assertThat(outcome).hasMessage("车位已被分配"));
+            assertThat(activeAssignmentsOfSpace(parkId)).isEqualTo(1);
+            assertThat(spaceStatus(parkId)).isEqualTo("1");
+        }
+    }
+
+    @Test
+    void ownerWinsOnlyOneOfManyRacedSpaces() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            long userId = SEQUENCE.addAndGet(THREADS);
+            List<Long> parkIds = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                parkIds.add(createSpace());
+            }
+
+            List<Throwable> outcomes = race(i -> parkingService.assignParkingToOwner(
+                    userId, parkIds.get((int) i), "京O" + userId, true));
+
+            assertThat(outcomes).filteredOn(outcome -> outcome == null).as("成功分配的次数").hasSize(1);
+            assertThat(outcomes).filteredOn(outcome -> outcome != null)
+                    .allSatisfy(outcome -> assertThat(outcome).hasMessage("该业主已有车位，请先退位"));
+            assertThat(activeAssignmentsOfOwner(userId)).isEqualTo(1);
+            // 唯一索引冲突的事务回滚了车位占用，只剩获胜的那个车位被占用
+            long occupied = parkIds.stream().filter(parkId -> "1".equals(spaceStatus(parkId))).count();
+            assertThat(occupied).isEqualTo(1);
+            for (Long parkId : parkIds) {
+                assertThat(activeAssignmentsOfSpace(parkId)).isLessThanOrEqualTo(1);
+            }
+        }
+    }
+
+    /**
+     * THREADS 个线程在屏障处对齐后同时执行，返回每个线程的异常（成功为null）
+     */
+    private List<Throwable> race(LongFunction<Boolean> assign) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CyclicBarrier barrier = new CyclicBarrier(THREADS);
+            List<Future<Throwable>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                long index = t;
+                futures.add(executor.submit(() -> {
+                    barrier.await(10, TimeUnit.SECONDS);
+                    try {
+                        assertThat(assign.apply(index)).isTrue();
+                        return null;
+                    } catch (RuntimeException e) {
+                        return e;
+                    }
+                }));
+            }
+            List<Throwable> outcomes = new ArrayList<>();
+            for (Future<Throwable> future : futures) {
+                outcomes.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return outcomes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long createSpace() {
+        String parkNum = "C-" + SEQUENCE.incrementAndGet();
+        jdbcTemplate.update("INSERT INTO parking_space (park_num, park_type, park_status) VALUES (?, '0', '0')", parkNum);
+        return jdbcTemplate.queryForObject("SELECT park_id FROM parking_space WHERE park_num = ?", Long.class, parkNum);
+    }
+
+    private String spaceStatus(long parkId) {
+        return jdbcTemplate.queryForObject("SELECT park_status FROM parking_space WHERE park_id = ?", String.class, parkId);
+    }
+
+    private int activeAssignmentsOfSpace(long parkId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM owner_parking WHERE park_id = ? AND payment_status = '1'", Integer.class, parkId);
+    }
+
+    private int activeAssignmentsOfOwner(long userId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM owner_parking WHERE user_id = ? AND payment_status = '1'", Integer.class, userId);
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    static class TestConfig {
+
+        @Bean
+        DataSource dataSource() {
+            JdbcDataSource dataSource = new JdbcDataSource();
+            dataSource.setURL("jdbc:h2:mem:parking_claim_test;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                    + "CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+            DatabasePopulatorUtils.execute(new ResourceDatabasePopulator(new ClassPathResource("schema-parking.sql")), dataSource);
+            return dataSource;
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(DataSource dataSource) {
+            return new DataSourceTransactionManager(dataSource);
+        }
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        SqlSessionFactory sqlSessionFactory(DataSource dataSource) throws Exception {
+            SqlSessionFactoryBean factoryBean = new SqlSessionFactoryBean();
+            factoryBean.setDataSource(dataSource);
+            factoryBean.setMapperLocations(new PathMatchingResourcePatternResolver().getResources("classpath:mapper/*.xml"));
+            org.apache.ibatis.session.Configuration configuration = new org.apache.ibatis.session.Configuration();
+            configuration.setMapUnderscoreToCamelCase(true);
+            factoryBean.setConfiguration(configuration);
+            return factoryBean.getObject();
+        }
+
+        @Bean
+        SqlSessionTemplate sqlSessionTemplate(SqlSessionFactory sqlSessionFactory) {
+            return new SqlSessionTemplate(sqlSessionFactory);
+        }
+
+        @Bean
+        ParkingSpaceMapper parkingSpaceMapper(SqlSessionTemplate sqlSessionTemplate) {
+            return sqlSessionTemplate.getMapper(ParkingSpaceMapper.class);
+        }
+
+        @Bean
+        OwnerParkingMapper ownerParkingMapper(SqlSessionTemplate sqlSessionTemplate) {
+            return sqlSessionTemplate.getMapper(OwnerParkingMapper.class);
+        }
+
+        @Bean
+        ParkingService parkingService() {
+            return new ParkingService();
+        }
+    }
+}
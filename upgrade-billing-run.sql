@@ -0,0 +1,31 @@
+-- ========================================
+-- 月度批量出账升级脚本（费用服务数据库）
+-- 1. fee_park 增加 (user_id, park_id, pay_park_month) 唯一索引，账单写入冲突时跳过，保证同一车位每月只出一张账单
+-- 2. 新建 billing_run 表，记录每个账单月份的出账进度和断点
+-- ========================================
+
+USE parking_fee_db;
+
+-- 执行前先检查是否存在重复账单，有结果时需人工处理后再加唯一索引：
+-- SELECT user_id, park_id, pay_park_month, COUNT(*) FROM fee_park
+-- GROUP BY user_id, park_id, pay_park_month HAVING COUNT(*) > 1;
+ALTER TABLE fee_park ADD UNIQUE KEY uk_fee_park_user_month (user_id, park_id, pay_park_month);
+
+CREATE TABLE IF NOT EXISTS billing_run (
+    run_id BIGINT NOT NULL AUTO_INCREMENT COMMENT '任务ID',
+    bill_month VARCHAR(7) NOT NULL COMMENT '账单月份（格式：2025-01）',
+    status CHAR(1) NOT NULL DEFAULT '0' COMMENT '任务状态（0待执行/已中断 1运行中 2已完成 3失败）',
+    total_count INT DEFAULT NULL COMMENT '有效车位分配总数',
+    last_assignment_id BIGINT NOT NULL DEFAULT 0 COMMENT '断点：已处理的最后一条车位分配ID',
+    processed_count INT NOT NULL DEFAULT 0 COMMENT '已处理的车位分配数',
+    created_count INT NOT NULL DEFAULT 0 COMMENT '新生成的账单数',
+    skipped_count INT NOT NULL DEFAULT 0 COMMENT '已存在而跳过的账单数',
+    owner_instance VARCHAR(64) DEFAULT NULL COMMENT '执行任务的实例',
+    heartbeat_time DATETIME DEFAULT NULL COMMENT '最近一次进度更新时间',
+    error_message VARCHAR(500) DEFAULT NULL COMMENT '失败原因',
+    start_time DATETIME DEFAULT NULL COMMENT '开始时间',
+    finish_time DATETIME DEFAULT NULL COMMENT '结束时间',
+    create_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    PRIMARY KEY (run_id),
+    UNIQUE KEY uk_billing_run_month (bill_month)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='月度批量出账任务';
@@ -0,0 +1,10 @@
+-- ========================================
+-- 管理端统计索引升级脚本
+-- /fee/admin/stats 的计数器按 pay_park_status = '0' 分组 GROUP BY pay_park_month 求和校准，
+-- (pay_park_status, pay_park_month, pay_park_money) 覆盖索引让校准只扫描未缴费部分的索引，不再全表扫描
+-- ========================================
+
+USE parking_fee_db;
+ALTER TABLE fee_park ADD INDEX idx_fee_park_status_month (pay_park_status, pay_park_month, pay_park_money);
+
+SELECT '管理端统计索引添加完成！' AS message;
@@ -0,0 +1,50 @@
+-- ========================================
+-- 发件箱表升级脚本
+-- 业务事件（车位分配、费用缴纳）与业务数据在同一事务中写入 event_outbox，
+-- 由 OutboxRelay（parking-common）异步投递到RabbitMQ，投递确认后标记为已投递，
+-- 失败次数达到 outbox.relay.max-attempts 后标记为投递失败（status=2），需人工处理后改回0重新投递
+-- ========================================
+
+-- 1. 停车业务数据库（ParkingAssignedEvent）
+USE parking_business_db;
+
+CREATE TABLE IF NOT EXISTS event_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    event_id VARCHAR(64) NOT NULL COMMENT '事件ID（消息ID）',
+    exchange VARCHAR(128) NOT NULL COMMENT '交换机',
+    routing_key VARCHAR(128) NOT NULL COMMENT '路由键',
+    event_type VARCHAR(255) NOT NULL COMMENT '事件类型',
+    payload TEXT NOT NULL COMMENT '消息体（JSON）',
+    status CHAR(1) NOT NULL DEFAULT '0' COMMENT '状态（0待投递 1已投递 2投递失败）',
+    attempts INT NOT NULL DEFAULT 0 COMMENT '投递失败次数',
+    last_error VARCHAR(500) DEFAULT NULL COMMENT '最近一次投递失败原因',
+    create_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    sent_time DATETIME DEFAULT NULL COMMENT '投递成功时间',
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_event_outbox_event_id (event_id),
+    KEY idx_event_outbox_status (status, id),
+    KEY idx_event_outbox_sent_time (status, sent_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='事件发件箱';
+
+-- 2. 费用服务数据库（FeePaidEvent）
+USE parking_fee_db;
+
+CREATE TABLE IF NOT EXISTS event_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    event_id VARCHAR(64) NOT NULL COMMENT '事件ID（消息ID）',
+    exchange VARCHAR(128) NOT NULL COMMENT '交换机',
+    routing_key VARCHAR(128) NOT NULL COMMENT '路由键',
+    event_type VARCHAR(255) NOT NULL COMMENT '事件类型',
+    payload TEXT NOT NULL COMMENT '消息体（JSON）',
+    status CHAR(1) NOT NULL DEFAULT '0' COMMENT '状态（0待投递 1已投递 2投递失败）',
+    attempts INT NOT NULL DEFAULT 0 COMMENT '投递失败次数',
+    last_error VARCHAR(500) DEFAULT NULL COMMENT '最近一次投递失败原因',
+    create_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    sent_time DATETIME DEFAULT NULL COMMENT '投递成功时间',
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_event_outbox_event_id (event_id),
+    KEY idx_event_outbox_status (status, id),
+    KEY idx_event_outbox_sent_time (status, sent_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='事件发件箱';
+
+SELECT '发件箱表创建完成！' AS message;
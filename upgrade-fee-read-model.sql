@@ -0,0 +1,26 @@
+-- ========================================
+-- 费用服务本地读模型升级脚本（费用服务数据库）
+-- 1. 新建 owner_projection 表，保存业主姓名和类型（来自 user-service）
+-- 2. 新建 parking_projection 表，保存业主最新车位关联和车位编号（来自 parking-service）
+-- 两张表由事件和定期全量同步维护，可随时清空，服务启动后会重新同步
+-- ========================================
+
+USE parking_fee_db;
+
+CREATE TABLE IF NOT EXISTS owner_projection (
+    user_id BIGINT NOT NULL COMMENT '业主ID',
+    username VARCHAR(50) DEFAULT NULL COMMENT '业主姓名',
+    user_type VARCHAR(20) DEFAULT NULL COMMENT '业主类型（NORMAL/VIP）',
+    synced_at DATETIME(3) NOT NULL COMMENT '最近一次写入时间（事件或全量同步）',
+    PRIMARY KEY (user_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='业主读模型';
+
+CREATE TABLE IF NOT EXISTS parking_projection (
+    user_id BIGINT NOT NULL COMMENT '业主ID',
+    owner_parking_id BIGINT NOT NULL COMMENT '最新车位关联ID（用于丢弃乱序的旧事件）',
+    park_id BIGINT NOT NULL COMMENT '车位ID',
+    park_num VARCHAR(20) DEFAULT NULL COMMENT '车位编号',
+    active TINYINT(1) NOT NULL DEFAULT 1 COMMENT '是否使用中（1使用中 0已退还）',
+    synced_at DATETIME(3) NOT NULL COMMENT '最近一次写入时间（事件或全量同步）',
+    PRIMARY KEY (user_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='业主车位读模型';
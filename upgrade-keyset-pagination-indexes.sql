@@ -0,0 +1,19 @@
+-- ========================================
+-- 游标分页索引升级脚本
+-- 游标分页按 (排序列, 主键) 定位下一页，需要对应的联合索引才能直接从索引定位，
+-- 否则每一页仍需扫描并排序整张表
+-- ========================================
+
+-- 1. 用户服务数据库：业主列表按 (create_time, user_id) 倒序
+USE parking_user_db;
+ALTER TABLE live_user ADD INDEX idx_live_user_create_time (create_time, user_id);
+
+-- 2. 停车业务数据库：车位列表按 (park_num, park_id) 正序
+USE parking_business_db;
+ALTER TABLE parking_space ADD INDEX idx_parking_space_park_num (park_num, park_id);
+
+-- 3. 费用服务数据库：停车费列表按 (pay_park_month, fee_id) 倒序
+USE parking_fee_db;
+ALTER TABLE fee_park ADD INDEX idx_fee_park_month (pay_park_month, fee_id);
+
+SELECT '游标分页索引添加完成！' AS message;
@@ -0,0 +1,11 @@
+-- ========================================
+-- 业主停车记录索引升级脚本
+-- /parking/owner/record 和 /parking/owner/my-parking 按 user_id 取最新一条记录（ORDER BY id DESC LIMIT 1）
+-- 并连接 parking_space，(user_id, id) 联合索引可以直接从该业主的索引末尾定位这一条记录，不再扫描该业主的全部记录再排序。
+-- 查询需要返回 owner_parking 的全部列，这不是覆盖索引：定位后仍按主键回表读取这一行
+-- ========================================
+
+USE parking_business_db;
+ALTER TABLE owner_parking ADD INDEX idx_owner_parking_user_id (user_id, id);
+
+SELECT '业主停车记录索引添加完成！' AS message;
@@ -0,0 +1,19 @@
+-- ========================================
+-- 停车业务数据库升级脚本：业主有效车位唯一约束
+-- Database: parking_business_db
+-- ========================================
+-- 一个业主同一时间只能有一条有效（payment_status = '1'）的车位关联。
+-- MySQL不支持部分唯一索引，这里用生成列：有效记录取user_id，已退位记录为NULL，
+-- 唯一索引允许多个NULL，因此历史退位记录不受影响。
+-- 新建库执行 init-*.sql 时会自动添加（已存在时跳过）。
+-- 执行前请先确认没有重复的有效关联：
+--   SELECT user_id, COUNT(*) FROM owner_parking WHERE payment_status = '1' GROUP BY user_id HAVING COUNT(*) > 1;
+
+USE parking_business_db;
+
+ALTER TABLE owner_parking
+    ADD COLUMN active_user_id BIGINT
+        GENERATED ALWAYS AS (IF(payment_status = '1', user_id, NULL)) STORED,
+    ADD UNIQUE KEY uk_owner_parking_active_user (active_user_id);
+
+SELECT '业主有效车位唯一约束添加完成！' AS message;
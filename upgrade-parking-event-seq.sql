@@ -0,0 +1,10 @@
+-- ========================================
+-- 车位事件序号升级脚本
+-- parking_space 增加 event_seq 列：车位分配、退还、换车牌事件在业务事务内递增并写入事件的 sequence 字段，
+-- 同一车位的事件序号与提交顺序一致，消费方据此丢弃乱序到达的旧事件
+-- ========================================
+
+USE parking_business_db;
+ALTER TABLE parking_space ADD COLUMN event_seq BIGINT NOT NULL DEFAULT 0 COMMENT '车位事件序号（分配、退还、换车牌时递增）';
+
+SELECT '车位事件序号添加完成！' AS message;
@@ -4,9 +4,11 @@ import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+@SpringBootApplication(scanBasePackages = {"com.parking.user", "com.parking.common.identity"})
 @EnableDiscoveryClient
+@EnableScheduling
 @MapperScan("com.parking.user.mapper")
 public class UserServiceApplication {
     public static void main(String[] args) {
@@ -6,6 +6,7 @@ import java.util.List;
 
 /**
  * 分页结果类
+ * 支持两种模式：页码分页（current/pages有效）和游标分页（nextCursor有效，total可选，游标编解码见 PageCursor）
  *
  * @author Parking System
  */
@@ -14,9 +15,14 @@ public class PageResult<T> {
 
     private int current;
     private int size;
-    private long total;
+    private Long total;
     private List<T> records;
-    private long pages;
+    private Long pages;
+
+    /**
+     * 下一页游标（仅游标分页模式，没有更多数据时为null）
+     */
+    private String nextCursor;
 
     public PageResult(int current, int size, long total, List<T> records) {
         this.current = current;
@@ -25,4 +31,20 @@ public class PageResult<T> {
         this.records = records;
         this.pages = (total + size - 1) / size;
     }
+
+    /**
+     * 游标分页结果
+     *
+     * @param size 每页数量
+     * @param total 总数（未统计时为null）
+     * @param records 本页数据
+     * @param nextCursor 下一页游标（没有更多数据时为null）
+     */
+    public PageResult(int size, Long total, List<T> records, String nextCursor) {
+        this.size = size;
+        this.total = total;
+        this.records = records;
+        this.pages = total == null ? null : (total + size - 1) / size;
+        this.nextCursor = nextCursor;
+    }
 }
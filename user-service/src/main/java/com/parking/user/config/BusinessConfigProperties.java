@@ -28,6 +28,8 @@ public class BusinessConfigProperties {
     @Data
     public static class Cache {
         private Integer ttl = 3600;  // 缓存过期时间（秒）
+        private Integer maxSize = 10000;  // 业主缓存最大条目数
+        private Boolean enabled = true;  // 是否启用业主缓存
     }
 
     @Data
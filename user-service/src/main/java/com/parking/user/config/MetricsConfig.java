@@ -0,0 +1,24 @@
+package com.parking.user.config;
+
+import com.parking.common.metrics.MapperMetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 监控指标配置
+ * Controller方法耗时由Spring Boot自动记录（http.server.requests），这里补充MyBatis语句的计时器
+ *
+ * @author Parking System
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * MyBatis拦截器（mybatis-spring-boot-starter自动注册容器中的Interceptor）
+     */
+    @Bean
+    public MapperMetricsInterceptor mapperMetricsInterceptor(MeterRegistry meterRegistry) {
+        return new MapperMetricsInterceptor(meterRegistry);
+    }
+}
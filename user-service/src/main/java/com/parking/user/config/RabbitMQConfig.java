@@ -0,0 +1,47 @@
+package com.parking.user.config;
+
+import org.springframework.amqp.core.ExchangeBuilder;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * RabbitMQ 配置类
+ * user-service 只发布业主变更事件，不消费消息
+ *
+ * @author Parking System
+ */
+@Configuration
+public class RabbitMQConfig {
+
+    /**
+     * 领域事件交换机（与parking-service、fee-service声明方式一致）
+     */
+    public static final String PARKING_EXCHANGE = "parking.exchange";
+
+    /**
+     * 业主变更事件路由键
+     */
+    public static final String OWNER_CHANGED_ROUTING_KEY = "owner.changed";
+
+    /**
+     * 创建主题交换机
+     */
+    @Bean
+    public TopicExchange parkingExchange() {
+        return ExchangeBuilder
+                .topicExchange(PARKING_EXCHANGE)
+                .durable(true)
+                .build();
+    }
+
+    /**
+     * JSON消息转换器（自动配置的RabbitTemplate会使用该转换器）
+     */
+    @Bean
+    public MessageConverter messageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+}
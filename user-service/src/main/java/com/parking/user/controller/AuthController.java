@@ -2,7 +2,13 @@ package com.parking.user.controller;
 
 import com.parking.user.common.Result;
 import com.parking.user.service.AuthService;
+import com.parking.user.service.LoginThrottledException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
@@ -20,6 +26,12 @@ public class AuthController {
     @Autowired
     private AuthService authService;
 
+    /**
+     * 网关前面可信代理的层数（例如 nginx 为1），用于从 X-Forwarded-For 中找出客户端IP
+     */
+    @Value("${auth.login.trusted-proxies:1}")
+    private int trustedProxies;
+
     /**
      * 管理员登录
      *
@@ -29,10 +41,14 @@ public class AuthController {
      */
     @PostMapping("/admin/login")
     public Result<Map<String, Object>> adminLogin(@RequestParam String loginName,
-                                                   @RequestParam String password) {
+                                                   @RequestParam String password,
+                                                   HttpServletRequest request,
+                                                   HttpServletResponse response) {
         try {
-            Map<String, Object> result = authService.adminLogin(loginName, password);
+            Map<String, Object> result = authService.adminLogin(loginName, password, clientIp(request));
             return Result.success("登录成功", result);
+        } catch (LoginThrottledException e) {
+            return throttled(response, e);
         } catch (Exception e) {
             e.printStackTrace();  // 打印完整异常堆栈
             return Result.error(e.getMessage() != null ? e.getMessage() : e.getClass().getName());
@@ -48,16 +64,44 @@ public class AuthController {
      */
     @PostMapping("/owner/login")
     public Result<Map<String, Object>> ownerLogin(@RequestParam String loginName,
-                                                   @RequestParam String password) {
+                                                   @RequestParam String password,
+                                                   HttpServletRequest request,
+                                                   HttpServletResponse response) {
         try {
-            Map<String, Object> result = authService.ownerLogin(loginName, password);
+            Map<String, Object> result = authService.ownerLogin(loginName, password, clientIp(request));
             return Result.success("登录成功", result);
+        } catch (LoginThrottledException e) {
+            return throttled(response, e);
         } catch (Exception e) {
             e.printStackTrace();  // 打印完整异常堆栈
             return Result.error(e.getMessage() != null ? e.getMessage() : e.getClass().getName());
         }
     }
 
+    /**
+     * 登录被限流：HTTP状态码和业务码都返回429，便于网关、客户端识别后退避重试
+     */
+    private Result<Map<String, Object>> throttled(HttpServletResponse response, LoginThrottledException e) {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", "1");
+        return Result.error(HttpStatus.TOO_MANY_REQUESTS.value(), e.getMessage());
+    }
+
+    /**
+     * 客户端IP：X-Forwarded-For 从右往左数，最后一项是网关追加的直接来源，再跳过 trustedProxies 个可信代理追加的项，
+     * 得到第一个不可信的来源（例如 浏览器 → nginx → 网关 时为 nginx 追加的浏览器地址）；
+     * 更左边的项可由客户端伪造，不使用
+     */
+    private String clientIp(HttpServletRequest request) {
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (StringUtils.hasText(forwardedFor)) {
+            String[] hops = forwardedFor.split(",");
+            int index = Math.max(0, hops.length - 1 - Math.max(0, trustedProxies));
+            return hops[index].trim();
+        }
+        return request.getRemoteAddr();
+    }
+
     /**
      * 退出登录（前端删除Token即可）
      *
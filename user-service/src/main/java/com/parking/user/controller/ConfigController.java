@@ -1,6 +1,7 @@
 package com.parking.user.controller;
 
 import com.parking.user.config.BusinessConfigProperties;
+import com.parking.user.service.OwnerService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -27,6 +28,9 @@ public class ConfigController {
     @Autowired
     private BusinessConfigProperties businessConfig;
 
+    @Autowired
+    private OwnerService ownerService;
+
     @Value("${business.feature.user-registration-enabled:true}")
     private Boolean userRegistrationEnabled;
 
@@ -55,6 +59,8 @@ public class ConfigController {
         propertiesConfig.put("userRegistrationEnabled", businessConfig.getFeature().getUserRegistrationEnabled());
         propertiesConfig.put("maxLoginAttempts", businessConfig.getFeature().getMaxLoginAttempts());
         propertiesConfig.put("cacheTtl", businessConfig.getCache().getTtl());
+        propertiesConfig.put("cacheMaxSize", businessConfig.getCache().getMaxSize());
+        propertiesConfig.put("cacheEnabled", businessConfig.getCache().getEnabled());
         propertiesConfig.put("defaultPageSize", businessConfig.getPagination().getDefaultPageSize());
         propertiesConfig.put("maxPageSize", businessConfig.getPagination().getMaxPageSize());
         result.put("configByProperties", propertiesConfig);
@@ -82,4 +88,15 @@ public class ConfigController {
 
         return result;
     }
+
+    /**
+     * 查看业主缓存统计（命中/未命中/淘汰次数）
+     */
+    @GetMapping("/owner-cache")
+    public Map<String, Object> getOwnerCacheStats() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("timestamp", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+        result.put("ownerCache", ownerService.getOwnerCacheStats());
+        return result;
+    }
 }
@@ -1,9 +1,11 @@
 package com.parking.user.controller;
 
+import com.parking.common.identity.GatewayIdentityResolver;
 import com.parking.user.common.PageResult;
 import com.parking.user.common.Result;
 import com.parking.user.entity.Owner;
 import com.parking.user.service.OwnerService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +13,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 业主管理控制器
@@ -26,16 +29,29 @@ public class OwnerController {
     @Autowired
     private OwnerService ownerService;
 
+    @Autowired
+    private GatewayIdentityResolver identityResolver;
+
     @Value("${server.port}")
     private String serverPort;
 
     /**
      * 分页查询业主列表
+     * 传入cursor参数（第一页传空字符串）时使用游标分页，withTotal控制是否统计总数
      */
     @GetMapping
     public Result<PageResult<Owner>> getOwnerPage(@RequestParam(defaultValue = "1") int pageNum,
                                                    @RequestParam(defaultValue = "10") int pageSize,
-                                                   @RequestParam(required = false) String keyword) {
+                                                   @RequestParam(required = false) String keyword,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "false") boolean withTotal) {
+        if (cursor != null) {
+            try {
+                return Result.success(ownerService.getOwnerPageByCursor(cursor, pageSize, keyword, withTotal));
+            } catch (Exception e) {
+                return Result.error(e.getMessage());
+            }
+        }
         PageResult<Owner> page = ownerService.getOwnerPage(pageNum, pageSize, keyword);
         return Result.success(page);
     }
@@ -49,12 +65,46 @@ public class OwnerController {
         return Result.success(owners);
     }
 
+    /**
+     * 【供其他服务调用】根据ID批量查询业主
+     * 用于fee-service分页列表一次性填充用户名，避免逐条调用
+     */
+    @GetMapping("/batch")
+    public Result<List<Owner>> getOwnersByIds(@RequestParam List<Long> ids) {
+        log.info("【负载均衡】Request handled by user-service instance on port: {}, batch size: {}", serverPort, ids.size());
+        List<Owner> owners = ownerService.getOwnersByIds(ids);
+        return Result.success(owners);
+    }
+
+    /**
+     * 【供其他服务调用】按 user_id 游标分批获取业主快照
+     * 用于fee-service初始化和定期校准本地业主读模型，每次返回 userId 大于 afterUserId 的下一批业主
+     */
+    @GetMapping("/snapshot")
+    public Result<List<Map<String, Object>>> getOwnerSnapshot(@RequestParam(defaultValue = "0") Long afterUserId,
+                                                              @RequestParam(defaultValue = "1000") int limit) {
+        return Result.success(ownerService.getOwnerSnapshot(afterUserId, limit));
+    }
+
+    /**
+     * 业主统计（管理端首页使用，总数和按业主类型分组的数量）
+     */
+    @GetMapping("/stats")
+    public Result<Map<String, Object>> getOwnerStats() {
+        return Result.success(ownerService.getOwnerStats());
+    }
+
     /**
      * 根据ID查询业主
      */
     @GetMapping("/{userId}")
-    public Result<Owner> getOwnerById(@PathVariable Long userId) {
+    public Result<Owner> getOwnerById(@PathVariable Long userId, HttpServletRequest request) {
         log.info("【负载均衡】Request handled by user-service instance on port: {}, userId: {}", serverPort, userId);
+        // 业主只能查看自己的信息
+        GatewayIdentityResolver.GatewayIdentity identity = identityResolver.resolve(request);
+        if (identity != null && identity.isOwner() && !identity.getUserId().equals(userId)) {
+            return Result.error(403, "无权查看其他业主信息");
+        }
         Owner owner = ownerService.getOwnerById(userId);
         if (owner == null) {
             return Result.error("业主不存在");
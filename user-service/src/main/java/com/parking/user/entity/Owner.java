@@ -51,6 +51,11 @@ public class Owner implements Serializable {
      */
     private String idCard;
 
+    /**
+     * 业主类型（NORMAL普通 VIP）
+     */
+    private String userType;
+
     /**
      * 状态（0正常 1停用）
      */
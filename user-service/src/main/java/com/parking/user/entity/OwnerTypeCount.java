@@ -0,0 +1,22 @@
+package com.parking.user.entity;
+
+import lombok.Data;
+
+/**
+ * 按业主类型分组的业主数量（业主统计校准用）
+ *
+ * @author Parking System
+ */
+@Data
+public class OwnerTypeCount {
+
+    /**
+     * 业主类型（NORMAL/VIP）
+     */
+    private String userType;
+
+    /**
+     * 业主数量
+     */
+    private Long total;
+}
@@ -0,0 +1,52 @@
+package com.parking.user.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 业主变更事件
+ * 业主新增、修改、删除后发布，fee-service据此更新本地的业主信息读模型
+ *
+ * @author Parking System
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OwnerChangedEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 事件ID
+     */
+    private String eventId;
+
+    /**
+     * 业主ID
+     */
+    private Long userId;
+
+    /**
+     * 业主姓名（DELETED时为null）
+     */
+    private String username;
+
+    /**
+     * 业主类型（DELETED时为null）
+     */
+    private String userType;
+
+    /**
+     * 变更类型（CREATED / UPDATED / DELETED）
+     */
+    private String changeType;
+
+    /**
+     * 事件发生时间
+     */
+    private Date eventTime;
+}
@@ -4,6 +4,7 @@ import com.parking.user.entity.Admin;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
 /**
  * 系统管理员Mapper接口
@@ -15,4 +16,11 @@ public interface AdminMapper {
 
     @Select("SELECT * FROM sys_user WHERE login_name = #{loginName}")
     Admin findByLoginName(@Param("loginName") String loginName);
+
+    /**
+     * 登录时按新的BCrypt cost重新哈希（密码期间被修改过则不覆盖）
+     */
+    @Update("UPDATE sys_user SET password=#{newPassword} WHERE user_id=#{userId} AND password=#{oldPassword}")
+    int rehashPassword(@Param("userId") Long userId, @Param("oldPassword") String oldPassword,
+                       @Param("newPassword") String newPassword);
 }
@@ -1,8 +1,10 @@
 package com.parking.user.mapper;
 
 import com.parking.user.entity.Owner;
+import com.parking.user.entity.OwnerTypeCount;
 import org.apache.ibatis.annotations.*;
 
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -25,8 +27,8 @@ public interface OwnerMapper {
     @Select("SELECT COUNT(*) FROM live_user WHERE login_name = #{loginName}")
     int countByLoginName(@Param("loginName") String loginName);
 
-    @Insert("INSERT INTO live_user(login_name, password, username, phone, sex, id_card, status) " +
-            "VALUES(#{loginName}, #{password}, #{username}, #{phone}, #{sex}, #{idCard}, '0')")
+    @Insert("INSERT INTO live_user(login_name, password, username, phone, sex, id_card, user_type, status) " +
+            "VALUES(#{loginName}, #{password}, #{username}, #{phone}, #{sex}, #{idCard}, #{userType}, '0')")
     @Options(useGeneratedKeys = true, keyProperty = "userId", keyColumn = "user_id")
     int insert(Owner owner);
 
@@ -37,13 +39,45 @@ public interface OwnerMapper {
     @Delete("DELETE FROM live_user WHERE user_id = #{userId}")
     int deleteById(@Param("userId") Long userId);
 
+    @Select("SELECT user_type FROM live_user WHERE user_id = #{userId}")
+    String findUserTypeById(@Param("userId") Long userId);
+
+    /**
+     * 按业主类型统计业主数量（业主统计定期校准）
+     */
+    @Select("SELECT user_type, COUNT(*) AS total FROM live_user GROUP BY user_type")
+    List<OwnerTypeCount> countByUserType();
+
     @Update("UPDATE live_user SET password=#{password} WHERE user_id=#{userId}")
     int updatePassword(@Param("userId") Long userId, @Param("password") String password);
 
+    /**
+     * 登录时按新的BCrypt cost重新哈希（密码期间被修改过则不覆盖）
+     */
+    @Update("UPDATE live_user SET password=#{newPassword} WHERE user_id=#{userId} AND password=#{oldPassword}")
+    int rehashPassword(@Param("userId") Long userId, @Param("oldPassword") String oldPassword,
+                       @Param("newPassword") String newPassword);
+
     // 分页查询方法
     List<Owner> findByPage(@Param("offset") int offset,
                            @Param("limit") int limit,
                            @Param("keyword") String keyword);
 
     int countByKeyword(@Param("keyword") String keyword);
+
+    // 游标分页：按 (create_time, user_id) 倒序定位，afterUserId为空时查询第一页
+    List<Owner> findByCursor(@Param("limit") int limit,
+                             @Param("keyword") String keyword,
+                             @Param("afterCreateTime") Date afterCreateTime,
+                             @Param("afterUserId") Long afterUserId);
+
+    // 批量查询方法（供其他服务批量填充业主信息）
+    List<Owner> findByIds(@Param("userIds") List<Long> userIds);
+
+    /**
+     * 按 user_id 游标分批查询业主快照（供fee-service初始化和定期校准本地读模型）
+     */
+    @Select("SELECT user_id, username, user_type FROM live_user WHERE user_id > #{afterUserId} " +
+            "ORDER BY user_id LIMIT #{limit}")
+    List<Owner> findSnapshotAfterId(@Param("afterUserId") Long afterUserId, @Param("limit") int limit);
 }
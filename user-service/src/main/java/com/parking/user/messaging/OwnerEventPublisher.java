@@ -0,0 +1,50 @@
+package com.parking.user.messaging;
+
+import com.parking.user.config.RabbitMQConfig;
+import com.parking.user.event.OwnerChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+
+/**
+ * 业主事件发布者
+ * 业务代码通过 ApplicationEventPublisher 发布业主变更事件，事务提交后（没有事务时立即）发送到RabbitMQ；
+ * 发送失败只记录日志，fee-service的读模型由定期全量同步兜底
+ *
+ * @author Parking System
+ */
+@Component
+public class OwnerEventPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(OwnerEventPublisher.class);
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    /**
+     * 发布业主变更事件
+     *
+     * @param event 业主变更事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void publishOwnerChangedEvent(OwnerChangedEvent event) {
+        try {
+            if (event.getEventId() == null) {
+                event.setEventId(UUID.randomUUID().toString());
+            }
+            rabbitTemplate.convertAndSend(RabbitMQConfig.PARKING_EXCHANGE,
+                    RabbitMQConfig.OWNER_CHANGED_ROUTING_KEY, event);
+            log.debug("已发布业主变更事件 - 事件ID: {}, 业主ID: {}, 类型: {}",
+                    event.getEventId(), event.getUserId(), event.getChangeType());
+        } catch (Exception e) {
+            log.error("发布业主变更事件失败 - 业主ID: {}, 类型: {}, 错误: {}",
+                    event.getUserId(), event.getChangeType(), e.getMessage());
+        }
+    }
+}
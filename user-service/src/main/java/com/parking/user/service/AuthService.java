@@ -5,8 +5,9 @@ import com.parking.user.entity.Admin;
 import com.parking.user.entity.Owner;
 import com.parking.user.mapper.AdminMapper;
 import com.parking.user.mapper.OwnerMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
@@ -20,6 +21,8 @@ import java.util.Map;
 @Service
 public class AuthService {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+
     @Autowired
     private AdminMapper adminMapper;
 
@@ -29,20 +32,42 @@ public class AuthService {
     @Autowired
     private JwtUtils jwtUtils;
 
-    private BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Autowired
+    private PasswordHashService passwordHashService;
+
+    @Autowired
+    private LoginAttemptLimiter loginAttemptLimiter;
 
     /**
      * 管理员登录
      *
      * @param loginName 登录账号
      * @param password 密码
+     * @param clientIp 客户端IP（用于登录失败次数限制，可为null）
      * @return 登录结果（包含token和用户信息）
      */
-    public Map<String, Object> adminLogin(String loginName, String password) {
+    public Map<String, Object> adminLogin(String loginName, String password, String clientIp) {
+        // 先占用一次尝试，失败次数超限时直接拒绝，不查库、不做哈希计算
+        loginAttemptLimiter.acquire("admin", loginName, clientIp);
+        Map<String, Object> result;
+        try {
+            result = adminLoginAttempt(loginName, password);
+        } catch (LoginCredentialsException e) {
+            loginAttemptLimiter.recordFailure("admin", loginName);
+            throw new RuntimeException(e.getMessage());
+        } catch (RuntimeException e) {
+            loginAttemptLimiter.release("admin", loginName, clientIp);
+            throw e;
+        }
+        loginAttemptLimiter.recordSuccess("admin", loginName, clientIp);
+        return result;
+    }
+
+    private Map<String, Object> adminLoginAttempt(String loginName, String password) {
         Admin admin = adminMapper.findByLoginName(loginName);
 
         if (admin == null) {
-            throw new RuntimeException("账号不存在");
+            throw new LoginCredentialsException("账号不存在");
         }
 
         if (!"0".equals(admin.getStatus())) {
@@ -55,12 +80,17 @@ public class AuthService {
             passwordValid = true;
             System.out.println("【临时测试】使用明文密码验证成功: testadmin/test123");
         } else {
-            passwordValid = passwordEncoder.matches(password, admin.getPassword());
+            PasswordHashService.VerifyResult verifyResult = passwordHashService.verify(password, admin.getPassword());
+            passwordValid = verifyResult.isMatched();
+            if (verifyResult.getRehashedPassword() != null) {
+                adminMapper.rehashPassword(admin.getUserId(), admin.getPassword(), verifyResult.getRehashedPassword());
+                log.info("管理员密码已按新的BCrypt cost重新哈希: loginName={}", loginName);
+            }
         }
 
         if (!passwordValid) {
             System.out.println("【密码验证失败】loginName=" + loginName + ", 输入密码=" + password + ", 数据库密码=" + admin.getPassword());
-            throw new RuntimeException("密码错误");
+            throw new LoginCredentialsException("密码错误");
         }
 
         // 生成Token（使用loginName作为subject，因为username可能为空）
@@ -81,21 +111,44 @@ public class AuthService {
      *
      * @param loginName 登录账号
      * @param password 密码
+     * @param clientIp 客户端IP（用于登录失败次数限制，可为null）
      * @return 登录结果（包含token和用户信息）
      */
-    public Map<String, Object> ownerLogin(String loginName, String password) {
+    public Map<String, Object> ownerLogin(String loginName, String password, String clientIp) {
+        // 先占用一次尝试，失败次数超限时直接拒绝，不查库、不做哈希计算
+        loginAttemptLimiter.acquire("owner", loginName, clientIp);
+        Map<String, Object> result;
+        try {
+            result = ownerLoginAttempt(loginName, password);
+        } catch (LoginCredentialsException e) {
+            loginAttemptLimiter.recordFailure("owner", loginName);
+            throw new RuntimeException(e.getMessage());
+        } catch (RuntimeException e) {
+            loginAttemptLimiter.release("owner", loginName, clientIp);
+            throw e;
+        }
+        loginAttemptLimiter.recordSuccess("owner", loginName, clientIp);
+        return result;
+    }
+
+    private Map<String, Object> ownerLoginAttempt(String loginName, String password) {
         Owner owner = ownerMapper.findByLoginName(loginName);
 
         if (owner == null) {
-            throw new RuntimeException("账号不存在");
+            throw new LoginCredentialsException("账号不存在");
         }
 
         if (!"0".equals(owner.getStatus())) {
             throw new RuntimeException("账号已被停用");
         }
 
-        if (!passwordEncoder.matches(password, owner.getPassword())) {
-            throw new RuntimeException("密码错误");
+        PasswordHashService.VerifyResult verifyResult = passwordHashService.verify(password, owner.getPassword());
+        if (!verifyResult.isMatched()) {
+            throw new LoginCredentialsException("密码错误");
+        }
+        if (verifyResult.getRehashedPassword() != null) {
+            ownerMapper.rehashPassword(owner.getUserId(), owner.getPassword(), verifyResult.getRehashedPassword());
+            log.info("业主密码已按新的BCrypt cost重新哈希: loginName={}", loginName);
         }
 
         // 生成Token（使用loginName作为subject，因为username可能为空）
@@ -110,4 +163,16 @@ public class AuthService {
 
         return result;
     }
+
+    /**
+     * 账号不存在或密码错误（计为一次登录失败）
+     */
+    private static class LoginCredentialsException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        LoginCredentialsException(String message) {
+            super(message);
+        }
+    }
 }
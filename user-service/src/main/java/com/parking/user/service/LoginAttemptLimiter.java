@@ -0,0 +1,157 @@
+package com.parking.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.parking.user.config.BusinessConfigProperties;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 登录失败次数限制
+ * 按账号（business.feature.max-login-attempts）和按来源IP（账号上限 × auth.login.ip-attempts-multiplier）分别统计登录失败次数，
+ * 每次登录在查库、校验密码之前先原子地占用一次尝试，超过上限直接拒绝（并发的多个猜测不会一起越过上限）；
+ * 失败时占用的次数保留为失败次数，成功或与密码无关的失败归还；
+ * 最后一次失败 auth.login.lock-minutes 分钟后自动解除，登录成功清空该账号的计数
+ *
+ * @author Parking System
+ */
+@Component
+public class LoginAttemptLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginAttemptLimiter.class);
+
+    @Autowired
+    private BusinessConfigProperties businessConfig;
+
+    @Value("${auth.login.lock-minutes:15}")
+    private long lockMinutes;
+
+    /**
+     * 同一IP可能是小区/物业出口（多个业主共用），上限放宽为账号上限的倍数
+     */
+    @Value("${auth.login.ip-attempts-multiplier:10}")
+    private int ipAttemptsMultiplier;
+
+    @Value("${auth.login.max-tracked-keys:100000}")
+    private long maxTrackedKeys;
+
+    /**
+     * 角色:登录账号 -> 连续失败次数
+     */
+    private Cache<String, Integer> accountFailures;
+
+    /**
+     * IP -> 失败次数
+     */
+    private Cache<String, Integer> ipFailures;
+
+    @PostConstruct
+    public void initCounters() {
+        accountFailures = newCounter();
+        ipFailures = newCounter();
+    }
+
+    private Cache<String, Integer> newCounter() {
+        return Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterWrite(Duration.ofMinutes(lockMinutes))
+                .build();
+    }
+
+    /**
+     * 占用一次登录尝试（账号和IP各计一次），在查库、校验密码之前调用
+     * 本次尝试结束后必须调用 recordFailure、recordSuccess 或 release 之一
+     *
+     * @throws LoginThrottledException 账号或IP的失败次数（含进行中的尝试）已达上限
+     */
+    public void acquire(String role, String loginName, String clientIp) {
+        int maxAttempts = maxAttempts();
+        String accountKey = accountKey(role, loginName);
+        if (!reserve(accountFailures, accountKey, maxAttempts)) {
+            throw new LoginThrottledException("登录失败次数过多，请" + lockMinutes + "分钟后重试");
+        }
+        if (clientIp != null && !reserve(ipFailures, clientIp, maxAttempts * ipAttemptsMultiplier)) {
+            giveBack(accountFailures, accountKey);
+            throw new LoginThrottledException("登录失败次数过多，请" + lockMinutes + "分钟后重试");
+        }
+    }
+
+    /**
+     * 登录失败（账号不存在、密码错误）：占用的尝试保留为失败次数
+     */
+    public void recordFailure(String role, String loginName) {
+        Integer failures = accountFailures.getIfPresent(accountKey(role, loginName));
+        if (failures != null && failures >= maxAttempts()) {
+            log.warn("账号登录失败次数达到上限，锁定{}分钟: role={}, loginName={}", lockMinutes, role, loginName);
+        }
+    }
+
+    /**
+     * 登录成功：清空账号的失败计数，归还占用的IP次数
+     * （IP的失败计数不清空，避免用一个正确账号为暴力破解其他账号"续命"）
+     */
+    public void recordSuccess(String role, String loginName, String clientIp) {
+        accountFailures.invalidate(accountKey(role, loginName));
+        if (clientIp != null) {
+            giveBack(ipFailures, clientIp);
+        }
+    }
+
+    /**
+     * 与密码无关的结束（账号停用、校验线程池繁忙等）：归还占用的尝试，不计为失败
+     */
+    public void release(String role, String loginName, String clientIp) {
+        giveBack(accountFailures, accountKey(role, loginName));
+        if (clientIp != null) {
+            giveBack(ipFailures, clientIp);
+        }
+    }
+
+    /**
+     * 计数未达上限时原子加一
+     *
+     * @return 是否占用成功
+     */
+    private static boolean reserve(Cache<String, Integer> counter, String key, int limit) {
+        Integer current = counter.getIfPresent(key);
+        if (current != null && current >= limit) {
+            // 已达上限时直接拒绝，不写入计数（写入会顺延过期时间）
+            return false;
+        }
+        boolean[] reserved = {false};
+        counter.asMap().compute(key, (k, count) -> {
+            int value = count != null ? count : 0;
+            if (value >= limit) {
+                return count;
+            }
+            reserved[0] = true;
+            return value + 1;
+        });
+        return reserved[0];
+    }
+
+    /**
+     * 归还一次占用（减到0时移除）
+     */
+    private static void giveBack(Cache<String, Integer> counter, String key) {
+        counter.asMap().computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * 取自Nacos配置，刷新后即时生效
+     */
+    private int maxAttempts() {
+        Integer maxAttempts = businessConfig.getFeature().getMaxLoginAttempts();
+        return maxAttempts != null && maxAttempts > 0 ? maxAttempts : Integer.MAX_VALUE / ipAttemptsMultiplier;
+    }
+
+    private static String accountKey(String role, String loginName) {
+        return role + ":" + loginName;
+    }
+}
@@ -0,0 +1,15 @@
+package com.parking.user.service;
+
+/**
+ * 登录被限流（尝试次数超限、密码哈希线程池已满），接口返回429
+ *
+ * @author Parking System
+ */
+public class LoginThrottledException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public LoginThrottledException(String message) {
+        super(message);
+    }
+}
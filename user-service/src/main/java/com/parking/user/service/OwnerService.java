@@ -1,14 +1,35 @@
 package com.parking.user.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.parking.common.page.PageCursor;
 import com.parking.user.common.PageResult;
+import com.parking.user.config.BusinessConfigProperties;
 import com.parking.user.entity.Owner;
+import com.parking.user.event.OwnerChangedEvent;
 import com.parking.user.mapper.OwnerMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 业主服务
@@ -18,10 +39,74 @@ import java.util.List;
 @Service
 public class OwnerService {
 
+    private static final Logger log = LoggerFactory.getLogger(OwnerService.class);
+
+    /**
+     * 业主快照单批最大数量
+     */
+    private static final int MAX_SNAPSHOT_BATCH_SIZE = 1000;
+
+    /**
+     * 新增业主的类型（普通业主）
+     */
+    private static final String DEFAULT_USER_TYPE = "NORMAL";
+
     @Autowired
     private OwnerMapper ownerMapper;
 
-    private BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Autowired
+    private BusinessConfigProperties businessConfig;
+
+    @Autowired
+    private PasswordHashService passwordHashService;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Autowired
+    private OwnerStatsCounter ownerStatsCounter;
+
+    /**
+     * 业主信息本地缓存（userId -> Owner）
+     * parking-service / fee-service 的每次分配、缴费、列表查询都会通过Feign查询业主，
+     * 容量和过期时间取自 business.cache.*，Nacos刷新后即时生效
+     */
+    private Cache<Long, Owner> ownerCache;
+
+    /**
+     * 清除次数，查库期间业主被修改或删除时丢弃查询结果，避免把旧数据写回缓存
+     */
+    private final AtomicLong ownerEvictions = new AtomicLong();
+
+    @PostConstruct
+    public void initOwnerCache() {
+        BusinessConfigProperties.Cache config = businessConfig.getCache();
+        this.ownerCache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(config.getTtl()))
+                .recordStats()
+                .build();
+        log.info("业主缓存初始化: maxSize={}, ttl={}s, enabled={}",
+                config.getMaxSize(), config.getTtl(), config.getEnabled());
+    }
+
+    /**
+     * Nacos配置刷新后，按最新的 business.cache.* 调整缓存容量和过期时间
+     */
+    @EventListener(RefreshScopeRefreshedEvent.class)
+    public void onConfigRefreshed() {
+        BusinessConfigProperties.Cache config = businessConfig.getCache();
+        ownerCache.policy().eviction()
+                .ifPresent(eviction -> eviction.setMaximum(config.getMaxSize()));
+        ownerCache.policy().expireAfterWrite()
+                .ifPresent(expiration -> expiration.setExpiresAfter(Duration.ofSeconds(config.getTtl())));
+        if (!Boolean.TRUE.equals(config.getEnabled())) {
+            ownerEvictions.incrementAndGet();
+            ownerCache.invalidateAll();
+        }
+        log.info("业主缓存配置已刷新: maxSize={}, ttl={}s, enabled={}",
+                config.getMaxSize(), config.getTtl(), config.getEnabled());
+    }
 
     /**
      * 分页查询业主列表
@@ -38,6 +123,43 @@ public class OwnerService {
         return new PageResult<>(pageNum, pageSize, total, records);
     }
 
+    /**
+     * 游标分页查询业主列表（按创建时间倒序，翻页代价与页数无关）
+     *
+     * @param cursor 上一页返回的游标（为空时查询第一页）
+     * @param pageSize 每页数量
+     * @param keyword 搜索关键词（姓名或手机号）
+     * @param withTotal 是否统计总数
+     * @return 业主分页数据
+     */
+    public PageResult<Owner> getOwnerPageByCursor(String cursor, int pageSize, String keyword, boolean withTotal) {
+        Date afterCreateTime = null;
+        Long afterUserId = null;
+        if (StringUtils.hasText(cursor)) {
+            String[] keys = PageCursor.decode(cursor, 2);
+            try {
+                // 创建时间为空的业主排在最后，游标中创建时间为空字符串
+                afterCreateTime = keys[0].isEmpty() ? null : new Date(Long.parseLong(keys[0]));
+                afterUserId = Long.valueOf(keys[1]);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("无效的分页游标");
+            }
+        }
+
+        // 多取一条判断是否还有下一页
+        List<Owner> records = ownerMapper.findByCursor(pageSize + 1, keyword, afterCreateTime, afterUserId);
+        String nextCursor = null;
+        if (records.size() > pageSize) {
+            records = new ArrayList<>(records.subList(0, pageSize));
+            Owner last = records.get(pageSize - 1);
+            nextCursor = PageCursor.encode(last.getCreateTime() != null ? last.getCreateTime().getTime() : null,
+                    last.getUserId());
+        }
+
+        Long total = withTotal ? (long) ownerMapper.countByKeyword(keyword) : null;
+        return new PageResult<>(pageSize, total, records, nextCursor);
+    }
+
     /**
      * 查询所有业主
      *
@@ -54,7 +176,70 @@ public class OwnerService {
      * @return 业主信息
      */
     public Owner getOwnerById(Long userId) {
-        return ownerMapper.findById(userId);
+        if (userId == null || !isCacheEnabled()) {
+            return ownerMapper.findById(userId);
+        }
+        // 不用 Cache.get(key, loader)，查库不占用缓存的桶锁；不存在的业主不会被缓存
+        Owner owner = ownerCache.getIfPresent(userId);
+        if (owner == null) {
+            long version = ownerEvictions.get();
+            owner = ownerMapper.findById(userId);
+            if (owner != null) {
+                ownerCache.put(userId, owner);
+                // 查询到写入之间有清除时，写入的可能是修改前的旧数据，移除后由下一次查询重新加载
+                if (ownerEvictions.get() != version) {
+                    ownerCache.invalidate(userId);
+                }
+            }
+        }
+        return owner;
+    }
+
+    /**
+     * 根据ID批量查询业主
+     *
+     * @param userIds 业主ID列表
+     * @return 业主列表（不存在的ID不返回）
+     */
+    public List<Owner> getOwnersByIds(List<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (!isCacheEnabled()) {
+            return ownerMapper.findByIds(userIds);
+        }
+        // 只对未命中的ID查库，不存在的业主不会被缓存
+        long version = ownerEvictions.get();
+        Map<Long, Owner> owners = ownerCache.getAll(userIds, missingIds -> {
+            List<Owner> loaded = ownerMapper.findByIds(new ArrayList<>(missingIds));
+            return loaded.stream().collect(Collectors.toMap(Owner::getUserId, Function.identity()));
+        });
+        // 与 getOwnerById 相同：加载期间有清除时移除本次涉及的业主，由下一次查询重新加载
+        if (ownerEvictions.get() != version) {
+            ownerCache.invalidateAll(userIds);
+        }
+        return new ArrayList<>(owners.values());
+    }
+
+    /**
+     * 按 user_id 游标分批查询业主快照（fee-service读模型初始化和定期校准使用）
+     *
+     * @param afterUserId 上一批最后一个业主ID（首批传0）
+     * @param limit 每批数量（最多1000）
+     * @return 业主快照列表（userId、username、userType），按userId升序
+     */
+    public List<Map<String, Object>> getOwnerSnapshot(Long afterUserId, int limit) {
+        int batchSize = Math.max(1, Math.min(limit, MAX_SNAPSHOT_BATCH_SIZE));
+        List<Owner> owners = ownerMapper.findSnapshotAfterId(afterUserId == null ? 0L : afterUserId, batchSize);
+        List<Map<String, Object>> snapshot = new ArrayList<>(owners.size());
+        for (Owner owner : owners) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("userId", owner.getUserId());
+            item.put("username", owner.getUsername());
+            item.put("userType", owner.getUserType());
+            snapshot.add(item);
+        }
+        return snapshot;
     }
 
     /**
@@ -72,13 +257,21 @@ public class OwnerService {
 
         // 加密密码
         if (StringUtils.hasText(owner.getPassword())) {
-            owner.setPassword(passwordEncoder.encode(owner.getPassword()));
+            owner.setPassword(passwordHashService.encode(owner.getPassword()));
         } else {
             // 默认密码：admin123
-            owner.setPassword(passwordEncoder.encode("admin123"));
+            owner.setPassword(passwordHashService.encode("admin123"));
         }
 
-        return ownerMapper.insert(owner) > 0;
+        // 新增业主均为普通业主（与 live_user.user_type 默认值一致），计数直接使用该类型，不再回查
+        owner.setUserType(DEFAULT_USER_TYPE);
+
+        boolean success = ownerMapper.insert(owner) > 0;
+        if (success) {
+            ownerStatsCounter.added(owner.getUserType());
+            notifyOwnerChanged(owner.getUserId(), "CREATED");
+        }
+        return success;
     }
 
     /**
@@ -88,7 +281,12 @@ public class OwnerService {
      * @return 是否成功
      */
     public boolean updateOwner(Owner owner) {
-        return ownerMapper.update(owner) > 0;
+        boolean success = ownerMapper.update(owner) > 0;
+        evictOwner(owner.getUserId());
+        if (success) {
+            notifyOwnerChanged(owner.getUserId(), "UPDATED");
+        }
+        return success;
     }
 
     /**
@@ -98,7 +296,14 @@ public class OwnerService {
      * @return 是否成功
      */
     public boolean deleteOwner(Long userId) {
-        return ownerMapper.deleteById(userId) > 0;
+        String userType = ownerMapper.findUserTypeById(userId);
+        boolean success = ownerMapper.deleteById(userId) > 0;
+        evictOwner(userId);
+        if (success) {
+            ownerStatsCounter.removed(userType);
+            notifyOwnerChanged(userId, "DELETED");
+        }
+        return success;
     }
 
     /**
@@ -109,7 +314,72 @@ public class OwnerService {
      * @return 是否成功
      */
     public boolean changePassword(Long userId, String newPassword) {
-        String encodedPassword = passwordEncoder.encode(newPassword);
-        return ownerMapper.updatePassword(userId, encodedPassword) > 0;
+        String encodedPassword = passwordHashService.encode(newPassword);
+        boolean success = ownerMapper.updatePassword(userId, encodedPassword) > 0;
+        evictOwner(userId);
+        return success;
+    }
+
+    /**
+     * 业主统计（总数、按业主类型分组的数量，从计数器读取）
+     *
+     * @return 统计信息
+     */
+    public Map<String, Object> getOwnerStats() {
+        return ownerStatsCounter.getStats();
+    }
+
+    /**
+     * 获取业主缓存统计（命中/未命中/淘汰）
+     *
+     * @return 缓存统计信息
+     */
+    public Map<String, Object> getOwnerCacheStats() {
+        CacheStats stats = ownerCache.stats();
+        Map<String, Object> result = new HashMap<>();
+        result.put("enabled", isCacheEnabled());
+        result.put("size", ownerCache.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("loadFailureCount", stats.loadFailureCount());
+        result.put("averageLoadPenaltyMs", stats.averageLoadPenalty() / 1_000_000);
+        return result;
+    }
+
+    /**
+     * 业主信息变更后清除缓存
+     *
+     * @param userId 业主ID
+     */
+    private void evictOwner(Long userId) {
+        if (userId != null) {
+            ownerEvictions.incrementAndGet();
+            ownerCache.invalidate(userId);
+        }
+    }
+
+    /**
+     * 发布业主变更事件（新增、修改时重新读取业主，事件携带数据库中的完整姓名和类型）
+     *
+     * @param userId 业主ID
+     * @param changeType 变更类型
+     */
+    private void notifyOwnerChanged(Long userId, String changeType) {
+        OwnerChangedEvent event = new OwnerChangedEvent(null, userId, null, null, changeType, new Date());
+        if (!"DELETED".equals(changeType)) {
+            Owner owner = ownerMapper.findById(userId);
+            if (owner == null) {
+                return;
+            }
+            event.setUsername(owner.getUsername());
+            event.setUserType(owner.getUserType());
+        }
+        applicationEventPublisher.publishEvent(event);
+    }
+
+    private boolean isCacheEnabled() {
+        return Boolean.TRUE.equals(businessConfig.getCache().getEnabled());
     }
 }
@@ -0,0 +1,144 @@
+package com.parking.user.service;
+
+import com.parking.user.entity.OwnerTypeCount;
+import com.parking.user.mapper.OwnerMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 业主统计计数器（每个实例一份）
+ * 按业主类型维护业主数量，管理端首页直接读取计数器，不再分页查询业主列表计数。
+ * 本实例新增、删除业主在事务提交后增减计数（回滚时不计数），其他实例的变更和计数偏差由定期校准修正
+ * （每隔 user.stats.reconcile-interval-ms 按数据库 GROUP BY 结果整体替换）
+ *
+ * @author Parking System
+ */
+@Component
+public class OwnerStatsCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(OwnerStatsCounter.class);
+
+    private static final String UNKNOWN_TYPE = "UNKNOWN";
+
+    @Autowired
+    private OwnerMapper ownerMapper;
+
+    /**
+     * 业主类型 -> 业主数量
+     */
+    private final Map<String, AtomicLong> byUserType = new ConcurrentHashMap<>();
+
+    /**
+     * 计数器是否已从数据库初始化，未初始化时查询先校准一次
+     */
+    private volatile boolean ready = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcile();
+    }
+
+    @Scheduled(initialDelayString = "${user.stats.reconcile-interval-ms:60000}",
+            fixedDelayString = "${user.stats.reconcile-interval-ms:60000}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    /**
+     * 按数据库统计结果校准计数器
+     */
+    public void reconcile() {
+        Map<String, Long> counts = new HashMap<>();
+        try {
+            for (OwnerTypeCount count : ownerMapper.countByUserType()) {
+                counts.merge(typeKey(count.getUserType()), count.getTotal(), Long::sum);
+            }
+        } catch (Exception e) {
+            log.error("校准业主统计失败: {}", e.getMessage(), e);
+            return;
+        }
+        byUserType.keySet().removeIf(type -> !counts.containsKey(type));
+        counts.forEach((type, total) -> byUserType.computeIfAbsent(type, k -> new AtomicLong()).set(total));
+        ready = true;
+        log.debug("业主统计已校准: {}", counts);
+    }
+
+    /**
+     * 事务提交后计入新增的业主
+     *
+     * @param userType 业主类型
+     */
+    public void added(String userType) {
+        afterCommit(() -> byUserType.computeIfAbsent(typeKey(userType), k -> new AtomicLong()).incrementAndGet());
+    }
+
+    /**
+     * 事务提交后移除删除的业主
+     *
+     * @param userType 业主类型
+     */
+    public void removed(String userType) {
+        afterCommit(() -> {
+            AtomicLong count = byUserType.get(typeKey(userType));
+            if (count != null) {
+                count.updateAndGet(value -> Math.max(0, value - 1));
+            }
+        });
+    }
+
+    /**
+     * 业主统计：总数和按业主类型分组的数量
+     *
+     * @return 统计信息
+     */
+    public Map<String, Object> getStats() {
+        if (!ready) {
+            reconcile();
+        }
+        Map<String, Long> types = new TreeMap<>();
+        long total = 0;
+        for (Map.Entry<String, AtomicLong> entry : byUserType.entrySet()) {
+            long count = entry.getValue().get();
+            types.put(entry.getKey(), count);
+            total += count;
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("total", total);
+        stats.put("byUserType", types);
+        return stats;
+    }
+
+    /**
+     * 在当前事务提交后执行，事务回滚时计数保持不变；没有事务时立即执行
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private String typeKey(String userType) {
+        return userType != null ? userType : UNKNOWN_TYPE;
+    }
+}
@@ -0,0 +1,163 @@
+package com.parking.user.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 密码哈希服务
+ * BCrypt校验（cost=10时约100ms CPU）放在独立的有界线程池中执行，请求线程只等待结果：
+ * 线程数和队列都有上限，登录高峰时多出的请求直接拒绝（429），不会占满Tomcat线程、拖垮健康检查等其他接口
+ *
+ * @author Parking System
+ */
+@Service
+public class PasswordHashService {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashService.class);
+
+    /**
+     * BCrypt哈希格式：$2a$10$...（版本 + cost）
+     */
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d{2})\\$");
+
+    /**
+     * 线程数，0表示CPU核数（哈希是纯CPU计算，线程数超过核数只会增加排队）
+     */
+    @Value("${auth.password.pool-size:0}")
+    private int poolSize;
+
+    @Value("${auth.password.queue-capacity:64}")
+    private int queueCapacity;
+
+    /**
+     * 请求线程等待校验结果的最长时间（包括排队时间）
+     */
+    @Value("${auth.password.timeout-ms:3000}")
+    private long timeoutMs;
+
+    /**
+     * BCrypt cost，调整后已有密码在下次登录成功时自动按新cost重新哈希
+     */
+    @Value("${auth.password.bcrypt-strength:10}")
+    private int strength;
+
+    private BCryptPasswordEncoder passwordEncoder;
+
+    private ThreadPoolExecutor hashExecutor;
+
+    @PostConstruct
+    public void initHashExecutor() {
+        passwordEncoder = new BCryptPasswordEncoder(strength);
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        // 虚拟线程模式下也使用平台线程：哈希不会阻塞让出，线程数本身就是CPU上限
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = r -> {
+            Thread thread = new Thread(r, "password-hash-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        hashExecutor = new ThreadPoolExecutor(threads, threads,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy());
+        hashExecutor.allowCoreThreadTimeOut(true);
+        log.info("密码哈希线程池初始化: threads={}, queueCapacity={}, bcryptStrength={}",
+                threads, queueCapacity, strength);
+    }
+
+    @PreDestroy
+    public void shutdownHashExecutor() {
+        hashExecutor.shutdownNow();
+    }
+
+    /**
+     * 在哈希线程池中校验密码
+     *
+     * @param rawPassword 明文密码
+     * @param encodedPassword 数据库中的哈希
+     * @return 校验结果；密码正确且哈希的cost与当前配置不一致时附带按当前cost重新生成的哈希
+     * @throws LoginThrottledException 线程池已满或等待超时
+     */
+    public VerifyResult verify(String rawPassword, String encodedPassword) {
+        Future<VerifyResult> future;
+        try {
+            future = hashExecutor.submit(() -> {
+                if (!passwordEncoder.matches(rawPassword, encodedPassword)) {
+                    return new VerifyResult(false, null);
+                }
+                String rehashed = needsRehash(encodedPassword) ? passwordEncoder.encode(rawPassword) : null;
+                return new VerifyResult(true, rehashed);
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("密码哈希线程池已满，拒绝登录请求");
+            throw new LoginThrottledException("登录请求过多，请稍后重试");
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("密码校验等待超时: {}ms", timeoutMs);
+            throw new LoginThrottledException("登录请求过多，请稍后重试");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("登录被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * 按当前cost生成哈希（注册、修改密码，调用方线程执行）
+     */
+    public String encode(String rawPassword) {
+        return passwordEncoder.encode(rawPassword);
+    }
+
+    /**
+     * 哈希的cost与当前配置不一致（调高或调低都会在登录时重新哈希）
+     */
+    private boolean needsRehash(String encodedPassword) {
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    /**
+     * 密码校验结果
+     */
+    @Data
+    @AllArgsConstructor
+    public static class VerifyResult {
+
+        /**
+         * 密码是否正确
+         */
+        private boolean matched;
+
+        /**
+         * 需要写回数据库的新哈希，不需要时为null
+         */
+        private String rehashedPassword;
+    }
+}
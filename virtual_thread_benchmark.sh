@@ -0,0 +1,114 @@
+#!/bin/bash
+# 虚拟线程 / 平台线程对比压测脚本
+# 依赖 wrk（https://github.com/wg/wrk），直接压各服务端口，不经过网关（避免网关成为瓶颈）
+#
+# 用法：
+#   1. 平台线程模式启动：VIRTUAL_THREADS_ENABLED=false docker compose up -d --build
+#      ./virtual_thread_benchmark.sh platform
+#   2. 虚拟线程模式启动：VIRTUAL_THREADS_ENABLED=true docker compose up -d --build
+#      ./virtual_thread_benchmark.sh virtual
+#   3. 对比结果：./virtual_thread_benchmark.sh compare
+
+# 颜色输出
+GREEN='\033[0;32m'
+RED='\033[0;31m'
+YELLOW='\033[1;33m'
+BLUE='\033[0;34m'
+NC='\033[0m' # No Color
+
+# 配置（可通过环境变量覆盖）
+CONNECTIONS="${CONNECTIONS:-200 1000 5000}"
+DURATION="${DURATION:-30s}"
+WARMUP="${WARMUP:-10s}"
+THREADS="${THREADS:-8}"
+RESULT_DIR="${RESULT_DIR:-benchmark-results}"
+
+# 压测接口：名称|URL
+# fee-list：分页列表，每页一次 user-service + 一次 parking-service 的Feign批量调用（远程等待为主）
+# owner：单个业主查询（MyBatis + 业主缓存）
+# parkings：车位分页列表（MyBatis查库）
+ENDPOINTS=(
+    "fee-list|http://localhost:8083/fee/admin/list?pageNum=1&pageSize=10"
+    "owner|http://localhost:8081/user/owners/1"
+    "parkings|http://localhost:8082/parking/admin/parkings?pageNum=1&pageSize=10"
+)
+
+run_benchmark() {
+    local mode=$1
+    if ! command -v wrk > /dev/null; then
+        echo -e "${RED}未找到 wrk，请先安装${NC}"
+        exit 1
+    fi
+    # 5000个连接需要足够的文件描述符
+    ulimit -n 65535 2> /dev/null || echo -e "${YELLOW}提示：无法调大文件描述符上限，高并发时可能出现 socket errors${NC}"
+
+    mkdir -p "$RESULT_DIR/$mode"
+    echo -e "${BLUE}========================================${NC}"
+    echo -e "${BLUE}  压测模式: $mode${NC}"
+    echo -e "${BLUE}========================================${NC}"
+
+    for endpoint in "${ENDPOINTS[@]}"; do
+        local name="${endpoint%%|*}"
+        local url="${endpoint#*|}"
+
+        echo -e "${YELLOW}[$name] 预热 $WARMUP${NC}"
+        wrk -t"$THREADS" -c200 -d"$WARMUP" "$url" > /dev/null
+
+        for conns in $CONNECTIONS; do
+            local threads=$THREADS
+            if [ "$conns" -lt "$threads" ]; then
+                threads=$conns
+            fi
+            echo -e "${GREEN}[$name] 并发连接 $conns，持续 $DURATION${NC}"
+            wrk -t"$threads" -c"$conns" -d"$DURATION" --timeout 10s --latency "$url" \
+                | tee "$RESULT_DIR/$mode/$name-$conns.txt"
+            echo ""
+        done
+    done
+    echo -e "${GREEN}结果已保存到 $RESULT_DIR/$mode/${NC}"
+}
+
+# 从wrk输出中提取指标
+extract() {
+    local file=$1
+    local rps p50 p99 errors
+    rps=$(grep "Requests/sec" "$file" | awk '{print $2}')
+    p50=$(grep -E "^ +50%" "$file" | awk '{print $2}')
+    p99=$(grep -E "^ +99%" "$file" | awk '{print $2}')
+    errors=$(grep -E "Non-2xx|Socket errors" "$file" | tr -s ' ' | tr '\n' ';')
+    echo "${rps:--}|${p50:--}|${p99:--}|${errors:-0}"
+}
+
+compare() {
+    if [ ! -d "$RESULT_DIR/platform" ] || [ ! -d "$RESULT_DIR/virtual" ]; then
+        echo -e "${RED}请先分别运行 platform 和 virtual 两种模式的压测${NC}"
+        exit 1
+    fi
+    printf "%-10s %-6s | %-12s %-10s %-10s | %-12s %-10s %-10s\n" \
+        "接口" "连接数" "平台QPS" "平台P50" "平台P99" "虚拟QPS" "虚拟P50" "虚拟P99"
+    for endpoint in "${ENDPOINTS[@]}"; do
+        local name="${endpoint%%|*}"
+        for conns in $CONNECTIONS; do
+            IFS='|' read -r p_rps p_p50 p_p99 p_err <<< "$(extract "$RESULT_DIR/platform/$name-$conns.txt")"
+            IFS='|' read -r v_rps v_p50 v_p99 v_err <<< "$(extract "$RESULT_DIR/virtual/$name-$conns.txt")"
+            printf "%-10s %-6s | %-12s %-10s %-10s | %-12s %-10s %-10s\n" \
+                "$name" "$conns" "$p_rps" "$p_p50" "$p_p99" "$v_rps" "$v_p50" "$v_p99"
+            if [ "$p_err" != "0" ] || [ "$v_err" != "0" ]; then
+                echo "           错误 - 平台: $p_err 虚拟: $v_err"
+            fi
+        done
+    done
+}
+
+case "$1" in
+    platform|virtual)
+        run_benchmark "$1"
+        ;;
+    compare)
+        compare
+        ;;
+    *)
+        echo "用法: $0 {platform|virtual|compare}"
+        exit 1
+        ;;
+esac